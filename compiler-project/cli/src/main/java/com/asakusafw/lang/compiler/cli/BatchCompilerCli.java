@@ -124,6 +124,10 @@ import com.asakusafw.lang.compiler.packaging.ResourceUtil;
  * <dd>default: <em>(empty)</em></dd>
  *
  *
+ * <dt><code>--classIndexCache &lt;/path/to/cache&gt;</code> <em>(optional)</em></dt>
+ * <dd>cache directory of class indices of the explored library files</dd>
+ * <dd>default: <em>(disabled)</em></dd>
+ *
  * <dt><code>--runtimeWorkingDirectory &lt;path/to/working&gt;</code> <em>(optional)</em></dt>
  * <dd>custom runtime working directory path</dd>
  * <dd>default: {@link #DEFAULT_RUNTIME_WORKING_DIRECTORY}</dd>
@@ -148,7 +152,7 @@ import com.asakusafw.lang.compiler.packaging.ResourceUtil;
  * </dl>
  * <!-- CHECKSTYLE:ON JavadocStyle -->
  * @since 0.1.0
- * @version 0.3.0
+ * @version 0.5.4
  */
 public final class BatchCompilerCli {
 
@@ -232,6 +236,7 @@ public final class BatchCompilerCli {
         results.explore.addAll(parseFiles(cmd, opts.explore, true));
         results.embed.addAll(parseFiles(cmd, opts.embed, true));
         results.attach.addAll(parseFiles(cmd, opts.attach, true));
+        results.classIndexCache.set(parseFile(cmd, opts.classIndexCache, false));
         results.dataModelProcessors.addAll(parseClasses(cmd, opts.dataModelProcessors));
         results.externalPortProcessors.addAll(parseClasses(cmd, opts.externalPortProcessors));
         results.batchProcessors.addAll(parseClasses(cmd, opts.batchProcessors));
@@ -423,6 +428,9 @@ public final class BatchCompilerCli {
         for (File file : configuration.external) {
             builder.external(file);
         }
+        if (configuration.classIndexCache.isEmpty() == false) {
+            builder.withClassIndexCache(configuration.classIndexCache.get());
+        }
         try (URLClassLoader loader = builder.buildClassLoader()) {
             Set<File> marked = ResourceUtil.findLibrariesByResource(loader, JobflowPackager.FRAGMENT_MARKER);
             for (File file : marked) {
@@ -479,10 +487,13 @@ public final class BatchCompilerCli {
             LOG.debug("  analyzer: {}", analyzer.getClass().getName()); //$NON-NLS-1$
             LOG.debug("  compiler: {}", compiler.getClass().getName()); //$NON-NLS-1$
         }
+        ClassAnalyzer.Context analyzerContext = new ClassAnalyzer.Context(root.getRoot());
         Predicate<? super Class<?>> predicate = loadPredicate(root.getRoot(), configuration, analyzer);
         Map<Class<?>, DiagnosticException> errors = new LinkedHashMap<>();
         Map<String, ClassDescription> sawBatch = new HashMap<>();
-        for (Class<?> aClass : root.getRoot().getProject().getProjectClasses(predicate)) {
+        for (Class<?> aClass : root.getRoot().getProject().getProjectClasses(
+                entry -> analyzer.isBatchClassCandidate(analyzerContext, entry),
+                predicate)) {
             if (LOG.isInfoEnabled()) {
                 LOG.info(MessageFormat.format(
                         "compiling batch class: {0}",
@@ -639,6 +650,10 @@ public final class BatchCompilerCli {
                 .withDescription("custom compiler participant classes")
                 .withArgumentDescription(ARG_CLASSES);
 
+        final Option classIndexCache = optional("classIndexCache", 1) //$NON-NLS-1$
+                .withDescription("cache directory of class indices")
+                .withArgumentDescription("/path/to/cache"); //$NON-NLS-1$
+
         final Option runtimeWorkingDirectory = optional("runtimeWorkingDirectory", 1) //$NON-NLS-1$
                 .withDescription("custom runtime working directory path")
                 .withArgumentDescription("path/to/working"); //$NON-NLS-1$
@@ -709,6 +724,8 @@ public final class BatchCompilerCli {
 
         final ListHolder<File> attach = new ListHolder<>();
 
+        final ValueHolder<File> classIndexCache = new ValueHolder<>();
+
         final ListHolder<ClassDescription> dataModelProcessors = new ListHolder<>();
 
         final ListHolder<ClassDescription> externalPortProcessors = new ListHolder<>();
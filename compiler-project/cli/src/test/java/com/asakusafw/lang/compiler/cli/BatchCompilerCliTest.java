@@ -97,6 +97,7 @@ public class BatchCompilerCliTest {
         assertThat(conf.external, isEmpty());
         assertThat(conf.embed, isEmpty());
         assertThat(conf.attach, isEmpty());
+        assertThat(conf.classIndexCache, isEmpty());
         assertThat(conf.sourcePredicate, isEmpty());
         assertThat(conf.runtimeWorkingDirectory, contains(BatchCompilerCli.DEFAULT_RUNTIME_WORKING_DIRECTORY));
         assertThat(conf.properties.entrySet(), is(empty()));
@@ -118,6 +119,7 @@ public class BatchCompilerCliTest {
         File embed2 = deployer.newFolder();
         File attach1 = deployer.newFolder();
         File attach2 = deployer.newFolder();
+        File cache = deployer.newFolder();
         Configuration conf = BatchCompilerCli.parse(strings(new Object[] {
                 "--explore", input,
                 "--output", output,
@@ -126,6 +128,7 @@ public class BatchCompilerCliTest {
                 "--external", files(external1, external2),
                 "--embed", files(embed1, embed2),
                 "--attach", files(attach1, attach2),
+                "--classIndexCache", cache,
                 "--include", "*Buffer",
                 "--exclude", "java.lang.*",
                 "--dataModelProcessors", classes(DummyDataModelProcessor.class),
@@ -146,6 +149,7 @@ public class BatchCompilerCliTest {
         assertThat(conf.external, containsInAnyOrder(external1, external2));
         assertThat(conf.embed, containsInAnyOrder(embed1, embed2));
         assertThat(conf.attach, containsInAnyOrder(attach1, attach2));
+        assertThat(conf.classIndexCache, contains(cache));
         assertThat(conf.dataModelProcessors, containsInAnyOrder(classOf(DummyDataModelProcessor.class)));
         assertThat(conf.externalPortProcessors, containsInAnyOrder(classOf(DummyExternalPortProcessor.class)));
         assertThat(conf.batchProcessors, containsInAnyOrder(classOf(DummyBatchProcessor.class)));
@@ -22,6 +22,8 @@ import com.asakusafw.lang.compiler.model.graph.OperatorGraph;
 
 /**
  * Analyzes Asakusa DSL classes.
+ * @since 0.1.0
+ * @version 0.5.4
  */
 public interface ClassAnalyzer {
 
@@ -33,6 +35,18 @@ public interface ClassAnalyzer {
      */
     boolean isBatchClass(Context context, Class<?> aClass);
 
+    /**
+     * Returns whether the target class may represent a batch or not, only from its class file header.
+     * This must return {@code true} if {@link #isBatchClass(Context, Class)} can accept the target class.
+     * @param context the current context
+     * @param entry the class file header of the target class
+     * @return {@code true} if the target class may represent a batch, otherwise {@code false}
+     * @since 0.5.4
+     */
+    default boolean isBatchClassCandidate(Context context, ClassIndex.Entry entry) {
+        return true;
+    }
+
     /**
      * Returns whether the target class represents a jobflow or not.
      * @param context the current context
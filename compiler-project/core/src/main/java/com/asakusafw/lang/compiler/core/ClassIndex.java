@@ -0,0 +1,385 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.lang.compiler.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.asakusafw.lang.compiler.common.Location;
+import com.asakusafw.lang.compiler.packaging.ResourceRepository;
+
+/**
+ * An index of the class files in a {@link ResourceRepository}.
+ * This only reads the class file headers, so that it does not load nor initialize the indexed classes.
+ * @since 0.5.4
+ */
+public final class ClassIndex {
+
+    static final Logger LOG = LoggerFactory.getLogger(ClassIndex.class);
+
+    static final String EXTENSION_CLASS = ".class"; //$NON-NLS-1$
+
+    static final String EXTENSION_INDEX = ".index"; //$NON-NLS-1$
+
+    private static final int MAGIC = 0x41434958; // ACIX
+
+    private static final int VERSION = 1;
+
+    private static final String DIGEST_ALGORITHM = "SHA-256"; //$NON-NLS-1$
+
+    private final List<Entry> entries;
+
+    /**
+     * Creates a new instance.
+     * @param entries the index entries
+     */
+    public ClassIndex(List<? extends Entry> entries) {
+        this.entries = Collections.unmodifiableList(new ArrayList<>(entries));
+    }
+
+    /**
+     * Returns the index entries.
+     * @return the index entries
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Builds an index of class files in the given repository.
+     * @param repository the source repository
+     * @return the built index
+     * @throws IOException if failed to read the repository contents
+     */
+    public static ClassIndex scan(ResourceRepository repository) throws IOException {
+        List<Entry> results = new ArrayList<>();
+        try (ResourceRepository.Cursor cursor = repository.createCursor()) {
+            while (cursor.next()) {
+                Location location = cursor.getLocation();
+                String name = getClassName(location);
+                if (name == null) {
+                    continue;
+                }
+                try (InputStream input = cursor.openResource()) {
+                    results.add(analyze(name, input));
+                }
+            }
+        }
+        return new ClassIndex(results);
+    }
+
+    /**
+     * Returns the index of class files in the given archive file.
+     * If the cache directory is available, this reuses the index which was built from the same archive contents.
+     * @param cacheDirectory the cache directory (nullable)
+     * @param archive the archive file
+     * @param repository the repository of the archive contents
+     * @return the index
+     * @throws IOException if failed to read the archive contents
+     */
+    public static ClassIndex scan(File cacheDirectory, File archive, ResourceRepository repository) throws IOException {
+        if (cacheDirectory == null) {
+            return scan(repository);
+        }
+        File cache = new File(cacheDirectory, digest(archive) + EXTENSION_INDEX);
+        if (cache.isFile()) {
+            try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(cache)))) {
+                ClassIndex cached = read(input);
+                LOG.debug("reusing class index: {} ({})", archive, cache); //$NON-NLS-1$
+                return cached;
+            } catch (IOException e) {
+                LOG.warn(MessageFormat.format(
+                        "failed to read class index, rebuilding it: {0}",
+                        cache), e);
+            }
+        }
+        ClassIndex built = scan(repository);
+        try {
+            store(built, cache);
+        } catch (IOException e) {
+            LOG.warn(MessageFormat.format(
+                    "failed to store class index: {0}",
+                    cache), e);
+        }
+        return built;
+    }
+
+    private static String getClassName(Location location) {
+        if (location.getName().endsWith(EXTENSION_CLASS) == false) {
+            return null;
+        }
+        String name = location.toPath('.');
+        return name.substring(0, name.length() - EXTENSION_CLASS.length());
+    }
+
+    private static Entry analyze(String name, InputStream input) throws IOException {
+        ClassReader reader;
+        try {
+            reader = new ClassReader(input);
+        } catch (RuntimeException e) {
+            // may be an unsupported class file version
+            LOG.debug("failed to analyze class file: {}", name, e); //$NON-NLS-1$
+            return new Entry(name);
+        }
+        Collector collector = new Collector();
+        reader.accept(collector, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        if (collector.name == null || collector.name.equals(name) == false) {
+            LOG.debug("inconsistent class file: {} ({})", name, collector.name); //$NON-NLS-1$
+            return new Entry(name);
+        }
+        return new Entry(collector.name, collector.access, collector.superName, collector.annotationNames);
+    }
+
+    private static String digest(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream input = new DigestInputStream(new FileInputStream(file), digest)) {
+            byte[] buf = new byte[8192];
+            while (input.read(buf) >= 0) {
+                continue;
+            }
+        }
+        StringBuilder results = new StringBuilder();
+        for (byte b : digest.digest()) {
+            results.append(String.format("%02x", b & 0xff)); //$NON-NLS-1$
+        }
+        return results.toString();
+    }
+
+    private static void store(ClassIndex index, File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent.mkdirs() == false && parent.isDirectory() == false) {
+            throw new IOException(MessageFormat.format(
+                    "failed to create directory: {0}",
+                    parent));
+        }
+        File temporary = File.createTempFile(file.getName(), ".tmp", parent); //$NON-NLS-1$
+        try {
+            try (DataOutputStream output = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(temporary)))) {
+                write(index, output);
+            }
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary.toPath());
+        }
+    }
+
+    static void write(ClassIndex index, DataOutputStream output) throws IOException {
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeInt(index.entries.size());
+        for (Entry entry : index.entries) {
+            output.writeUTF(entry.name);
+            output.writeBoolean(entry.analyzed);
+            if (entry.analyzed) {
+                output.writeInt(entry.access);
+                output.writeUTF(entry.superName == null ? "" : entry.superName); //$NON-NLS-1$
+                output.writeInt(entry.annotationNames.size());
+                for (String annotation : entry.annotationNames) {
+                    output.writeUTF(annotation);
+                }
+            }
+        }
+    }
+
+    static ClassIndex read(DataInputStream input) throws IOException {
+        if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+            throw new IOException("unsupported class index format");
+        }
+        int count = input.readInt();
+        List<Entry> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = input.readUTF();
+            if (input.readBoolean() == false) {
+                results.add(new Entry(name));
+                continue;
+            }
+            int access = input.readInt();
+            String superName = input.readUTF();
+            int annotations = input.readInt();
+            Set<String> annotationNames = new LinkedHashSet<>();
+            for (int j = 0; j < annotations; j++) {
+                annotationNames.add(input.readUTF());
+            }
+            results.add(new Entry(name, access, superName.isEmpty() ? null : superName, annotationNames));
+        }
+        return new ClassIndex(results);
+    }
+
+    /**
+     * An entry of {@link ClassIndex}.
+     * @since 0.5.4
+     */
+    public static final class Entry {
+
+        final String name;
+
+        final boolean analyzed;
+
+        final int access;
+
+        final String superName;
+
+        final Set<String> annotationNames;
+
+        Entry(String name) {
+            this.name = name;
+            this.analyzed = false;
+            this.access = 0;
+            this.superName = null;
+            this.annotationNames = Collections.emptySet();
+        }
+
+        Entry(String name, int access, String superName, Set<String> annotationNames) {
+            this.name = name;
+            this.analyzed = true;
+            this.access = access;
+            this.superName = superName;
+            this.annotationNames = Collections.unmodifiableSet(new LinkedHashSet<>(annotationNames));
+        }
+
+        /**
+         * Returns the binary name of the class.
+         * @return the class name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns whether or not the class file header was analyzed.
+         * If this is {@code false}, the other properties are not available, and the class should be
+         * inspected after it is loaded.
+         * @return {@code true} if the class file header was analyzed, otherwise {@code false}
+         */
+        public boolean isAnalyzed() {
+            return analyzed;
+        }
+
+        /**
+         * Returns the access flags of the class.
+         * @return the access flags, or {@code 0} if this is not analyzed
+         * @see Opcodes#ACC_PUBLIC
+         */
+        public int getAccess() {
+            return access;
+        }
+
+        /**
+         * Returns the binary name of the super class.
+         * @return the super class name, or {@code null} if it is not defined or this is not analyzed
+         */
+        public String getSuperName() {
+            return superName;
+        }
+
+        /**
+         * Returns the binary names of the annotation types which are directly declared in the class.
+         * @return the annotation type names, or an empty set if this is not analyzed
+         */
+        public Set<String> getAnnotationNames() {
+            return annotationNames;
+        }
+
+        /**
+         * Returns whether or not this may be a concrete class (neither an interface, annotation, nor abstract class).
+         * @return {@code true} if this may be a concrete class, otherwise {@code false}
+         */
+        public boolean isConcreteClass() {
+            return analyzed == false
+                    || (access & (Opcodes.ACC_INTERFACE | Opcodes.ACC_ANNOTATION | Opcodes.ACC_ABSTRACT)) == 0;
+        }
+
+        /**
+         * Returns whether or not the class may be annotated with the given annotation type.
+         * @param annotationName the binary name of the annotation type
+         * @return {@code true} if the class may be annotated, otherwise {@code false}
+         */
+        public boolean mayBeAnnotatedWith(String annotationName) {
+            return analyzed == false || annotationNames.contains(annotationName);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ClassIndex.Entry(%s)", name); //$NON-NLS-1$
+        }
+    }
+
+    private static final class Collector extends ClassVisitor {
+
+        String name;
+
+        int access;
+
+        String superName;
+
+        final Set<String> annotationNames = new LinkedHashSet<>();
+
+        Collector() {
+            super(Opcodes.ASM5);
+        }
+
+        @Override
+        public void visit(
+                int version, int acc, String internalName,
+                String signature, String superInternalName, String[] interfaces) {
+            this.name = toBinaryName(internalName);
+            this.access = acc;
+            this.superName = superInternalName == null ? null : toBinaryName(superInternalName);
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+            annotationNames.add(Type.getType(desc).getClassName());
+            return null;
+        }
+
+        private static String toBinaryName(String internalName) {
+            return internalName.replace('/', '.');
+        }
+    }
+}
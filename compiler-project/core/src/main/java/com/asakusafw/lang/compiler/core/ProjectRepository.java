@@ -28,8 +28,10 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.jar.JarOutputStream;
@@ -49,6 +51,8 @@ import com.asakusafw.lang.compiler.packaging.ZipSink;
 
 /**
  * Provides project information.
+ * @since 0.1.0
+ * @version 0.5.4
  */
 public class ProjectRepository implements Closeable {
 
@@ -68,6 +72,10 @@ public class ProjectRepository implements Closeable {
 
     private final List<File> temporaryLibraries;
 
+    private final Map<ResourceRepository, File> projectArchives;
+
+    private final File classIndexCache;
+
     /**
      * Creates a new instance.
      * Clients use {@link #builder(ClassLoader)} instead of directly use this constructor.
@@ -83,11 +91,38 @@ public class ProjectRepository implements Closeable {
             Collection<? extends ResourceRepository> embeddedContents,
             Collection<? extends ResourceRepository> attachedLibraries,
             Collection<File> temporaryLibraries) {
+        this(classLoader,
+                projectContents, embeddedContents, attachedLibraries, temporaryLibraries,
+                Collections.emptyMap(), null);
+    }
+
+    /**
+     * Creates a new instance.
+     * Clients use {@link #builder(ClassLoader)} instead of directly use this constructor.
+     * @param classLoader the project class loader
+     * @param projectContents repositories which provide project contents
+     * @param embeddedContents repositories which provide embedded contents for each jobflow package
+     * @param attachedLibraries a repository which provides attached library files
+     * @param temporaryLibraries temporary library files which must be delete on dispose this object
+     * @param projectArchives the archive files of the individual project contents
+     * @param classIndexCache the cache directory of {@link ClassIndex} for the project archives (nullable)
+     * @since 0.5.4
+     */
+    public ProjectRepository(
+            ClassLoader classLoader,
+            Collection<? extends ResourceRepository> projectContents,
+            Collection<? extends ResourceRepository> embeddedContents,
+            Collection<? extends ResourceRepository> attachedLibraries,
+            Collection<File> temporaryLibraries,
+            Map<? extends ResourceRepository, File> projectArchives,
+            File classIndexCache) {
         this.classLoader = classLoader;
         this.projectContents = Collections.unmodifiableList(new ArrayList<>(projectContents));
         this.embeddedContents = Collections.unmodifiableList(new ArrayList<>(embeddedContents));
         this.attachedLibraries = Collections.unmodifiableList(new ArrayList<>(attachedLibraries));
         this.temporaryLibraries = new ArrayList<>(temporaryLibraries);
+        this.projectArchives = new LinkedHashMap<>(projectArchives);
+        this.classIndexCache = classIndexCache;
     }
 
     /**
@@ -157,6 +192,48 @@ public class ProjectRepository implements Closeable {
         return results;
     }
 
+    /**
+     * Returns the project classes.
+     * This only loads classes whose {@link ClassIndex.Entry class file header} is accepted by the {@code filter},
+     * and then tests them by the {@code predicate}.
+     * @param filter the class file header acceptor, which should accept entries which are not
+     *     {@link ClassIndex.Entry#isAnalyzed() analyzed}
+     * @param predicate the class acceptor
+     * @return loaded classes
+     * @throws IOException if failed to obtain classes
+     * @since 0.5.4
+     */
+    public Set<Class<?>> getProjectClasses(
+            Predicate<? super ClassIndex.Entry> filter,
+            Predicate<? super Class<?>> predicate) throws IOException {
+        Set<Class<?>> results = new HashSet<>();
+        for (ResourceRepository repository : projectContents) {
+            ClassIndex index = getClassIndex(repository);
+            for (ClassIndex.Entry entry : index.getEntries()) {
+                if (filter.test(entry) == false) {
+                    continue;
+                }
+                Class<?> aClass = loadClass(entry.getName());
+                if (aClass == null || results.contains(aClass)) {
+                    continue;
+                }
+                if (predicate.test(aClass) == false) {
+                    continue;
+                }
+                results.add(aClass);
+            }
+        }
+        return results;
+    }
+
+    private ClassIndex getClassIndex(ResourceRepository repository) throws IOException {
+        File archive = projectArchives.get(repository);
+        if (archive == null) {
+            return ClassIndex.scan(repository);
+        }
+        return ClassIndex.scan(classIndexCache, archive, repository);
+    }
+
     private Class<?> loadClassFile(Location location) {
         if (location.getName().endsWith(EXTENSION_CLASS) == false) {
             return null;
@@ -164,7 +241,10 @@ public class ProjectRepository implements Closeable {
         String name = location.toPath('.');
         assert name.length() >= EXTENSION_CLASS.length();
         name = name.substring(0, name.length() - EXTENSION_CLASS.length());
+        return loadClass(name);
+    }
 
+    private Class<?> loadClass(String name) {
         try {
             LOG.trace("loading project class: {}", name); //$NON-NLS-1$
             return getClassLoader().loadClass(name);
@@ -217,6 +297,8 @@ public class ProjectRepository implements Closeable {
 
         private final Set<ResourceRepository> embeddedItems = new LinkedHashSet<>();
 
+        private File classIndexCache;
+
         /**
          * Creates a new instance.
          * @param baseClassLoader the base class loader
@@ -290,6 +372,17 @@ public class ProjectRepository implements Closeable {
             return this;
         }
 
+        /**
+         * Sets the cache directory of {@link ClassIndex} for the explored archive files.
+         * @param directory the cache directory, or {@code null} to disable caching
+         * @return this
+         * @since 0.5.4
+         */
+        public Builder withClassIndexCache(File directory) {
+            this.classIndexCache = directory;
+            return this;
+        }
+
         private void checkFile(File file) {
             if (file.exists() == false) {
                 throw new IllegalArgumentException(MessageFormat.format(
@@ -324,7 +417,8 @@ public class ProjectRepository implements Closeable {
          * @throws IOException if failed to load libraries
          */
         public ProjectRepository build() throws IOException {
-            Set<ResourceRepository> project = buildRepositories(projectContents);
+            Map<ResourceRepository, File> archives = new LinkedHashMap<>();
+            Set<ResourceRepository> project = buildRepositories(projectContents, archives);
             Set<ResourceRepository> embedded = buildRepositories(embeddedContents);
             embedded.addAll(embeddedItems);
             List<ResourceItem> attachedItems = new ArrayList<>();
@@ -349,7 +443,9 @@ public class ProjectRepository implements Closeable {
                         project,
                         embedded,
                         Collections.singleton(new ResourceItemRepository(attachedItems, false)),
-                        temporary);
+                        temporary,
+                        archives,
+                        classIndexCache);
             } finally {
                 if (success == false) {
                     delete(temporary);
@@ -358,6 +454,11 @@ public class ProjectRepository implements Closeable {
         }
 
         private Set<ResourceRepository> buildRepositories(Set<File> files) throws IOException {
+            return buildRepositories(files, new LinkedHashMap<>());
+        }
+
+        private Set<ResourceRepository> buildRepositories(
+                Set<File> files, Map<ResourceRepository, File> archives) throws IOException {
             Set<ResourceRepository> results = new LinkedHashSet<>();
             for (File file : files) {
                 if (file.exists() == false) {
@@ -365,6 +466,9 @@ public class ProjectRepository implements Closeable {
                 }
                 ResourceRepository repo = ResourceUtil.toRepository(file);
                 results.add(repo);
+                if (file.isFile()) {
+                    archives.put(repo, file);
+                }
             }
             return results;
         }
@@ -18,8 +18,16 @@ package com.asakusafw.lang.compiler.core.basic;
 import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,11 +54,26 @@ import com.asakusafw.utils.graph.Graphs;
 
 /**
  * A basic implementation of {@link BatchCompiler}.
+ * @since 0.1.0
+ * @version 0.5.4
  */
 public class BasicBatchCompiler implements BatchCompiler {
 
     static final Logger LOG = LoggerFactory.getLogger(BasicBatchCompiler.class);
 
+    /**
+     * The compiler option key of the max number of jobflows which are compiled concurrently.
+     * All tools and participants must be thread-safe if this is greater than {@code 1}.
+     * @since 0.5.4
+     */
+    public static final String KEY_PARALLELISM = "jobflow.parallelism"; //$NON-NLS-1$
+
+    /**
+     * The default value of {@link #KEY_PARALLELISM}.
+     * @since 0.5.4
+     */
+    public static final int DEFAULT_PARALLELISM = 1;
+
     private final JobflowCompiler jobflowCompiler;
 
     private final JobflowPackager jobflowPackager = new JobflowPackager();
@@ -74,12 +97,13 @@ public class BasicBatchCompiler implements BatchCompiler {
     public void compile(Context context, Batch batch) {
         LOG.debug("start batch compiler: {}={}", batch.getBatchId(), batch.getDescriptionClass()); //$NON-NLS-1$
         before(context, batch);
+        List<BatchElement> elements = sort(batch.getElements());
+        Map<BatchElement, TaskReferenceMap> tasks = compileJobflows(context, elements);
         JobflowContainer container = new JobflowContainer();
-        for (BatchElement element : sort(batch.getElements())) {
-            TaskReferenceMap tasks = compileJobflow(context, element);
+        for (BatchElement element : elements) {
             container.add(new BasicJobflowReference(
                     element.getJobflow(),
-                    tasks,
+                    tasks.get(element),
                     getBlockerJobflows(container, element)));
         }
         BatchReference reference = new BasicBatchReference(batch, container);
@@ -99,6 +123,75 @@ public class BasicBatchCompiler implements BatchCompiler {
         return sorted;
     }
 
+    private Map<BatchElement, TaskReferenceMap> compileJobflows(Context context, List<BatchElement> elements) {
+        // each jobflow compilation is independent: the blockers are only required for building references
+        int parallelism = Math.min(getParallelism(context), elements.size());
+        Map<BatchElement, TaskReferenceMap> results = new HashMap<>();
+        if (parallelism <= 1) {
+            for (BatchElement element : elements) {
+                results.put(element, compileJobflow(context, element));
+            }
+            return results;
+        }
+        LOG.debug("compiling {} jobflows with {} threads", elements.size(), parallelism); //$NON-NLS-1$
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, new CompilerThreadFactory());
+        try {
+            List<Future<TaskReferenceMap>> futures = new ArrayList<>();
+            for (BatchElement element : elements) {
+                futures.add(executor.submit(() -> compileJobflow(context, element)));
+            }
+            // waits for all jobflows, and then reports their errors in the original order
+            List<Diagnostic> diagnostics = new ArrayList<>();
+            RuntimeException failure = null;
+            for (int i = 0, n = elements.size(); i < n; i++) {
+                try {
+                    results.put(elements.get(i), futures.get(i).get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof DiagnosticException) {
+                        diagnostics.addAll(((DiagnosticException) cause).getDiagnostics());
+                    } else if (cause instanceof Error) {
+                        throw (Error) cause;
+                    } else if (failure == null) {
+                        failure = cause instanceof RuntimeException
+                                ? (RuntimeException) cause
+                                : new IllegalStateException(cause);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            if (diagnostics.isEmpty() == false) {
+                throw new DiagnosticException(diagnostics);
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DiagnosticException(Diagnostic.Level.ERROR, MessageFormat.format(
+                    "interrupted while compiling jobflows: batch={0}",
+                    elements.get(0).getOwner().getDescriptionClass().getClassName()), e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static int getParallelism(Context context) {
+        String value = context.getOptions().get(KEY_PARALLELISM, String.valueOf(DEFAULT_PARALLELISM)).trim();
+        try {
+            int parallelism = Integer.parseInt(value);
+            if (parallelism >= 1) {
+                return parallelism;
+            }
+        } catch (NumberFormatException e) {
+            LOG.trace("invalid number format: {}", value, e); //$NON-NLS-1$
+        }
+        throw new DiagnosticException(Diagnostic.Level.ERROR, MessageFormat.format(
+                "compiler option \"{0}\" must be a positive integer: {1}",
+                KEY_PARALLELISM,
+                value));
+    }
+
     private TaskReferenceMap compileJobflow(Context context, BatchElement element) {
         try (FileContainerCleaner cleaner = new FileContainerCleaner(createJobflowOutput(context, element))) {
             FileContainer jobflowOutput = cleaner.getContainer();
@@ -161,6 +254,22 @@ public class BasicBatchCompiler implements BatchCompiler {
         }
     }
 
+    private static final class CompilerThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        private final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r);
+            thread.setName(String.format("jobflow-compiler-%d", counter.incrementAndGet())); //$NON-NLS-1$
+            thread.setDaemon(true);
+            thread.setContextClassLoader(classLoader);
+            return thread;
+        }
+    }
+
     private static void before(Context context, Batch batch) {
         CompilerParticipant participant = context.getTools().getParticipant();
         participant.beforeBatch(context, batch);
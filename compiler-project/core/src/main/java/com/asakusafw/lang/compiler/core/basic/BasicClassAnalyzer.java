@@ -28,6 +28,7 @@ import com.asakusafw.lang.compiler.common.Diagnostic;
 import com.asakusafw.lang.compiler.common.DiagnosticException;
 import com.asakusafw.lang.compiler.core.AnalyzerContext;
 import com.asakusafw.lang.compiler.core.ClassAnalyzer;
+import com.asakusafw.lang.compiler.core.ClassIndex;
 import com.asakusafw.lang.compiler.core.adapter.ExternalPortAnalyzerAdapter;
 import com.asakusafw.lang.compiler.model.graph.Batch;
 import com.asakusafw.lang.compiler.model.graph.Jobflow;
@@ -36,6 +37,8 @@ import com.asakusafw.vocabulary.flow.graph.FlowGraph;
 
 /**
  * Analyzes Asakusa DSL elements.
+ * @since 0.1.0
+ * @version 0.5.4
  */
 public class BasicClassAnalyzer implements ClassAnalyzer {
 
@@ -44,6 +47,11 @@ public class BasicClassAnalyzer implements ClassAnalyzer {
         return BatchAdapter.isBatch(aClass);
     }
 
+    @Override
+    public boolean isBatchClassCandidate(Context context, ClassIndex.Entry entry) {
+        return entry.mayBeAnnotatedWith(com.asakusafw.vocabulary.batch.Batch.class.getName());
+    }
+
     @Override
     public boolean isJobflowClass(Context context, Class<?> aClass) {
         return JobflowAdapter.isJobflow(aClass);
@@ -30,6 +30,7 @@ import org.slf4j.LoggerFactory;
 import com.asakusafw.lang.compiler.common.Diagnostic;
 import com.asakusafw.lang.compiler.common.DiagnosticException;
 import com.asakusafw.lang.compiler.core.ClassAnalyzer;
+import com.asakusafw.lang.compiler.core.ClassIndex;
 import com.asakusafw.lang.compiler.model.graph.Batch;
 import com.asakusafw.lang.compiler.model.graph.Jobflow;
 import com.asakusafw.lang.compiler.model.graph.OperatorGraph;
@@ -39,6 +40,7 @@ import com.asakusafw.lang.compiler.model.graph.OperatorGraph;
  * This loads element {@link ClassAnalyzer}s via SPI
  * (on {@code META-INF/services/com.asakusafw.lang.compiler.core.ClassAnalyzer}).
  * @since 0.3.0
+ * @version 0.5.4
  */
 public class CompositeClassAnalyzer implements ClassAnalyzer {
 
@@ -80,6 +82,16 @@ public class CompositeClassAnalyzer implements ClassAnalyzer {
         return false;
     }
 
+    @Override
+    public boolean isBatchClassCandidate(Context context, ClassIndex.Entry entry) {
+        for (ClassAnalyzer element : getElements(context)) {
+            if (element.isBatchClassCandidate(context, entry)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public boolean isJobflowClass(Context context, Class<?> aClass) {
         for (ClassAnalyzer element : getElements(context)) {
@@ -93,6 +93,74 @@ public class ProjectRepositoryTest {
         }
     }
 
+    /**
+     * explore w/ class file filter.
+     * @throws Exception if failed
+     */
+    @Test
+    public void explore_filter() throws Exception {
+        try (ProjectRepository repo = ProjectRepository.builder(getClass().getClassLoader())
+                .explore(deployer.copy("example.jar", "example.jar"))
+                .build()) {
+            List<String> filtered = new ArrayList<>();
+            Set<Class<?>> classes = repo.getProjectClasses(
+                    entry -> {
+                        assertThat(entry.isAnalyzed(), is(true));
+                        assertThat(entry.getSuperName(), is(Object.class.getName()));
+                        filtered.add(entry.getName());
+                        return entry.getName().indexOf('$') < 0;
+                    },
+                    ANY);
+            assertThat(names(classes), containsInAnyOrder("com.example.Hello"));
+            assertThat(filtered, containsInAnyOrder("com.example.Hello", "com.example.Hello$World"));
+        }
+    }
+
+    /**
+     * explore directory w/ class file filter.
+     * @throws Exception if failed
+     */
+    @Test
+    public void explore_filter_dir() throws Exception {
+        try (ProjectRepository repo = ProjectRepository.builder(getClass().getClassLoader())
+                .explore(deployer.extract("example.jar", "example"))
+                .build()) {
+            Set<Class<?>> classes = repo.getProjectClasses(entry -> entry.getName().endsWith("$World"), ANY);
+            assertThat(names(classes), containsInAnyOrder("com.example.Hello$World"));
+        }
+    }
+
+    /**
+     * explore w/ class index cache.
+     * @throws Exception if failed
+     */
+    @Test
+    public void explore_filter_cache() throws Exception {
+        File cache = deployer.newFolder();
+        File library = deployer.copy("example.jar", "example.jar");
+        try (ProjectRepository repo = ProjectRepository.builder(getClass().getClassLoader())
+                .explore(library)
+                .withClassIndexCache(cache)
+                .build()) {
+            Set<Class<?>> classes = repo.getProjectClasses(entry -> entry.getName().indexOf('$') < 0, ANY);
+            assertThat(names(classes), containsInAnyOrder("com.example.Hello"));
+        }
+        File[] cached = cache.listFiles();
+        assertThat(cached, is(notNullValue()));
+        assertThat(cached.length, is(1));
+        long lastModified = cached[0].lastModified();
+
+        try (ProjectRepository repo = ProjectRepository.builder(getClass().getClassLoader())
+                .explore(library)
+                .withClassIndexCache(cache)
+                .build()) {
+            Set<Class<?>> classes = repo.getProjectClasses(entry -> entry.getName().indexOf('$') >= 0, ANY);
+            assertThat(names(classes), containsInAnyOrder("com.example.Hello$World"));
+        }
+        assertThat(cache.listFiles().length, is(1));
+        assertThat(cached[0].lastModified(), is(lastModified));
+    }
+
     /**
      * embed.
      * @throws Exception if failed
@@ -18,10 +18,14 @@ package com.asakusafw.lang.compiler.core.basic;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Test;
 
 import com.asakusafw.lang.compiler.api.reference.BatchReference;
 import com.asakusafw.lang.compiler.api.reference.JobflowReference;
+import com.asakusafw.lang.compiler.common.DiagnosticException;
 import com.asakusafw.lang.compiler.core.BatchCompiler;
 import com.asakusafw.lang.compiler.core.CompilerTestRoot;
 import com.asakusafw.lang.compiler.core.dummy.SimpleBatchProcessor;
@@ -102,6 +106,66 @@ public class BasicBatchCompilerTest extends CompilerTestRoot {
         assertThat(rj3.getBlockers(), containsInAnyOrder(rj1, rj2));
     }
 
+    /**
+     * compiles jobflows concurrently.
+     */
+    @Test
+    public void parallel() {
+        batchProcessors.add(new SimpleBatchProcessor());
+        jobflowProcessors.add(new SimpleJobflowProcessor());
+        compilerParticipants.add(new BatchReferenceCollector());
+        options.withProperty(BasicBatchCompiler.KEY_PARALLELISM, "4");
+
+        Batch batch = new Batch(batchInfo("testing"));
+        BatchElement bj0 = batch.addElement(jobflow("j0"));
+        List<BatchElement> bjs = new ArrayList<>();
+        for (int i = 1; i <= 8; i++) {
+            BatchElement bj = batch.addElement(jobflow("j" + i));
+            bj.addBlockerElement(bj0);
+            bjs.add(bj);
+        }
+        BatchElement bj9 = batch.addElement(jobflow("j9"));
+        bjs.forEach(bj9::addBlockerElement);
+
+        FileContainer output = container();
+        BatchCompiler.Context context = new BatchCompiler.Context(context(true), output);
+        new BasicBatchCompiler().compile(context, batch);
+
+        assertThat(SimpleBatchProcessor.contains(context), is(true));
+        for (int i = 0; i <= 9; i++) {
+            assertThat(SimpleJobflowProcessor.contains(context, "j" + i), is(true));
+        }
+
+        BatchReference result = BatchReferenceCollector.get(context);
+        JobflowReference rj0 = result.find("j0");
+        JobflowReference rj9 = result.find("j9");
+        assertThat(rj0.getBlockers(), is(empty()));
+        List<JobflowReference> rjs = new ArrayList<>();
+        for (int i = 1; i <= 8; i++) {
+            JobflowReference rj = result.find("j" + i);
+            assertThat(rj.getBlockers(), containsInAnyOrder(rj0));
+            rjs.add(rj);
+        }
+        assertThat(rj9.getBlockers(), containsInAnyOrder(rjs.toArray(new JobflowReference[rjs.size()])));
+    }
+
+    /**
+     * w/ invalid parallelism.
+     */
+    @Test(expected = DiagnosticException.class)
+    public void parallel_invalid() {
+        batchProcessors.add(new SimpleBatchProcessor());
+        jobflowProcessors.add(new SimpleJobflowProcessor());
+        options.withProperty(BasicBatchCompiler.KEY_PARALLELISM, "0");
+
+        Batch batch = new Batch(batchInfo("testing"));
+        batch.addElement(jobflow("j0"));
+
+        FileContainer output = container();
+        BatchCompiler.Context context = new BatchCompiler.Context(context(true), output);
+        new BasicBatchCompiler().compile(context, batch);
+    }
+
     /**
      * w/ compiler participants.
      */
@@ -21,9 +21,11 @@ import java.io.DataInput;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.Label;
@@ -41,6 +43,7 @@ import com.asakusafw.lang.compiler.model.description.ClassDescription;
 import com.asakusafw.lang.compiler.model.description.Descriptions;
 import com.asakusafw.lang.compiler.model.description.TypeDescription;
 import com.asakusafw.lang.compiler.model.graph.Group;
+import com.asakusafw.lang.utils.buffer.nio.NioDataBuffer;
 import com.asakusafw.lang.utils.common.Arguments;
 import com.asakusafw.lang.utils.common.Invariants;
 import com.asakusafw.runtime.value.BooleanOption;
@@ -57,7 +60,10 @@ import com.asakusafw.runtime.value.StringOption;
 
 /**
  * Generates {@link DataComparator}.
+ * If the ordering contains any properties which can be compared directly over the backing buffers,
+ * the generated comparator also provides a specialized path for {@link NioDataBuffer}.
  * @since 0.4.0
+ * @version 0.5.4
  */
 public final class DataComparatorGenerator {
 
@@ -67,9 +73,16 @@ public final class DataComparatorGenerator {
 
     private static final Type TYPE_DATA_INPUT = typeOf(DataInput.class);
 
+    private static final Type TYPE_NIO_DATA_BUFFER = typeOf(NioDataBuffer.class);
+
     private static final String DESC_COMPARE = Type.getMethodDescriptor(
             typeOf(int.class), TYPE_DATA_INPUT, TYPE_DATA_INPUT);
 
+    private static final String DESC_COMPARE_BUFFER = Type.getMethodDescriptor(
+            typeOf(int.class), TYPE_NIO_DATA_BUFFER, TYPE_NIO_DATA_BUFFER);
+
+    private static final String METHOD_COMPARE_BUFFER = "compareBuffer"; //$NON-NLS-1$
+
     private static final Map<TypeDescription, String> METHOD_NAMES;
     static {
         Map<TypeDescription, String> map = new HashMap<>();
@@ -87,6 +100,14 @@ public final class DataComparatorGenerator {
         METHOD_NAMES = Collections.unmodifiableMap(map);
     }
 
+    private static final Set<TypeDescription> BUFFER_TYPES;
+    static {
+        Set<TypeDescription> set = new HashSet<>();
+        set.add(Descriptions.typeOf(DecimalOption.class));
+        set.add(Descriptions.typeOf(StringOption.class));
+        BUFFER_TYPES = Collections.unmodifiableSet(set);
+    }
+
     private DataComparatorGenerator() {
         return;
     }
@@ -123,13 +144,17 @@ public final class DataComparatorGenerator {
             DataModelReference reference, List<Group.Ordering> orderings, ClassDescription target) {
         ClassWriter writer = newWriter(target, Object.class, DataComparator.class);
         defineEmptyConstructor(writer, Object.class);
-        defineCompare(writer, reference, orderings);
+        defineCompare(writer, target, reference, orderings);
         writer.visitEnd();
         return new ClassData(target, writer::toByteArray);
     }
 
     private static void defineCompare(
-            ClassWriter writer, DataModelReference reference, List<Group.Ordering> orderings) {
+            ClassWriter writer, ClassDescription target,
+            DataModelReference reference, List<Group.Ordering> orderings) {
+        boolean buffer = orderings.stream()
+                .map(it -> Invariants.requireNonNull(reference.findProperty(it.getPropertyName())))
+                .anyMatch(it -> BUFFER_TYPES.contains(it.getType()));
         MethodVisitor v = writer.visitMethod(
                 Opcodes.ACC_PUBLIC,
                 "compare",
@@ -140,6 +165,51 @@ public final class DataComparatorGenerator {
                 });
         LocalVarRef a = new LocalVarRef(Opcodes.ALOAD, 1);
         LocalVarRef b = new LocalVarRef(Opcodes.ALOAD, 2);
+        if (buffer) {
+            // if (a instanceof NioDataBuffer && b instanceof NioDataBuffer) {
+            Label generic = new Label();
+            a.load(v);
+            v.visitTypeInsn(Opcodes.INSTANCEOF, TYPE_NIO_DATA_BUFFER.getInternalName());
+            v.visitJumpInsn(Opcodes.IFEQ, generic);
+            b.load(v);
+            v.visitTypeInsn(Opcodes.INSTANCEOF, TYPE_NIO_DATA_BUFFER.getInternalName());
+            v.visitJumpInsn(Opcodes.IFEQ, generic);
+
+            // return compareBuffer((NioDataBuffer) a, (NioDataBuffer) b);
+            a.load(v);
+            v.visitTypeInsn(Opcodes.CHECKCAST, TYPE_NIO_DATA_BUFFER.getInternalName());
+            b.load(v);
+            v.visitTypeInsn(Opcodes.CHECKCAST, TYPE_NIO_DATA_BUFFER.getInternalName());
+            v.visitMethodInsn(Opcodes.INVOKESTATIC,
+                    typeOf(target).getInternalName(),
+                    METHOD_COMPARE_BUFFER,
+                    DESC_COMPARE_BUFFER,
+                    false);
+            v.visitInsn(Opcodes.IRETURN);
+
+            // } @ generic
+            v.visitLabel(generic);
+        }
+        defineCompareBody(v, reference, orderings, a, b, false);
+
+        if (buffer) {
+            MethodVisitor bv = writer.visitMethod(
+                    Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC,
+                    METHOD_COMPARE_BUFFER,
+                    DESC_COMPARE_BUFFER,
+                    null,
+                    new String[] {
+                            typeOf(IOException.class).getInternalName(),
+                    });
+            defineCompareBody(bv, reference, orderings,
+                    new LocalVarRef(Opcodes.ALOAD, 0), new LocalVarRef(Opcodes.ALOAD, 1), true);
+        }
+    }
+
+    private static void defineCompareBody(
+            MethodVisitor v, DataModelReference reference, List<Group.Ordering> orderings,
+            LocalVarRef a, LocalVarRef b, boolean buffer) {
+        int cmpIndex = buffer ? 2 : 3;
         for (Group.Ordering ordering : orderings) {
             PropertyReference property = Invariants.requireNonNull(reference.findProperty(ordering.getPropertyName()));
 
@@ -159,9 +229,9 @@ public final class DataComparatorGenerator {
             v.visitMethodInsn(Opcodes.INVOKESTATIC,
                     typeOf(ValueOptionSerDe.class).getInternalName(),
                     Invariants.requireNonNull(METHOD_NAMES.get(property.getType())),
-                    DESC_COMPARE,
+                    buffer && BUFFER_TYPES.contains(property.getType()) ? DESC_COMPARE_BUFFER : DESC_COMPARE,
                     false);
-            LocalVarRef cmp = putLocalVar(v, Type.INT, 3);
+            LocalVarRef cmp = putLocalVar(v, Type.INT, cmpIndex);
             Label eq = new Label();
 
             // if (diff != 0) {
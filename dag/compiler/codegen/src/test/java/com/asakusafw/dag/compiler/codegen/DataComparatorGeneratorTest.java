@@ -20,6 +20,8 @@ import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.List;
 
 import org.hamcrest.Matcher;
@@ -32,6 +34,7 @@ import com.asakusafw.dag.runtime.testing.MockDataModel;
 import com.asakusafw.dag.runtime.testing.MockKeyValueModel;
 import com.asakusafw.lang.compiler.model.description.ClassDescription;
 import com.asakusafw.lang.compiler.model.graph.Group;
+import com.asakusafw.lang.utils.buffer.nio.NioDataBuffer;
 import com.asakusafw.lang.utils.common.Lang;
 import com.asakusafw.runtime.io.util.DataBuffer;
 
@@ -61,6 +64,30 @@ public class DataComparatorGeneratorTest extends ClassGeneratorTestRoot {
         test(group("+key", "+sort", "-value"), model(0, "1.0", "A"), model(0, "1.0", "A"), equalTo(0));
     }
 
+    /**
+     * w/ {@link NioDataBuffer}.
+     */
+    @Test
+    public void buffer() {
+        String prefix = "0123456789ABCDEF";
+        testBuffer(group("=key", "+sort"), model(0, "1.0", "A"), model(1, "1.0", "B"), equalTo(0));
+        testBuffer(group("=key", "+sort"), model(0, "1.0", "A"), model(1, "2.0", "B"), lessThan(0));
+        testBuffer(group("=key", "-sort"), model(0, "1.0", "A"), model(1, "2.0", "B"), greaterThan(0));
+        testBuffer(group("+value"), model(0, "1.0", prefix + "A"), model(0, "1.0", prefix + "B"), lessThan(0));
+        testBuffer(group("-value"), model(0, "1.0", prefix + "A"), model(0, "1.0", prefix + "B"), greaterThan(0));
+        testBuffer(group("+value", "+key"), model(0, "1.0", prefix), model(1, "1.0", prefix), lessThan(0));
+        testBuffer(group("+value", "+key"), model(0, "1.0", prefix), model(0, "1.0", prefix), equalTo(0));
+    }
+
+    /**
+     * w/o any buffer comparable properties.
+     */
+    @Test
+    public void buffer_trivial() {
+        testBuffer(group("+key"), model(0, "1.0", "A"), model(1, "1.0", "A"), lessThan(0));
+        testBuffer(group("-key"), model(0, "1.0", "A"), model(1, "1.0", "A"), greaterThan(0));
+    }
+
     /**
      * cache - equivalent.
      */
@@ -120,6 +147,27 @@ public class DataComparatorGeneratorTest extends ClassGeneratorTestRoot {
 
     }
 
+    private void testBuffer(Group group, MockDataModel a, MockDataModel b, Matcher<Integer> predicate) {
+        ClassDescription type = classOf(MockDataModel.class);
+        ClassDescription serializer = KeyValueSerDeGenerator.get(context(), type, group);
+        ClassDescription comparator = DataComparatorGenerator.get(context(), type, group.getOrdering());
+        loading(cl -> {
+            KeyValueSerDe ser = (KeyValueSerDe) serializer.resolve(cl).newInstance();
+            NioDataBuffer aBuf = wrap(serialize(ser, a));
+            NioDataBuffer bBuf = wrap(serialize(ser, b));
+
+            DataComparator cmp = (DataComparator) comparator.resolve(cl).newInstance();
+            assertThat(cmp.compare(aBuf, bBuf), predicate);
+        });
+    }
+
+    private static NioDataBuffer wrap(DataBuffer buffer) {
+        NioDataBuffer result = new NioDataBuffer();
+        result.contents = ByteBuffer.wrap(Arrays.copyOfRange(
+                buffer.getData(), buffer.getReadPosition(), buffer.getReadLimit()));
+        return result;
+    }
+
     private DataBuffer serialize(KeyValueSerDe ser, MockDataModel object) {
         return Lang.safe(() -> {
             DataBuffer buffer = new DataBuffer();
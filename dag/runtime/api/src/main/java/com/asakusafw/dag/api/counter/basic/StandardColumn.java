@@ -20,6 +20,7 @@ import com.asakusafw.dag.api.counter.CounterGroup;
 /**
  * Represents standard columns of {@link CounterGroup}.
  * @since 0.4.0
+ * @version 0.5.4
  */
 public enum StandardColumn implements CounterGroup.Column {
 
@@ -57,6 +58,12 @@ public enum StandardColumn implements CounterGroup.Column {
      * The output data size in bytes.
      */
     OUTPUT_FILE_SIZE("output file size in bytes"),
+
+    /**
+     * The number of output files.
+     * @since 0.5.4
+     */
+    OUTPUT_FILE("number of output files"),
     ;
 
     private final String description;
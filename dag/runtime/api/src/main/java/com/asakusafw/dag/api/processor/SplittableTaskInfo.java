@@ -0,0 +1,51 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.dag.api.processor;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A {@link TaskInfo} which can be split into smaller tasks.
+ * Task executors may {@link #split() split} a pending task of this type, or {@link #steal() steal} the rest of
+ * a running task of this type, so that the idle workers can take over its parts.
+ * <p>
+ * The split or stolen parts are processed on the task context of their origin, that is, they share the task
+ * index and the number of tasks with their origin. Task processors must not use them for partitioning the
+ * inputs of such tasks.
+ * </p>
+ * @since 0.5.4
+ */
+public interface SplittableTaskInfo extends TaskInfo {
+
+    /**
+     * Splits this task into roughly equal halves.
+     * The returned tasks must process exactly the same inputs as this task in total, and this task will not be
+     * processed if the split was succeeded.
+     * @return the split tasks (preferably two), or an empty list if this task cannot be split any more
+     */
+    List<? extends TaskInfo> split();
+
+    /**
+     * Takes over the inputs of this task which have not been started to process yet.
+     * This may be invoked while this task is running on another thread, and then this task must not process the
+     * inputs of the returned task any more.
+     * @return the stolen part, or empty if this task does not have any inputs to be taken over
+     */
+    default Optional<? extends TaskInfo> steal() {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.dag.api.processor.extension;
+
+import java.io.IOException;
+
+import com.asakusafw.dag.api.processor.VertexProcessorContext;
+import com.asakusafw.lang.utils.common.InterruptibleIo.IoCallable;
+
+/**
+ * Shares objects built from broadcast inputs between vertices which consume the same upstream.
+ * This is provided as a resource of {@link VertexProcessorContext} only if the current engine supports it.
+ * @since 0.5.4
+ */
+@FunctionalInterface
+public interface BroadcastCache {
+
+    /**
+     * Returns the object which has been built from the given broadcast input, or builds it if it is absent.
+     * The {@code builder} is invoked at most once for each pair of the upstream and the {@code key}, and
+     * it must build the object only from the given input.
+     * The returned object may be shared between multiple vertices, and must be thread-safe.
+     * @param <T> the object type
+     * @param input the broadcast input name of the current vertex
+     * @param key the identifier of how the object is built from the input
+     * @param builder the object builder, which is invoked on the current thread
+     * @return the built object
+     * @throws IOException if I/O error was occurred while building the object
+     * @throws InterruptedException if interrupted while building the object
+     */
+    <T> T get(String input, String key, IoCallable<? extends T> builder) throws IOException, InterruptedException;
+}
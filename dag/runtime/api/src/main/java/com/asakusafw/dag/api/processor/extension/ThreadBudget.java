@@ -0,0 +1,34 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.dag.api.processor.extension;
+
+import com.asakusafw.dag.api.processor.VertexProcessorContext;
+
+/**
+ * Provides the number of threads which the current engine assigns to each vertex.
+ * Vertex processors which start their own threads should keep them within this budget.
+ * This is provided as a resource of {@link VertexProcessorContext} only if the current engine supports it.
+ * @since 0.5.4
+ */
+@FunctionalInterface
+public interface ThreadBudget {
+
+    /**
+     * Returns the max number of threads available for the current vertex.
+     * @return the number of threads, always {@code 1} or more
+     */
+    int getNumberOfThreads();
+}
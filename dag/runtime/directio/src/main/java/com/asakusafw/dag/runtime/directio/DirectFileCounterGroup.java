@@ -29,6 +29,7 @@ import com.asakusafw.runtime.directio.Counter;
 /**
  * An implementation of {@link CounterGroup} for Direct I/O.
  * @since 0.4.0
+ * @version 0.5.4
  */
 public class DirectFileCounterGroup implements CounterGroup {
 
@@ -52,22 +53,45 @@ public class DirectFileCounterGroup implements CounterGroup {
             "directio-1-output", //$NON-NLS-1$
             () -> new DirectFileCounterGroup(StandardColumn.OUTPUT_FILE_SIZE, StandardColumn.OUTPUT_RECORD));
 
+    /**
+     * The {@link CounterGroup} category for committing Direct I/O file outputs.
+     * In this category, {@link #getFileCount()} represents the number of committed files, and
+     * {@link #getFileSize()} represents the total size of the output files in the committed containers.
+     * @since 0.5.4
+     */
+    public static final Category<DirectFileCounterGroup> CATEGORY_COMMIT = new BasicCounterGroupCategory<>(
+            "Direct I/O file commit",
+            Scope.GRAPH,
+            Arrays.asList(StandardColumn.OUTPUT_FILE_SIZE, StandardColumn.OUTPUT_FILE),
+            "directio-2-commit", //$NON-NLS-1$
+            () -> new DirectFileCounterGroup(StandardColumn.OUTPUT_FILE_SIZE, null, StandardColumn.OUTPUT_FILE));
+
     private final Map<Column, Counter> counters = new LinkedHashMap<>();
 
     private final Counter fileSize = new Counter();
 
     private final Counter recordCount = new Counter();
 
+    private final Counter fileCount = new Counter();
+
     /**
      * Creates a new instance.
      * @param fileSize the file size in bytes
      * @param recordCount the record count
      */
     public DirectFileCounterGroup(Column fileSize, Column recordCount) {
+        this(fileSize, Arguments.requireNonNull(recordCount), null);
+    }
+
+    private DirectFileCounterGroup(Column fileSize, Column recordCount, Column fileCount) {
         Arguments.requireNonNull(fileSize);
-        Arguments.requireNonNull(recordCount);
         counters.put(fileSize, this.fileSize);
-        counters.put(recordCount, this.recordCount);
+        if (recordCount != null) {
+            counters.put(recordCount, this.recordCount);
+        }
+        if (fileCount != null) {
+            counters.put(fileCount, this.fileCount);
+        }
     }
 
     @Override
@@ -92,4 +116,13 @@ public class DirectFileCounterGroup implements CounterGroup {
     public Counter getRecordCount() {
         return recordCount;
     }
+
+    /**
+     * Returns the file count.
+     * @return the file count
+     * @since 0.5.4
+     */
+    public Counter getFileCount() {
+        return fileCount;
+    }
 }
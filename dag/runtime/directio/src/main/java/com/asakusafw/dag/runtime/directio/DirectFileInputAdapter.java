@@ -17,8 +17,11 @@ package com.asakusafw.dag.runtime.directio;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
 
 import org.apache.hadoop.conf.Configuration;
 import org.slf4j.Logger;
@@ -45,11 +48,39 @@ import com.asakusafw.runtime.directio.hadoop.HadoopDataSourceUtil;
 /**
  * {@link InputAdapter} for Direct I/O.
  * @since 0.4.0
+ * @version 0.5.4
  */
 public class DirectFileInputAdapter implements InputAdapter<ExtractOperation.Input> {
 
     static final Logger LOG = LoggerFactory.getLogger(DirectFileInputAdapter.class);
 
+    /**
+     * The configuration key of the target bytes per task for combining small input fragments.
+     * If this is not positive, each input fragment becomes an individual task.
+     * @since 0.5.4
+     */
+    public static final String KEY_COMBINE_SIZE = "com.asakusafw.dag.input.directio.combine.size"; //$NON-NLS-1$
+
+    /**
+     * The default value of {@link #KEY_COMBINE_SIZE}.
+     * @since 0.5.4
+     */
+    public static final long DEFAULT_COMBINE_SIZE = 0L;
+
+    /**
+     * The configuration key of the number of data objects to read ahead on a helper thread for each input.
+     * The individual inputs can override it by {@code <this key>.<input ID>}.
+     * If this is not positive, the input objects are read on the task thread.
+     * @since 0.5.4
+     */
+    public static final String KEY_READ_AHEAD = "com.asakusafw.dag.input.directio.readahead"; //$NON-NLS-1$
+
+    /**
+     * The default value of {@link #KEY_READ_AHEAD}.
+     * @since 0.5.4
+     */
+    public static final int DEFAULT_READ_AHEAD = 0;
+
     private final StageInfo stage;
 
     private final Configuration configuration;
@@ -58,6 +89,10 @@ public class DirectFileInputAdapter implements InputAdapter<ExtractOperation.Inp
 
     private final DataFilter.Context filterContext;
 
+    private final long combineSize;
+
+    private final Function<String, Optional<String>> properties;
+
     private final List<Action<DirectFileInputTaskSchedule, Exception>> actions = new ArrayList<>();
 
     /**
@@ -73,6 +108,19 @@ public class DirectFileInputAdapter implements InputAdapter<ExtractOperation.Inp
         this.counterRoot = context.getResource(CounterRepository.class)
                 .orElse(CounterRepository.DETACHED);
         this.filterContext = new DataFilter.Context(stage.getBatchArguments());
+        this.combineSize = context.getProperty(KEY_COMBINE_SIZE)
+                .map(String::trim)
+                .map(value -> {
+                    try {
+                        return Math.max(0L, Long.parseLong(value));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException(MessageFormat.format(
+                                "combine size must be a valid integer: {0}={1}",
+                                KEY_COMBINE_SIZE, value), e);
+                    }
+                })
+                .orElse(DEFAULT_COMBINE_SIZE);
+        this.properties = context::getProperty;
     }
 
     /**
@@ -93,9 +141,10 @@ public class DirectFileInputAdapter implements InputAdapter<ExtractOperation.Inp
         Arguments.requireNonNull(basePath);
         Arguments.requireNonNull(resourcePattern);
         Arguments.requireNonNull(dataFormat);
+        int readAhead = getReadAheadDepth(id);
         actions.add(s -> {
             DirectFileCounterGroup counters = counterRoot.get(DirectFileCounterGroup.CATEGORY_INPUT, id);
-            int count = s.addInput(basePath, resourcePattern, dataFormat, dataFilter, counters);
+            int count = s.addInput(basePath, resourcePattern, dataFormat, dataFilter, counters, readAhead);
             if (count == 0 && optional == false) {
                 String path = s.resolve(basePath, resourcePattern);
                 throw new FileNotFoundException(path);
@@ -104,13 +153,36 @@ public class DirectFileInputAdapter implements InputAdapter<ExtractOperation.Inp
         return this;
     }
 
+    private int getReadAheadDepth(String id) {
+        String key = id == null ? KEY_READ_AHEAD : String.join(".", KEY_READ_AHEAD, id); //$NON-NLS-1$
+        Optional<String> value = properties.apply(key);
+        if (value.isPresent() == false) {
+            key = KEY_READ_AHEAD;
+            value = properties.apply(key);
+        }
+        String k = key;
+        return value
+                .map(String::trim)
+                .map(v -> {
+                    try {
+                        return Math.max(0, Integer.parseInt(v));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException(MessageFormat.format(
+                                "read-ahead depth must be a valid integer: {0}={1}",
+                                k, v), e);
+                    }
+                })
+                .orElse(DEFAULT_READ_AHEAD);
+    }
+
     @Override
     public TaskSchedule getSchedule() throws IOException, InterruptedException {
         DirectFileInputTaskSchedule schedule = new DirectFileInputTaskSchedule(
                 HadoopDataSourceUtil.loadRepository(configuration),
                 filterContext,
                 new HadoopObjectFactory(configuration),
-                stage::resolveUserVariables);
+                stage::resolveUserVariables,
+                combineSize);
         try {
             Lang.forEach(actions, a -> a.perform(schedule));
         } catch (IOException | InterruptedException | RuntimeException | Error e) {
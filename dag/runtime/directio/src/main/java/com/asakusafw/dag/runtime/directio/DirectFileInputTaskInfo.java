@@ -16,12 +16,19 @@
 package com.asakusafw.dag.runtime.directio;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 import java.util.function.Supplier;
 
+import com.asakusafw.dag.api.processor.SplittableTaskInfo;
 import com.asakusafw.dag.api.processor.TaskInfo;
 import com.asakusafw.dag.runtime.adapter.ModelInputTaskInfo;
 import com.asakusafw.dag.runtime.io.CountingModelInput;
 import com.asakusafw.lang.utils.common.Arguments;
+import com.asakusafw.lang.utils.common.Invariants;
 import com.asakusafw.runtime.directio.DataDefinition;
 import com.asakusafw.runtime.directio.DirectDataSource;
 import com.asakusafw.runtime.directio.DirectInputFragment;
@@ -29,21 +36,31 @@ import com.asakusafw.runtime.io.ModelInput;
 
 /**
  * A {@link TaskInfo} for Direct I/O file input.
+ * The tasks which consist of multiple input fragments can be split between their fragments, and the fragments
+ * which have not been opened yet can be stolen from the running tasks.
  * @param <T> the input data type
  * @since 0.4.0
+ * @version 0.5.4
  */
-public class DirectFileInputTaskInfo<T> implements ModelInputTaskInfo<T> {
+public class DirectFileInputTaskInfo<T> implements ModelInputTaskInfo<T>, SplittableTaskInfo {
 
     private final DirectDataSource dataSource;
 
     private final DataDefinition<T> dataDefinition;
 
-    private final DirectInputFragment fragment;
+    private final List<DirectInputFragment> fragments;
 
     private final Supplier<? extends T> objectFactory;
 
     private final DirectFileCounterGroup counters;
 
+    private final int readAheadDepth;
+
+    // the fragments in [next, limit) have not been opened yet - guarded by this
+    private int next;
+
+    private int limit;
+
     /**
      * Creates a new instance.
      * @param dataSource input data source
@@ -58,22 +75,170 @@ public class DirectFileInputTaskInfo<T> implements ModelInputTaskInfo<T> {
             DirectInputFragment fragment,
             Supplier<? extends T> objectFactory,
             DirectFileCounterGroup counters) {
+        this(dataSource, dataDefinition, Collections.singletonList(fragment), objectFactory, counters);
+    }
+
+    /**
+     * Creates a new instance which reads the given fragments in order.
+     * @param dataSource input data source
+     * @param dataDefinition input data definition
+     * @param fragments input fragments
+     * @param objectFactory object factory for creating buffer objects
+     * @param counters the counter group
+     * @since 0.5.4
+     */
+    public DirectFileInputTaskInfo(
+            DirectDataSource dataSource,
+            DataDefinition<T> dataDefinition,
+            List<? extends DirectInputFragment> fragments,
+            Supplier<? extends T> objectFactory,
+            DirectFileCounterGroup counters) {
+        this(dataSource, dataDefinition, fragments, objectFactory, counters, 0);
+    }
+
+    /**
+     * Creates a new instance which reads the given fragments in order.
+     * @param dataSource input data source
+     * @param dataDefinition input data definition
+     * @param fragments input fragments
+     * @param objectFactory object factory for creating buffer objects
+     * @param counters the counter group
+     * @param readAheadDepth the number of objects to read ahead on a helper thread, or {@code 0} to disable it
+     * @since 0.5.4
+     */
+    public DirectFileInputTaskInfo(
+            DirectDataSource dataSource,
+            DataDefinition<T> dataDefinition,
+            List<? extends DirectInputFragment> fragments,
+            Supplier<? extends T> objectFactory,
+            DirectFileCounterGroup counters,
+            int readAheadDepth) {
         Arguments.requireNonNull(dataSource);
         Arguments.requireNonNull(dataDefinition);
-        Arguments.requireNonNull(fragment);
+        Arguments.requireNonNull(fragments);
+        Arguments.require(fragments.isEmpty() == false);
         Arguments.requireNonNull(objectFactory);
         Arguments.requireNonNull(counters);
+        Arguments.require(readAheadDepth >= 0);
         this.dataSource = dataSource;
         this.dataDefinition = dataDefinition;
-        this.fragment = fragment;
+        this.fragments = new ArrayList<>(fragments);
         this.objectFactory = objectFactory;
         this.counters = counters;
+        this.readAheadDepth = readAheadDepth;
+        this.next = 0;
+        this.limit = this.fragments.size();
+    }
+
+    /**
+     * Returns the input fragments of this task.
+     * @return the input fragments
+     * @since 0.5.4
+     */
+    public List<DirectInputFragment> getFragments() {
+        return Collections.unmodifiableList(fragments);
+    }
+
+    /**
+     * Returns the total size of the input fragments.
+     * @return the total size in bytes, or {@code -1} if it is unknown
+     * @since 0.5.4
+     */
+    public long getSize() {
+        long total = 0;
+        for (DirectInputFragment fragment : fragments) {
+            long size = fragment.getSize();
+            if (size < 0) {
+                return -1;
+            }
+            total += size;
+        }
+        return total;
+    }
+
+    /**
+     * Splits this task between its input fragments, so that the individual halves have nearly the same size.
+     * @return the split tasks, or an empty list if this task only has a single input fragment
+     * @since 0.5.4
+     */
+    @Override
+    public synchronized List<DirectFileInputTaskInfo<T>> split() {
+        if (next > 0 || limit - next <= 1) {
+            return Collections.emptyList();
+        }
+        int middle = middle(next, limit);
+        return Arrays.asList(
+                derive(fragments.subList(next, middle)),
+                derive(fragments.subList(middle, limit)));
+    }
+
+    /**
+     * Steals the latter half of the input fragments which have not been opened yet.
+     * If this task has not opened any fragments, this leaves the former half of them to this task.
+     * @return the stolen task, or empty if there are no fragments to be stolen
+     * @since 0.5.4
+     */
+    @Override
+    public synchronized Optional<DirectFileInputTaskInfo<T>> steal() {
+        int rest = limit - next;
+        if (rest == 0 || (next == 0 && rest == 1)) {
+            return Optional.empty();
+        }
+        // the last fragment can be stolen only if this task is reading another one
+        int start = rest >= 2 ? middle(next, limit) : next;
+        DirectFileInputTaskInfo<T> stolen = derive(fragments.subList(start, limit));
+        limit = start;
+        return Optional.of(stolen);
+    }
+
+    private int middle(int from, int to) {
+        assert to - from >= 2;
+        List<DirectInputFragment> range = fragments.subList(from, to);
+        long total = 0;
+        for (DirectInputFragment fragment : range) {
+            long size = fragment.getSize();
+            if (size < 0) {
+                total = -1;
+                break;
+            }
+            total += size;
+        }
+        if (total <= 0) {
+            return from + range.size() / 2;
+        }
+        long half = 0;
+        for (int i = 0, n = range.size() - 1; i < n; i++) {
+            half += range.get(i).getSize();
+            if (half * 2 >= total) {
+                return from + i + 1;
+            }
+        }
+        return to - 1;
+    }
+
+    synchronized DirectInputFragment nextFragment() {
+        if (next >= limit) {
+            return null;
+        }
+        return fragments.get(next++);
+    }
+
+    private DirectFileInputTaskInfo<T> derive(List<DirectInputFragment> parts) {
+        return new DirectFileInputTaskInfo<>(
+                dataSource, dataDefinition, parts, objectFactory, counters, readAheadDepth);
     }
 
     @Override
     public ModelInput<T> open() throws IOException, InterruptedException {
+        if (fragments.size() == 1) {
+            DirectInputFragment fragment = nextFragment();
+            Invariants.requireNonNull(fragment);
+            return new CountingModelInput<>(
+                    dataSource.openInput(dataDefinition, fragment, counters.getFileSize()),
+                    counters.getRecordCount()::add);
+        }
         return new CountingModelInput<>(
-                dataSource.openInput(dataDefinition, fragment, counters.getFileSize()),
+                new ConcatModelInput(),
                 counters.getRecordCount()::add);
     }
 
@@ -81,4 +246,51 @@ public class DirectFileInputTaskInfo<T> implements ModelInputTaskInfo<T> {
     public T newDataObject() {
         return objectFactory.get();
     }
+
+    @Override
+    public int getReadAheadDepth() {
+        return readAheadDepth;
+    }
+
+    /**
+     * Reads the individual fragments one by one, and opens each of them only when it is required.
+     * The fragments which have not been opened yet may be {@link DirectFileInputTaskInfo#steal() stolen}.
+     */
+    private final class ConcatModelInput implements ModelInput<T> {
+
+        private ModelInput<T> current;
+
+        @Override
+        public boolean readTo(T model) throws IOException {
+            while (true) {
+                if (current == null) {
+                    DirectInputFragment fragment = nextFragment();
+                    if (fragment == null) {
+                        return false;
+                    }
+                    try {
+                        current = dataSource.openInput(dataDefinition, fragment, counters.getFileSize());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException(e);
+                    }
+                }
+                if (current.readTo(model)) {
+                    return true;
+                }
+                ModelInput<T> finished = current;
+                current = null;
+                finished.close();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (current != null) {
+                ModelInput<T> finished = current;
+                current = null;
+                finished.close();
+            }
+        }
+    }
 }
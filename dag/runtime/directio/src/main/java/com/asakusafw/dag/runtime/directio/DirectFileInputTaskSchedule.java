@@ -17,8 +17,15 @@ package com.asakusafw.dag.runtime.directio;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.asakusafw.dag.api.common.ObjectFactory;
 import com.asakusafw.dag.api.processor.TaskSchedule;
@@ -34,10 +41,15 @@ import com.asakusafw.runtime.directio.ResourcePattern;
 
 /**
  * A {@link TaskSchedule} for Direct I/O file input.
+ * If the target bytes per task is specified, the small input fragments are packed into composite tasks whose sizes
+ * are balanced up to the target, and the tasks are ordered from the largest one.
  * @since 0.4.0
+ * @version 0.5.4
  */
 public class DirectFileInputTaskSchedule implements TaskSchedule {
 
+    static final Logger LOG = LoggerFactory.getLogger(DirectFileInputTaskSchedule.class);
+
     private final DirectDataSourceRepository repository;
 
     private final ObjectFactory factory;
@@ -46,6 +58,8 @@ public class DirectFileInputTaskSchedule implements TaskSchedule {
 
     private final Function<String, String> variables;
 
+    private final long bytesPerTask;
+
     private final List<DirectFileInputTaskInfo<?>> tasks = new ArrayList<>();
 
     /**
@@ -60,14 +74,34 @@ public class DirectFileInputTaskSchedule implements TaskSchedule {
             DataFilter.Context filterContext,
             ObjectFactory factory,
             Function<String, String> variableResolver) {
+        this(repository, filterContext, factory, variableResolver, 0L);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param repository the Direct I/O data source repository
+     * @param filterContext the data filter context
+     * @param factory an object factory
+     * @param variableResolver the user variable resolver
+     * @param bytesPerTask the target bytes per task for combining small fragments, or {@code 0} to disable it
+     * @since 0.5.4
+     */
+    public DirectFileInputTaskSchedule(
+            DirectDataSourceRepository repository,
+            DataFilter.Context filterContext,
+            ObjectFactory factory,
+            Function<String, String> variableResolver,
+            long bytesPerTask) {
         Arguments.requireNonNull(repository);
         Arguments.requireNonNull(filterContext);
         Arguments.requireNonNull(factory);
         Arguments.requireNonNull(variableResolver);
+        Arguments.require(bytesPerTask >= 0);
         this.repository = repository;
         this.filterContext = filterContext;
         this.factory = factory;
         this.variables = variableResolver;
+        this.bytesPerTask = bytesPerTask;
     }
 
     /**
@@ -106,39 +140,136 @@ public class DirectFileInputTaskSchedule implements TaskSchedule {
             Class<? extends DataFormat<?>> dataFormat,
             Class<? extends DataFilter<?>> dataFilter,
             DirectFileCounterGroup counters) throws IOException, InterruptedException {
+        return addInput(basePath, resourcePattern, dataFormat, dataFilter, counters, 0);
+    }
+
+    /**
+     * Adds an input pattern.
+     * @param basePath the base path
+     * @param resourcePattern the resource pattern
+     * @param dataFormat the data format class
+     * @param dataFilter the data filter class (optional)
+     * @param counters the input counters
+     * @param readAheadDepth the number of objects to read ahead on a helper thread, or {@code 0} to disable it
+     * @return the added number of input fragments
+     * @throws IOException if I/O error was occurred while computing input
+     * @throws InterruptedException if interrupted while computing input
+     * @since 0.5.4
+     */
+    public int addInput(
+            String basePath,
+            String resourcePattern,
+            Class<? extends DataFormat<?>> dataFormat,
+            Class<? extends DataFilter<?>> dataFilter,
+            DirectFileCounterGroup counters,
+            int readAheadDepth) throws IOException, InterruptedException {
         Arguments.requireNonNull(basePath);
         Arguments.requireNonNull(resourcePattern);
         Arguments.requireNonNull(dataFormat);
         Arguments.requireNonNull(counters);
+        Arguments.require(readAheadDepth >= 0);
         String resolvedBasePath = variables.apply(basePath);
         ResourcePattern resolvedResourcePattern = FilePattern.compile(variables.apply(resourcePattern));
         DataDefinition<?> definition = BasicDataDefinition.newInstance(factory, dataFormat, dataFilter);
         if (definition.getDataFilter() != null) {
             definition.getDataFilter().initialize(filterContext);
         }
-        return addInput0(resolvedBasePath, resolvedResourcePattern, definition, counters);
+        return addInput0(resolvedBasePath, resolvedResourcePattern, definition, counters, readAheadDepth);
     }
 
     private <T> int addInput0(
             String basePath,
             ResourcePattern resourcePattern,
             DataDefinition<T> definition,
-            DirectFileCounterGroup counters) throws IOException, InterruptedException {
+            DirectFileCounterGroup counters,
+            int readAheadDepth) throws IOException, InterruptedException {
         String containerPath = repository.getContainerPath(basePath);
         String componentPath = repository.getComponentPath(basePath);
         DirectDataSource source = repository.getRelatedDataSource(containerPath);
         List<DirectInputFragment> fragments = source.findInputFragments(definition, componentPath, resourcePattern);
-        fragments.stream()
-                .map(fragment -> new DirectFileInputTaskInfo<>(
-                        source, definition, fragment,
+        combine(fragments).stream()
+                .map(group -> new DirectFileInputTaskInfo<>(
+                        source, definition, group,
                         () -> factory.newInstance(definition.getDataClass()),
-                        counters))
+                        counters, readAheadDepth))
                 .forEach(tasks::add);
         return fragments.size();
     }
 
+    private List<List<DirectInputFragment>> combine(List<DirectInputFragment> fragments) {
+        List<List<DirectInputFragment>> results = new ArrayList<>();
+        List<DirectInputFragment> rest = new ArrayList<>();
+        long total = 0;
+        for (DirectInputFragment fragment : fragments) {
+            long size = fragment.getSize();
+            if (bytesPerTask <= 0 || size < 0 || size >= bytesPerTask) {
+                results.add(Collections.singletonList(fragment));
+            } else {
+                rest.add(fragment);
+                total += size;
+            }
+        }
+        if (rest.size() <= 1) {
+            rest.forEach(it -> results.add(Collections.singletonList(it)));
+            return results;
+        }
+        // assigns the largest remaining fragment into the lightest bin
+        int numberOfBins = (int) Math.min(rest.size(), Math.max(1, (total + bytesPerTask - 1) / bytesPerTask));
+        PriorityQueue<Bin> bins = new PriorityQueue<>(numberOfBins, Comparator.comparingLong(Bin::getSize));
+        for (int i = 0; i < numberOfBins; i++) {
+            bins.add(new Bin());
+        }
+        rest.sort(Comparator.comparingLong(DirectInputFragment::getSize).reversed());
+        for (DirectInputFragment fragment : rest) {
+            Bin bin = bins.poll();
+            bin.add(fragment);
+            bins.add(bin);
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("combined Direct I/O input fragments: {} -> {} (target={}bytes)", //$NON-NLS-1$
+                    rest.size(), numberOfBins, bytesPerTask);
+        }
+        bins.stream()
+                .map(Bin::getFragments)
+                .forEach(results::add);
+        return results;
+    }
+
     @Override
     public List<DirectFileInputTaskInfo<?>> getTasks() {
-        return new ArrayList<>(tasks);
+        if (bytesPerTask <= 0) {
+            return new ArrayList<>(tasks);
+        }
+        // runs the largest tasks first to reduce the tail latency, and the unknown sized tasks are the largest
+        return tasks.stream()
+                .sorted(Comparator.comparingLong((DirectFileInputTaskInfo<?> it) -> {
+                    long size = it.getSize();
+                    return size < 0 ? Long.MAX_VALUE : size;
+                }).reversed())
+                .collect(Collectors.toList());
+    }
+
+    private static final class Bin {
+
+        private final List<DirectInputFragment> fragments = new ArrayList<>();
+
+        private long size;
+
+        Bin() {
+            return;
+        }
+
+        void add(DirectInputFragment fragment) {
+            fragments.add(fragment);
+            size += fragment.getSize();
+        }
+
+        long getSize() {
+            return size;
+        }
+
+        List<DirectInputFragment> getFragments() {
+            return fragments;
+        }
     }
 }
@@ -19,10 +19,8 @@ import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.function.Function;
 
 import org.apache.hadoop.conf.Configuration;
@@ -30,6 +28,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.asakusafw.bridge.stage.StageInfo;
+import com.asakusafw.dag.api.counter.CounterRepository;
 import com.asakusafw.dag.api.processor.VertexProcessor;
 import com.asakusafw.dag.api.processor.VertexProcessorContext;
 import com.asakusafw.dag.runtime.skeleton.CustomVertexProcessor;
@@ -41,7 +40,13 @@ import com.asakusafw.runtime.directio.hadoop.HadoopDataSourceUtil;
 
 /**
  * A {@link VertexProcessor} for committing Direct I/O output files.
+ * <p>
+ * This commits each output container as an individual task, so that the different containers are committed
+ * concurrently. The files in the same container are committed sequentially by the related data source, because
+ * {@link DirectDataSource} only provides operations to commit the whole of its transaction output.
+ * </p>
  * @since 0.4.0
+ * @version 0.5.4
  */
 public class DirectFileOutputCommit extends CustomVertexProcessor {
 
@@ -71,10 +76,13 @@ public class DirectFileOutputCommit extends CustomVertexProcessor {
         Arguments.requireNonNull(context);
         StageInfo stage = context.getResource(StageInfo.class).orElseThrow(AssertionError::new);
         Configuration conf = context.getResource(Configuration.class).orElseThrow(AssertionError::new);
+        CounterRepository counters = context.getResource(CounterRepository.class)
+                .orElse(CounterRepository.DETACHED);
         transactionManager = createTransactionManager(stage, conf);
         List<CustomTaskInfo> actions = resolve(
                 HadoopDataSourceUtil.loadRepository(conf),
-                stage::resolveUserVariables);
+                stage::resolveUserVariables,
+                counters);
         transactionManager.begin();
         return actions;
     }
@@ -102,25 +110,44 @@ public class DirectFileOutputCommit extends CustomVertexProcessor {
 
     private List<CustomTaskInfo> resolve(
             DirectDataSourceRepository repository,
-            Function<String, String> variableResolver) throws IOException, InterruptedException {
+            Function<String, String> variableResolver,
+            CounterRepository counterRoot) throws IOException, InterruptedException {
         assert repository != null;
         assert transactionManager != null;
         assert variableResolver != null;
+        assert counterRoot != null;
         assert specs != null;
-        Set<String> containerPaths = new LinkedHashSet<>();
+        Map<String, List<Spec>> containers = new LinkedHashMap<>();
         for (Spec spec : specs) {
             String basePath = variableResolver.apply(spec.basePath);
             String containerPath = repository.getContainerPath(basePath);
-            containerPaths.add(containerPath);
+            containers.computeIfAbsent(containerPath, k -> new ArrayList<>()).add(spec);
         }
         List<CustomTaskInfo> results = new ArrayList<>();
-        for (String containerPath : containerPaths) {
+        for (Map.Entry<String, List<Spec>> entry : containers.entrySet()) {
+            String containerPath = entry.getKey();
             String id = repository.getRelatedId(containerPath);
             DirectDataSource source = repository.getRelatedDataSource(containerPath);
             OutputTransactionContext context = transactionManager.acquire(id);
+            DirectFileCounterGroup counters = counterRoot.get(DirectFileCounterGroup.CATEGORY_COMMIT, id);
+            List<DirectFileCounterGroup> outputs = new ArrayList<>();
+            for (Spec spec : entry.getValue()) {
+                outputs.add(counterRoot.get(DirectFileCounterGroup.CATEGORY_OUTPUT, spec.id));
+            }
             results.add(c -> {
                 LOG.debug("commiting Direct I/O file output: {}/*", containerPath);
+                long start = System.currentTimeMillis();
                 source.commitTransactionOutput(context);
+                long files = context.getCounter().get();
+                long bytes = outputs.stream()
+                        .mapToLong(it -> it.getFileSize().get())
+                        .sum();
+                counters.getFileCount().add(files);
+                counters.getFileSize().add(bytes);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("committed Direct I/O file output: {}/* (files={}, bytes={}, elapsed={}ms)",
+                            containerPath, files, bytes, System.currentTimeMillis() - start);
+                }
                 source.cleanupTransactionOutput(context);
                 transactionManager.release(context);
             });
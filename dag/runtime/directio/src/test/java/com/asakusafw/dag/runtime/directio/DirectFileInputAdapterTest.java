@@ -116,6 +116,170 @@ public class DirectFileInputAdapterTest {
         }
     }
 
+    /**
+     * combines small input fragments.
+     * @throws Exception if failed
+     */
+    @Test
+    public void combine() throws Exception {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            String value = String.format("v%02d", i);
+            put(String.format("in/testing-%02d.bin", i), value);
+            expected.add(value);
+        }
+        long size = directio.file("in/testing-00.bin").length();
+        MockVertexProcessorContext vc = new MockVertexProcessorContext()
+                .withResource(StageInfo.class, STAGE)
+                .withResource(Configuration.class, directio.newConfiguration())
+                .withProperty(DirectFileInputAdapter.KEY_COMBINE_SIZE, String.valueOf(size * 5));
+        try (DirectFileInputAdapter adapter = new DirectFileInputAdapter(vc)) {
+            adapter.bind("testing", "in", "*.bin", MockDataFormat.class, null, false);
+            adapter.initialize();
+            List<? extends TaskInfo> tasks = adapter.getSchedule().getTasks();
+            assertThat(tasks, hasSize(4));
+            for (TaskInfo task : tasks) {
+                assertThat(((DirectFileInputTaskInfo<?>) task).getFragments(), hasSize(5));
+            }
+            assertThat(collect(adapter), containsInAnyOrder(expected.toArray()));
+        }
+    }
+
+    /**
+     * combines only small input fragments, and runs larger tasks first.
+     * @throws Exception if failed
+     */
+    @Test
+    public void combine_large() throws Exception {
+        put("in/testing-a.bin", "a");
+        put("in/testing-b.bin", "b");
+        put("in/testing-c.bin", "c");
+        put("in/testing-large.bin", "l0", "l1", "l2", "l3", "l4", "l5", "l6", "l7");
+        long size = directio.file("in/testing-a.bin").length();
+        MockVertexProcessorContext vc = new MockVertexProcessorContext()
+                .withResource(StageInfo.class, STAGE)
+                .withResource(Configuration.class, directio.newConfiguration())
+                .withProperty(DirectFileInputAdapter.KEY_COMBINE_SIZE, String.valueOf(size * 3));
+        try (DirectFileInputAdapter adapter = new DirectFileInputAdapter(vc)) {
+            adapter.bind("testing", "in", "*.bin", MockDataFormat.class, null, false);
+            adapter.initialize();
+            List<? extends TaskInfo> tasks = adapter.getSchedule().getTasks();
+            assertThat(tasks, hasSize(2));
+            DirectFileInputTaskInfo<?> first = (DirectFileInputTaskInfo<?>) tasks.get(0);
+            DirectFileInputTaskInfo<?> second = (DirectFileInputTaskInfo<?>) tasks.get(1);
+            assertThat(first.getFragments(), hasSize(1));
+            assertThat(second.getFragments(), hasSize(3));
+            assertThat(first.getSize(), greaterThanOrEqualTo(second.getSize()));
+            assertThat(collect(adapter), containsInAnyOrder(
+                    "a", "b", "c", "l0", "l1", "l2", "l3", "l4", "l5", "l6", "l7"));
+        }
+    }
+
+    /**
+     * splits combined tasks between their input fragments.
+     * @throws Exception if failed
+     */
+    @Test
+    public void split() throws Exception {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            String value = String.format("v%02d", i);
+            put(String.format("in/testing-%02d.bin", i), value);
+            expected.add(value);
+        }
+        long size = directio.file("in/testing-00.bin").length();
+        MockVertexProcessorContext vc = new MockVertexProcessorContext()
+                .withResource(StageInfo.class, STAGE)
+                .withResource(Configuration.class, directio.newConfiguration())
+                .withProperty(DirectFileInputAdapter.KEY_COMBINE_SIZE, String.valueOf(size * 5));
+        try (DirectFileInputAdapter adapter = new DirectFileInputAdapter(vc)) {
+            adapter.bind("testing", "in", "*.bin", MockDataFormat.class, null, false);
+            adapter.initialize();
+            List<? extends TaskInfo> tasks = adapter.getSchedule().getTasks();
+            assertThat(tasks, hasSize(1));
+            List<? extends DirectFileInputTaskInfo<?>> halves = ((DirectFileInputTaskInfo<?>) tasks.get(0)).split();
+            assertThat(halves, hasSize(2));
+            assertThat(halves.get(0).getFragments(), hasSize(3));
+            assertThat(halves.get(1).getFragments(), hasSize(2));
+            assertThat(halves.get(1).split(), hasSize(2));
+            assertThat(halves.get(1).split().get(0).split(), is(empty()));
+            assertThat(collect(adapter, halves), containsInAnyOrder(expected.toArray()));
+        }
+    }
+
+    /**
+     * steals the fragments which have not been opened yet from the running task.
+     * @throws Exception if failed
+     */
+    @Test
+    public void steal() throws Exception {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            String value = String.format("v%02d", i);
+            put(String.format("in/testing-%02d.bin", i), value);
+            expected.add(value);
+        }
+        long size = directio.file("in/testing-00.bin").length();
+        MockVertexProcessorContext vc = new MockVertexProcessorContext()
+                .withResource(StageInfo.class, STAGE)
+                .withResource(Configuration.class, directio.newConfiguration())
+                .withProperty(DirectFileInputAdapter.KEY_COMBINE_SIZE, String.valueOf(size * 5));
+        try (DirectFileInputAdapter adapter = new DirectFileInputAdapter(vc)) {
+            adapter.bind("testing", "in", "*.bin", MockDataFormat.class, null, false);
+            adapter.initialize();
+            List<? extends TaskInfo> tasks = adapter.getSchedule().getTasks();
+            assertThat(tasks, hasSize(1));
+            DirectFileInputTaskInfo<?> task = (DirectFileInputTaskInfo<?>) tasks.get(0);
+
+            List<String> results = new ArrayList<>();
+            List<DirectFileInputTaskInfo<?>> stolen = new ArrayList<>();
+            InputHandler<Input, ? super TaskProcessorContext> handler = adapter.newHandler();
+            try (InputSession<Input> session = handler.start(new MockTaskProcessorContext(task))) {
+                while (session.next()) {
+                    results.add(session.get().getObject().getValue());
+                    task.steal().ifPresent(stolen::add);
+                }
+            }
+            assertThat(task.steal().isPresent(), is(false));
+            assertThat(stolen, hasSize(greaterThan(1)));
+            assertThat(results, hasSize(lessThan(expected.size())));
+
+            results.addAll(collect(adapter, stolen));
+            assertThat(results, containsInAnyOrder(expected.toArray()));
+        }
+    }
+
+    /**
+     * reads input objects on a helper thread.
+     * @throws Exception if failed
+     */
+    @Test
+    public void read_ahead() throws Exception {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            expected.add(String.format("v%03d", i));
+        }
+        put("in/testing.bin", expected.toArray(new String[expected.size()]));
+        put("other/testing.bin", "other");
+        MockVertexProcessorContext vc = new MockVertexProcessorContext()
+                .withResource(StageInfo.class, STAGE)
+                .withResource(Configuration.class, directio.newConfiguration())
+                .withProperty(DirectFileInputAdapter.KEY_READ_AHEAD, "4")
+                .withProperty(DirectFileInputAdapter.KEY_READ_AHEAD + ".other", "0");
+        try (DirectFileInputAdapter adapter = new DirectFileInputAdapter(vc)) {
+            adapter.bind("testing", "in", "*.bin", MockDataFormat.class, null, false);
+            adapter.bind("other", "other", "*.bin", MockDataFormat.class, null, false);
+            adapter.initialize();
+            List<Integer> depths = new ArrayList<>();
+            for (TaskInfo task : adapter.getSchedule().getTasks()) {
+                depths.add(((DirectFileInputTaskInfo<?>) task).getReadAheadDepth());
+            }
+            assertThat(depths, containsInAnyOrder(4, 0));
+            expected.add("other");
+            assertThat(collect(adapter), containsInAnyOrder(expected.toArray()));
+        }
+    }
+
     private File put(String path, String... lines) throws IOException {
         File file = directio.file(path);
         try (ModelOutput<MockData> out = WritableModelOutput.create(file)) {
@@ -128,10 +292,16 @@ public class DirectFileInputAdapterTest {
     }
 
     private static List<String> collect(DirectFileInputAdapter adapter) throws IOException, InterruptedException {
-        List<String> results = new ArrayList<>();
         TaskSchedule schedule = adapter.getSchedule();
+        return collect(adapter, schedule.getTasks());
+    }
+
+    private static List<String> collect(
+            DirectFileInputAdapter adapter,
+            List<? extends TaskInfo> tasks) throws IOException, InterruptedException {
+        List<String> results = new ArrayList<>();
         InputHandler<Input, ? super TaskProcessorContext> handler = adapter.newHandler();
-        for (TaskInfo info : schedule.getTasks()) {
+        for (TaskInfo info : tasks) {
             try (InputSession<Input> session = handler.start(new MockTaskProcessorContext(info))) {
                 while (session.next()) {
                     Input input = session.get();
@@ -31,6 +31,8 @@ import org.junit.Rule;
 import org.junit.Test;
 
 import com.asakusafw.bridge.stage.StageInfo;
+import com.asakusafw.dag.api.counter.CounterRepository;
+import com.asakusafw.dag.api.counter.basic.BasicCounterRepository;
 import com.asakusafw.dag.api.processor.testing.VertexProcessorRunner;
 import com.asakusafw.lang.compiler.mapreduce.testing.mock.DirectIoContext;
 import com.asakusafw.lang.compiler.mapreduce.testing.mock.MockData;
@@ -93,9 +95,67 @@ public class DirectFileOutputCommitTest {
         assertThat(file.exists(), is(true));
     }
 
+    /**
+     * commit multiple containers with reporting metrics.
+     * @throws Exception if failed
+     */
+    @Test
+    public void commit_metrics() throws Exception {
+        configuration.set("com.asakusafw.directio.other", configuration.get("com.asakusafw.directio.root"));
+        configuration.set("com.asakusafw.directio.other.path", "other");
+        configuration.set("com.asakusafw.directio.other.fs.path", directio.path("other").toString());
+        repository = HadoopDataSourceUtil.loadRepository(configuration);
+
+        BasicCounterRepository counters = new BasicCounterRepository();
+        File a = prepare(counters, "a", "out/testing.bin", "out", "testing.bin");
+        File b = prepare(counters, "b", "other/out/testing.bin", "other/out", "testing.bin");
+        assertThat(a.exists(), is(false));
+        assertThat(b.exists(), is(false));
+        long aSize = counters.get(DirectFileCounterGroup.CATEGORY_OUTPUT, "a").getFileSize().get();
+        long bSize = counters.get(DirectFileCounterGroup.CATEGORY_OUTPUT, "b").getFileSize().get();
+        assertThat(aSize, is(greaterThan(0L)));
+        assertThat(bSize, is(greaterThan(0L)));
+
+        commit(counters);
+        assertThat(a.exists(), is(true));
+        assertThat(b.exists(), is(true));
+
+        DirectFileCounterGroup aCommit = counters.get(DirectFileCounterGroup.CATEGORY_COMMIT, "root");
+        assertThat(aCommit.getFileCount().get(), is(1L));
+        assertThat(aCommit.getFileSize().get(), is(aSize));
+        DirectFileCounterGroup bCommit = counters.get(DirectFileCounterGroup.CATEGORY_COMMIT, "other");
+        assertThat(bCommit.getFileCount().get(), is(1L));
+        assertThat(bCommit.getFileSize().get(), is(bSize));
+
+        // staging files and transaction information must be removed
+        assertThat(files(directio.getRoot()), containsInAnyOrder(a, b));
+    }
+
+    private static List<File> files(File directory) {
+        List<File> results = new ArrayList<>();
+        File[] children = directory.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                if (child.isDirectory()) {
+                    results.addAll(files(child));
+                } else if (child.getName().endsWith(".crc") == false) {
+                    // ignores checksum files of the local file system
+                    results.add(child);
+                }
+            }
+        }
+        return results;
+    }
+
     private File prepare(
             String id, String physicalPath,
             String basePath, String resourceName) throws IOException, InterruptedException {
+        return prepare(new BasicCounterRepository(), id, physicalPath, basePath, resourceName);
+    }
+
+    private File prepare(
+            CounterRepository counters, String id, String physicalPath,
+            String basePath, String resourceName) throws IOException, InterruptedException {
         String sourceId = repository.getRelatedId(basePath);
         String container = repository.getContainerPath(basePath);
         String component = repository.getComponentPath(basePath);
@@ -106,7 +166,8 @@ public class DirectFileOutputCommitTest {
                 sourceId, new Counter());
         dataSource.setupAttemptOutput(context);
         DataDefinition<MockData> def = BasicDataDefinition.newInstance(new MockDataFormat());
-        try (ModelOutput<MockData> out = dataSource.openOutput(context, def, component, resourceName, new Counter())) {
+        Counter size = counters.get(DirectFileCounterGroup.CATEGORY_OUTPUT, id).getFileSize();
+        try (ModelOutput<MockData> out = dataSource.openOutput(context, def, component, resourceName, size)) {
             out.write(new MockData().set(0, "Hello!"));
         }
         dataSource.commitAttemptOutput(context);
@@ -118,6 +179,10 @@ public class DirectFileOutputCommitTest {
     }
 
     private void commit() {
+        commit(new BasicCounterRepository());
+    }
+
+    private void commit(CounterRepository counters) {
         VertexProcessorRunner runner = new VertexProcessorRunner(() -> {
             DirectFileOutputCommit p = new DirectFileOutputCommit();
             actions.forEach(a -> Lang.safe(() -> a.perform(p)));
@@ -126,6 +191,7 @@ public class DirectFileOutputCommitTest {
         runner
             .resource(Configuration.class, configuration)
             .resource(StageInfo.class, STAGE)
+            .resource(CounterRepository.class, counters)
             .run();
     }
 }
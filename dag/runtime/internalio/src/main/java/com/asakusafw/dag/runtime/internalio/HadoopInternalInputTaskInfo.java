@@ -35,6 +35,7 @@ import com.asakusafw.runtime.stage.temporary.TemporaryFileInput;
  * A {@link TaskInfo} for internal input.
  * @param <T> the input data type
  * @since 0.4.0
+ * @version 0.5.4
  */
 public class HadoopInternalInputTaskInfo<T extends Writable> implements ModelInputTaskInfo<T> {
 
@@ -48,6 +49,8 @@ public class HadoopInternalInputTaskInfo<T extends Writable> implements ModelInp
 
     private final Supplier<? extends T> objectFactory;
 
+    private final int readAheadDepth;
+
     /**
      * Creates a new instance.
      * @param fileSystem the Hadoop file system
@@ -60,14 +63,34 @@ public class HadoopInternalInputTaskInfo<T extends Writable> implements ModelInp
             FileSystem fileSystem, Path file,
             int blockOffset, int blockLength,
             Supplier<? extends T> objectFactory) {
+        this(fileSystem, file, blockOffset, blockLength, objectFactory, 0);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param fileSystem the Hadoop file system
+     * @param file the target file
+     * @param blockOffset the block offset
+     * @param blockLength the block length
+     * @param objectFactory the data model object supplier
+     * @param readAheadDepth the number of objects to read ahead on a helper thread, or {@code 0} to disable it
+     * @since 0.5.4
+     */
+    public HadoopInternalInputTaskInfo(
+            FileSystem fileSystem, Path file,
+            int blockOffset, int blockLength,
+            Supplier<? extends T> objectFactory,
+            int readAheadDepth) {
         Arguments.requireNonNull(fileSystem);
         Arguments.requireNonNull(file);
         Arguments.requireNonNull(objectFactory);
+        Arguments.require(readAheadDepth >= 0);
         this.fileSystem = fileSystem;
         this.file = file;
         this.blockOffset = blockOffset;
         this.blockLength = blockLength;
         this.objectFactory = objectFactory;
+        this.readAheadDepth = readAheadDepth;
     }
 
     @Override
@@ -112,4 +135,9 @@ public class HadoopInternalInputTaskInfo<T extends Writable> implements ModelInp
     public T newDataObject() {
         return objectFactory.get();
     }
+
+    @Override
+    public int getReadAheadDepth() {
+        return readAheadDepth;
+    }
 }
@@ -18,10 +18,13 @@ package com.asakusafw.dag.runtime.internalio;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
+import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.Callable;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -52,10 +55,25 @@ import com.asakusafw.runtime.stage.temporary.TemporaryStorage;
 /**
  * {@link InputAdapter} for internal inputs.
  * @since 0.4.0
+ * @version 0.5.4
  * @see TemporaryFile
  */
 public class InternalInputAdapter implements InputAdapter<ExtractOperation.Input> {
 
+    /**
+     * The configuration key of the number of data objects to read ahead on a helper thread for each input.
+     * The individual inputs can override it by {@code <this key>.<input ID>}.
+     * If this is not positive, the input objects are read on the task thread.
+     * @since 0.5.4
+     */
+    public static final String KEY_READ_AHEAD = "com.asakusafw.dag.input.internal.readahead"; //$NON-NLS-1$
+
+    /**
+     * The default value of {@link #KEY_READ_AHEAD}.
+     * @since 0.5.4
+     */
+    public static final int DEFAULT_READ_AHEAD = 0;
+
     private final List<Callable<List<TaskInfo>>> tasks = new ArrayList<>();
 
     private final StageInfo stage;
@@ -64,6 +82,8 @@ public class InternalInputAdapter implements InputAdapter<ExtractOperation.Input
 
     private final ObjectFactory objectFactory;
 
+    private final Function<String, Optional<String>> properties;
+
     /**
      * Creates a new instance.
      * @param context the current context
@@ -75,6 +95,7 @@ public class InternalInputAdapter implements InputAdapter<ExtractOperation.Input
         this.configuration = context.getResource(Configuration.class)
                 .orElseThrow(IllegalStateException::new);
         this.objectFactory = new HadoopObjectFactory(configuration);
+        this.properties = context::getProperty;
     }
 
     /**
@@ -88,6 +109,7 @@ public class InternalInputAdapter implements InputAdapter<ExtractOperation.Input
         this.stage = stage;
         this.configuration = configuration;
         this.objectFactory = new HadoopObjectFactory(configuration);
+        this.properties = key -> Optional.empty();
     }
 
     /**
@@ -116,16 +138,39 @@ public class InternalInputAdapter implements InputAdapter<ExtractOperation.Input
                 .map(stage::resolveUserVariables)
                 .map(Path::new)
                 .collect(Collectors.toList());
+        int readAhead = getReadAheadDepth(id);
         tasks.add(() -> {
             List<TaskInfo> results = new ArrayList<>();
-            resolve(resolved, dataClass, results::add);
+            resolve(resolved, dataClass, readAhead, results::add);
             return results;
         });
         return this;
     }
 
+    private int getReadAheadDepth(String id) {
+        String key = String.join(".", KEY_READ_AHEAD, id); //$NON-NLS-1$
+        Optional<String> value = properties.apply(key);
+        if (value.isPresent() == false) {
+            key = KEY_READ_AHEAD;
+            value = properties.apply(key);
+        }
+        String k = key;
+        return value
+                .map(String::trim)
+                .map(v -> {
+                    try {
+                        return Math.max(0, Integer.parseInt(v));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException(MessageFormat.format(
+                                "read-ahead depth must be a valid integer: {0}={1}",
+                                k, v), e);
+                    }
+                })
+                .orElse(DEFAULT_READ_AHEAD);
+    }
+
     private <T extends Writable> void resolve(
-            List<Path> paths, Class<T> type, Consumer<TaskInfo> sink) throws IOException {
+            List<Path> paths, Class<T> type, int readAhead, Consumer<TaskInfo> sink) throws IOException {
         FileSystem fs = FileSystem.get(configuration);
         Supplier<? extends T> supplier = () -> objectFactory.newInstance(type);
         List<FileStatus> stats = new ArrayList<>();
@@ -148,9 +193,9 @@ public class InternalInputAdapter implements InputAdapter<ExtractOperation.Input
             int blocks = (int) ((length + TemporaryFile.BLOCK_SIZE - 1) / TemporaryFile.BLOCK_SIZE);
             for (int i = 0; i < blocks; i++) {
                 if (local == null) {
-                    sink.accept(new HadoopInternalInputTaskInfo<>(fs, p, i, 1, supplier));
+                    sink.accept(new HadoopInternalInputTaskInfo<>(fs, p, i, 1, supplier, readAhead));
                 } else {
-                    sink.accept(new LocalInternalInputTaskInfo<>(local, i, 1, supplier));
+                    sink.accept(new LocalInternalInputTaskInfo<>(local, i, 1, supplier, readAhead));
                 }
             }
         }
@@ -35,6 +35,7 @@ import com.asakusafw.runtime.stage.temporary.TemporaryFileInput;
  * A {@link TaskInfo} for internal input.
  * @param <T> the input data type
  * @since 0.4.0
+ * @version 0.5.4
  */
 public class LocalInternalInputTaskInfo<T extends Writable> implements ModelInputTaskInfo<T> {
 
@@ -46,6 +47,8 @@ public class LocalInternalInputTaskInfo<T extends Writable> implements ModelInpu
 
     private final Supplier<? extends T> objectFactory;
 
+    private final int readAheadDepth;
+
     /**
      * Creates a new instance.
      * @param file the target file
@@ -56,12 +59,30 @@ public class LocalInternalInputTaskInfo<T extends Writable> implements ModelInpu
     public LocalInternalInputTaskInfo(
             File file, int blockOffset, int blockLength,
             Supplier<? extends T> objectFactory) {
+        this(file, blockOffset, blockLength, objectFactory, 0);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param file the target file
+     * @param blockOffset the block offset
+     * @param blockLength the block length
+     * @param objectFactory the data model object supplier
+     * @param readAheadDepth the number of objects to read ahead on a helper thread, or {@code 0} to disable it
+     * @since 0.5.4
+     */
+    public LocalInternalInputTaskInfo(
+            File file, int blockOffset, int blockLength,
+            Supplier<? extends T> objectFactory,
+            int readAheadDepth) {
         Arguments.requireNonNull(file);
         Arguments.requireNonNull(objectFactory);
+        Arguments.require(readAheadDepth >= 0);
         this.file = file;
         this.blockOffset = blockOffset;
         this.blockLength = blockLength;
         this.objectFactory = objectFactory;
+        this.readAheadDepth = readAheadDepth;
     }
 
     @Override
@@ -111,4 +132,9 @@ public class LocalInternalInputTaskInfo<T extends Writable> implements ModelInpu
     public T newDataObject() {
         return objectFactory.get();
     }
+
+    @Override
+    public int getReadAheadDepth() {
+        return readAheadDepth;
+    }
 }
@@ -42,6 +42,7 @@ import com.asakusafw.dag.api.processor.testing.MockVertexProcessorContext;
 import com.asakusafw.dag.runtime.adapter.ExtractOperation.Input;
 import com.asakusafw.dag.runtime.adapter.InputHandler;
 import com.asakusafw.dag.runtime.adapter.InputHandler.InputSession;
+import com.asakusafw.dag.runtime.adapter.ModelInputTaskInfo;
 import com.asakusafw.lang.utils.common.Lang;
 import com.asakusafw.runtime.io.ModelOutput;
 import com.asakusafw.runtime.windows.WindowsSupport;
@@ -85,6 +86,34 @@ public class InternalInputAdapterTest {
         assertThat(results, containsInAnyOrder("Hello, world!"));
     }
 
+    /**
+     * reads input objects on a helper thread.
+     * @throws Exception if failed
+     */
+    @Test
+    public void read_ahead() throws Exception {
+        File folder = temporary.newFolder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            expected.add(String.format("v%03d", i));
+        }
+        File f = put(new File(folder, "a.bin"), expected.toArray(new String[expected.size()]));
+        MockVertexProcessorContext vc = new MockVertexProcessorContext()
+                .withResource(StageInfo.class, STAGE)
+                .withResource(Configuration.class, new Configuration())
+                .withProperty(InternalInputAdapter.KEY_READ_AHEAD + ".testing", "4");
+        List<String> results;
+        try (InternalInputAdapter adapter = new InternalInputAdapter(vc)) {
+            adapter.bind("testing", f.toURI().toString(), Text.class);
+            adapter.initialize();
+            for (TaskInfo task : adapter.getSchedule().getTasks()) {
+                assertThat(((ModelInputTaskInfo<?>) task).getReadAheadDepth(), is(4));
+            }
+            results = collect(adapter);
+        }
+        assertThat(results, contains(expected.toArray()));
+    }
+
     private static File put(File file, String... lines) throws IOException {
         Lang.let(file.getParentFile(), f -> Assume.assumeTrue(f.mkdirs() || f.isDirectory()));
         try (ModelOutput<Text> out = InternalOutputHandler.create(new FileOutputStream(file), Text.class)) {
@@ -29,7 +29,9 @@ import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalDouble;
 import java.util.Set;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -51,6 +53,7 @@ import com.asakusafw.lang.utils.common.Optionals;
 /**
  * Splittable {@link JdbcInputDriver}.
  * @since 0.4.0
+ * @version 0.5.4
  */
 public class SplitJdbcInputDriver implements JdbcInputDriver {
 
@@ -123,20 +126,26 @@ public class SplitJdbcInputDriver implements JdbcInputDriver {
     @Override
     public List<? extends JdbcInputDriver.Partition> getPartitions(
             Connection connection) throws IOException, InterruptedException {
-        Optional<Stats> stats = getStats(connection);
-        List<?> boundValues = stats
-                .map(s -> computeBoundValues(s)) // for findbugs
-                .orElse(Collections.emptyList());
-        if (boundValues.isEmpty()) {
+        SplitKind kind = profile.getOption(SplitKind.class).orElse(SplitKind.EQUAL_WIDTH);
+        Optional<Stats> stats = getStats(connection, kind == SplitKind.EQUAL_FREQUENCY);
+        Optional<Histogram> histogram = Optionals.empty();
+        if (stats.isPresent() && kind == SplitKind.EQUAL_FREQUENCY) {
+            histogram = getHistogram(connection, stats.get());
+        }
+        if (histogram.isPresent() == false) {
+            histogram = stats.map(s -> new Histogram(computeBoundValues(s), null));
+        }
+        if (histogram.isPresent() == false || histogram.get().boundValues.isEmpty()) {
             int fetchSize = profile.getFetchSize().orElse(-1);
             String sql = JdbcUtil.getSelectStatement(tableName, columnNames, condition);
             return Collections.singletonList(conn -> BasicJdbcInputDriver.open(conn, sql, adapters.get(), fetchSize));
         }
-        return buildPartitions(stats.get(), boundValues);
+        return buildPartitions(stats.get(), histogram.get());
     }
 
-    private Optional<Stats> getStats(Connection connection) throws IOException, InterruptedException {
-        String sql = getStatsSql();
+    private Optional<Stats> getStats(
+            Connection connection, boolean count) throws IOException, InterruptedException {
+        String sql = getStatsSql(count);
         LOG.debug("split stats: {}", sql); //$NON-NLS-1$
         try (Closer closer = new Closer()) {
             Statement statement = connection.createStatement();
@@ -158,9 +167,15 @@ public class SplitJdbcInputDriver implements JdbcInputDriver {
             }
             Object min = null;
             Object max = null;
+            long values = -1;
+            long nulls = -1;
             if (rs.next()) {
                 min = getValue(rs, type, 1);
                 max = getValue(rs, type, 2);
+                if (count) {
+                    values = rs.getLong(3);
+                    nulls = rs.getLong(4) - values;
+                }
             }
             if (LOG.isDebugEnabled()) {
                 LOG.debug("split stats: table={}, column={}:{}, range=[{}, {}]", new Object[] { //$NON-NLS-1$
@@ -168,8 +183,11 @@ public class SplitJdbcInputDriver implements JdbcInputDriver {
                         splitColumnName, meta.getColumnTypeName(1),
                         min, max,
                 });
+                if (count) {
+                    LOG.debug("split stats: values={}, nulls={}", values, nulls); //$NON-NLS-1$
+                }
             }
-            return Optionals.of(new Stats(type, nullable, scale, min, max));
+            return Optionals.of(new Stats(type, nullable, scale, min, max, values, nulls));
         } catch (SQLException e) {
             throw JdbcUtil.wrap(e);
         }
@@ -185,10 +203,13 @@ public class SplitJdbcInputDriver implements JdbcInputDriver {
         }
     }
 
-    private String getStatsSql() {
+    private String getStatsSql(boolean count) {
         StringBuilder buf = new StringBuilder();
         buf.append("SELECT "); //$NON-NLS-1$
         buf.append(String.format("MIN(%1$s), MAX(%1$s)", splitColumnName)); //$NON-NLS-1$
+        if (count) {
+            buf.append(String.format(", COUNT(%1$s), COUNT(*)", splitColumnName)); //$NON-NLS-1$
+        }
         buf.append(" FROM "); //$NON-NLS-1$
         buf.append(tableName);
         if (condition != null) {
@@ -198,6 +219,110 @@ public class SplitJdbcInputDriver implements JdbcInputDriver {
         return buf.toString();
     }
 
+    private Optional<Histogram> getHistogram(Connection connection, Stats stats) {
+        if (stats.min == null || stats.max == null || stats.min.equals(stats.max) || stats.values < splitCount) {
+            return Optionals.empty();
+        }
+        try {
+            return Optionals.of(getHistogramByTile(connection, stats));
+        } catch (SQLException e) {
+            LOG.debug("failed to sample split column by NTILE: {}.{}", tableName, splitColumnName, e); //$NON-NLS-1$
+            recover(connection);
+        }
+        try {
+            return Optionals.of(getHistogramByOffset(connection, stats));
+        } catch (SQLException e) {
+            LOG.warn(MessageFormat.format(
+                    "failed to sample split column, use equal-width split instead: {0}.{1}",
+                    tableName,
+                    splitColumnName), e);
+            recover(connection);
+        }
+        return Optionals.empty();
+    }
+
+    private Histogram getHistogramByTile(Connection connection, Stats stats) throws SQLException {
+        StringBuilder buf = new StringBuilder();
+        buf.append("SELECT MIN(SPLIT_VALUE), COUNT(*) FROM ("); //$NON-NLS-1$
+        buf.append(String.format(
+                "SELECT %1$s AS SPLIT_VALUE, NTILE(%2$d) OVER (ORDER BY %1$s) AS SPLIT_TILE", //$NON-NLS-1$
+                splitColumnName, splitCount));
+        buf.append(" FROM ").append(tableName); //$NON-NLS-1$
+        appendSampleCondition(buf);
+        buf.append(") SPLIT_SAMPLE GROUP BY SPLIT_TILE ORDER BY SPLIT_TILE"); //$NON-NLS-1$
+        String sql = buf.toString();
+        LOG.debug("split sample: {}", sql); //$NON-NLS-1$
+        HistogramBuilder builder = new HistogramBuilder(stats);
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery(sql)) {
+            while (rs.next()) {
+                builder.add(getValue(rs, stats.typeId, 1), rs.getLong(2));
+            }
+        }
+        return builder.build();
+    }
+
+    private Histogram getHistogramByOffset(Connection connection, Stats stats) throws SQLException {
+        /*
+         * OFFSET(i) = FLOOR(ROWS * i / COUNT), i = 1..COUNT-1
+         */
+        HistogramBuilder builder = new HistogramBuilder(stats);
+        try (Statement statement = connection.createStatement()) {
+            long lastOffset = 0;
+            builder.add(stats.min, 0);
+            for (int i = 1; i < splitCount; i++) {
+                long offset = stats.values * i / splitCount;
+                StringBuilder buf = new StringBuilder();
+                buf.append("SELECT ").append(splitColumnName); //$NON-NLS-1$
+                buf.append(" FROM ").append(tableName); //$NON-NLS-1$
+                appendSampleCondition(buf);
+                buf.append(" ORDER BY ").append(splitColumnName); //$NON-NLS-1$
+                buf.append(String.format(" OFFSET %d ROWS FETCH NEXT 1 ROWS ONLY", offset)); //$NON-NLS-1$
+                String sql = buf.toString();
+                LOG.debug("split sample: {}", sql); //$NON-NLS-1$
+                try (ResultSet rs = statement.executeQuery(sql)) {
+                    if (rs.next() == false) {
+                        break;
+                    }
+                    builder.count(offset - lastOffset);
+                    builder.add(getValue(rs, stats.typeId, 1), 0);
+                    lastOffset = offset;
+                }
+            }
+            builder.count(stats.values - lastOffset);
+        }
+        return builder.build();
+    }
+
+    private void appendSampleCondition(StringBuilder buf) {
+        buf.append(" WHERE "); //$NON-NLS-1$
+        if (condition != null) {
+            buf.append(condition).append(" AND "); //$NON-NLS-1$
+        }
+        buf.append(splitColumnName).append(" IS NOT NULL"); //$NON-NLS-1$
+    }
+
+    private static void recover(Connection connection) {
+        try {
+            if (connection.getAutoCommit() == false) {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            LOG.debug("failed to rollback the current transaction", e); //$NON-NLS-1$
+        }
+    }
+
+    static boolean isSameValue(Object a, Object b) {
+        if (a instanceof BigDecimal && b instanceof BigDecimal) {
+            return ((BigDecimal) a).compareTo((BigDecimal) b) == 0;
+        }
+        if (a instanceof Number && b instanceof Number
+                && a instanceof BigDecimal == false && b instanceof BigDecimal == false) {
+            return ((Number) a).longValue() == ((Number) b).longValue();
+        }
+        return Objects.equals(a, b);
+    }
+
     private List<?> computeBoundValues(Stats stats) {
         if (stats.min == null || stats.max == null || stats.min.equals(stats.max)) {
             return Collections.emptyList();
@@ -301,13 +426,15 @@ public class SplitJdbcInputDriver implements JdbcInputDriver {
         }
     }
 
-    private List<? extends JdbcInputDriver.Partition> buildPartitions(Stats stats, List<?> boundValues) {
+    private List<? extends JdbcInputDriver.Partition> buildPartitions(Stats stats, Histogram histogram) {
+        List<?> boundValues = histogram.boundValues;
         if (LOG.isDebugEnabled()) {
-            LOG.debug("split {} into {} partitions by {}: {}", new Object[] { //$NON-NLS-1$
+            LOG.debug("split {} into {} partitions by {}: {} (rows={})", new Object[] { //$NON-NLS-1$
                     tableName,
                     boundValues.size() + 1,
                     splitColumnName,
                     boundValues,
+                    histogram.rowCounts,
             });
         }
         List<Partition> results = new ArrayList<>();
@@ -318,6 +445,16 @@ public class SplitJdbcInputDriver implements JdbcInputDriver {
             results.add(toBodyPartition(stats, lower, upper));
         }
         results.add(toUpperPartition(stats, boundValues.get(boundValues.size() - 1)));
+        if (histogram.rowCounts != null) {
+            Invariants.require(histogram.rowCounts.size() == results.size());
+            for (int i = 0, n = results.size(); i < n; i++) {
+                long rows = histogram.rowCounts.get(i);
+                if (i == 0 && stats.nulls > 0) {
+                    rows += stats.nulls;
+                }
+                results.get(i).estimatedRowCount = rows;
+            }
+        }
         return results;
     }
 
@@ -375,6 +512,26 @@ public class SplitJdbcInputDriver implements JdbcInputDriver {
         return buf;
     }
 
+    /**
+     * Represents a strategy of computing the split bounds.
+     * This is provided as an option of {@link JdbcProfile}.
+     * @since 0.5.4
+     */
+    public enum SplitKind {
+
+        /**
+         * Splits the range between the minimum and maximum values of the split column into equal-width intervals.
+         */
+        EQUAL_WIDTH,
+
+        /**
+         * Samples the split column and splits it into intervals which contain almost the same number of rows.
+         * This uses {@code NTILE} window function or {@code OFFSET ... FETCH} clause, and falls back to
+         * {@link #EQUAL_WIDTH} if neither is available.
+         */
+        EQUAL_FREQUENCY,
+    }
+
     private static class Stats {
 
         final int typeId;
@@ -387,12 +544,70 @@ public class SplitJdbcInputDriver implements JdbcInputDriver {
 
         final Object max;
 
-        Stats(int typeId, boolean nullable, int scale, Object min, Object max) {
+        final long values;
+
+        final long nulls;
+
+        Stats(int typeId, boolean nullable, int scale, Object min, Object max, long values, long nulls) {
             this.typeId = typeId;
             this.nullable = nullable;
             this.scale = scale;
             this.min = min;
             this.max = max;
+            this.values = values;
+            this.nulls = nulls;
+        }
+    }
+
+    private static class Histogram {
+
+        final List<?> boundValues;
+
+        final List<Long> rowCounts;
+
+        Histogram(List<?> boundValues, List<Long> rowCounts) {
+            this.boundValues = boundValues;
+            this.rowCounts = rowCounts;
+        }
+    }
+
+    /**
+     * Builds {@link Histogram} from the leading value and the number of rows of each sampled bucket,
+     * and merges the adjacent buckets which start with the same value.
+     */
+    private static class HistogramBuilder {
+
+        private final Stats stats;
+
+        private final List<Object> boundValues = new ArrayList<>();
+
+        private final List<Long> rowCounts = new ArrayList<>();
+
+        HistogramBuilder(Stats stats) {
+            this.stats = stats;
+        }
+
+        void add(Object value, long rows) {
+            Object last = boundValues.isEmpty() ? stats.min : boundValues.get(boundValues.size() - 1);
+            if (rowCounts.isEmpty() == false && (value == null || isSameValue(last, value))) {
+                count(rows);
+            } else {
+                if (rowCounts.isEmpty() == false) {
+                    boundValues.add(value);
+                }
+                rowCounts.add(rows);
+            }
+        }
+
+        void count(long rows) {
+            Invariants.require(rowCounts.isEmpty() == false);
+            int last = rowCounts.size() - 1;
+            rowCounts.set(last, rowCounts.get(last) + rows);
+        }
+
+        Histogram build() {
+            Invariants.require(rowCounts.size() == boundValues.size() + 1);
+            return new Histogram(boundValues, rowCounts);
         }
     }
 
@@ -406,6 +621,8 @@ public class SplitJdbcInputDriver implements JdbcInputDriver {
 
         private final ResultSetAdapter<?> adapter;
 
+        long estimatedRowCount = -1;
+
         Partition(String sql, List<?> arguments, int argumentType, ResultSetAdapter<?> adapter) {
             this.sql = sql;
             this.arguments = arguments;
@@ -430,5 +647,13 @@ public class SplitJdbcInputDriver implements JdbcInputDriver {
                 throw JdbcUtil.wrap(e);
             }
         }
+
+        @Override
+        public OptionalDouble getEsitimatedRowCount() {
+            if (estimatedRowCount < 0) {
+                return OptionalDouble.empty();
+            }
+            return OptionalDouble.of(estimatedRowCount);
+        }
     }
 }
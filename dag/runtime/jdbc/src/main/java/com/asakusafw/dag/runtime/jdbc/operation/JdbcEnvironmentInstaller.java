@@ -43,6 +43,7 @@ import com.asakusafw.dag.api.processor.extension.ProcessorContextExtension;
 import com.asakusafw.dag.runtime.jdbc.ConnectionPool;
 import com.asakusafw.dag.runtime.jdbc.JdbcProfile;
 import com.asakusafw.dag.runtime.jdbc.basic.BasicConnectionPool;
+import com.asakusafw.dag.runtime.jdbc.basic.SplitJdbcInputDriver;
 import com.asakusafw.lang.utils.common.InterruptibleIo;
 import com.asakusafw.lang.utils.common.InterruptibleIo.Closer;
 import com.asakusafw.lang.utils.common.Optionals;
@@ -51,6 +52,7 @@ import com.asakusafw.lang.utils.common.Tuple;
 /**
  * Installs {@link JdbcEnvironment} into the core processor environment.
  * @since 0.4.0
+ * @version 0.5.4
  */
 public class JdbcEnvironmentInstaller implements ProcessorContextExtension {
 
@@ -95,6 +97,13 @@ public class JdbcEnvironmentInstaller implements ProcessorContextExtension {
      */
     public static final String KEY_INPUT_THREADS = "input.threads"; //$NON-NLS-1$
 
+    /**
+     * The property sub-key of the strategy of splitting inputs.
+     * @see SplitJdbcInputDriver.SplitKind
+     * @since 0.5.4
+     */
+    public static final String KEY_INPUT_SPLIT = "input.split"; //$NON-NLS-1$
+
     /**
      * The property sub-key of {@link PreparedStatement#executeBatch() the number of batch insert records} per commit.
      */
@@ -110,6 +119,13 @@ public class JdbcEnvironmentInstaller implements ProcessorContextExtension {
      */
     public static final String KEY_OUTPUT_CLEAR = "output.clear"; //$NON-NLS-1$
 
+    /**
+     * The property sub-key of the strategy of executing batch inserts.
+     * @see OutputBatchKind
+     * @since 0.5.4
+     */
+    public static final String KEY_OUTPUT_BATCH = "output.batch"; //$NON-NLS-1$
+
     /**
      * The property sub-key of comma separated available optimization symbols.
      */
@@ -190,8 +206,12 @@ public class JdbcEnvironmentInstaller implements ProcessorContextExtension {
                 .withMaxInputConcurrency(extract(profileName, properties, KEY_INPUT_THREADS, DEFAULT_INPUT_THREADS))
                 .withMaxOutputConcurrency(extract(profileName, properties, KEY_OUTPUT_THREADS, DEFAULT_OUTPUT_THREADS))
                 .withOptions(extractSet(profileName, properties, KEY_OPTIMIZATIONS));
+        extract(SplitJdbcInputDriver.SplitKind.class, profileName, properties, KEY_INPUT_SPLIT)
+            .ifPresent(builder::withOption);
         extract(OutputClearKind.class, profileName, properties, KEY_OUTPUT_CLEAR)
             .ifPresent(builder::withOption);
+        extract(OutputBatchKind.class, profileName, properties, KEY_OUTPUT_BATCH)
+            .ifPresent(builder::withOption);
         if (properties.isEmpty() == false) {
             throw new IllegalArgumentException(MessageFormat.format(
                     "unrecognized JDBC profile properties: {0}",
@@ -23,6 +23,11 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
@@ -48,11 +53,13 @@ import com.asakusafw.dag.runtime.skeleton.VoidTaskProcessor;
 import com.asakusafw.lang.utils.common.Arguments;
 import com.asakusafw.lang.utils.common.InterruptibleIo;
 import com.asakusafw.lang.utils.common.Invariants;
+import com.asakusafw.lang.utils.common.Lang;
 import com.asakusafw.lang.utils.common.Tuple;
 
 /**
  * Processes set of JDBC outputs.
  * @since 0.4.0
+ * @version 0.5.4
  */
 public class JdbcOutputProcessor implements VertexProcessor {
 
@@ -62,6 +69,12 @@ public class JdbcOutputProcessor implements VertexProcessor {
 
     static final int DEFAULT_MAX_CONCURRENCY = -1;
 
+    static final int ADAPTIVE_SHRINK_LIMIT = 8;
+
+    static final int ADAPTIVE_GROW_LIMIT = 16;
+
+    static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
     /**
      * The input edge name.
      */
@@ -69,6 +82,8 @@ public class JdbcOutputProcessor implements VertexProcessor {
 
     private volatile int maxConcurrency = -1;
 
+    private volatile OutputBatchKind batchKind = OutputBatchKind.FIXED;
+
     private final AtomicReference<String> uniqueProfileName = new AtomicReference<>();
 
     private final List<Spec<JdbcOperationDriver>> initializeSpecs = new ArrayList<>();
@@ -192,19 +207,36 @@ public class JdbcOutputProcessor implements VertexProcessor {
     }
 
     private void configureProcessor(JdbcProfile profile) {
-        this.maxConcurrency = computeMaxConcurrency(profile);
+        this.batchKind = computeBatchKind(profile);
+        this.maxConcurrency = computeMaxConcurrency(profile, batchKind);
         if (LOG.isDebugEnabled()) {
-            LOG.debug("JDBC output concurrency: {}", maxConcurrency);
+            LOG.debug("JDBC output concurrency: {} ({})", maxConcurrency, batchKind);
+        }
+    }
+
+    private static OutputBatchKind computeBatchKind(JdbcProfile profile) {
+        OutputBatchKind kind = profile.getOption(OutputBatchKind.class).orElse(OutputBatchKind.FIXED);
+        OptionalInt limit = profile.getConnectionPool().size();
+        if (kind != OutputBatchKind.FIXED && limit.isPresent() && limit.getAsInt() < 2) {
+            // pipelined outputs require two connections for each task
+            LOG.warn(MessageFormat.format(
+                    "JDBC output batch strategy \"{1}\" requires at least 2 connections: {0}",
+                    profile.getName(),
+                    kind));
+            return OutputBatchKind.FIXED;
         }
+        return kind;
     }
 
-    private static int computeMaxConcurrency(JdbcProfile profile) {
+    private static int computeMaxConcurrency(JdbcProfile profile, OutputBatchKind batchKind) {
         OptionalInt limit = profile.getConnectionPool().size();
         OptionalInt concurrency = profile.getMaxOutputConcurrency();
         if (limit.isPresent() == false && concurrency.isPresent() == false) {
             return DEFAULT_MAX_CONCURRENCY;
         }
-        return Math.max(1, Math.min(limit.orElse(Integer.MAX_VALUE), concurrency.orElse(1)));
+        int connectionsPerTask = batchKind == OutputBatchKind.FIXED ? 1 : 2;
+        int available = limit.isPresent() ? limit.getAsInt() / connectionsPerTask : Integer.MAX_VALUE;
+        return Math.max(1, Math.min(available, concurrency.orElse(1)));
     }
 
     private void runInitializers(JdbcContext context, JdbcProfile profile) throws IOException, InterruptedException {
@@ -230,16 +262,25 @@ public class JdbcOutputProcessor implements VertexProcessor {
         for (Spec<JdbcOutputDriver> spec : outputSpecs) {
             resolved.add(new Tuple<String, JdbcOutputDriver>(spec.id, spec.provider.apply(context)));
         }
+        OutputBatchKind kind = batchKind;
+        int batchSize = profile.getBatchInsertSize().orElse(DEFAULT_BATCH_INSERT_SIZE);
         processors = () -> {
             try (Closer c = new Closer()) {
-                List<CoarseTaskUnit> units = new ArrayList<>();
-                for (Tuple<String, JdbcOutputDriver> r : resolved) {
-                    String id = r.left();
-                    JdbcOutputDriver driver = r.right();
-                    JdbcCounterGroup counter = counters.get(JdbcCounterGroup.CATEGORY_OUTPUT, id);
-                    units.add(c.add(new CoarseTaskUnit(id, driver, counter)));
+                Lane[] lanes = new Lane[kind == OutputBatchKind.FIXED ? 1 : 2];
+                for (int i = 0; i < lanes.length; i++) {
+                    List<CoarseTaskUnit> units = new ArrayList<>();
+                    for (Tuple<String, JdbcOutputDriver> r : resolved) {
+                        String id = r.left();
+                        JdbcOutputDriver driver = r.right();
+                        JdbcCounterGroup counter = counters.get(JdbcCounterGroup.CATEGORY_OUTPUT, id);
+                        units.add(c.add(new CoarseTaskUnit(id, driver, counter)));
+                    }
+                    lanes[i] = new Lane(units.toArray(new CoarseTaskUnit[units.size()]));
                 }
-                return new CoarseTask(profile, units.toArray(new CoarseTaskUnit[units.size()]), c.move());
+                BatchSizer sizer = kind == OutputBatchKind.ADAPTIVE
+                        ? BatchSizer.adaptive(batchSize)
+                        : new BatchSizer(batchSize);
+                return new CoarseTask(profile, lanes, sizer, c.move());
             }
         };
         if (maxConcurrency > 0 && maxConcurrencyEnabled == false) {
@@ -293,45 +334,52 @@ public class JdbcOutputProcessor implements VertexProcessor {
 
         private final JdbcProfile profile;
 
-        private final CoarseTaskUnit[] units;
+        private final Lane[] lanes;
+
+        private final BatchSizer sizer;
 
         private final Closer closer;
 
-        private Connection connection;
+        private int laneIndex;
 
-        private final int windowSize;
+        private int windowSize;
 
         private int windowOffset;
 
         private boolean sawError;
 
+        private ExecutorService executor;
+
+        private Future<Long> pending;
+
+        private int pendingRecords;
+
         CoarseTask(
                 JdbcProfile profile,
-                CoarseTaskUnit[] units,
+                Lane[] lanes,
+                BatchSizer sizer,
                 Closer closer) throws IOException, InterruptedException {
             try (Closer c = closer) {
                 this.profile = profile;
-                this.units = units;
-                this.windowSize = profile.getBatchInsertSize().orElse(DEFAULT_BATCH_INSERT_SIZE);
+                this.lanes = lanes;
+                this.sizer = sizer;
+                this.windowSize = sizer.getSize();
                 this.closer = c.move();
             }
         }
 
         @Override
         public void run(TaskProcessorContext context) throws IOException, InterruptedException {
-            if (connection == null) {
-                connection = closer.add(profile.acquire()).getConnection();
-                windowOffset = 0;
-            }
-            Connection conn = connection;
+            Lane lane = getLane();
             int rest = windowSize - windowOffset;
-            CoarseTaskUnit[] us = units;
             try (ObjectReader reader = (ObjectReader) context.getInput(INPUT_NAME)) {
                 while (reader.nextObject()) {
                     for (UnionRecord union = (UnionRecord) reader.getObject(); union != null; union = union.next) {
-                        us[union.tag].write(conn, union.entity);
+                        lane.units[union.tag].write(lane.connection, union.entity);
                         if (--rest <= 0) {
+                            windowOffset = windowSize;
                             flush();
+                            lane = getLane();
                             rest = windowSize;
                         }
                     }
@@ -343,22 +391,133 @@ public class JdbcOutputProcessor implements VertexProcessor {
             windowOffset = windowSize - rest;
         }
 
+        private Lane getLane() throws IOException, InterruptedException {
+            Lane lane = lanes[laneIndex];
+            if (lane.connection == null) {
+                lane.connection = closer.add(profile.acquire()).getConnection();
+            }
+            return lane;
+        }
+
         @Override
         public void close() throws IOException, InterruptedException {
             try {
-                if (connection != null && sawError == false && windowOffset > 0) {
-                    flush();
-                    windowOffset = 0;
+                if (sawError) {
+                    cancelPending();
+                } else {
+                    awaitPending();
+                    Lane lane = lanes[laneIndex];
+                    if (lane.connection != null && windowOffset > 0) {
+                        lane.flush(windowOffset);
+                        windowOffset = 0;
+                    }
                 }
             } finally {
+                if (executor != null) {
+                    executor.shutdownNow();
+                    executor = null;
+                }
                 closer.close();
             }
         }
 
         private void flush() throws IOException, InterruptedException {
+            int records = windowOffset;
+            windowOffset = 0;
+            if (lanes.length == 1) {
+                long start = System.nanoTime();
+                lanes[0].flush(records);
+                feedback(records, System.nanoTime() - start);
+                return;
+            }
+            // the previous lane must be completed before we switch to it
+            awaitPending();
+            Lane lane = lanes[laneIndex];
+            pending = getExecutor().submit(() -> {
+                long start = System.nanoTime();
+                lane.flush(records);
+                return System.nanoTime() - start;
+            });
+            pendingRecords = records;
+            laneIndex = (laneIndex + 1) % lanes.length;
+        }
+
+        private ExecutorService getExecutor() {
+            if (executor == null) {
+                executor = Executors.newSingleThreadExecutor(r -> Lang.let(new Thread(r), t -> {
+                    t.setName(String.format("jdbc-output-%d", THREAD_COUNTER.incrementAndGet())); //$NON-NLS-1$
+                    t.setDaemon(true);
+                }));
+            }
+            return executor;
+        }
+
+        private void awaitPending() throws IOException, InterruptedException {
+            Future<Long> f = pending;
+            if (f == null) {
+                return;
+            }
+            pending = null;
+            try {
+                feedback(pendingRecords, f.get());
+            } catch (ExecutionException e) {
+                sawError = true;
+                Throwable t = e.getCause();
+                Lang.rethrow(t, Error.class);
+                Lang.rethrow(t, RuntimeException.class);
+                Lang.rethrow(t, IOException.class);
+                Lang.rethrow(t, InterruptedException.class);
+                throw new IOException(t);
+            }
+        }
+
+        private void cancelPending() throws InterruptedException {
+            Future<Long> f = pending;
+            if (f == null) {
+                return;
+            }
+            pending = null;
+            try {
+                f.get();
+            } catch (ExecutionException e) {
+                LOG.debug("error occurred while executing JDBC output batch", e.getCause()); //$NON-NLS-1$
+            }
+        }
+
+        private void feedback(int records, long elapsed) {
+            int oldSize = windowSize;
+            sizer.update(records, elapsed);
+            windowSize = sizer.getSize();
+            if (LOG.isTraceEnabled() && oldSize != windowSize) {
+                LOG.trace("changing JDBC output batch size: {} -> {}", oldSize, windowSize); //$NON-NLS-1$
+            }
+        }
+
+        @Override
+        public String toString() {
+            return MessageFormat.format(
+                    "JdbcOutput({0})", //$NON-NLS-1$
+                    lanes[0].units.length);
+        }
+    }
+
+    /**
+     * A set of outputs which share the same connection.
+     */
+    private static final class Lane {
+
+        final CoarseTaskUnit[] units;
+
+        Connection connection;
+
+        Lane(CoarseTaskUnit[] units) {
+            this.units = units;
+        }
+
+        void flush(int records) throws IOException, InterruptedException {
             try {
                 if (LOG.isTraceEnabled()) {
-                    LOG.trace("committing {} records", windowOffset);
+                    LOG.trace("committing {} records", records);
                 }
                 boolean flushed = false;
                 CoarseTaskUnit[] us = units;
@@ -373,12 +532,80 @@ public class JdbcOutputProcessor implements VertexProcessor {
                 throw JdbcUtil.wrap(e);
             }
         }
+    }
 
-        @Override
-        public String toString() {
-            return MessageFormat.format(
-                    "JdbcOutput({0})", //$NON-NLS-1$
-                    units.length);
+    /**
+     * Decides the number of records in each batch.
+     */
+    static class BatchSizer {
+
+        private static final double TOLERANCE = 0.05;
+
+        private final int minimum;
+
+        private final int maximum;
+
+        private final boolean adaptive;
+
+        private int size;
+
+        private int direction = +1;
+
+        private double lastCost = Double.NaN;
+
+        BatchSizer(int size) {
+            this(size, size, size);
+        }
+
+        BatchSizer(int initial, int minimum, int maximum) {
+            Arguments.require(minimum >= 1);
+            Arguments.require(minimum <= initial);
+            Arguments.require(initial <= maximum);
+            this.size = initial;
+            this.minimum = minimum;
+            this.maximum = maximum;
+            this.adaptive = minimum < maximum;
+        }
+
+        static BatchSizer adaptive(int initial) {
+            return new BatchSizer(
+                    initial,
+                    Math.max(1, initial / ADAPTIVE_SHRINK_LIMIT),
+                    (int) Math.min(Integer.MAX_VALUE / 2, (long) initial * ADAPTIVE_GROW_LIMIT));
+        }
+
+        int getSize() {
+            return size;
+        }
+
+        /**
+         * Accepts the latency of a finished batch, and tunes the next batch size by hill climbing the latency per
+         * record: the size keeps moving to the same direction while the cost is improved, turns back if it was
+         * worsened, and stays otherwise.
+         * @param records the number of records in the batch
+         * @param elapsed the elapsed time in nanoseconds
+         */
+        void update(int records, long elapsed) {
+            if (adaptive == false || records < size || records <= 0) {
+                // only full batches of the current size are comparable
+                return;
+            }
+            double cost = (double) elapsed / records;
+            if (Double.isNaN(lastCost) == false) {
+                if (cost > lastCost * (1.0 + TOLERANCE)) {
+                    direction = -direction;
+                } else if (cost >= lastCost * (1.0 - TOLERANCE)) {
+                    lastCost = cost;
+                    return;
+                }
+            }
+            lastCost = cost;
+            int next = direction > 0 ? size * 2 : size / 2;
+            next = Math.max(minimum, Math.min(maximum, next));
+            if (next == size) {
+                direction = -direction;
+            }
+            size = next;
         }
     }
 
@@ -392,7 +619,7 @@ public class JdbcOutputProcessor implements VertexProcessor {
 
         private JdbcOutputDriver.Sink sink;
 
-        // NOTE: count <= CoarseTask.windowSize (int)
+        // NOTE: count <= BatchSizer.maximum (int)
         private int count;
 
         CoarseTaskUnit(String id, JdbcOutputDriver driver, JdbcCounterGroup counter) {
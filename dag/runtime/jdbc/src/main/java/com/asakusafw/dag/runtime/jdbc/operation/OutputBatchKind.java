@@ -0,0 +1,38 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.dag.runtime.jdbc.operation;
+
+/**
+ * Represents a strategy of executing batch inserts of outputs.
+ * @since 0.5.4
+ */
+public enum OutputBatchKind {
+
+    /**
+     * Executes each batch on the task thread, and the batch size is fixed.
+     */
+    FIXED,
+
+    /**
+     * Executes each batch on a helper thread with its own connection, while the task thread fills the next batch.
+     */
+    PIPELINED,
+
+    /**
+     * Same as {@link #PIPELINED}, but tunes the batch size from the observed latency of the individual batches.
+     */
+    ADAPTIVE,
+}
@@ -148,9 +148,19 @@ public abstract class JdbcDagTestRoot {
      * @return the environment
      */
     public JdbcEnvironment environment(String... profileNames) {
+        return environment(1, profileNames);
+    }
+
+    /**
+     * Creates a new environment.
+     * @param connections the max number of connections of each profile
+     * @param profileNames the profile names
+     * @return the environment
+     */
+    public JdbcEnvironment environment(int connections, String... profileNames) {
         List<JdbcProfile> profiles = new ArrayList<>();
         for (String name : profileNames) {
-            profiles.add(profile0(name, pool(1)));
+            profiles.add(profile0(name, pool(connections)));
         }
         return new JdbcEnvironment(profiles);
     }
@@ -235,6 +235,97 @@ public class SplitJdbcInputDriverTest extends JdbcDagTestRoot {
         });
     }
 
+    /**
+     * split skewed values into equal-frequency ranges.
+     * @throws Exception if failed
+     */
+    @Test
+    public void split_equal_frequency() throws Exception {
+        edit(b -> b.withOption(SplitJdbcInputDriver.SplitKind.EQUAL_FREQUENCY));
+        List<KsvModel> in = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            long sort = i < 95 ? i : 100_000L + i;
+            in.add(insert(new KsvModel(i, new BigDecimal(BigInteger.valueOf(sort), 2), null)));
+        }
+        profile("testing", p -> {
+            List<? extends Partition> parts = get(p, "M_SORT", 10, null);
+            assertThat(parts, hasSize(10));
+            assertThat(estimate(parts), is(100.0));
+            List<List<KsvModel>> results = sort(parts);
+            results.forEach(e -> assertThat(e, hasSize(lessThan(20))));
+            assertThat(merge(results), is(in));
+        });
+    }
+
+    /**
+     * split skewed values into equal-width ranges.
+     * @throws Exception if failed
+     */
+    @Test
+    public void split_equal_width() throws Exception {
+        edit(b -> b.withOption(SplitJdbcInputDriver.SplitKind.EQUAL_WIDTH));
+        List<KsvModel> in = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            long sort = i < 95 ? i : 100_000L + i;
+            in.add(insert(new KsvModel(i, new BigDecimal(BigInteger.valueOf(sort), 2), null)));
+        }
+        profile("testing", p -> {
+            List<? extends Partition> parts = get(p, "M_SORT", 10, null);
+            parts.forEach(e -> assertThat(e.getEsitimatedRowCount().isPresent(), is(false)));
+            List<List<KsvModel>> results = sort(parts);
+            assertThat(results.stream().mapToInt(List::size).max().getAsInt(), is(greaterThanOrEqualTo(95)));
+            assertThat(merge(results), is(in));
+        });
+    }
+
+    /**
+     * split into equal-frequency ranges w/ nulls and condition.
+     * @throws Exception if failed
+     */
+    @Test
+    public void split_equal_frequency_nulls() throws Exception {
+        edit(b -> b.withOption(SplitJdbcInputDriver.SplitKind.EQUAL_FREQUENCY));
+        List<KsvModel> in = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            in.add(insert(new KsvModel(i - 10, null, null)));
+        }
+        for (int i = 0; i < 200; i++) {
+            long sort = i % 2 == 0 ? i : 1L << 40;
+            in.add(insert(new KsvModel(i, new BigDecimal(BigInteger.valueOf(sort), 2), null)));
+        }
+        profile("testing", p -> {
+            List<? extends Partition> parts = get(p, "M_SORT", 4, "M_KEY < 100");
+            assertThat(parts, hasSize(lessThanOrEqualTo(4)));
+            assertThat(estimate(parts), is(110.0));
+            assertThat(parts.get(0).getEsitimatedRowCount().getAsDouble(), is(greaterThanOrEqualTo(10.0)));
+            List<List<KsvModel>> results = sort(parts);
+            assertThat(merge(results), is(in.stream()
+                    .filter(m -> m.getKey() < 100)
+                    .collect(Collectors.toList())));
+        });
+    }
+
+    /**
+     * split into equal-frequency ranges w/ dense values.
+     * @throws Exception if failed
+     */
+    @Test
+    public void split_equal_frequency_dense() throws Exception {
+        edit(b -> b.withOption(SplitJdbcInputDriver.SplitKind.EQUAL_FREQUENCY));
+        List<KsvModel> in = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            in.add(insert(new KsvModel(i, new BigDecimal(BigInteger.valueOf(i % 3), 2), null)));
+        }
+        profile("testing", p -> {
+            List<? extends Partition> parts = get(p, "M_SORT", 10, null);
+            assertThat(parts, hasSize(3));
+            assertThat(estimate(parts), is(1000.0));
+            List<List<KsvModel>> results = sort(parts);
+            results.forEach(e -> assertThat(e, hasSize(lessThan(400))));
+            assertThat(merge(results), is(in));
+        });
+    }
+
     private List<? extends Partition> get(JdbcProfile profile, String split, int count, String condition) {
         return connect(new SplitJdbcInputDriver(
                 profile,
@@ -243,6 +334,12 @@ public class SplitJdbcInputDriverTest extends JdbcDagTestRoot {
                 KsvJdbcAdapter::new)::getPartitions);
     }
 
+    private static double estimate(List<? extends Partition> parts) {
+        return parts.stream()
+                .mapToDouble(e -> e.getEsitimatedRowCount().getAsDouble())
+                .sum();
+    }
+
     private List<List<KsvModel>> sort(List<? extends Partition> parts) throws IOException, InterruptedException {
         return sort(parts, KsvModel::new, (a, b) -> a.getKeyOption().compareTo(b.getKeyOption()));
     }
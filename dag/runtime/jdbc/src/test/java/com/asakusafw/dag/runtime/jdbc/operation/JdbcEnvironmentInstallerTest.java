@@ -34,6 +34,7 @@ import com.asakusafw.dag.runtime.jdbc.ConnectionPool;
 import com.asakusafw.dag.runtime.jdbc.JdbcDagTestRoot;
 import com.asakusafw.dag.runtime.jdbc.JdbcProfile;
 import com.asakusafw.dag.runtime.jdbc.basic.BasicConnectionPool;
+import com.asakusafw.dag.runtime.jdbc.basic.SplitJdbcInputDriver;
 import com.asakusafw.lang.utils.common.Lang;
 
 /**
@@ -71,6 +72,7 @@ public class JdbcEnvironmentInstallerTest extends JdbcDagTestRoot {
         assertThat(profile.getMaxOutputConcurrency().getAsInt(), is(DEFAULT_OUTPUT_THREADS));
         assertThat(profile.getOptimizations(), hasSize(0));
         assertThat(profile.getOption(OutputClearKind.class), is(Optional.empty()));
+        assertThat(profile.getOption(OutputBatchKind.class), is(Optional.empty()));
     }
 
     /**
@@ -105,6 +107,8 @@ public class JdbcEnvironmentInstallerTest extends JdbcDagTestRoot {
                 q("a", KEY_PROPERTIES + ".testing"), "OK",
                 q("a", KEY_POOL_CLASS), BasicConnectionPool.class.getName(),
                 q("a", KEY_OUTPUT_CLEAR), "keep",
+                q("a", KEY_INPUT_SPLIT), "equal_frequency",
+                q("a", KEY_OUTPUT_BATCH), "adaptive",
         });
         JdbcProfile profile = environment.getProfile("a");
         try (ConnectionPool.Handle ha = profile.acquire();
@@ -117,6 +121,9 @@ public class JdbcEnvironmentInstallerTest extends JdbcDagTestRoot {
         assertThat(profile.getMaxInputConcurrency().getAsInt(), is(3));
         assertThat(profile.getMaxOutputConcurrency(), is(OptionalInt.empty()));
         assertThat(profile.getOption(OutputClearKind.class), is(Optional.of(OutputClearKind.KEEP)));
+        assertThat(profile.getOption(OutputBatchKind.class), is(Optional.of(OutputBatchKind.ADAPTIVE)));
+        assertThat(profile.getOption(SplitJdbcInputDriver.SplitKind.class),
+                is(Optional.of(SplitJdbcInputDriver.SplitKind.EQUAL_FREQUENCY)));
     }
 
     /**
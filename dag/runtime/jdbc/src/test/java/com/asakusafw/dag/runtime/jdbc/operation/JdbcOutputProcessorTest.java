@@ -157,6 +157,134 @@ public class JdbcOutputProcessorTest extends JdbcDagTestRoot {
         }
     }
 
+    /**
+     * pipelined outputs.
+     * @throws Exception if failed
+     */
+    @Test
+    public void pipelined() throws Exception {
+        edit(b -> b.withInsertSize(10).withOption(OutputBatchKind.PIPELINED));
+        List<KsvModel> records = new ArrayList<>();
+        for (int i = 0; i < 1230; i++) {
+            records.add(new KsvModel(i, null, "Hello" + i));
+        }
+        profile(PROFILE, profile -> {
+            run(2, c -> c.output("t", profile.getName(), output(TABLE)), new Object[][] {
+                records.toArray()
+            });
+        });
+        assertThat(select(), is(records));
+    }
+
+    /**
+     * pipelined outputs with multiple destinations.
+     * @throws Exception if failed
+     */
+    @Test
+    public void pipelined_multiple_destination() throws Exception {
+        h2.execute(String.format(DDL_FORMAT, "T0"));
+        h2.execute(String.format(DDL_FORMAT, "T1"));
+        edit(b -> b.withInsertSize(7).withOption(OutputBatchKind.PIPELINED));
+        List<KsvModel> r0 = new ArrayList<>();
+        List<KsvModel> r1 = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            r0.add(new KsvModel(i, null, "T0-" + i));
+            r1.add(new KsvModel(i, null, "T1-" + i));
+        }
+        profile(PROFILE, profile -> {
+            run(2, c -> c
+                    .output("t0", profile.getName(), output("T0"))
+                    .output("t1", profile.getName(), output("T1")), new Object[][] {
+                r0.toArray(),
+                r1.toArray(),
+            });
+        });
+        try (Connection conn = h2.open()) {
+            assertThat(select(conn, "T0"), is(r0));
+            assertThat(select(conn, "T1"), is(r1));
+        }
+    }
+
+    /**
+     * pipelined outputs w/o enough connections.
+     * @throws Exception if failed
+     */
+    @Test
+    public void pipelined_fallback() throws Exception {
+        edit(b -> b.withInsertSize(10).withOption(OutputBatchKind.PIPELINED));
+        List<KsvModel> records = new ArrayList<>();
+        for (int i = 0; i < 123; i++) {
+            records.add(new KsvModel(i, null, "Hello" + i));
+        }
+        profile(PROFILE, profile -> {
+            run(1, c -> c.output("t", profile.getName(), output(TABLE)), new Object[][] {
+                records.toArray()
+            });
+        });
+        assertThat(select(), is(records));
+    }
+
+    /**
+     * adaptive batch size.
+     * @throws Exception if failed
+     */
+    @Test
+    public void adaptive() throws Exception {
+        edit(b -> b.withInsertSize(4).withOption(OutputBatchKind.ADAPTIVE));
+        List<KsvModel> records = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            records.add(new KsvModel(i, null, "Hello" + i));
+        }
+        profile(PROFILE, profile -> {
+            run(2, c -> c.output("t", profile.getName(), output(TABLE)), new Object[][] {
+                records.toArray()
+            });
+        });
+        assertThat(select(), is(records));
+    }
+
+    /**
+     * tuning batch size.
+     */
+    @Test
+    public void batch_sizer() {
+        JdbcOutputProcessor.BatchSizer fixed = new JdbcOutputProcessor.BatchSizer(100);
+        fixed.update(100, 1_000);
+        fixed.update(100, 1_000_000);
+        assertThat(fixed.getSize(), is(100));
+
+        JdbcOutputProcessor.BatchSizer sizer = new JdbcOutputProcessor.BatchSizer(100, 25, 800);
+        // first observation: grows
+        sizer.update(100, 100_000);
+        assertThat(sizer.getSize(), is(200));
+
+        // improved: keeps growing
+        sizer.update(200, 100_000);
+        assertThat(sizer.getSize(), is(400));
+
+        // partial batches are ignored
+        sizer.update(10, 1_000_000);
+        assertThat(sizer.getSize(), is(400));
+
+        // worsened: turns back
+        sizer.update(400, 400_000);
+        assertThat(sizer.getSize(), is(200));
+
+        // not changed: stays
+        sizer.update(200, 200_000);
+        assertThat(sizer.getSize(), is(200));
+
+        // improved: keeps shrinking down to the minimum
+        sizer.update(200, 100_000);
+        assertThat(sizer.getSize(), is(100));
+        sizer.update(100, 10_000);
+        assertThat(sizer.getSize(), is(50));
+        sizer.update(50, 1_000);
+        assertThat(sizer.getSize(), is(25));
+        sizer.update(25, 100);
+        assertThat(sizer.getSize(), is(25));
+    }
+
     private static JdbcOutputDriver output(String table) {
         return new BasicJdbcOutputDriver(
                 JdbcUtil.getInsertStatement(table, COLUMNS),
@@ -168,6 +296,10 @@ public class JdbcOutputProcessorTest extends JdbcDagTestRoot {
     }
 
     private void run(Action<JdbcOutputProcessor, Exception> config, Object[][] values) {
+        run(1, config, values);
+    }
+
+    private void run(int connections, Action<JdbcOutputProcessor, Exception> config, Object[][] values) {
         VertexProcessorRunner runner = new VertexProcessorRunner(() -> {
             JdbcOutputProcessor proc = new JdbcOutputProcessor();
             config.perform(proc);
@@ -184,7 +316,7 @@ public class JdbcOutputProcessorTest extends JdbcDagTestRoot {
         runner
             .input(JdbcOutputProcessor.INPUT_NAME, records.toArray())
             .resource(StageInfo.class, STAGE)
-            .resource(JdbcEnvironment.class, environment(PROFILE))
+            .resource(JdbcEnvironment.class, environment(connections, PROFILE))
             .run();
     }
 }
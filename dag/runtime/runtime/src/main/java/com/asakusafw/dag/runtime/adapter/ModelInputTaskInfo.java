@@ -24,6 +24,7 @@ import com.asakusafw.runtime.io.ModelInput;
  * A {@link TaskInfo} which can provide {@link ModelInput}.
  * @param <T> the input data type
  * @since 0.4.0
+ * @version 0.5.4
  */
 public interface ModelInputTaskInfo<T> extends TaskInfo {
 
@@ -40,4 +41,13 @@ public interface ModelInputTaskInfo<T> extends TaskInfo {
      * @return the created object
      */
     T newDataObject();
+
+    /**
+     * Returns the number of data objects to be read ahead on a helper thread.
+     * @return the read-ahead depth, or {@code 0} to read objects on the task thread
+     * @since 0.5.4
+     */
+    default int getReadAheadDepth() {
+        return 0;
+    }
 }
@@ -0,0 +1,181 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.dag.runtime.io;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.asakusafw.lang.utils.common.Arguments;
+import com.asakusafw.lang.utils.common.InterruptibleIo;
+import com.asakusafw.lang.utils.common.Lang;
+import com.asakusafw.runtime.io.ModelInput;
+
+/**
+ * Reads objects from a {@link ModelInput} on a helper thread ahead of the consumer.
+ * The helper thread decodes objects into a bounded ring of reusable data objects, and the object returned from
+ * {@link #next()} is recycled on the subsequent call of {@link #next()}.
+ * The given {@link ModelInput} is read and closed only on the helper thread.
+ * @param <T> the data type
+ * @since 0.5.4
+ */
+public class ReadAheadModelReader<T> implements InterruptibleIo {
+
+    static final Logger LOG = LoggerFactory.getLogger(ReadAheadModelReader.class);
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private static final Object END = new Object();
+
+    private final ModelInput<T> input;
+
+    private final BlockingQueue<T> free;
+
+    private final BlockingQueue<Object> filled;
+
+    private final Thread thread;
+
+    private volatile boolean closed;
+
+    private volatile Throwable closeFailure;
+
+    private T current;
+
+    private boolean finished;
+
+    /**
+     * Creates a new instance, and starts reading the given input.
+     * @param input the source input
+     * @param objectFactory the data object factory
+     * @param depth the max number of objects to read ahead
+     */
+    public ReadAheadModelReader(ModelInput<T> input, Supplier<? extends T> objectFactory, int depth) {
+        Arguments.requireNonNull(input);
+        Arguments.requireNonNull(objectFactory);
+        Arguments.require(depth >= 1);
+        this.input = input;
+        // +1 for the object which is held by the consumer
+        int capacity = depth + 1;
+        this.free = new ArrayBlockingQueue<>(capacity);
+        this.filled = new ArrayBlockingQueue<>(capacity + 1);
+        for (int i = 0; i < capacity; i++) {
+            free.add(objectFactory.get());
+        }
+        this.thread = Lang.let(new Thread(this::run), t -> {
+            t.setName(String.format("dag-read-ahead-%d", THREAD_COUNTER.incrementAndGet())); //$NON-NLS-1$
+            t.setDaemon(true);
+        });
+        thread.start();
+    }
+
+    private void run() {
+        Object last = END;
+        try {
+            while (closed == false) {
+                T next = free.take();
+                if (input.readTo(next) == false) {
+                    break;
+                }
+                filled.add(next);
+            }
+        } catch (Throwable t) {
+            if (closed) {
+                LOG.debug("error occurred while reading ahead", t); //$NON-NLS-1$
+            } else {
+                last = new Failure(t);
+            }
+        } finally {
+            try {
+                input.close();
+            } catch (Throwable t) {
+                closeFailure = t;
+            }
+            filled.add(last);
+        }
+    }
+
+    /**
+     * Returns the next object.
+     * The previously returned object will be reused for the subsequent objects.
+     * @return the next object, or {@code null} if there are no more objects
+     * @throws IOException if I/O error was occurred while reading the input
+     * @throws InterruptedException if interrupted while reading the input
+     */
+    @SuppressWarnings("unchecked")
+    public T next() throws IOException, InterruptedException {
+        if (finished) {
+            return null;
+        }
+        if (current != null) {
+            free.add(current);
+            current = null;
+        }
+        Object next = filled.take();
+        if (next == END) {
+            finished = true;
+            return null;
+        } else if (next instanceof Failure) {
+            finished = true;
+            Throwable t = ((Failure) next).cause;
+            Lang.rethrow(t, Error.class);
+            Lang.rethrow(t, RuntimeException.class);
+            Lang.rethrow(t, IOException.class);
+            Lang.rethrow(t, InterruptedException.class);
+            throw new IOException(t);
+        }
+        current = (T) next;
+        return current;
+    }
+
+    @Override
+    public void close() throws IOException, InterruptedException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        // the helper thread has already been completed if the consumer has reached the end of input
+        boolean cancel = finished == false;
+        finished = true;
+        if (cancel) {
+            thread.interrupt();
+        }
+        thread.join();
+        Throwable t = closeFailure;
+        if (t != null && cancel) {
+            // the input may be broken by interruption
+            LOG.debug("error occurred while closing cancelled input", t); //$NON-NLS-1$
+        } else if (t != null) {
+            Lang.rethrow(t, Error.class);
+            Lang.rethrow(t, RuntimeException.class);
+            Lang.rethrow(t, IOException.class);
+            throw new IOException(t);
+        }
+    }
+
+    private static final class Failure {
+
+        final Throwable cause;
+
+        Failure(Throwable cause) {
+            this.cause = cause;
+        }
+    }
+}
@@ -20,12 +20,16 @@ import java.io.DataOutput;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.hadoop.io.Text;
 
+import com.asakusafw.lang.utils.buffer.nio.NioDataBuffer;
 import com.asakusafw.lang.utils.common.Invariants;
 import com.asakusafw.runtime.value.BooleanOption;
 import com.asakusafw.runtime.value.ByteOption;
@@ -43,6 +47,7 @@ import com.asakusafw.runtime.value.ValueOption;
 /**
  * Serializes/deserializes {@link ValueOption} objects.
  * @since 0.4.0
+ * @version 0.5.4
  */
 @SuppressWarnings("deprecation")
 public final class ValueOptionSerDe {
@@ -648,6 +653,9 @@ public final class ValueOptionSerDe {
      * @throws IOException if I/O error was occurred while comparing the values
      */
     public static int compareString(DataInput a, DataInput b) throws IOException {
+        if (a instanceof NioDataBuffer && b instanceof NioDataBuffer) {
+            return compareString((NioDataBuffer) a, (NioDataBuffer) b);
+        }
         int aLength = readCompactInt(a);
         int bLength = readCompactInt(b);
         if (aLength == UNSIGNED_NULL) {
@@ -685,6 +693,88 @@ public final class ValueOptionSerDe {
         }
     }
 
+    /**
+     * Compares two serialized {@link StringOption}s in each given {@link NioDataBuffer}.
+     * This compares the string contents 8 bytes at a time over the backing buffers.
+     * @param a the first {@link NioDataBuffer}
+     * @param b the second {@link NioDataBuffer}
+     * @return {@code 0} - the two values are both equivalent,
+     *   {@code < 0} - the first value is less than the second one, or
+     *   {@code > 0} - the second value is less than the second one
+     * @throws IOException if I/O error was occurred while comparing the values
+     * @since 0.5.4
+     */
+    public static int compareString(NioDataBuffer a, NioDataBuffer b) throws IOException {
+        int aLength = readCompactInt(a);
+        int bLength = readCompactInt(b);
+        if (aLength == UNSIGNED_NULL) {
+            if (bLength == UNSIGNED_NULL) {
+                return 0;
+            } else {
+                advance(b.contents, bLength);
+                return -1;
+            }
+        } else if (bLength == UNSIGNED_NULL) {
+            advance(a.contents, aLength);
+            return +1;
+        }
+        int aOffset = advance(a.contents, aLength);
+        int bOffset = advance(b.contents, bLength);
+        int diff = compareBytes(a.contents, aOffset, b.contents, bOffset, Math.min(aLength, bLength));
+        if (diff != 0) {
+            return diff;
+        }
+        return Integer.compare(aLength, bLength);
+    }
+
+    /**
+     * Compares the byte sequences in the given buffers as unsigned bytes.
+     * This does not change the positions of the buffers.
+     * @param a the first buffer
+     * @param aOffset the first byte index in the first buffer
+     * @param b the second buffer
+     * @param bOffset the first byte index in the second buffer
+     * @param length the number of bytes to compare
+     * @return {@code 0} - the two sequences are both equivalent,
+     *   {@code < 0} - the first sequence is less than the second one, or
+     *   {@code > 0} - the second sequence is less than the second one
+     */
+    static int compareBytes(ByteBuffer a, int aOffset, ByteBuffer b, int bOffset, int length) {
+        boolean aSwap = a.order() != ByteOrder.BIG_ENDIAN;
+        boolean bSwap = b.order() != ByteOrder.BIG_ENDIAN;
+        int i = 0;
+        for (int n = length - (Long.BYTES - 1); i < n; i += Long.BYTES) {
+            long aWord = a.getLong(aOffset + i);
+            long bWord = b.getLong(bOffset + i);
+            if (aSwap) {
+                aWord = Long.reverseBytes(aWord);
+            }
+            if (bSwap) {
+                bWord = Long.reverseBytes(bWord);
+            }
+            if (aWord != bWord) {
+                return Long.compareUnsigned(aWord, bWord);
+            }
+        }
+        for (; i < length; i++) {
+            int aByte = Byte.toUnsignedInt(a.get(aOffset + i));
+            int bByte = Byte.toUnsignedInt(b.get(bOffset + i));
+            if (aByte != bByte) {
+                return aByte < bByte ? -1 : +1;
+            }
+        }
+        return 0;
+    }
+
+    private static int advance(ByteBuffer buffer, int length) {
+        int position = buffer.position();
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        buffer.position(position + length);
+        return position;
+    }
+
     private static void skip(DataInput input, int length) throws IOException {
         if (length == 0) {
             return;
@@ -764,6 +854,74 @@ public final class ValueOptionSerDe {
      * @throws IOException if I/O error was occurred while comparing the values
      */
     public static int compareDecimal(DataInput a, DataInput b) throws IOException {
+        if (a instanceof NioDataBuffer && b instanceof NioDataBuffer) {
+            return compareDecimal((NioDataBuffer) a, (NioDataBuffer) b);
+        }
+        return compareDecimal0(a, b);
+    }
+
+    /**
+     * Compares two serialized {@link DecimalOption}s in each given {@link NioDataBuffer}.
+     * This compares the unscaled values in their serialized form if the both have the same scale,
+     * and compares the magnitudes 8 bytes at a time over the backing buffers.
+     * @param a the first {@link NioDataBuffer}
+     * @param b the second {@link NioDataBuffer}
+     * @return {@code 0} - the two values are both equivalent,
+     *   {@code < 0} - the first value is less than the second one, or
+     *   {@code > 0} - the second value is less than the second one
+     * @throws IOException if I/O error was occurred while comparing the values
+     * @since 0.5.4
+     */
+    public static int compareDecimal(NioDataBuffer a, NioDataBuffer b) throws IOException {
+        ByteBuffer aBuffer = a.contents;
+        ByteBuffer bBuffer = b.contents;
+        int aStart = aBuffer.position();
+        int bStart = bBuffer.position();
+        byte aHead = aBuffer.get();
+        byte bHead = bBuffer.get();
+        if (aHead == DECIMAL_NULL || bHead == DECIMAL_NULL) {
+            aBuffer.position(aStart);
+            bBuffer.position(bStart);
+            return compareDecimal0(a, b);
+        }
+        int aScale = readCompactInt(a);
+        int bScale = readCompactInt(b);
+        boolean aCompact = (aHead & DECIMAL_COMPACT_MASK) != 0;
+        boolean bCompact = (bHead & DECIMAL_COMPACT_MASK) != 0;
+        long aUnscaled = aCompact ? readCompactLong(a) : -1L;
+        long bUnscaled = bCompact ? readCompactLong(b) : -1L;
+        int aLength = aCompact ? 0 : readCompactInt(a);
+        int bLength = bCompact ? 0 : readCompactInt(b);
+        int aOffset = advance(aBuffer, aLength);
+        int bOffset = advance(bBuffer, bLength);
+
+        // zero is always "plus"
+        boolean aPlus = (aHead & DECIMAL_PLUS_MASK) != 0;
+        boolean bPlus = (bHead & DECIMAL_PLUS_MASK) != 0;
+        if (aPlus != bPlus) {
+            return aPlus ? +1 : -1;
+        }
+        if (aScale != bScale) {
+            aBuffer.position(aStart);
+            bBuffer.position(bStart);
+            return compareDecimal0(a, b);
+        }
+        int diff;
+        if (aCompact && bCompact) {
+            diff = Long.compare(aUnscaled, bUnscaled);
+        } else if (aCompact != bCompact) {
+            // compact form is always smaller in magnitude
+            diff = aCompact ? -1 : +1;
+        } else if (aLength != bLength) {
+            // the magnitudes are minimal representations
+            diff = Integer.compare(aLength, bLength);
+        } else {
+            diff = compareBytes(aBuffer, aOffset, bBuffer, bOffset, aLength);
+        }
+        return aPlus ? diff : -diff;
+    }
+
+    private static int compareDecimal0(DataInput a, DataInput b) throws IOException {
         BigDecimal aValue = deserializeDecimal(a);
         BigDecimal bValue = deserializeDecimal(b);
         if (aValue == null) {
@@ -17,16 +17,30 @@ package com.asakusafw.dag.runtime.skeleton;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import com.asakusafw.dag.api.processor.ObjectReader;
 import com.asakusafw.dag.api.processor.VertexProcessorContext;
+import com.asakusafw.dag.api.processor.extension.BroadcastCache;
+import com.asakusafw.dag.api.processor.extension.ThreadBudget;
 import com.asakusafw.dag.runtime.adapter.DataTable;
 import com.asakusafw.dag.runtime.adapter.DataTable.Builder;
 import com.asakusafw.dag.runtime.adapter.DataTableAdapter;
@@ -35,14 +49,18 @@ import com.asakusafw.dag.runtime.adapter.KeyExtractor;
 import com.asakusafw.dag.runtime.adapter.ObjectCopier;
 import com.asakusafw.dag.runtime.table.BasicDataTable;
 import com.asakusafw.dag.runtime.table.BasicDataTable.KeyValidator;
+import com.asakusafw.dag.runtime.table.PartitionedDataTable;
+import com.asakusafw.dag.runtime.table.SerializedDataTable;
 import com.asakusafw.lang.utils.common.Arguments;
+import com.asakusafw.lang.utils.common.InterruptibleIo.IoCallable;
 import com.asakusafw.lang.utils.common.Invariants;
+import com.asakusafw.lang.utils.common.Lang;
 import com.asakusafw.runtime.core.GroupView;
 
 /**
  * {@link DataTableAdapter} for edge output.
  * @since 0.4.0
- * @version 0.4.1
+ * @version 0.5.4
  */
 public class EdgeDataTableAdapter implements DataTableAdapter {
 
@@ -55,6 +73,37 @@ public class EdgeDataTableAdapter implements DataTableAdapter {
 
     static final BasicDataTable.ValidationLevel DEFAULT_VIEW_VALIDATE = BasicDataTable.ValidationLevel.COUNT;
 
+    /**
+     * The configuration key of the minimum total size in bytes of serialized elements to keep the data tables
+     * on off-heap memory. If this is negative, the data tables always keep their elements on the Java heap.
+     * @see SerializedDataTable
+     * @since 0.5.4
+     */
+    public static final String KEY_VIEW_SERIALIZE_THRESHOLD =
+            "com.asakusafw.dag.view.serialize.threshold"; //$NON-NLS-1$
+
+    static final int DEFAULT_VIEW_SERIALIZE_THRESHOLD = 8 * 1024 * 1024;
+
+    /**
+     * The configuration key of the max number of threads to build the data tables.
+     * If this is {@code 1}, the data tables are built one by one on the current thread.
+     * If this is not set, it is the number of threads in {@link ThreadBudget} of the current engine,
+     * or {@code 1} if the engine does not provide it.
+     * @since 0.5.4
+     */
+    public static final String KEY_VIEW_BUILD_THREADS = "com.asakusafw.dag.view.build.threads"; //$NON-NLS-1$
+
+    static final int MIN_PARTITIONED_RECORDS = 16 * 1024;
+
+    /**
+     * The configuration key of whether or not the data tables can be shared between vertices.
+     * This is effective only if the current engine provides {@link BroadcastCache}.
+     * @since 0.5.4
+     */
+    public static final String KEY_VIEW_CACHE = "com.asakusafw.dag.view.cache"; //$NON-NLS-1$
+
+    static final boolean DEFAULT_VIEW_CACHE = true;
+
     private final VertexProcessorContext context;
 
     private final Supplier<? extends KeyBuffer> keyBufferFactory;
@@ -65,6 +114,12 @@ public class EdgeDataTableAdapter implements DataTableAdapter {
 
     private final BasicDataTable.ValidationLevel validationLevel;
 
+    private final int serializeThreshold;
+
+    private final int buildThreads;
+
+    private final BroadcastCache cache;
+
     /**
      * Creates a new instance.
      * @param context the current context
@@ -75,6 +130,15 @@ public class EdgeDataTableAdapter implements DataTableAdapter {
         this.keyBufferFactory = Util.getKeyBufferSupplier(context);
         this.validationLevel = Util.getProperty(context, "valiation level", //$NON-NLS-1$
                 KEY_VIEW_VALIDATE, DEFAULT_VIEW_VALIDATE);
+        this.serializeThreshold = Util.getProperty(context, "serialization threshold", //$NON-NLS-1$
+                KEY_VIEW_SERIALIZE_THRESHOLD, DEFAULT_VIEW_SERIALIZE_THRESHOLD);
+        this.buildThreads = Util.getProperty(context, "number of table build threads", //$NON-NLS-1$
+                KEY_VIEW_BUILD_THREADS, context.getResource(ThreadBudget.class)
+                        .map(ThreadBudget::getNumberOfThreads)
+                        .orElse(1));
+        boolean cacheEnabled = Util.getProperty(context, "table cache", //$NON-NLS-1$
+                KEY_VIEW_CACHE, DEFAULT_VIEW_CACHE);
+        this.cache = cacheEnabled ? context.getResource(BroadcastCache.class).orElse(null) : null;
     }
 
     /**
@@ -112,10 +176,30 @@ public class EdgeDataTableAdapter implements DataTableAdapter {
         Arguments.requireNonNull(tableId);
         Arguments.requireNonNull(inputId);
         Arguments.requireNonNull(copier);
+        return bind0(tableId, inputId, keyExtractor, copier, comparator, keyElementTypes, null);
+    }
+
+    private EdgeDataTableAdapter bind0(
+            String tableId, String inputId,
+            Supplier<? extends KeyExtractor<?>> keyExtractor,
+            Supplier<? extends ObjectCopier<?>> copier,
+            Supplier<? extends Comparator<?>> comparator,
+            Class<?>[] keyElementTypes,
+            String cacheKey) {
         KeyValidator keyValidator = toValidator(keyElementTypes);
-        Supplier<? extends DataTable.Builder<Object>> tableBuilders = () -> new BasicDataTable.Builder<>(
-                new HashMap<>(), keyBufferFactory, keyValidator);
-        specs.add(new Spec(tableId, inputId, tableBuilders, keyExtractor, copier, comparator));
+        IntFunction<? extends DataTable.Builder<Object>> tableBuilders;
+        if (serializeThreshold < 0) {
+            tableBuilders = partitions -> new BasicDataTable.Builder<>(
+                    new HashMap<>(), keyBufferFactory, keyValidator);
+        } else {
+            @SuppressWarnings("unchecked")
+            Supplier<? extends ObjectCopier<Object>> copiers = (Supplier<? extends ObjectCopier<Object>>) copier;
+            // the threshold is for the whole table, so that it is shared between its partitions
+            tableBuilders = partitions -> new SerializedDataTable.Builder<>(
+                    keyBufferFactory, keyValidator, copiers, serializeThreshold / partitions);
+        }
+        specs.add(new Spec(tableId, inputId, cacheKey, keyValidator,
+                tableBuilders, keyExtractor, copier, comparator));
         return this;
     }
 
@@ -142,7 +226,7 @@ public class EdgeDataTableAdapter implements DataTableAdapter {
         Arguments.requireNonNull(tableId);
         Arguments.requireNonNull(inputId);
         Arguments.requireNonNull(tableId);
-        return bind(tableId, inputId, Util.toSupplier(keyExtractor), Util.toSupplier(copier));
+        return bind(tableId, inputId, keyExtractor, copier, null, (Class<?>[]) null);
     }
 
     /**
@@ -165,31 +249,163 @@ public class EdgeDataTableAdapter implements DataTableAdapter {
         Arguments.requireNonNull(tableId);
         Arguments.requireNonNull(inputId);
         Arguments.requireNonNull(tableId);
-        return bind(tableId, inputId,
+        Arguments.requireNonNull(copier);
+        return bind0(tableId, inputId,
                 Util.toSupplier(keyExtractor), Util.toSupplier(copier), Util.toSupplier(comparator),
-                keyElementTypes);
+                keyElementTypes, toCacheKey(keyExtractor, copier, comparator, keyElementTypes));
+    }
+
+    private String toCacheKey(Class<?> keyExtractor, Class<?> copier, Class<?> comparator, Class<?>[] types) {
+        return String.format("key=%s,copier=%s,comparator=%s,types=%s,validate=%s,serialize=%d", //$NON-NLS-1$
+                name(keyExtractor), name(copier), name(comparator),
+                types == null ? null : Arrays.stream(types).map(Class::getName).collect(Collectors.toList()),
+                validationLevel, serializeThreshold);
+    }
+
+    private static String name(Class<?> aClass) {
+        return aClass == null ? null : aClass.getName();
     }
 
     @Override
     public void initialize() throws IOException, InterruptedException {
-        for (Spec spec : specs) {
-            ObjectCopier<Object> copier = spec.copier.get();
-            KeyExtractor<Object> extractor = spec.keyBuilder == null ? null : spec.keyBuilder.get();
-            DataTable.Builder<Object> table = spec.tableBuilder.get();
-            KeyBuffer key = table.newKeyBuffer();
-            key.clear();
-            try (ObjectReader reader = (ObjectReader) context.getInput(spec.inputId)) {
+        if (buildThreads <= 1) {
+            for (Spec spec : specs) {
+                resolved.put(spec.tableId, resolve(spec, () -> build(spec)));
+            }
+            return;
+        }
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(buildThreads, r -> Lang.let(new Thread(r), t -> {
+            t.setName(String.format("dag-view-%d", counter.incrementAndGet())); //$NON-NLS-1$
+            t.setDaemon(true);
+        }));
+        try {
+            if (specs.size() == 1) {
+                int partitions = buildThreads;
+                Spec spec = specs.get(0);
+                resolved.put(spec.tableId, resolve(spec, () -> build(spec, partitions, executor)));
+            } else {
+                // share the thread budget between the tables: each table occupies one thread for reading its input,
+                // and its partition builders must fit in the rest, or the readers may wait for them forever.
+                // If there are more than half as many tables as threads, this becomes 1 or less, and then
+                // each table is built on a single thread without partitioning
+                int partitions = buildThreads / specs.size() - 1;
+                Map<String, Future<DataTable<?>>> futures = new LinkedHashMap<>();
+                for (Spec spec : specs) {
+                    futures.put(spec.tableId, executor.submit(
+                            () -> resolve(spec, () -> build(spec, partitions, executor))));
+                }
+                for (Map.Entry<String, Future<DataTable<?>>> entry : futures.entrySet()) {
+                    resolved.put(entry.getKey(), get(entry.getValue()));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private DataTable<?> resolve(
+            Spec spec, IoCallable<DataTable<?>> builder) throws IOException, InterruptedException {
+        if (cache == null || spec.cacheKey == null) {
+            return builder.call();
+        }
+        return cache.get(spec.inputId, spec.cacheKey, builder);
+    }
+
+    private DataTable<?> build(Spec spec) throws IOException, InterruptedException {
+        ObjectCopier<Object> copier = spec.copier.get();
+        KeyExtractor<Object> extractor = spec.keyBuilder == null ? null : spec.keyBuilder.get();
+        DataTable.Builder<Object> table = spec.tableBuilder.apply(1);
+        // serialized tables copy the elements by themselves only if it is required
+        boolean copy = (table instanceof SerializedDataTable.Builder<?>) == false;
+        KeyBuffer key = table.newKeyBuffer();
+        key.clear();
+        try (ObjectReader reader = (ObjectReader) context.getInput(spec.inputId)) {
+            while (reader.nextObject()) {
+                Object object = copy ? copier.newCopy(reader.getObject()) : reader.getObject();
+                if (extractor != null) {
+                    key.clear();
+                    extractor.buildKey(key, object);
+                }
+                table.add(key, object);
+            }
+        }
+        Comparator<Object> comparator = spec.comparator == null ? null : spec.comparator.get();
+        return table.build(comparator);
+    }
+
+    private DataTable<?> build(
+            Spec spec, int partitions, ExecutorService executor) throws IOException, InterruptedException {
+        if (partitions <= 1 || spec.keyBuilder == null) {
+            return build(spec);
+        }
+        ObjectCopier<Object> copier = spec.copier.get();
+        KeyExtractor<Object> extractor = spec.keyBuilder.get();
+        KeyBuffer key = keyBufferFactory.get();
+        List<Object> pending = new ArrayList<>();
+        try (ObjectReader reader = (ObjectReader) context.getInput(spec.inputId)) {
+            // small tables are built on the current thread
+            while (pending.size() < MIN_PARTITIONED_RECORDS) {
+                if (reader.nextObject() == false) {
+                    return build(spec, pending);
+                }
+                pending.add(copier.newCopy(reader.getObject()));
+            }
+            List<PartitionBuilder> workers = new ArrayList<>();
+            for (int i = 0; i < partitions; i++) {
+                PartitionBuilder worker = new PartitionBuilder(spec, partitions);
+                worker.start(executor);
+                workers.add(worker);
+            }
+            try {
+                for (Object object : pending) {
+                    key.clear();
+                    extractor.buildKey(key, object);
+                    workers.get(PartitionedDataTable.getPartition(key, partitions)).offer(object);
+                }
+                pending = null;
                 while (reader.nextObject()) {
                     Object object = copier.newCopy(reader.getObject());
-                    if (extractor != null) {
-                        key.clear();
-                        extractor.buildKey(key, object);
-                    }
-                    table.add(key, object);
+                    key.clear();
+                    extractor.buildKey(key, object);
+                    workers.get(PartitionedDataTable.getPartition(key, partitions)).offer(object);
+                }
+            } finally {
+                for (PartitionBuilder worker : workers) {
+                    worker.close();
                 }
             }
-            Comparator<Object> comparator = spec.comparator == null ? null : spec.comparator.get();
-            resolved.put(spec.tableId, table.build(comparator));
+            List<DataTable<Object>> tables = new ArrayList<>();
+            for (PartitionBuilder worker : workers) {
+                tables.add(get(worker.future));
+            }
+            return new PartitionedDataTable<>(tables, keyBufferFactory, spec.keyValidator);
+        }
+    }
+
+    private static DataTable<?> build(Spec spec, List<Object> objects) {
+        KeyExtractor<Object> extractor = spec.keyBuilder.get();
+        DataTable.Builder<Object> table = spec.tableBuilder.apply(1);
+        KeyBuffer key = table.newKeyBuffer();
+        for (Object object : objects) {
+            key.clear();
+            extractor.buildKey(key, object);
+            table.add(key, object);
+        }
+        Comparator<Object> comparator = spec.comparator == null ? null : spec.comparator.get();
+        return table.build(comparator);
+    }
+
+    private static <T> T get(Future<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable t = e.getCause();
+            Lang.rethrow(t, Error.class);
+            Lang.rethrow(t, RuntimeException.class);
+            Lang.rethrow(t, IOException.class);
+            Lang.rethrow(t, InterruptedException.class);
+            throw new IOException(t);
         }
     }
 
@@ -205,13 +421,116 @@ public class EdgeDataTableAdapter implements DataTableAdapter {
         return (DataTable<T>) resolved.get(id);
     }
 
+    private static final class PartitionBuilder implements Callable<DataTable<Object>> {
+
+        private static final int BATCH_SIZE = 256;
+
+        private static final int QUEUE_SIZE = 16;
+
+        private static final long OFFER_TIMEOUT = 100;
+
+        private static final List<Object> EOF = new ArrayList<>();
+
+        private final Spec spec;
+
+        private final int partitions;
+
+        private final BlockingQueue<List<Object>> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+
+        private List<Object> batch = new ArrayList<>(BATCH_SIZE);
+
+        Future<DataTable<Object>> future;
+
+        PartitionBuilder(Spec spec, int partitions) {
+            this.spec = spec;
+            this.partitions = partitions;
+        }
+
+        void start(ExecutorService executor) {
+            future = executor.submit(this);
+        }
+
+        void offer(Object object) throws IOException, InterruptedException {
+            batch.add(object);
+            if (batch.size() >= BATCH_SIZE) {
+                if (put(batch) == false) {
+                    // the builder has been finished before EOF, so that it must have failed
+                    get(future);
+                    throw new IllegalStateException();
+                }
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+
+        void close() throws InterruptedException {
+            if (batch != null && batch.isEmpty() == false) {
+                put(batch);
+            }
+            batch = null;
+            put(EOF);
+        }
+
+        private boolean put(List<Object> objects) throws InterruptedException {
+            // never wait for the builder which has already been finished
+            while (queue.offer(objects, OFFER_TIMEOUT, TimeUnit.MILLISECONDS) == false) {
+                if (future.isDone()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public DataTable<Object> call() throws InterruptedException {
+            KeyExtractor<Object> extractor = null;
+            DataTable.Builder<Object> table = null;
+            KeyBuffer key = null;
+            Throwable failure = null;
+            try {
+                extractor = spec.keyBuilder.get();
+                table = spec.tableBuilder.apply(partitions);
+                key = table.newKeyBuffer();
+            } catch (Throwable t) {
+                failure = t;
+            }
+            while (true) {
+                List<Object> objects = queue.take();
+                if (objects == EOF) {
+                    break;
+                }
+                // keep draining the queue even if failed, so that the reader is never blocked
+                if (failure != null) {
+                    continue;
+                }
+                try {
+                    for (Object object : objects) {
+                        key.clear();
+                        extractor.buildKey(key, object);
+                        table.add(key, object);
+                    }
+                } catch (Throwable t) {
+                    failure = t;
+                }
+            }
+            if (failure != null) {
+                Lang.rethrow(failure, Error.class);
+                Lang.rethrow(failure, RuntimeException.class);
+                throw new IllegalStateException(failure);
+            }
+            Comparator<Object> comparator = spec.comparator == null ? null : spec.comparator.get();
+            return table.build(comparator);
+        }
+    }
+
     private static final class Spec {
 
         final String tableId;
 
         final String inputId;
 
-        final Supplier<? extends DataTable.Builder<Object>> tableBuilder;
+        final String cacheKey;
+
+        final IntFunction<? extends DataTable.Builder<Object>> tableBuilder;
 
         final Supplier<? extends KeyExtractor<Object>> keyBuilder;
 
@@ -219,15 +538,20 @@ public class EdgeDataTableAdapter implements DataTableAdapter {
 
         final Supplier<? extends Comparator<Object>> comparator;
 
+        final KeyValidator keyValidator;
+
         @SuppressWarnings("unchecked")
-        Spec(String tableId, String inputId,
-                Supplier<? extends DataTable.Builder<?>> tableBuilder,
+        Spec(String tableId, String inputId, String cacheKey,
+                KeyValidator keyValidator,
+                IntFunction<? extends DataTable.Builder<?>> tableBuilder,
                 Supplier<? extends KeyExtractor<?>> keyBuilder,
                 Supplier<? extends ObjectCopier<?>> copier,
                 Supplier<? extends Comparator<?>> comparator) {
             this.tableId = tableId;
             this.inputId = inputId;
-            this.tableBuilder = (Supplier<? extends Builder<Object>>) tableBuilder;
+            this.cacheKey = cacheKey;
+            this.keyValidator = keyValidator;
+            this.tableBuilder = (IntFunction<? extends Builder<Object>>) tableBuilder;
             this.keyBuilder = (Supplier<? extends KeyExtractor<Object>>) keyBuilder;
             this.copier = (Supplier<? extends ObjectCopier<Object>>) copier;
             this.comparator = (Supplier<? extends Comparator<Object>>) comparator;
@@ -21,6 +21,7 @@ import java.util.List;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
+import com.asakusafw.dag.api.counter.CounterRepository;
 import com.asakusafw.dag.api.processor.TaskProcessorContext;
 import com.asakusafw.dag.api.processor.VertexProcessorContext;
 import com.asakusafw.dag.runtime.adapter.KeyBuffer;
@@ -35,7 +36,7 @@ import com.asakusafw.lang.utils.common.Arguments;
 /**
  * {@link OutputAdapter} for edge output.
  * @since 0.4.0
- * @version 0.4.1
+ * @version 0.5.4
  */
 public class EdgeOutputAdapter implements OutputAdapter {
 
@@ -52,11 +53,39 @@ public class EdgeOutputAdapter implements OutputAdapter {
     public static final String KEY_AGGREGATION_STRATEGY =
             "com.asakusafw.dag.output.aggregate.strategy"; //$NON-NLS-1$
 
+    /**
+     * The configuration key of the maximum aggregation window size which can be expanded while aggregating
+     * (the number of entries, per output*thread).
+     * @since 0.5.4
+     */
+    public static final String KEY_AGGREGATION_MAX_WINDOW_SIZE =
+            "com.asakusafw.dag.output.aggregate.window.size.max"; //$NON-NLS-1$
+
+    /**
+     * The configuration key of the minimum combine ratio to keep aggregation.
+     * If the ratio of combined records is less than this, the output will pass through records for a while.
+     * @since 0.5.4
+     */
+    public static final String KEY_AGGREGATION_MIN_COMBINE_RATIO =
+            "com.asakusafw.dag.output.aggregate.ratio.min"; //$NON-NLS-1$
+
     /**
      * The default value of {@link #KEY_AGGREGATION_WINDOW_SIZE}.
      */
     public static final int DEFAULT_AGGREGATION_WINDOW_SIZE = 256;
 
+    /**
+     * The default value of {@link #KEY_AGGREGATION_MAX_WINDOW_SIZE}.
+     * @since 0.5.4
+     */
+    public static final int DEFAULT_AGGREGATION_MAX_WINDOW_SIZE = 4096;
+
+    /**
+     * The default value of {@link #KEY_AGGREGATION_MIN_COMBINE_RATIO}.
+     * @since 0.5.4
+     */
+    public static final double DEFAULT_AGGREGATION_MIN_COMBINE_RATIO = 0.1;
+
     /**
      * The default value of {@link #KEY_AGGREGATION_STRATEGY}.
      * @since 0.4.1
@@ -69,6 +98,14 @@ public class EdgeOutputAdapter implements OutputAdapter {
 
     final AggregationStrategy aggregationStrategy;
 
+    final int aggregationMaxWindowSize;
+
+    final double aggregationMinCombineRatio;
+
+    private final String vertexId;
+
+    private final CounterRepository counters;
+
     private final Supplier<? extends KeyBuffer> keyBufferFactory;
 
     /**
@@ -85,6 +122,16 @@ public class EdgeOutputAdapter implements OutputAdapter {
                 context,
                 "aggregation strategy",
                 KEY_AGGREGATION_STRATEGY, DEFAULT_AGGREGATION_STRATEGY);
+        this.aggregationMaxWindowSize = Util.getProperty(
+                context,
+                "maximum aggregation window size",
+                KEY_AGGREGATION_MAX_WINDOW_SIZE, DEFAULT_AGGREGATION_MAX_WINDOW_SIZE);
+        this.aggregationMinCombineRatio = Util.getProperty(
+                context,
+                "minimum aggregation combine ratio",
+                KEY_AGGREGATION_MIN_COMBINE_RATIO, DEFAULT_AGGREGATION_MIN_COMBINE_RATIO);
+        this.vertexId = context.getVertexId();
+        this.counters = context.getResource(CounterRepository.class).orElse(CounterRepository.DETACHED);
         this.keyBufferFactory = Util.getKeyBufferSupplier(context);
     }
 
@@ -132,7 +179,12 @@ public class EdgeOutputAdapter implements OutputAdapter {
         if (copier == null || combiner == null || aggregationWindowSize <= 0) {
             strategy = AggregationStrategy.DISABLED;
         }
-        specs.add(new OutputSpec(name, mapper, copier, combiner, keyBufferFactory, aggregationWindowSize, strategy));
+        String itemId = String.format("%s.%s", vertexId, name); //$NON-NLS-1$
+        specs.add(new OutputSpec(
+                name, mapper, copier, combiner, keyBufferFactory,
+                aggregationWindowSize, strategy,
+                aggregationMaxWindowSize, aggregationMinCombineRatio,
+                counters.get(PreAggregationCounterGroup.CATEGORY, itemId)));
         return this;
     }
 
@@ -19,7 +19,8 @@ import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -34,6 +35,7 @@ import com.asakusafw.dag.runtime.adapter.KeyBuffer;
 import com.asakusafw.dag.runtime.adapter.ObjectCombiner;
 import com.asakusafw.dag.runtime.adapter.ObjectCopier;
 import com.asakusafw.dag.runtime.adapter.OutputHandler;
+import com.asakusafw.dag.runtime.table.NioKeyBuffer;
 import com.asakusafw.lang.utils.common.Arguments;
 import com.asakusafw.lang.utils.common.Invariants;
 import com.asakusafw.runtime.core.Result;
@@ -41,7 +43,7 @@ import com.asakusafw.runtime.core.Result;
 /**
  * Handles edge outputs for vertices.
  * @since 0.4.0
- * @version 0.4.1
+ * @version 0.5.4
  */
 final class EdgeOutputHandler implements OutputHandler<EdgeIoProcessorContext> {
 
@@ -158,77 +160,239 @@ final class EdgeOutputHandler implements OutputHandler<EdgeIoProcessorContext> {
         }
     }
 
-    private static final class MapAggregateSink implements Sink {
+    private abstract static class AggregateSink implements Sink {
+
+        private static final int MIN_WINDOW_SIZE = 1024;
+
+        private static final int WINDOW_SCALE = 4;
+
+        private static final int PROBE_INTERVAL = 16;
+
+        private static final double MIN_HEAP_HEADROOM = 0.25;
 
         private final String name;
 
         private final Sink delegate;
 
-        private final ObjectCopier<Object> copier;
+        private final int maxTableSize;
 
-        private final ObjectCombiner<Object> combiner;
+        private final double minCombineRatio;
 
-        private final KeyBuffer key;
+        private final PreAggregationCounterGroup counter;
 
-        private final Map<KeyBuffer.View, Object> table;
+        int tableSize;
 
-        private final int tableSize;
+        private boolean bypass;
 
-        private final Object[] recycleTable;
+        private int windowInput;
 
-        private int recycleTop;
+        private int windowCombine;
+
+        private int bypassWindows;
+
+        private long countInput;
 
         private long countCombine;
 
         private long countFlush;
 
-        @SuppressWarnings("unchecked")
-        MapAggregateSink(
-                String name, Sink delegate,
-                ObjectCopier<?> copier, ObjectCombiner<?> combiner,
-                KeyBuffer keyBuffer, int tableSize) {
+        private long countBypass;
+
+        AggregateSink(String name, Sink delegate, OutputSpec spec) {
             this.name = name;
             this.delegate = delegate;
-            this.copier = (ObjectCopier<Object>) copier;
-            this.combiner = (ObjectCombiner<Object>) combiner;
-            this.key = keyBuffer;
-            this.tableSize = tableSize;
-            this.table = new HashMap<>(tableSize * 2, 0.75f);
-            this.recycleTable = new Object[tableSize];
-            this.recycleTop = -1;
+            this.tableSize = spec.tableSize;
+            this.maxTableSize = Math.max(spec.tableSize, spec.maxTableSize);
+            this.minCombineRatio = spec.minCombineRatio;
+            this.counter = spec.counter;
         }
 
         @Override
-        public void connect(EdgeIoProcessorContext context) throws IOException, InterruptedException {
-            Invariants.require(table.isEmpty());
+        public final void connect(EdgeIoProcessorContext context) throws IOException, InterruptedException {
+            bypass = false;
+            windowInput = 0;
+            windowCombine = 0;
+            bypassWindows = 0;
+            countInput = 0;
             countCombine = 0;
             countFlush = 0;
+            countBypass = 0;
             delegate.connect(context);
         }
 
         @Override
-        public void disconnect() throws IOException, InterruptedException {
+        public final void disconnect() throws IOException, InterruptedException {
             flush();
             if (LOG.isDebugEnabled()) {
-                LOG.debug("pre-aggregation stats at {}: {}/{}", name, countCombine, countCombine + countFlush);
+                LOG.debug("pre-aggregation stats at {}: {}/{} (bypass={}, table={})",
+                        name, countCombine, countInput, countBypass, tableSize);
             }
+            counter.addRecords(countInput, countCombine, countFlush, countBypass);
+            clear();
             delegate.disconnect();
         }
 
         @Override
-        public void add(Object result) {
+        public final void add(Object result) {
+            countInput++;
+            if (bypass) {
+                countBypass++;
+                emit(result);
+                if (++windowInput >= getWindowSize()) {
+                    windowInput = 0;
+                    if (++bypassWindows >= PROBE_INTERVAL) {
+                        // re-probe the combine ratio
+                        bypass = false;
+                        bypassWindows = 0;
+                        windowCombine = 0;
+                    }
+                }
+                return;
+            }
+            if (aggregate(result)) {
+                countCombine++;
+                windowCombine++;
+            }
+            if (++windowInput >= getWindowSize()) {
+                adapt();
+            }
+        }
+
+        private int getWindowSize() {
+            return Math.max(tableSize * WINDOW_SCALE, MIN_WINDOW_SIZE);
+        }
+
+        private void adapt() {
+            double ratio = (double) windowCombine / windowInput;
+            windowInput = 0;
+            windowCombine = 0;
+            if (ratio < minCombineRatio) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("pre-aggregation is bypassed at {}: combine-ratio={}", name, ratio);
+                }
+                flush();
+                bypass = true;
+                counter.incrementBypass();
+            } else if (ratio > 0
+                    && tableSize < maxTableSize
+                    && isFull()
+                    && hasHeapHeadroom()) {
+                int newSize = (int) Math.min((long) tableSize * 2, maxTableSize);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("pre-aggregation table is expanded at {}: {}->{} (combine-ratio={})",
+                            name, tableSize, newSize, ratio);
+                }
+                expand(newSize);
+                tableSize = newSize;
+                counter.incrementExpansion();
+            }
+        }
+
+        private static boolean hasHeapHeadroom() {
+            Runtime runtime = Runtime.getRuntime();
+            long max = runtime.maxMemory();
+            long used = runtime.totalMemory() - runtime.freeMemory();
+            return max - used >= max * MIN_HEAP_HEADROOM;
+        }
+
+        final void emit(Object value) {
+            if (LOG.isTraceEnabled()) {
+                LOG.trace("pre-aggregation object at {}: {}", name, value);
+            }
+            countFlush++;
+            delegate.add(value);
+        }
+
+        /**
+         * Aggregates the given object.
+         * @param result the target object
+         * @return {@code true} if it was combined into an existing entry, otherwise {@code false}
+         */
+        abstract boolean aggregate(Object result);
+
+        abstract boolean isFull();
+
+        abstract void expand(int newSize);
+
+        abstract void flush();
+
+        abstract void clear();
+    }
+
+    private static final class MapAggregateSink extends AggregateSink {
+
+        private static final int COMPACTION_FACTOR = 4;
+
+        private final ObjectCopier<Object> copier;
+
+        private final ObjectCombiner<Object> combiner;
+
+        private final KeyBuffer key;
+
+        private Map<KeyBuffer.View, Object> table;
+
+        private NioKeyBuffer.Arena arena;
+
+        private Object[] recycleTable;
+
+        private int recycleTop;
+
+        @SuppressWarnings("unchecked")
+        MapAggregateSink(String name, Sink delegate, OutputSpec spec) {
+            super(name, delegate, spec);
+            this.copier = (ObjectCopier<Object>) spec.copierSupplier.get();
+            this.combiner = (ObjectCombiner<Object>) spec.combinerSupplier.get();
+            this.key = spec.keyBufferSupplier.get();
+            // access-ordered: the eldest entry is the least recently used one
+            this.table = new LinkedHashMap<>(tableSize * 2, 0.75f, true);
+            this.arena = key instanceof NioKeyBuffer ? new NioKeyBuffer.Arena() : null;
+            this.recycleTable = new Object[tableSize];
+            this.recycleTop = -1;
+        }
+
+        @Override
+        boolean aggregate(Object result) {
             key.clear();
             combiner.buildKey(key, result);
             Object left = table.get(key.getView());
-            if (left == null) {
-                if (table.size() >= tableSize) {
-                    flush();
-                }
-                table.put(key.getFrozen(), copy(result));
-            } else {
-                countCombine++;
+            if (left != null) {
                 combiner.combine(left, result);
+                return true;
+            }
+            if (table.size() >= tableSize) {
+                Iterator<Object> iter = table.values().iterator();
+                Object eldest = iter.next();
+                iter.remove();
+                emit(eldest);
+                // NOTE: freeze() may replace the table
+                KeyBuffer.View frozen = freeze();
+                table.put(frozen, copier.newCopy(result, eldest));
+            } else {
+                KeyBuffer.View frozen = freeze();
+                table.put(frozen, copy(result));
+            }
+            return false;
+        }
+
+        private KeyBuffer.View freeze() {
+            if (arena == null) {
+                return key.getFrozen();
+            }
+            if (arena.getCount() >= tableSize * COMPACTION_FACTOR) {
+                compact();
             }
+            return ((NioKeyBuffer) key).getFrozen(arena);
+        }
+
+        private void compact() {
+            // drops keys of the evicted entries from the arena, keeping the access order
+            NioKeyBuffer.Arena next = new NioKeyBuffer.Arena();
+            Map<KeyBuffer.View, Object> compacted = new LinkedHashMap<>(tableSize * 2, 0.75f, true);
+            for (Map.Entry<KeyBuffer.View, Object> entry : table.entrySet()) {
+                compacted.put(next.copy(entry.getKey()), entry.getValue());
+            }
+            table = compacted;
+            arena = next;
         }
 
         private Object copy(Object result) {
@@ -243,86 +407,69 @@ final class EdgeOutputHandler implements OutputHandler<EdgeIoProcessorContext> {
             return copier.newCopy(result);
         }
 
-        private void flush() {
-            if (LOG.isTraceEnabled()) {
-                for (Object value : table.values()) {
-                    LOG.trace("pre-aggregation object at {}: {}", name, value);
-                }
-            }
+        @Override
+        boolean isFull() {
+            return table.size() >= tableSize;
+        }
+
+        @Override
+        void expand(int newSize) {
+            recycleTable = Arrays.copyOf(recycleTable, newSize);
+        }
+
+        @Override
+        void flush() {
             int index = recycleTop + 1;
             Object[] recycles = recycleTable;
             for (Object value : table.values()) {
-                delegate.add(value);
+                emit(value);
                 if (index < recycles.length) {
                     recycles[index++] = value;
                 }
             }
-            countFlush += table.size();
             table.clear();
+            if (arena != null) {
+                arena.release();
+            }
             recycleTop = index - 1;
         }
-    }
 
-    private static final class HashAggregateSink implements Sink {
-
-        private final String name;
+        @Override
+        void clear() {
+            Invariants.require(table.isEmpty());
+        }
+    }
 
-        private final Sink delegate;
+    private static final class HashAggregateSink extends AggregateSink {
 
         private final ObjectCopier<Object> copier;
 
         private final ObjectCombiner<Object> combiner;
 
-        private final KeyBuffer workKey;
+        private final Supplier<? extends KeyBuffer> keyBufferSupplier;
 
-        private final KeyBuffer[] keyTable;
-
-        private final Object[] valueTable;
+        private final KeyBuffer workKey;
 
-        private final int tableSize;
+        private KeyBuffer[] keyTable;
 
-        private long countCombine;
+        private Object[] valueTable;
 
-        private long countFlush;
+        private int count;
 
         @SuppressWarnings("unchecked")
-        HashAggregateSink(
-                String name, Sink delegate,
-                ObjectCopier<?> copier, ObjectCombiner<?> combiner,
-                Supplier<? extends KeyBuffer> keyBufferSupplier,
-                int tableSize) {
-            this.name = name;
-            this.delegate = delegate;
-            this.copier = (ObjectCopier<Object>) copier;
-            this.combiner = (ObjectCombiner<Object>) combiner;
+        HashAggregateSink(String name, Sink delegate, OutputSpec spec) {
+            super(name, delegate, spec);
+            this.copier = (ObjectCopier<Object>) spec.copierSupplier.get();
+            this.combiner = (ObjectCombiner<Object>) spec.combinerSupplier.get();
+            this.keyBufferSupplier = spec.keyBufferSupplier;
             this.workKey = keyBufferSupplier.get();
-            this.keyTable = new KeyBuffer[tableSize];
-            this.valueTable = new Object[tableSize];
-            this.tableSize = tableSize;
-            for (int i = 0; i < tableSize; i++) {
-                keyTable[i] = keyBufferSupplier.get();
-            }
-        }
-
-        @Override
-        public void connect(EdgeIoProcessorContext context) throws IOException, InterruptedException {
-            countCombine = 0;
-            countFlush = 0;
-            delegate.connect(context);
+            this.keyTable = new KeyBuffer[0];
+            this.valueTable = new Object[0];
+            expand(tableSize);
         }
 
         @Override
-        public void disconnect() throws IOException, InterruptedException {
-            flush();
-            if (LOG.isDebugEnabled()) {
-                LOG.debug("pre-aggregation stats at {}: {}/{}", name, countCombine, countCombine + countFlush);
-            }
-            Arrays.fill(valueTable, null);
-            delegate.disconnect();
-        }
-
-        @Override
-        public void add(Object result) {
+        boolean aggregate(Object result) {
             workKey.clear();
             combiner.buildKey(workKey, result);
             int index = (workKey.hashCode() & Integer.MAX_VALUE) % tableSize;
@@ -331,34 +478,54 @@ final class EdgeOutputHandler implements OutputHandler<EdgeIoProcessorContext> {
             if (values[index] == null) {
                 combiner.buildKey(k.clear(), result);
                 values[index] = copier.newCopy(result);
+                count++;
+                return false;
             } else if (k.equals(workKey)) {
-                countCombine++;
                 combiner.combine(values[index], result);
+                return true;
             } else {
                 Object v = values[index];
-                doAdd(v);
+                emit(v);
                 combiner.buildKey(k.clear(), result);
                 values[index] = copier.newCopy(result, v);
+                return false;
+            }
+        }
+
+        @Override
+        boolean isFull() {
+            // slots will often conflict before the table is filled
+            return count * 4L >= tableSize * 3L;
+        }
+
+        @Override
+        void expand(int newSize) {
+            // flush all entries because their slots are changed
+            flush();
+            KeyBuffer[] keys = Arrays.copyOf(keyTable, newSize);
+            for (int i = keyTable.length; i < newSize; i++) {
+                keys[i] = keyBufferSupplier.get();
             }
+            keyTable = keys;
+            valueTable = new Object[newSize];
         }
 
-        private void flush() {
+        @Override
+        void flush() {
             Object[] values = valueTable;
             for (int i = 0; i < values.length; i++) {
                 Object v = values[i];
                 if (v != null) {
-                    doAdd(v);
+                    emit(v);
                     values[i] = null;
                 }
             }
+            count = 0;
         }
 
-        private void doAdd(Object value) {
-            if (LOG.isTraceEnabled()) {
-                LOG.trace("pre-aggregation object at {}: {}", name, value);
-            }
-            countFlush++;
-            delegate.add(value);
+        @Override
+        void clear() {
+            Arrays.fill(valueTable, null);
         }
     }
 
@@ -378,6 +545,12 @@ final class EdgeOutputHandler implements OutputHandler<EdgeIoProcessorContext> {
 
         final AggregationStrategy aggregationStrategy;
 
+        final int maxTableSize;
+
+        final double minCombineRatio;
+
+        final PreAggregationCounterGroup counter;
+
         OutputSpec(String name) {
             this(name, null, null, null, null, -1, AggregationStrategy.DISABLED);
         }
@@ -390,7 +563,24 @@ final class EdgeOutputHandler implements OutputHandler<EdgeIoProcessorContext> {
                 Supplier<? extends KeyBuffer> keyBufferSupplier,
                 int tableSize,
                 AggregationStrategy aggregationStrategy) {
+            this(name, mapperSupplier, copierSupplier, combinerSupplier, keyBufferSupplier,
+                    tableSize, aggregationStrategy,
+                    tableSize, 0.0, PreAggregationCounterGroup.CATEGORY.newInstance());
+        }
+
+        OutputSpec(
+                String name,
+                Supplier<? extends Function<?, ?>> mapperSupplier,
+                Supplier<? extends ObjectCopier<?>> copierSupplier,
+                Supplier<? extends ObjectCombiner<?>> combinerSupplier,
+                Supplier<? extends KeyBuffer> keyBufferSupplier,
+                int tableSize,
+                AggregationStrategy aggregationStrategy,
+                int maxTableSize,
+                double minCombineRatio,
+                PreAggregationCounterGroup counter) {
             Arguments.requireNonNull(name);
+            Arguments.requireNonNull(counter);
             this.name = name;
             this.mapperSupplier = mapperSupplier;
             this.copierSupplier = copierSupplier;
@@ -398,6 +588,9 @@ final class EdgeOutputHandler implements OutputHandler<EdgeIoProcessorContext> {
             this.keyBufferSupplier = keyBufferSupplier;
             this.tableSize = tableSize;
             this.aggregationStrategy = aggregationStrategy;
+            this.maxTableSize = maxTableSize;
+            this.minCombineRatio = minCombineRatio;
+            this.counter = counter;
         }
 
         Sink toSink() {
@@ -409,16 +602,10 @@ final class EdgeOutputHandler implements OutputHandler<EdgeIoProcessorContext> {
                 Invariants.require(tableSize >= 1);
                 switch (aggregationStrategy) {
                 case MAP:
-                    result = new MapAggregateSink(
-                            name, result,
-                            copierSupplier.get(), combinerSupplier.get(),
-                            keyBufferSupplier.get(), tableSize);
+                    result = new MapAggregateSink(name, result, this);
                     break;
                 case HASH:
-                    result = new HashAggregateSink(
-                            name, result,
-                            copierSupplier.get(), combinerSupplier.get(),
-                            keyBufferSupplier, tableSize);
+                    result = new HashAggregateSink(name, result, this);
                     break;
                 default:
                     throw new AssertionError(aggregationStrategy);
@@ -444,7 +631,8 @@ final class EdgeOutputHandler implements OutputHandler<EdgeIoProcessorContext> {
 
         /**
          * Aggregate on Java hash map (the default implementation).
-         * The sink will flush entries only if the number of aggregating entries is greater than the table size.
+         * If the number of aggregating entries reaches the table size,
+         * the sink will flush the least recently used entry.
          */
         MAP,
 
@@ -21,11 +21,15 @@ import com.asakusafw.dag.api.processor.TaskProcessorContext;
 import com.asakusafw.dag.runtime.adapter.ExtractOperation;
 import com.asakusafw.dag.runtime.adapter.InputHandler;
 import com.asakusafw.dag.runtime.adapter.ModelInputTaskInfo;
+import com.asakusafw.dag.runtime.io.ReadAheadModelReader;
+import com.asakusafw.lang.utils.common.Io.Initializer;
 import com.asakusafw.runtime.io.ModelInput;
 
 /**
  * {@link InputHandler} which handles {@link ModelInputTaskInfo}.
+ * If {@link ModelInputTaskInfo#getReadAheadDepth()} is positive, this decodes the input objects on a helper thread.
  * @since 0.4.0
+ * @version 0.5.4
  */
 public class ModelInputHandler implements InputHandler<ExtractOperation.Input, TaskProcessorContext> {
 
@@ -38,7 +42,16 @@ public class ModelInputHandler implements InputHandler<ExtractOperation.Input, T
         return newDriver(info);
     }
 
-    private static <T> Driver<T> newDriver(ModelInputTaskInfo<T> info) throws IOException, InterruptedException {
+    private static <T> InputSession<ExtractOperation.Input> newDriver(
+            ModelInputTaskInfo<T> info) throws IOException, InterruptedException {
+        int depth = info.getReadAheadDepth();
+        if (depth > 0) {
+            try (Initializer<ModelInput<T>> input = new Initializer<>(info.open())) {
+                ReadAheadModelReader<T> reader = new ReadAheadModelReader<>(input.get(), info::newDataObject, depth);
+                input.done();
+                return new ReadAheadDriver<>(reader);
+            }
+        }
         T buffer = info.newDataObject();
         ModelInput<T> input = info.open();
         return new Driver<>(input, buffer);
@@ -77,4 +90,38 @@ public class ModelInputHandler implements InputHandler<ExtractOperation.Input, T
             input.close();
         }
     }
+
+    private static final class ReadAheadDriver<T>
+            implements InputSession<ExtractOperation.Input>, ExtractOperation.Input {
+
+        private final ReadAheadModelReader<T> reader;
+
+        private T current;
+
+        ReadAheadDriver(ReadAheadModelReader<T> reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ExtractOperation.Input get() throws IOException, InterruptedException {
+            return this;
+        }
+
+        @Override
+        public boolean next() throws IOException, InterruptedException {
+            current = reader.next();
+            return current != null;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public <S> S getObject() {
+            return (S) current;
+        }
+
+        @Override
+        public void close() throws IOException, InterruptedException {
+            reader.close();
+        }
+    }
 }
@@ -0,0 +1,143 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.dag.runtime.skeleton;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.asakusafw.dag.api.counter.CounterGroup;
+import com.asakusafw.dag.api.counter.basic.AbstractCounterGroup;
+import com.asakusafw.dag.api.counter.basic.BasicCounterGroupCategory;
+
+/**
+ * An implementation of {@link CounterGroup} for pre-aggregation in edge outputs.
+ * @since 0.5.4
+ */
+public final class PreAggregationCounterGroup extends AbstractCounterGroup {
+
+    /**
+     * The {@link CounterGroup} category for pre-aggregation in edge outputs.
+     */
+    public static final Category<PreAggregationCounterGroup> CATEGORY = new BasicCounterGroupCategory<>(
+            "Edge output pre-aggregation",
+            Scope.GRAPH,
+            Arrays.asList(Item.values()),
+            "edge-0-aggregation", //$NON-NLS-1$
+            PreAggregationCounterGroup::new);
+
+    private final LongAdder inputRecord;
+
+    private final LongAdder combinedRecord;
+
+    private final LongAdder outputRecord;
+
+    private final LongAdder bypassedRecord;
+
+    private final LongAdder bypass;
+
+    private final LongAdder expansion;
+
+    PreAggregationCounterGroup() {
+        this.inputRecord = register(Item.INPUT_RECORD);
+        this.combinedRecord = register(Item.COMBINED_RECORD);
+        this.outputRecord = register(Item.OUTPUT_RECORD);
+        this.bypassedRecord = register(Item.BYPASSED_RECORD);
+        this.bypass = register(Item.BYPASS);
+        this.expansion = register(Item.EXPANSION);
+    }
+
+    /**
+     * Adds the number of records.
+     * @param input the number of input records
+     * @param combined the number of combined records
+     * @param output the number of output records, including the bypassed ones
+     * @param bypassed the number of bypassed records
+     */
+    public void addRecords(long input, long combined, long output, long bypassed) {
+        inputRecord.add(input);
+        combinedRecord.add(combined);
+        outputRecord.add(output);
+        bypassedRecord.add(bypassed);
+    }
+
+    /**
+     * Increments the number of switches to the pass-through mode.
+     */
+    public void incrementBypass() {
+        bypass.increment();
+    }
+
+    /**
+     * Increments the number of table expansions.
+     */
+    public void incrementExpansion() {
+        expansion.increment();
+    }
+
+    /**
+     * Column items of {@link PreAggregationCounterGroup}.
+     * @since 0.5.4
+     */
+    public enum Item implements CounterGroup.Column {
+
+        /**
+         * The number of input records.
+         */
+        INPUT_RECORD("number of input records"),
+
+        /**
+         * The number of records which are combined into other records.
+         */
+        COMBINED_RECORD("number of combined records"),
+
+        /**
+         * The number of output records.
+         */
+        OUTPUT_RECORD("number of output records"),
+
+        /**
+         * The number of records which are passed through without pre-aggregation.
+         */
+        BYPASSED_RECORD("number of bypassed records"),
+
+        /**
+         * The number of switches to the pass-through mode.
+         */
+        BYPASS("number of pass-through decisions"),
+
+        /**
+         * The number of table expansions.
+         */
+        EXPANSION("number of table expansions"),
+        ;
+
+        private final String description;
+
+        Item(String description) {
+            this.description = description;
+        }
+
+        @Override
+        public String getDescription() {
+            return description;
+        }
+
+        @Override
+        public String getIndexText() {
+            return String.format("PRE_AGGREGATION.%04d", ordinal()); //$NON-NLS-1$
+        }
+    }
+}
@@ -71,6 +71,40 @@ final class Util {
                 .orElse(defaultValue);
     }
 
+    static boolean getProperty(
+            ProcessorContext context,
+            String title, String key, boolean defaultValue) {
+        return context.getProperty(key)
+                .map(value -> {
+                    String s = value.trim();
+                    if (s.equalsIgnoreCase("true")) { //$NON-NLS-1$
+                        return true;
+                    } else if (s.equalsIgnoreCase("false")) { //$NON-NLS-1$
+                        return false;
+                    }
+                    throw new IllegalArgumentException(MessageFormat.format(
+                            "{0} must be a boolean value: {1}={2}",
+                            title, key, value));
+                })
+                .orElse(defaultValue);
+    }
+
+    static double getProperty(
+            ProcessorContext context,
+            String title, String key, double defaultValue) {
+        return context.getProperty(key)
+                .map(value -> {
+                    try {
+                        return Double.parseDouble(value);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException(MessageFormat.format(
+                                "{0} must be a valid number: {1}={2}",
+                                title, key, value), e);
+                    }
+                })
+                .orElse(defaultValue);
+    }
+
     static <T extends Enum<T>> T getProperty(
             ProcessorContext context,
             String title, String key, T defaultValue) {
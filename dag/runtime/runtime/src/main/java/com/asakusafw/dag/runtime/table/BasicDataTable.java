@@ -15,9 +15,7 @@
  */
 package com.asakusafw.dag.runtime.table;
 
-import java.text.MessageFormat;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -26,7 +24,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 import com.asakusafw.dag.runtime.adapter.DataTable;
 import com.asakusafw.dag.runtime.adapter.KeyBuffer;
@@ -35,22 +32,12 @@ import com.asakusafw.dag.runtime.adapter.KeyBuffer;
  * Basic implementation of {@link DataTable}.
  * @param <T> the data type
  * @since 0.4.0
- * @version 0.4.1
+ * @version 0.5.4
  */
-public class BasicDataTable<T> implements DataTable<T> {
+public class BasicDataTable<T> extends AbstractDataTable<T> {
 
     private final Map<KeyBuffer.View, ? extends List<T>> entity;
 
-    private final Supplier<? extends KeyBuffer> buffers;
-
-    private final ThreadLocal<KeyBuffer> bufferCache;
-
-    private final int keyElementCount;
-
-    private final Class<?>[] keyElementTypes;
-
-    private boolean keyElementTypeValidation;
-
     BasicDataTable(Map<KeyBuffer.View, ? extends List<T>> entity, Supplier<? extends KeyBuffer> buffers) {
         this(entity, buffers, KeyValidator.NULL);
     }
@@ -59,17 +46,8 @@ public class BasicDataTable<T> implements DataTable<T> {
             Map<KeyBuffer.View, ? extends List<T>> entity,
             Supplier<? extends KeyBuffer> buffers,
             KeyValidator validator) {
+        super(buffers, validator);
         this.entity = entity;
-        this.buffers = buffers;
-        this.bufferCache = ThreadLocal.withInitial(buffers);
-        this.keyElementCount = validator.level == ValidationLevel.NOTHING ? -1 : validator.types.length;
-        this.keyElementTypes = validator.types;
-        this.keyElementTypeValidation = validator.level == ValidationLevel.TYPE;
-    }
-
-    @Override
-    public KeyBuffer newKeyBuffer() {
-        return buffers.get();
     }
 
     @Override
@@ -123,143 +101,11 @@ public class BasicDataTable<T> implements DataTable<T> {
         };
     }
 
-    @Override
-    public List<T> find() {
-        // (>= 0 && != 0) -> (> 0)
-        if (keyElementCount > 0) {
-            throw incompatible();
-        }
-        KeyBuffer buffer = bufferCache.get().clear();
-        return getList(buffer);
-    }
-
-    @Override
-    public List<T> find(Object key) {
-        if (keyElementCount >= 0) {
-            if (keyElementCount != 1) {
-                throw incompatible(key);
-            }
-            if (keyElementTypes != null) {
-                checkType(0, key);
-            }
-        }
-        KeyBuffer buffer = bufferCache.get().clear();
-        buffer.append(key);
-        return getList(buffer);
-    }
-
-    @Override
-    public List<T> find(Object a, Object b) {
-        int count = keyElementCount;
-        if (count >= 0) {
-            if (count != 2) {
-                throw incompatible(a, b);
-            }
-            checkType(0, a);
-            checkType(1, b);
-        }
-        KeyBuffer buffer = bufferCache.get().clear();
-        buffer.append(a);
-        buffer.append(b);
-        return getList(buffer);
-    }
-
-    @Override
-    public List<T> find(Object a, Object b, Object c) {
-        int count = keyElementCount;
-        if (count >= 0) {
-            if (count != 3) {
-                throw incompatible(a, b, c);
-            }
-            checkType(0, a);
-            checkType(1, b);
-            checkType(2, c);
-        }
-        KeyBuffer buffer = bufferCache.get().clear();
-        buffer.append(a);
-        buffer.append(b);
-        buffer.append(c);
-        return getList(buffer);
-    }
-
-    @Override
-    public List<T> find(Object a, Object b, Object c, Object d) {
-        int count = keyElementCount;
-        if (count >= 0) {
-            if (count != 4) {
-                throw incompatible(a, b, c, d);
-            }
-            checkType(0, a);
-            checkType(1, b);
-            checkType(2, c);
-            checkType(3, d);
-        }
-        KeyBuffer buffer = bufferCache.get().clear();
-        buffer.append(a);
-        buffer.append(b);
-        buffer.append(c);
-        buffer.append(d);
-        return getList(buffer);
-    }
-
-    @Override
-    public List<T> find(Object... elements) {
-        int count = keyElementCount;
-        if (count >= 0) {
-            if (count != elements.length) {
-                throw incompatible(elements);
-            }
-            for (int i = 0; i < count; i++) {
-                checkType(i, elements[i]);
-            }
-        }
-        KeyBuffer buffer = bufferCache.get().clear();
-        for (Object element : elements) {
-            buffer.append(element);
-        }
-        return getList(buffer);
-    }
-
-    private void checkType(int index, Object element) {
-        if (keyElementTypeValidation == false) {
-            return;
-        }
-        if (element == null) {
-            throw new IllegalArgumentException(MessageFormat.format(
-                    "key element must never be null (at {0})",
-                    index));
-        }
-        assert keyElementTypes != null;
-        assert index < keyElementTypes.length;
-        Class<? extends Object> actual = element.getClass();
-        if (actual.equals(keyElementTypes[index]) == false) {
-            throw new IllegalArgumentException(MessageFormat.format(
-                    "key element at {0} has an inconsistent type: required={1}, actual={2}",
-                    index,
-                    keyElementTypes[index].getName(),
-                    actual.getName()));
-        }
-    }
-
-    private IllegalArgumentException incompatible(Object... elements) {
-        assert keyElementTypes != null;
-        String expected = Arrays.stream(keyElementTypes)
-                .map(Class::getSimpleName)
-                .collect(Collectors.joining(", ")); //$NON-NLS-1$
-        String actual = Arrays.stream(elements)
-                .map(e -> e == null ? null : e.getClass().getSimpleName())
-                .collect(Collectors.joining(", ")); //$NON-NLS-1$
-        return new IllegalArgumentException(MessageFormat.format(
-                "defined key is [{0}], but requested key is [{1}]",
-                expected,
-                actual));
-    }
-
     /**
      * A builder for {@link BasicDataTable}.
      * @param <T> the element type
      * @since 0.4.0
-     * @version 0.4.1
+     * @version 0.5.4
      */
     public static class Builder<T> implements DataTable.Builder<T> {
 
@@ -269,6 +115,8 @@ public class BasicDataTable<T> implements DataTable<T> {
 
         private final KeyValidator validator;
 
+        private final NioKeyBuffer.Arena arena = new NioKeyBuffer.Arena();
+
         /**
          * Creates a new instance.
          */
@@ -312,7 +160,7 @@ public class BasicDataTable<T> implements DataTable<T> {
             List<T> list = map.get(key.getView());
             if (list == null) {
                 list = new ArrayList<>(1);
-                map.put(key.getFrozen(), list);
+                map.put(NioKeyBuffer.freeze(key, arena), list);
             }
             list.add(value);
             return this;
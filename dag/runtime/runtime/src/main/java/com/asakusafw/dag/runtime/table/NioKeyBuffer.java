@@ -22,10 +22,12 @@ import org.apache.hadoop.io.Writable;
 
 import com.asakusafw.dag.runtime.adapter.KeyBuffer;
 import com.asakusafw.lang.utils.buffer.nio.ResizableNioDataBuffer;
+import com.asakusafw.lang.utils.common.Arguments;
 
 /**
  * An implementation of {@link com.asakusafw.dag.runtime.adapter.KeyBuffer KeyBuffer} using Java NIO.
  * @since 0.4.0
+ * @version 0.5.4
  */
 public class NioKeyBuffer implements KeyBuffer {
 
@@ -33,6 +35,21 @@ public class NioKeyBuffer implements KeyBuffer {
 
     private final DirectView directView = new DirectView(buffer);
 
+    /**
+     * Returns a frozen view of the given key buffer.
+     * If the buffer is a {@link NioKeyBuffer}, the frozen view will be allocated in the given arena.
+     * @param key the key buffer
+     * @param arena the arena
+     * @return the frozen view
+     * @since 0.5.4
+     */
+    public static View freeze(KeyBuffer key, Arena arena) {
+        if (key instanceof NioKeyBuffer) {
+            return ((NioKeyBuffer) key).getFrozen(arena);
+        }
+        return key.getFrozen();
+    }
+
     @Override
     public View getView() {
         return directView;
@@ -48,7 +65,23 @@ public class NioKeyBuffer implements KeyBuffer {
         contents.flip();
         copy.put(contents);
         contents.position(contents.limit()).limit(contents.capacity());
-        return new FrozenView(copy);
+        return new FrozenView(copy, 0, copy.capacity());
+    }
+
+    /**
+     * Returns a frozen view of this object, which is allocated in the given arena.
+     * The returned view is available until the arena is {@link Arena#release() released}.
+     * @param arena the arena
+     * @return a frozen view
+     * @since 0.5.4
+     */
+    public View getFrozen(Arena arena) {
+        Arguments.requireNonNull(arena);
+        ByteBuffer contents = buffer.contents;
+        if (contents.position() == 0) {
+            return FrozenView.EMPTY;
+        }
+        return arena.allocate(contents, 0, contents.position());
     }
 
     @Override
@@ -67,21 +100,137 @@ public class NioKeyBuffer implements KeyBuffer {
         return this;
     }
 
+    /**
+     * An arena of frozen views of {@link NioKeyBuffer}.
+     * This allocates frozen views in large heap pages instead of individual direct buffers, and they are
+     * released all at once.
+     * The page size starts from a small one, and grows up to the max page size.
+     * This class is not thread-safe.
+     * @since 0.5.4
+     */
+    public static final class Arena {
+
+        /**
+         * The default max page size in bytes.
+         */
+        public static final int DEFAULT_PAGE_SIZE = 256 * 1024;
+
+        private static final int MIN_PAGE_SIZE = 4 * 1024;
+
+        private final int pageSize;
+
+        private ByteBuffer page = ResizableNioDataBuffer.EMPTY_BUFFER;
+
+        private long size;
+
+        private int count;
+
+        /**
+         * Creates a new instance.
+         */
+        public Arena() {
+            this(DEFAULT_PAGE_SIZE);
+        }
+
+        /**
+         * Creates a new instance.
+         * @param pageSize the max page size in bytes
+         */
+        public Arena(int pageSize) {
+            Arguments.require(pageSize > 0);
+            this.pageSize = pageSize;
+        }
+
+        /**
+         * Returns a copy of the given frozen view in this arena.
+         * @param view the source view, which must be created by {@link NioKeyBuffer}
+         * @return the copy
+         */
+        public View copy(View view) {
+            Arguments.require(view instanceof ViewBase);
+            ViewBase source = (ViewBase) view;
+            if (source.length() == 0) {
+                return FrozenView.EMPTY;
+            }
+            return allocate(source.base(), source.offset(), source.length());
+        }
+
+        FrozenView allocate(ByteBuffer source, int offset, int length) {
+            ByteBuffer p = page;
+            if (p.remaining() < length || p.order() != source.order()) {
+                int newSize = (int) Math.min(Math.max(p.capacity() * 2L, MIN_PAGE_SIZE), pageSize);
+                if (length > newSize / 2) {
+                    // keeps the rest of the current page for the subsequent keys
+                    ByteBuffer dedicated = ByteBuffer.allocate(length).order(source.order());
+                    size += length;
+                    count++;
+                    copy(source, offset, dedicated, length);
+                    return new FrozenView(dedicated, 0, length);
+                }
+                p = ByteBuffer.allocate(newSize).order(source.order());
+                size += newSize;
+                page = p;
+            }
+            int position = p.position();
+            copy(source, offset, p, length);
+            count++;
+            return new FrozenView(p, position, length);
+        }
+
+        private static void copy(ByteBuffer source, int offset, ByteBuffer destination, int length) {
+            ByteBuffer s = source.duplicate();
+            s.limit(offset + length).position(offset);
+            destination.put(s);
+        }
+
+        /**
+         * Returns the total size of the allocated pages in bytes.
+         * @return the total page size
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Returns the number of frozen views in this arena.
+         * @return the number of frozen views
+         */
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * Releases all pages in this arena.
+         * The frozen views which have been allocated in this arena must not be used after this operation,
+         * and this arena will allocate new pages for the subsequent views.
+         */
+        public void release() {
+            page = ResizableNioDataBuffer.EMPTY_BUFFER;
+            size = 0;
+            count = 0;
+        }
+    }
+
     private abstract static class ViewBase implements View {
 
         ViewBase() {
             return;
         }
 
-        abstract ByteBuffer contents();
+        abstract ByteBuffer base();
+
+        abstract int offset();
+
+        abstract int length();
 
         @Override
         public final int hashCode() {
-            ByteBuffer b = contents();
-            int limit = b.position();
+            ByteBuffer b = base();
+            int start = offset();
+            int limit = start + length();
 
             int result = 0;
-            int offset = 0;
+            int offset = start;
             for (int n = limit - Long.BYTES; offset <= n; offset += Long.BYTES) {
                 result = result * 31 + Long.hashCode(b.getLong(offset));
             }
@@ -102,25 +251,28 @@ public class NioKeyBuffer implements KeyBuffer {
             if ((obj instanceof ViewBase) == false) {
                 return false;
             }
-            ByteBuffer a = contents();
-            ByteBuffer b = ((ViewBase) obj).contents();
-            int limit = a.position();
-            if (limit != b.position()) {
+            ViewBase other = (ViewBase) obj;
+            int length = length();
+            if (length != other.length()) {
                 return false;
             }
+            ByteBuffer a = base();
+            ByteBuffer b = other.base();
+            int aOffset = offset();
+            int bOffset = other.offset();
             int offset = 0;
-            for (int n = limit - Long.BYTES; offset <= n; offset += Long.BYTES) {
-                if (a.getLong(offset) != b.getLong(offset)) {
+            for (int n = length - Long.BYTES; offset <= n; offset += Long.BYTES) {
+                if (a.getLong(aOffset + offset) != b.getLong(bOffset + offset)) {
                     return false;
                 }
             }
-            for (int n = limit - Integer.BYTES; offset <= n; offset += Integer.BYTES) {
-                if (a.getInt(offset) != b.getInt(offset)) {
+            for (int n = length - Integer.BYTES; offset <= n; offset += Integer.BYTES) {
+                if (a.getInt(aOffset + offset) != b.getInt(bOffset + offset)) {
                     return false;
                 }
             }
-            for (int n = limit; offset < n; offset++) {
-                if (a.get(offset) != b.get(offset)) {
+            for (int n = length; offset < n; offset++) {
+                if (a.get(aOffset + offset) != b.get(bOffset + offset)) {
                     return false;
                 }
             }
@@ -137,25 +289,51 @@ public class NioKeyBuffer implements KeyBuffer {
         }
 
         @Override
-        ByteBuffer contents() {
+        ByteBuffer base() {
             return buffer.contents;
         }
+
+        @Override
+        int offset() {
+            return 0;
+        }
+
+        @Override
+        int length() {
+            return buffer.contents.position();
+        }
     }
 
     private static final class FrozenView extends ViewBase {
 
-        static final FrozenView EMPTY = new FrozenView(ResizableNioDataBuffer.EMPTY_BUFFER);
+        static final FrozenView EMPTY = new FrozenView(ResizableNioDataBuffer.EMPTY_BUFFER, 0, 0);
 
         private final ByteBuffer buffer;
 
-        FrozenView(ByteBuffer buffer) {
+        private final int offset;
+
+        private final int length;
+
+        FrozenView(ByteBuffer buffer, int offset, int length) {
+            assert offset + length <= buffer.capacity();
             this.buffer = buffer;
-            assert buffer.limit() == buffer.capacity();
+            this.offset = offset;
+            this.length = length;
         }
 
         @Override
-        ByteBuffer contents() {
+        ByteBuffer base() {
             return buffer;
         }
+
+        @Override
+        int offset() {
+            return offset;
+        }
+
+        @Override
+        int length() {
+            return length;
+        }
     }
 }
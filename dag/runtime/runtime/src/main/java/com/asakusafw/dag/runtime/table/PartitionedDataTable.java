@@ -0,0 +1,114 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.dag.runtime.table;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+import com.asakusafw.dag.runtime.adapter.DataTable;
+import com.asakusafw.dag.runtime.adapter.KeyBuffer;
+import com.asakusafw.dag.runtime.table.BasicDataTable.KeyValidator;
+import com.asakusafw.lang.utils.common.Arguments;
+
+/**
+ * An implementation of {@link DataTable} which consists of disjoint partitions.
+ * Each element must be placed into the partition of {@link #getPartition(KeyBuffer, int)}, so that
+ * the individual partitions can be built independently.
+ * @param <T> the data type
+ * @since 0.5.4
+ */
+public class PartitionedDataTable<T> extends AbstractDataTable<T> {
+
+    private final List<DataTable<T>> partitions;
+
+    /**
+     * Creates a new instance.
+     * @param partitions the partitions
+     * @param buffers the key buffer supplier
+     * @param validator the key validator
+     */
+    public PartitionedDataTable(
+            List<? extends DataTable<T>> partitions,
+            Supplier<? extends KeyBuffer> buffers,
+            KeyValidator validator) {
+        super(buffers, validator);
+        Arguments.requireNonNull(partitions);
+        Arguments.require(partitions.isEmpty() == false);
+        this.partitions = new ArrayList<>(partitions);
+    }
+
+    /**
+     * Returns the partition index for the given key.
+     * @param key the key
+     * @param numberOfPartitions the number of partitions
+     * @return the partition index
+     */
+    public static int getPartition(KeyBuffer key, int numberOfPartitions) {
+        int h = key.getView().hashCode() * 0x9e3779b9;
+        return ((h ^ (h >>> 16)) & Integer.MAX_VALUE) % numberOfPartitions;
+    }
+
+    /**
+     * Returns the number of partitions.
+     * @return the number of partitions
+     */
+    public int getNumberOfPartitions() {
+        return partitions.size();
+    }
+
+    /**
+     * Returns the partitions.
+     * @return the partitions
+     */
+    public List<DataTable<T>> getPartitions() {
+        return Collections.unmodifiableList(partitions);
+    }
+
+    @Override
+    public List<T> getList(KeyBuffer key) {
+        return partitions.get(getPartition(key, partitions.size())).getList(key);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        Iterator<DataTable<T>> rest = partitions.iterator();
+        return new Iterator<T>() {
+            private Iterator<T> current;
+            @Override
+            public boolean hasNext() {
+                while (current == null || current.hasNext() == false) {
+                    if (rest.hasNext() == false) {
+                        return false;
+                    }
+                    current = rest.next().iterator();
+                }
+                return true;
+            }
+
+            @Override
+            public T next() {
+                if (hasNext() == false) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+}
@@ -0,0 +1,458 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.dag.runtime.table;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+import org.apache.hadoop.io.Writable;
+
+import com.asakusafw.dag.runtime.adapter.DataTable;
+import com.asakusafw.dag.runtime.adapter.KeyBuffer;
+import com.asakusafw.dag.runtime.adapter.ObjectCopier;
+import com.asakusafw.dag.runtime.table.BasicDataTable.KeyValidator;
+import com.asakusafw.lang.utils.buffer.nio.NioDataBuffer;
+import com.asakusafw.lang.utils.buffer.nio.ResizableNioDataBuffer;
+import com.asakusafw.lang.utils.common.Arguments;
+
+/**
+ * An implementation of {@link DataTable} which keeps its elements in serialized form on off-heap memory.
+ * Elements are deserialized lazily on each lookup, and their keys are indexed by an open addressing hash table.
+ * @param <T> the data type
+ * @since 0.5.4
+ */
+public class SerializedDataTable<T> extends AbstractDataTable<T> {
+
+    private final ByteBuffer contents;
+
+    private final int[] offsets;
+
+    private final int[] order;
+
+    private final int[] groupStarts;
+
+    private final Index index;
+
+    private final T prototype;
+
+    private final ThreadLocal<ObjectCopier<T>> copiers;
+
+    private final ThreadLocal<NioDataBuffer> readers;
+
+    SerializedDataTable(
+            ByteBuffer contents, int[] offsets, int[] order, int[] groupStarts, Index index,
+            T prototype, Supplier<? extends ObjectCopier<T>> copiers,
+            Supplier<? extends KeyBuffer> buffers, KeyValidator validator) {
+        super(buffers, validator);
+        this.contents = contents;
+        this.offsets = offsets;
+        this.order = order;
+        this.groupStarts = groupStarts;
+        this.index = index;
+        this.prototype = prototype;
+        this.copiers = ThreadLocal.withInitial(copiers);
+        this.readers = ThreadLocal.withInitial(() -> {
+            NioDataBuffer buffer = new NioDataBuffer();
+            buffer.contents = contents.duplicate().order(contents.order());
+            return buffer;
+        });
+    }
+
+    /**
+     * Returns the number of bytes of the serialized elements.
+     * @return the number of bytes
+     */
+    public long getSerializedSize() {
+        return contents.capacity();
+    }
+
+    @Override
+    public List<T> getList(KeyBuffer key) {
+        int group = index.find(key.getView());
+        if (group < 0) {
+            return Collections.emptyList();
+        }
+        return restore(group);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        int groups = groupStarts.length - 1;
+        return new Iterator<T>() {
+            private int nextGroup = 0;
+            private Iterator<T> current;
+            @Override
+            public boolean hasNext() {
+                while (current == null || current.hasNext() == false) {
+                    if (nextGroup >= groups) {
+                        return false;
+                    }
+                    current = restore(nextGroup++).iterator();
+                }
+                return true;
+            }
+
+            @Override
+            public T next() {
+                if (hasNext() == false) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    private List<T> restore(int group) {
+        int begin = groupStarts[group];
+        int end = groupStarts[group + 1];
+        ObjectCopier<T> copier = copiers.get();
+        NioDataBuffer reader = readers.get();
+        List<T> results = new ArrayList<>(end - begin);
+        for (int i = begin; i < end; i++) {
+            results.add(read(copier, reader, order[i]));
+        }
+        return results;
+    }
+
+    private T read(ObjectCopier<T> copier, NioDataBuffer reader, int record) {
+        T object = copier.newCopy(prototype);
+        ByteBuffer buf = reader.contents;
+        buf.limit(offsets[record + 1]);
+        buf.position(offsets[record]);
+        try {
+            ((Writable) object).readFields(reader);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return object;
+    }
+
+    /**
+     * An open addressing hash index from keys to group IDs.
+     */
+    static final class Index {
+
+        private static final int MINIMUM_CAPACITY = 16;
+
+        private int[] slots;
+
+        private int[] hashes;
+
+        private KeyBuffer.View[] keys;
+
+        private final NioKeyBuffer.Arena arena = new NioKeyBuffer.Arena();
+
+        private int size;
+
+        Index() {
+            this.slots = new int[MINIMUM_CAPACITY];
+            this.hashes = new int[MINIMUM_CAPACITY / 2];
+            this.keys = new KeyBuffer.View[MINIMUM_CAPACITY / 2];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int find(KeyBuffer.View key) {
+            int hash = key.hashCode();
+            int[] ss = slots;
+            int mask = ss.length - 1;
+            for (int slot = mix(hash) & mask; ss[slot] != 0; slot = (slot + 1) & mask) {
+                int id = ss[slot] - 1;
+                if (hashes[id] == hash && key.equals(keys[id])) {
+                    return id;
+                }
+            }
+            return -1;
+        }
+
+        int findOrAdd(KeyBuffer key) {
+            KeyBuffer.View view = key.getView();
+            int hash = view.hashCode();
+            int[] ss = slots;
+            int mask = ss.length - 1;
+            int slot = mix(hash) & mask;
+            for (; ss[slot] != 0; slot = (slot + 1) & mask) {
+                int id = ss[slot] - 1;
+                if (hashes[id] == hash && view.equals(keys[id])) {
+                    return id;
+                }
+            }
+            int id = size++;
+            if (id >= keys.length) {
+                hashes = Arrays.copyOf(hashes, keys.length * 2);
+                keys = Arrays.copyOf(keys, keys.length * 2);
+            }
+            hashes[id] = hash;
+            keys[id] = NioKeyBuffer.freeze(key, arena);
+            ss[slot] = id + 1;
+            if (size * 2 > ss.length) {
+                rehash(ss.length * 2);
+            }
+            return id;
+        }
+
+        private void rehash(int capacity) {
+            int[] ss = new int[capacity];
+            int mask = capacity - 1;
+            for (int id = 0; id < size; id++) {
+                int slot = mix(hashes[id]) & mask;
+                while (ss[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                ss[slot] = id + 1;
+            }
+            this.slots = ss;
+        }
+
+        KeyBuffer.View get(int id) {
+            return keys[id];
+        }
+
+        private static int mix(int hash) {
+            int h = hash * 0x9e3779b9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * A builder for {@link SerializedDataTable}.
+     * This falls back to {@link BasicDataTable} if the elements are not {@link Writable},
+     * or the total size of serialized elements is less than the threshold.
+     * @param <T> the element type
+     * @since 0.5.4
+     */
+    public static class Builder<T> implements DataTable.Builder<T> {
+
+        private static final int INITIAL_RECORDS = 256;
+
+        private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+        private static final double BUFFER_EXPANSION_FACTOR = 2.0;
+
+        private final Supplier<? extends KeyBuffer> buffers;
+
+        private final KeyValidator validator;
+
+        private final Supplier<? extends ObjectCopier<T>> copiers;
+
+        private final ObjectCopier<T> copier;
+
+        private final int threshold;
+
+        private final ResizableNioDataBuffer buffer =
+                new ResizableNioDataBuffer(INITIAL_BUFFER_SIZE, BUFFER_EXPANSION_FACTOR);
+
+        private final Index index = new Index();
+
+        private int[] offsets = new int[INITIAL_RECORDS + 1];
+
+        private int[] recordKeys = new int[INITIAL_RECORDS];
+
+        private int records;
+
+        private T prototype;
+
+        private BasicDataTable.Builder<T> fallback;
+
+        /**
+         * Creates a new instance.
+         * @param buffers the key buffer supplier
+         * @param validator the key validator
+         * @param copiers the object copier supplier
+         * @param threshold the minimum total size in bytes of serialized elements,
+         *     or {@code 0} to always serialize the elements
+         */
+        public Builder(
+                Supplier<? extends KeyBuffer> buffers,
+                KeyValidator validator,
+                Supplier<? extends ObjectCopier<T>> copiers,
+                int threshold) {
+            Arguments.requireNonNull(buffers);
+            Arguments.requireNonNull(validator);
+            Arguments.requireNonNull(copiers);
+            this.buffers = buffers;
+            this.validator = validator;
+            this.copiers = copiers;
+            this.copier = copiers.get();
+            this.threshold = threshold;
+        }
+
+        @Override
+        public KeyBuffer newKeyBuffer() {
+            return buffers.get();
+        }
+
+        /**
+         * Adds an element into this table.
+         * Unlike {@link BasicDataTable.Builder}, the given value can be reused by the caller after this call.
+         * @param key the element key
+         * @param value the element value
+         * @return this
+         */
+        @Override
+        public DataTable.Builder<T> add(KeyBuffer key, T value) {
+            if (fallback != null) {
+                fallback.add(key, copier.newCopy(value));
+                return this;
+            }
+            if (prototype == null) {
+                if ((value instanceof Writable) == false) {
+                    fallback = new BasicDataTable.Builder<>(new HashMap<>(), buffers, validator);
+                    return add(key, value);
+                }
+                prototype = copier.newCopy(value);
+            }
+            int id = index.findOrAdd(key);
+            if (records >= recordKeys.length) {
+                recordKeys = Arrays.copyOf(recordKeys, recordKeys.length * 2);
+                offsets = Arrays.copyOf(offsets, recordKeys.length + 1);
+            }
+            try {
+                ((Writable) value).write(buffer);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            recordKeys[records++] = id;
+            offsets[records] = buffer.contents.position();
+            return this;
+        }
+
+        @Override
+        public DataTable<T> build(Comparator<? super T> comparator) {
+            if (fallback != null) {
+                return fallback.build(comparator);
+            }
+            int[] groupStarts = new int[index.size() + 1];
+            int[] order = group(groupStarts);
+            if (buffer.contents.position() < threshold) {
+                return toBasic(order, groupStarts, comparator);
+            }
+            ByteBuffer contents = compact();
+            int[] offs = Arrays.copyOf(offsets, records + 1);
+            SerializedDataTable<T> table = new SerializedDataTable<>(
+                    contents, offs, order, groupStarts, index,
+                    prototype, copiers, buffers, validator);
+            if (comparator != null) {
+                sort(table, order, groupStarts, comparator);
+            }
+            return table;
+        }
+
+        private int[] group(int[] groupStarts) {
+            int[] keys = recordKeys;
+            int count = records;
+            for (int i = 0; i < count; i++) {
+                groupStarts[keys[i] + 1]++;
+            }
+            for (int i = 1; i < groupStarts.length; i++) {
+                groupStarts[i] += groupStarts[i - 1];
+            }
+            int[] cursors = Arrays.copyOf(groupStarts, groupStarts.length - 1);
+            int[] order = new int[count];
+            for (int i = 0; i < count; i++) {
+                order[cursors[keys[i]]++] = i;
+            }
+            return order;
+        }
+
+        private ByteBuffer compact() {
+            ByteBuffer source = buffer.contents;
+            int size = source.position();
+            ByteBuffer results = ByteBuffer.allocateDirect(size).order(source.order());
+            source.flip();
+            results.put(source);
+            results.clear();
+            buffer.contents = ResizableNioDataBuffer.EMPTY_BUFFER;
+            return results;
+        }
+
+        private static <T> void sort(
+                SerializedDataTable<T> table, int[] order, int[] groupStarts, Comparator<? super T> comparator) {
+            ObjectCopier<T> copier = table.copiers.get();
+            NioDataBuffer reader = table.readers.get();
+            for (int group = 0, n = groupStarts.length - 1; group < n; group++) {
+                int begin = groupStarts[group];
+                int end = groupStarts[group + 1];
+                if (end - begin <= 1) {
+                    continue;
+                }
+                List<Entry<T>> entries = new ArrayList<>(end - begin);
+                for (int i = begin; i < end; i++) {
+                    entries.add(new Entry<>(order[i], table.read(copier, reader, order[i])));
+                }
+                // the sort is stable, so that the equivalent elements are kept in their arrival order
+                entries.sort((a, b) -> comparator.compare(a.value, b.value));
+                for (int i = begin; i < end; i++) {
+                    order[i] = entries.get(i - begin).record;
+                }
+            }
+        }
+
+        private DataTable<T> toBasic(int[] order, int[] groupStarts, Comparator<? super T> comparator) {
+            ByteBuffer contents = buffer.contents;
+            NioDataBuffer reader = new NioDataBuffer();
+            reader.contents = contents.duplicate().order(contents.order());
+            Map<KeyBuffer.View, List<T>> entity = new HashMap<>();
+            for (int group = 0, n = groupStarts.length - 1; group < n; group++) {
+                int begin = groupStarts[group];
+                int end = groupStarts[group + 1];
+                List<T> list = new ArrayList<>(end - begin);
+                for (int i = begin; i < end; i++) {
+                    int record = order[i];
+                    T object = copier.newCopy(prototype);
+                    reader.contents.limit(offsets[record + 1]);
+                    reader.contents.position(offsets[record]);
+                    try {
+                        ((Writable) object).readFields(reader);
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    list.add(object);
+                }
+                if (comparator != null) {
+                    list.sort(comparator);
+                }
+                entity.put(index.get(group), list);
+            }
+            buffer.contents = ResizableNioDataBuffer.EMPTY_BUFFER;
+            return new BasicDataTable<>(entity, buffers, validator);
+        }
+    }
+
+    private static final class Entry<T> {
+
+        final int record;
+
+        final T value;
+
+        Entry(int record, T value) {
+            this.record = record;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.dag.runtime.io;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import com.asakusafw.runtime.io.ModelInput;
+
+/**
+ * Test for {@link ReadAheadModelReader}.
+ */
+public class ReadAheadModelReaderTest {
+
+    /**
+     * simple case.
+     * @throws Exception if failed
+     */
+    @Test
+    public void simple() throws Exception {
+        Source source = new Source(3, -1);
+        try (ReadAheadModelReader<int[]> reader = new ReadAheadModelReader<>(source, () -> new int[1], 1)) {
+            assertThat(drain(reader), contains(0, 1, 2));
+            assertThat(reader.next(), is(nullValue()));
+        }
+        assertThat(source.closed, is(true));
+    }
+
+    /**
+     * w/ many objects.
+     * @throws Exception if failed
+     */
+    @Test
+    public void many() throws Exception {
+        Source source = new Source(100_000, -1);
+        Set<int[]> objects = Collections.newSetFromMap(new IdentityHashMap<>());
+        try (ReadAheadModelReader<int[]> reader = new ReadAheadModelReader<>(source, () -> new int[1], 4)) {
+            int count = 0;
+            for (int[] next = reader.next(); next != null; next = reader.next()) {
+                assertThat(next[0], is(count));
+                objects.add(next);
+                count++;
+            }
+            assertThat(count, is(100_000));
+        }
+        assertThat(objects.size(), lessThanOrEqualTo(5));
+        assertThat(source.closed, is(true));
+    }
+
+    /**
+     * w/ empty input.
+     * @throws Exception if failed
+     */
+    @Test
+    public void empty() throws Exception {
+        Source source = new Source(0, -1);
+        try (ReadAheadModelReader<int[]> reader = new ReadAheadModelReader<>(source, () -> new int[1], 2)) {
+            assertThat(reader.next(), is(nullValue()));
+        }
+        assertThat(source.closed, is(true));
+    }
+
+    /**
+     * w/ input failure.
+     * @throws Exception if failed
+     */
+    @Test
+    public void failure() throws Exception {
+        Source source = new Source(10, 5);
+        List<Integer> results = new ArrayList<>();
+        try (ReadAheadModelReader<int[]> reader = new ReadAheadModelReader<>(source, () -> new int[1], 2)) {
+            for (int[] next = reader.next(); next != null; next = reader.next()) {
+                results.add(next[0]);
+            }
+            fail();
+        } catch (IOException e) {
+            // ok.
+        }
+        assertThat(results, contains(0, 1, 2, 3, 4));
+        assertThat(source.closed, is(true));
+    }
+
+    /**
+     * close before reading all objects.
+     * @throws Exception if failed
+     */
+    @Test
+    public void close_early() throws Exception {
+        Source source = new Source(Integer.MAX_VALUE, -1);
+        try (ReadAheadModelReader<int[]> reader = new ReadAheadModelReader<>(source, () -> new int[1], 2)) {
+            assertThat(reader.next()[0], is(0));
+            assertThat(reader.next()[0], is(1));
+        }
+        assertThat(source.closed, is(true));
+    }
+
+    /**
+     * close while the helper thread is blocking in reading input.
+     * @throws Exception if failed
+     */
+    @Test
+    public void close_blocking() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        Source source = new Source(Integer.MAX_VALUE, -1) {
+            @Override
+            public boolean readTo(int[] model) throws IOException {
+                if (next == 1) {
+                    latch.countDown();
+                    try {
+                        Thread.sleep(Long.MAX_VALUE);
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                }
+                return super.readTo(model);
+            }
+        };
+        try (ReadAheadModelReader<int[]> reader = new ReadAheadModelReader<>(source, () -> new int[1], 2)) {
+            assertThat(reader.next()[0], is(0));
+            latch.await();
+        }
+        assertThat(source.closed, is(true));
+    }
+
+    private static List<Integer> drain(ReadAheadModelReader<int[]> reader) throws IOException, InterruptedException {
+        List<Integer> results = new ArrayList<>();
+        for (int[] next = reader.next(); next != null; next = reader.next()) {
+            results.add(next[0]);
+        }
+        return results;
+    }
+
+    private static class Source implements ModelInput<int[]> {
+
+        final int count;
+
+        final int failAt;
+
+        int next;
+
+        volatile boolean closed;
+
+        Source(int count, int failAt) {
+            this.count = count;
+            this.failAt = failAt;
+        }
+
+        @Override
+        public boolean readTo(int[] model) throws IOException {
+            if (next == failAt) {
+                throw new IOException();
+            }
+            if (next >= count) {
+                return false;
+            }
+            model[0] = next++;
+            return true;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -20,10 +20,12 @@ import static org.junit.Assert.*;
 
 import java.io.DataInput;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 
 import org.junit.Test;
 
 import com.asakusafw.dag.api.common.DataComparator;
+import com.asakusafw.lang.utils.buffer.nio.NioDataBuffer;
 import com.asakusafw.runtime.io.util.DataBuffer;
 import com.asakusafw.runtime.value.BooleanOption;
 import com.asakusafw.runtime.value.ByteOption;
@@ -412,6 +414,75 @@ public class ValueOptionSerDeTest {
         compare(cmp, new DecimalOption(), newDecimal("1.1"));
     }
 
+    /**
+     * Test for {@link ValueOptionSerDe#compareString(NioDataBuffer, NioDataBuffer)}.
+     * @throws Exception if failed
+     */
+    @Test
+    public void compare_string_buffer() throws Exception {
+        DataComparator cmp = (a, b) -> ValueOptionSerDe.compareString((NioDataBuffer) a, (NioDataBuffer) b);
+
+        compareBuffer(cmp, new StringOption("a"), new StringOption("a"));
+        compareBuffer(cmp, new StringOption("a"), new StringOption("b"));
+        compareBuffer(cmp, new StringOption("A"), new StringOption("AA"));
+
+        compareBuffer(cmp, new StringOption("0123456789"), new StringOption("0123456789"));
+        compareBuffer(cmp, new StringOption("0123456789"), new StringOption("0123456788"));
+        compareBuffer(cmp, new StringOption("01234567"), new StringOption("012345678"));
+        compareBuffer(cmp, new StringOption("0123456701234567"), new StringOption("0123456701234568"));
+        compareBuffer(cmp, new StringOption("0223456701234567"), new StringOption("0123456701234568"));
+        compareBuffer(cmp, new StringOption("\u3042\u3044\u3046\u3048"), new StringOption("\u3042\u3044\u3046A"));
+        compareBuffer(cmp, new StringOption("0123456\u3042"), new StringOption("01234567"));
+        compareBuffer(cmp, new StringOption("\u3042012345678"), new StringOption("A0123456789"));
+
+        compareBuffer(cmp, new StringOption(), new StringOption());
+        compareBuffer(cmp, new StringOption("0123456789"), new StringOption());
+    }
+
+    /**
+     * Test for {@link ValueOptionSerDe#compareString(DataInput, DataInput)} with {@link NioDataBuffer}.
+     * @throws Exception if failed
+     */
+    @Test
+    public void compare_string_buffer_dispatch() throws Exception {
+        DataComparator cmp = ValueOptionSerDe::compareString;
+
+        compareBuffer(cmp, new StringOption("0123456789"), new StringOption("0123456789"));
+        compareBuffer(cmp, new StringOption("0123456789"), new StringOption("0123456788"));
+        compareBuffer(cmp, new StringOption(), new StringOption("0123456789"));
+    }
+
+    /**
+     * Test for {@link ValueOptionSerDe#compareDecimal(NioDataBuffer, NioDataBuffer)}.
+     * @throws Exception if failed
+     */
+    @Test
+    public void compare_decimal_buffer() throws Exception {
+        DataComparator cmp = (a, b) -> ValueOptionSerDe.compareDecimal((NioDataBuffer) a, (NioDataBuffer) b);
+
+        compareBuffer(cmp, newDecimal("1"), newDecimal("1"));
+        compareBuffer(cmp, newDecimal("1"), newDecimal("2"));
+        compareBuffer(cmp, newDecimal("0"), newDecimal("-1"));
+        compareBuffer(cmp, newDecimal("-1"), newDecimal("-2"));
+        compareBuffer(cmp, newDecimal("1.10"), newDecimal("1.1"));
+        compareBuffer(cmp, newDecimal("1.10"), newDecimal("2"));
+        compareBuffer(cmp, newDecimal("-1.10"), newDecimal("2"));
+
+        String large = "123456789012345678901234567890";
+        compareBuffer(cmp, newDecimal(large), newDecimal(large));
+        compareBuffer(cmp, newDecimal(large), newDecimal(large + "1"));
+        compareBuffer(cmp, newDecimal(large), newDecimal("-" + large));
+        compareBuffer(cmp, newDecimal("-" + large), newDecimal("-" + large + "1"));
+        compareBuffer(cmp, newDecimal(large + ".1"), newDecimal(large + ".2"));
+        compareBuffer(cmp, newDecimal(large + ".1"), newDecimal(large + ".10"));
+        compareBuffer(cmp, newDecimal(large), newDecimal("9223372036854775807"));
+        compareBuffer(cmp, newDecimal("9223372036854775808"), newDecimal("9223372036854775807"));
+        compareBuffer(cmp, newDecimal("-9223372036854775808"), newDecimal("-9223372036854775807"));
+
+        compareBuffer(cmp, new DecimalOption(), new DecimalOption());
+        compareBuffer(cmp, newDecimal(large), new DecimalOption());
+    }
+
     private <T extends ValueOption<T>> void check(T option) {
         try {
             ValueOption<?> copy = option.getClass().newInstance();
@@ -461,6 +532,45 @@ public class ValueOptionSerDeTest {
         compare0(cmp, b, a);
     }
 
+    private <T extends ValueOption<T>> void compareBuffer(DataComparator cmp, T a, T b) {
+        compareBuffer0(cmp, a, b);
+        compareBuffer0(cmp, b, a);
+    }
+
+    private <T extends ValueOption<T>> void compareBuffer0(DataComparator cmp, T a, T b) {
+        try {
+            NioDataBuffer aBuffer = wrap(a);
+            NioDataBuffer bBuffer = wrap(b);
+            int sign = a.compareTo(b);
+            int result = cmp.compare(aBuffer, bBuffer);
+            assertThat(aBuffer.contents.remaining(), is(1));
+            assertThat(bBuffer.contents.remaining(), is(1));
+            if (sign == 0) {
+                assertThat(result, equalTo(0));
+            } else if (sign < 0) {
+                assertThat(result, lessThan(0));
+            } else {
+                assertThat(result, greaterThan(0));
+            }
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private NioDataBuffer wrap(ValueOption<?> option) {
+        DataBuffer buffer = serialize(option);
+        int length = buffer.getReadRemaining();
+        // puts extra leading/trailing bytes
+        byte[] bytes = new byte[length + 2];
+        bytes[0] = (byte) 0xff;
+        bytes[bytes.length - 1] = (byte) 0xff;
+        System.arraycopy(buffer.getData(), buffer.getReadPosition(), bytes, 1, length);
+        NioDataBuffer result = new NioDataBuffer();
+        result.contents = ByteBuffer.wrap(bytes);
+        result.contents.position(1);
+        return result;
+    }
+
     private <T extends ValueOption<T>> void compare0(DataComparator cmp, T a, T b) throws AssertionError {
         try {
             DataBuffer aBuffer = new DataBuffer();
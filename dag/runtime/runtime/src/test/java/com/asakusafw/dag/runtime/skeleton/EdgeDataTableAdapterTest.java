@@ -18,25 +18,36 @@ package com.asakusafw.dag.runtime.skeleton;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.junit.Test;
 
 import com.asakusafw.dag.api.processor.testing.CollectionObjectReader;
+import com.asakusafw.dag.api.processor.extension.BroadcastCache;
+import com.asakusafw.dag.api.processor.extension.ThreadBudget;
 import com.asakusafw.dag.api.processor.testing.MockVertexProcessorContext;
 import com.asakusafw.dag.runtime.adapter.DataTable;
 import com.asakusafw.dag.runtime.adapter.DataTableAdapter;
 import com.asakusafw.dag.runtime.adapter.KeyBuffer;
 import com.asakusafw.dag.runtime.table.BasicDataTable.ValidationLevel;
+import com.asakusafw.dag.runtime.table.PartitionedDataTable;
+import com.asakusafw.dag.runtime.table.SerializedDataTable;
 import com.asakusafw.dag.runtime.testing.MockDataModel;
 import com.asakusafw.lang.utils.common.Action;
 import com.asakusafw.lang.utils.common.AssertUtil;
+import com.asakusafw.lang.utils.common.InterruptibleIo.IoCallable;
 import com.asakusafw.lang.utils.common.Lang;
 import com.asakusafw.runtime.value.IntOption;
 import com.asakusafw.runtime.value.StringOption;
@@ -176,6 +187,183 @@ public class EdgeDataTableAdapterTest {
         });
     }
 
+    /**
+     * build tables on the current thread.
+     */
+    @Test
+    public void sequential() {
+        multiple(new MockVertexProcessorContext()
+                .withProperty(EdgeDataTableAdapter.KEY_VIEW_BUILD_THREADS, "1"));
+    }
+
+    /**
+     * build large tables in parallel.
+     */
+    @Test
+    public void parallel() {
+        parallel(new MockVertexProcessorContext()
+                .withProperty(EdgeDataTableAdapter.KEY_VIEW_BUILD_THREADS, "8"), t -> {
+                    assertThat(t, is(instanceOf(PartitionedDataTable.class)));
+                });
+    }
+
+    /**
+     * build large serialized tables in parallel.
+     */
+    @Test
+    public void parallel_serialized() {
+        parallel(new MockVertexProcessorContext()
+                .withProperty(EdgeDataTableAdapter.KEY_VIEW_BUILD_THREADS, "8")
+                .withProperty(EdgeDataTableAdapter.KEY_VIEW_SERIALIZE_THRESHOLD, "0"), t -> {
+                    assertThat(t, is(instanceOf(PartitionedDataTable.class)));
+                });
+    }
+
+    /**
+     * build large tables in parallel within the thread budget of the current engine.
+     */
+    @Test
+    public void parallel_budget() {
+        parallel(new MockVertexProcessorContext()
+                .withResource(ThreadBudget.class, (ThreadBudget) () -> 8), t -> {
+                    assertThat(t, is(instanceOf(PartitionedDataTable.class)));
+                });
+    }
+
+    /**
+     * build large tables in parallel, which each partition is smaller than the serialize threshold.
+     * @throws Exception if failed
+     */
+    @Test
+    public void parallel_serialized_threshold() throws Exception {
+        int count = EdgeDataTableAdapter.MIN_PARTITIONED_RECORDS * 2;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            for (int i = 0; i < count; i++) {
+                new MockDataModel(i % 1024, String.format("%08d", count - i)).write(output);
+            }
+        }
+        parallel(new MockVertexProcessorContext()
+                .withProperty(EdgeDataTableAdapter.KEY_VIEW_BUILD_THREADS, "8")
+                .withProperty(EdgeDataTableAdapter.KEY_VIEW_SERIALIZE_THRESHOLD, String.valueOf(bytes.size() / 2)),
+                t -> {
+                    assertThat(t, is(instanceOf(PartitionedDataTable.class)));
+                    PartitionedDataTable<?> partitioned = (PartitionedDataTable<?>) t;
+                    assertThat(partitioned.getNumberOfPartitions(), greaterThan(2));
+                    for (DataTable<?> partition : partitioned.getPartitions()) {
+                        assertThat(partition, is(instanceOf(SerializedDataTable.class)));
+                    }
+                });
+    }
+
+    /**
+     * shares tables via {@link BroadcastCache}.
+     */
+    @Test
+    public void cache() {
+        Map<String, Object> cached = new HashMap<>();
+        BroadcastCache cache = new BroadcastCache() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public <T> T get(String input, String key, IoCallable<? extends T> builder)
+                    throws IOException, InterruptedException {
+                String k = input + ":" + key;
+                if (cached.containsKey(k) == false) {
+                    cached.put(k, builder.call());
+                }
+                return (T) cached.get(k);
+            }
+        };
+        define("t", "i", MockDataModel.class, "key");
+        data("i", new Object[] {
+                new MockDataModel(0, "Hello0"),
+        });
+        List<DataTable<?>> tables = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            check(new MockVertexProcessorContext().withResource(BroadcastCache.class, cache), a -> {
+                DataTable<MockDataModel> t = a.getDataTable(MockDataModel.class, "t");
+                assertThat(get(t, MockDataModel::getValue, 0), containsInAnyOrder("Hello0"));
+                tables.add(t);
+            });
+        }
+        assertThat(cached.keySet(), hasSize(1));
+        assertThat(tables.get(1), is(sameInstance(tables.get(0))));
+
+        tables.clear();
+        check(new MockVertexProcessorContext()
+                .withResource(BroadcastCache.class, cache)
+                .withProperty(EdgeDataTableAdapter.KEY_VIEW_CACHE, "false"), a -> {
+                    tables.add(a.getDataTable(MockDataModel.class, "t"));
+                });
+        assertThat(cached.values(), not(hasItem(sameInstance(tables.get(0)))));
+    }
+
+    private void multiple(MockVertexProcessorContext context) {
+        define("t0", "i0", MockDataModel.class, "key");
+        define("t1", "i1", MockDataModel.class, "key");
+        data("i0", new Object[] {
+                new MockDataModel(0, "Hello0"),
+        });
+        data("i1", new Object[] {
+                new MockDataModel(1, "Hello1"),
+        });
+        check(context, a -> {
+            DataTable<MockDataModel> t0 = a.getDataTable(MockDataModel.class, "t0");
+            assertThat(get(t0, MockDataModel::getValue, 0), containsInAnyOrder("Hello0"));
+            assertThat(get(t0, MockDataModel::getValue, 1), hasSize(0));
+
+            DataTable<MockDataModel> t1 = a.getDataTable(MockDataModel.class, "t1");
+            assertThat(get(t1, MockDataModel::getValue, 0), hasSize(0));
+            assertThat(get(t1, MockDataModel::getValue, 1), containsInAnyOrder("Hello1"));
+        });
+    }
+
+    /**
+     * partition builders are failed while building tables in parallel.
+     */
+    @Test(expected = OutOfMemoryError.class, timeout = 30_000)
+    public void parallel_failure() {
+        int count = EdgeDataTableAdapter.MIN_PARTITIONED_RECORDS * 4;
+        specs.add(a -> a.bind("t0", "i0", FailKeyBuilder.class, MockDataModel.Copier.class));
+        data("i0", IntStream.range(0, count)
+                .mapToObj(i -> new MockDataModel(i % 1024, String.format("%08d", i)))
+                .toArray());
+        check(new MockVertexProcessorContext()
+                .withProperty(EdgeDataTableAdapter.KEY_VIEW_BUILD_THREADS, "4"), a -> {
+                    fail();
+                });
+    }
+
+    private void parallel(MockVertexProcessorContext context, Consumer<DataTable<?>> checker) {
+        int count = EdgeDataTableAdapter.MIN_PARTITIONED_RECORDS * 2;
+        specs.add(a -> a.bind("t0", "i0",
+                MockDataModel.KeyBuilder.class, MockDataModel.Copier.class,
+                MockDataModel.ValueComparator.class));
+        define("t1", "i1", MockDataModel.class, "key");
+        data("i0", IntStream.range(0, count)
+                .mapToObj(i -> new MockDataModel(i % 1024, String.format("%08d", count - i)))
+                .toArray());
+        data("i1", new Object[] {
+                new MockDataModel(1, "Hello1"),
+        });
+        check(context, a -> {
+            DataTable<MockDataModel> t0 = a.getDataTable(MockDataModel.class, "t0");
+            checker.accept(t0);
+            for (int k = 0; k < 1024; k++) {
+                List<String> values = get(t0, MockDataModel::getValue, k);
+                assertThat(values, hasSize(count / 1024));
+                assertThat(values, is(values.stream().sorted().collect(Collectors.toList())));
+            }
+            assertThat(get(t0, MockDataModel::getValue, 1024), hasSize(0));
+            int[] total = new int[1];
+            t0.forEach(it -> total[0]++);
+            assertThat(total[0], is(count));
+
+            DataTable<MockDataModel> t1 = a.getDataTable(MockDataModel.class, "t1");
+            assertThat(get(t1, MockDataModel::getValue, 1), containsInAnyOrder("Hello1"));
+        });
+    }
+
     private void define(String tId, String iId, Class<?> type, String... group) {
         specs.add(a -> a.bind(tId, iId, MockDataModel.KeyBuilder.class, MockDataModel.Copier.class));
     }
@@ -213,4 +401,17 @@ public class EdgeDataTableAdapterTest {
         }
         return key;
     }
+
+    /**
+     * {@link MockDataModel.KeyBuilder} which always fails on the partition builders.
+     */
+    public static class FailKeyBuilder extends MockDataModel.KeyBuilder {
+        @Override
+        public void buildKey(KeyBuffer key, MockDataModel object) {
+            if (Thread.currentThread().getName().startsWith("dag-view-")) {
+                throw new OutOfMemoryError();
+            }
+            super.buildKey(key, object);
+        }
+    }
 }
@@ -20,15 +20,20 @@ import static org.junit.Assert.*;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.apache.hadoop.io.IntWritable;
 import org.junit.Test;
 
+import com.asakusafw.dag.api.counter.CounterGroup.Column;
+import com.asakusafw.dag.api.counter.CounterRepository;
+import com.asakusafw.dag.api.counter.basic.BasicCounterRepository;
 import com.asakusafw.dag.api.processor.TaskProcessorContext;
 import com.asakusafw.dag.api.processor.testing.MockTaskProcessorContext;
 import com.asakusafw.dag.api.processor.testing.MockVertexProcessorContext;
@@ -41,6 +46,8 @@ import com.asakusafw.dag.runtime.skeleton.EdgeOutputAdapterTest.Pair.PairCombine
 import com.asakusafw.dag.runtime.skeleton.EdgeOutputAdapterTest.Pair.PairCopier;
 import com.asakusafw.dag.runtime.skeleton.EdgeOutputAdapterTest.Pair.ToPairMapper;
 import com.asakusafw.dag.runtime.skeleton.EdgeOutputHandler.AggregationStrategy;
+import com.asakusafw.dag.runtime.skeleton.PreAggregationCounterGroup.Item;
+import com.asakusafw.dag.runtime.table.NioKeyBuffer;
 import com.asakusafw.lang.utils.common.Lang;
 import com.asakusafw.lang.utils.common.Tuple;
 import com.asakusafw.runtime.core.Result;
@@ -152,6 +159,21 @@ public class EdgeOutputAdapterTest {
         }
     }
 
+    /**
+     * w/ custom adaptive aggregation settings.
+     */
+    @Test
+    public void adaptive_settings() {
+        try (EdgeOutputAdapter adapter = new EdgeOutputAdapter(new MockVertexProcessorContext()
+                .withProperty(EdgeOutputAdapter.KEY_AGGREGATION_MAX_WINDOW_SIZE, "1234")
+                .withProperty(EdgeOutputAdapter.KEY_AGGREGATION_MIN_COMBINE_RATIO, "0.25"))) {
+            assertThat(adapter.aggregationMaxWindowSize, is(1234));
+            assertThat(adapter.aggregationMinCombineRatio, is(0.25));
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
     /**
      * w/ custom window size.
      */
@@ -287,6 +309,173 @@ public class EdgeOutputAdapterTest {
         assertThat(results, hasSize(greaterThan(windowSize)));
     }
 
+    /**
+     * w/ combining - least recently used entries are evicted.
+     */
+    @Test
+    public void combining_lru() {
+        int windowSize = 10;
+        List<Object> results = new ArrayList<>();
+        MockTaskProcessorContext tc = new MockTaskProcessorContext("t")
+                .withOutput("o", results::add);
+        try (EdgeOutputAdapter adapter = new EdgeOutputAdapter(new MockVertexProcessorContext()
+                .withProperty(EdgeOutputAdapter.KEY_AGGREGATION_WINDOW_SIZE, String.valueOf(windowSize))
+                .withProperty(EdgeOutputAdapter.KEY_AGGREGATION_STRATEGY, AggregationStrategy.MAP.name()))) {
+            adapter.bind("o", null, PairCopier.class, PairCombiner.class);
+            adapter.initialize();
+            OutputHandler<? super TaskProcessorContext> handler = adapter.newHandler();
+            Result<Pair> r = handler.getSink(Pair.class, "o");
+            try (Session s = handler.start(tc)) {
+                for (int i = 1; i <= 100; i++) {
+                    r.add(new Pair(0, 1));
+                    r.add(new Pair(i, 1));
+                }
+            }
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+        List<Tuple<Integer, Integer>> tuples = Lang.project(results, o -> ((Pair) o).toTuple());
+        assertThat(tuples, hasSize(101));
+        assertThat(tuples, hasItem(new Tuple<>(0, 100)));
+    }
+
+    /**
+     * w/ combining - least recently used entries are evicted from the table with arena-backed keys.
+     */
+    @Test
+    public void combining_lru_arena() {
+        int windowSize = 10;
+        List<Object> results = new ArrayList<>();
+        MockTaskProcessorContext tc = new MockTaskProcessorContext("t")
+                .withOutput("o", results::add);
+        try (EdgeOutputAdapter adapter = new EdgeOutputAdapter(new MockVertexProcessorContext()
+                .withProperty(Util.KEY_KEY_BUFFER_TYPE, NioKeyBuffer.class.getName())
+                .withProperty(EdgeOutputAdapter.KEY_AGGREGATION_WINDOW_SIZE, String.valueOf(windowSize))
+                .withProperty(EdgeOutputAdapter.KEY_AGGREGATION_STRATEGY, AggregationStrategy.MAP.name()))) {
+            adapter.bind("o", null, PairCopier.class, PairCombiner.class);
+            adapter.initialize();
+            OutputHandler<? super TaskProcessorContext> handler = adapter.newHandler();
+            Result<Pair> r = handler.getSink(Pair.class, "o");
+            try (Session s = handler.start(tc)) {
+                for (int i = 1; i <= 100; i++) {
+                    r.add(new Pair(0, 1));
+                    r.add(new Pair(i, 1));
+                }
+            }
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+        List<Tuple<Integer, Integer>> tuples = Lang.project(results, o -> ((Pair) o).toTuple());
+        assertThat(tuples, hasSize(101));
+        assertThat(tuples, hasItem(new Tuple<>(0, 100)));
+    }
+
+    /**
+     * w/ combining - bypass if combine ratio is poor.
+     */
+    @Test
+    public void combining_bypass() {
+        combining_bypass0(AggregationStrategy.MAP);
+    }
+
+    /**
+     * w/ combining - bypass if combine ratio is poor.
+     */
+    @Test
+    public void combining_bypass_hash() {
+        combining_bypass0(AggregationStrategy.HASH);
+    }
+
+    private static void combining_bypass0(AggregationStrategy strategy) {
+        List<Object> results = new ArrayList<>();
+        MockTaskProcessorContext tc = new MockTaskProcessorContext("t")
+                .withOutput("o", results::add);
+        CounterRepository counters = new BasicCounterRepository();
+        int records = 100_000;
+        try (EdgeOutputAdapter adapter = new EdgeOutputAdapter(new MockVertexProcessorContext()
+                .withResource(CounterRepository.class, counters)
+                .withProperty(EdgeOutputAdapter.KEY_AGGREGATION_STRATEGY, strategy.name()))) {
+            adapter.bind("o", null, PairCopier.class, PairCombiner.class);
+            adapter.initialize();
+            OutputHandler<? super TaskProcessorContext> handler = adapter.newHandler();
+            Result<Pair> r = handler.getSink(Pair.class, "o");
+            try (Session s = handler.start(tc)) {
+                for (int i = 0; i < records; i++) {
+                    r.add(new Pair(i, 1));
+                }
+            }
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+        assertThat(results, hasSize(records));
+        Map<Column, Long> c = counter(counters);
+        assertThat(c.get(Item.INPUT_RECORD), is((long) records));
+        assertThat(c.get(Item.OUTPUT_RECORD), is((long) records));
+        assertThat(c.get(Item.COMBINED_RECORD), is(0L));
+        assertThat(c.get(Item.BYPASS), greaterThan(0L));
+        assertThat(c.get(Item.BYPASSED_RECORD), greaterThan(records / 2L));
+        assertThat(c.get(Item.EXPANSION), is(0L));
+    }
+
+    /**
+     * w/ combining - expand table if combine ratio is good.
+     */
+    @Test
+    public void combining_expand() {
+        combining_expand0(AggregationStrategy.MAP);
+    }
+
+    /**
+     * w/ combining - expand table if combine ratio is good.
+     */
+    @Test
+    public void combining_expand_hash() {
+        combining_expand0(AggregationStrategy.HASH);
+    }
+
+    private static void combining_expand0(AggregationStrategy strategy) {
+        List<Object> results = new ArrayList<>();
+        MockTaskProcessorContext tc = new MockTaskProcessorContext("t")
+                .withOutput("o", results::add);
+        CounterRepository counters = new BasicCounterRepository();
+        int keys = 500;
+        int records = 100_000;
+        try (EdgeOutputAdapter adapter = new EdgeOutputAdapter(new MockVertexProcessorContext()
+                .withResource(CounterRepository.class, counters)
+                .withProperty(EdgeOutputAdapter.KEY_AGGREGATION_WINDOW_SIZE, "100")
+                .withProperty(EdgeOutputAdapter.KEY_AGGREGATION_MAX_WINDOW_SIZE, "10000")
+                .withProperty(EdgeOutputAdapter.KEY_AGGREGATION_STRATEGY, strategy.name()))) {
+            adapter.bind("o", null, PairCopier.class, PairCombiner.class);
+            adapter.initialize();
+            OutputHandler<? super TaskProcessorContext> handler = adapter.newHandler();
+            Result<Pair> r = handler.getSink(Pair.class, "o");
+            try (Session s = handler.start(tc)) {
+                Random random = new Random(6502);
+                for (int i = 0; i < records; i++) {
+                    r.add(new Pair(random.nextInt(keys), 1));
+                }
+            }
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+        Map<Integer, Integer> totals = new HashMap<>();
+        results.forEach(o -> totals.merge(((Pair) o).left, ((Pair) o).right, Integer::sum));
+        assertThat(totals.values().stream().mapToInt(Integer::intValue).sum(), is(records));
+        Map<Column, Long> c = counter(counters);
+        assertThat(c.get(Item.INPUT_RECORD), is((long) records));
+        assertThat(c.get(Item.OUTPUT_RECORD), is((long) results.size()));
+        assertThat(c.get(Item.EXPANSION), greaterThan(0L));
+        assertThat(results, hasSize(lessThan(records / 2)));
+    }
+
+    private static Map<Column, Long> counter(CounterRepository counters) {
+        List<CounterRepository.Entry> entries = counters.stream()
+                .filter(e -> e.getCategory() == PreAggregationCounterGroup.CATEGORY)
+                .collect(Collectors.toList());
+        assertThat(entries, hasSize(1));
+        return entries.get(0).getCounters();
+    }
+
     @SuppressWarnings("javadoc")
     public static class Pair {
 
@@ -18,6 +18,9 @@ package com.asakusafw.dag.runtime.table;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.hadoop.io.IntWritable;
 import org.junit.Test;
 
@@ -119,11 +122,90 @@ public class NioKeyBufferTest {
         assertThat(a123, is(b123));
     }
 
+    /**
+     * w/ arena.
+     */
+    @Test
+    public void arena() {
+        NioKeyBuffer.Arena arena = new NioKeyBuffer.Arena();
+        NioKeyBuffer a = new NioKeyBuffer();
+        NioKeyBuffer b = new NioKeyBuffer();
+
+        KeyBuffer.View a1 = append(a, 1).getFrozen(arena);
+        KeyBuffer.View b1 = append(b, 1).getFrozen();
+        assertThat(a1, is(b1));
+        assertThat(b1, is(a1));
+        assertThat(a1, is(a.getView()));
+        assertThat(b.getView(), is(a1));
+        assertThat(a1.hashCode(), is(b1.hashCode()));
+
+        KeyBuffer.View a12 = append(a, 2).getFrozen(arena);
+        KeyBuffer.View b123 = append(b, 2, 3).getFrozen(arena);
+        assertThat(a12, is(not(b123)));
+        assertThat(a1, is(b1));
+
+        KeyBuffer.View a123 = append(a, 3).getFrozen(arena);
+        assertThat(a123, is(b123));
+        assertThat(a123.hashCode(), is(b123.hashCode()));
+        assertThat(arena.getCount(), is(4));
+    }
+
+    /**
+     * w/ arena - many keys over multiple pages.
+     */
+    @Test
+    public void arena_pages() {
+        NioKeyBuffer.Arena arena = new NioKeyBuffer.Arena(1024);
+        NioKeyBuffer buffer = new NioKeyBuffer();
+        List<KeyBuffer.View> views = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            buffer.clear();
+            views.add(append(buffer, i, i + 1).getFrozen(arena));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(views.get(i), is(append(buffer.clear(), i, i + 1).getView()));
+        }
+        assertThat(arena.getCount(), is(10_000));
+
+        arena.release();
+        assertThat(arena.getCount(), is(0));
+        assertThat(arena.getSize(), is(0L));
+    }
+
+    /**
+     * w/ arena - keys larger than pages.
+     */
+    @Test
+    public void arena_large() {
+        NioKeyBuffer.Arena arena = new NioKeyBuffer.Arena(16);
+        NioKeyBuffer a = new NioKeyBuffer();
+        NioKeyBuffer b = new NioKeyBuffer();
+        KeyBuffer.View a1 = append(a, 1, 2, 3, 4, 5, 6, 7, 8).getFrozen(arena);
+        a.clear();
+        KeyBuffer.View a2 = append(a, 1).getFrozen(arena);
+        assertThat(a1, is(append(b, 1, 2, 3, 4, 5, 6, 7, 8).getView()));
+        assertThat(a2, is(a.getView()));
+    }
+
+    /**
+     * w/ arena - copy frozen views.
+     */
+    @Test
+    public void arena_copy() {
+        NioKeyBuffer.Arena arena = new NioKeyBuffer.Arena();
+        NioKeyBuffer a = new NioKeyBuffer();
+        KeyBuffer.View a1 = append(a, 1, 2).getFrozen();
+        KeyBuffer.View copy = arena.copy(a1);
+        assertThat(copy, is(a1));
+        assertThat(copy.hashCode(), is(a1.hashCode()));
+        assertThat(arena.copy(copy), is(a.getView()));
+    }
+
     private KeyBuffer newBuffer() {
         return new NioKeyBuffer();
     }
 
-    private KeyBuffer append(KeyBuffer buffer, int... values) {
+    private static <T extends KeyBuffer> T append(T buffer, int... values) {
         for (int value : values) {
             buffer.append(new IntWritable(value));
         }
@@ -0,0 +1,73 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.dag.runtime.table;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.asakusafw.dag.runtime.adapter.DataTable;
+import com.asakusafw.dag.runtime.adapter.KeyBuffer;
+import com.asakusafw.dag.runtime.table.BasicDataTable.KeyValidator;
+import com.asakusafw.runtime.value.IntOption;
+
+/**
+ * Test for {@link PartitionedDataTable}.
+ */
+public class PartitionedDataTableTest {
+
+    /**
+     * simple case.
+     */
+    @Test
+    public void simple() {
+        int partitions = 4;
+        List<BasicDataTable.Builder<Integer>> builders = new ArrayList<>();
+        for (int i = 0; i < partitions; i++) {
+            builders.add(new BasicDataTable.Builder<>(new HashMap<>(), HeapKeyBuffer::new));
+        }
+        for (int i = 0; i < 100; i++) {
+            KeyBuffer key = key(i % 10);
+            builders.get(PartitionedDataTable.getPartition(key, partitions)).add(key, i);
+        }
+        List<DataTable<Integer>> tables = new ArrayList<>();
+        builders.forEach(b -> tables.add(b.build()));
+        DataTable<Integer> table = new PartitionedDataTable<>(tables, HeapKeyBuffer::new, KeyValidator.NULL);
+
+        for (int k = 0; k < 10; k++) {
+            List<Integer> values = table.getList(key(k));
+            assertThat(values, hasSize(10));
+            for (Integer value : values) {
+                assertThat(value % 10, is(k));
+            }
+        }
+        assertThat(table.find(new IntOption(3)), hasSize(10));
+        assertThat(table.getList(key(10)), hasSize(0));
+
+        List<Integer> all = new ArrayList<>();
+        table.forEach(all::add);
+        assertThat(all, hasSize(100));
+    }
+
+    private static KeyBuffer key(int value) {
+        return new HeapKeyBuffer().append(new IntOption(value));
+    }
+}
@@ -0,0 +1,202 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.dag.runtime.table;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.hadoop.io.IntWritable;
+import org.junit.Test;
+
+import com.asakusafw.dag.runtime.adapter.DataTable;
+import com.asakusafw.dag.runtime.adapter.KeyBuffer;
+import com.asakusafw.dag.runtime.table.BasicDataTable.KeyValidator;
+import com.asakusafw.dag.runtime.table.BasicDataTable.ValidationLevel;
+
+/**
+ * Test for {@link SerializedDataTable}.
+ */
+public class SerializedDataTableTest {
+
+    /**
+     * simple case.
+     * @throws Exception if failed
+     */
+    @Test
+    public void simple() throws Exception {
+        SerializedDataTable.Builder<IntWritable> builder = start(0);
+        builder.add(key(100), new IntWritable(100));
+
+        DataTable<IntWritable> table = builder.build();
+        assertThat(table, is(instanceOf(SerializedDataTable.class)));
+        assertThat(sort(table.getList(key(100))), contains(100));
+        assertThat(sort(table.getList(key(101))), hasSize(0));
+    }
+
+    /**
+     * empty elements.
+     * @throws Exception if failed
+     */
+    @Test
+    public void empty_elements() throws Exception {
+        SerializedDataTable.Builder<IntWritable> builder = start(0);
+
+        DataTable<IntWritable> table = builder.build();
+        assertThat(sort(table.getList(key(100))), hasSize(0));
+        assertThat(table.iterator().hasNext(), is(false));
+    }
+
+    /**
+     * the source objects can be reused.
+     * @throws Exception if failed
+     */
+    @Test
+    public void reuse() throws Exception {
+        SerializedDataTable.Builder<IntWritable> builder = start(0);
+        IntWritable buf = new IntWritable();
+        KeyBuffer key = builder.newKeyBuffer();
+        for (int i = 0; i < 10; i++) {
+            buf.set(i);
+            key.clear().append(new IntWritable(i % 3));
+            builder.add(key, buf);
+        }
+
+        DataTable<IntWritable> table = builder.build();
+        assertThat(sort(table.getList(key(0))), contains(0, 3, 6, 9));
+        assertThat(sort(table.getList(key(1))), contains(1, 4, 7));
+        assertThat(sort(table.getList(key(2))), contains(2, 5, 8));
+    }
+
+    /**
+     * many keys.
+     * @throws Exception if failed
+     */
+    @Test
+    public void many() throws Exception {
+        SerializedDataTable.Builder<IntWritable> builder = start(0);
+        for (int i = 0; i < 100_000; i++) {
+            builder.add(key(i / 2), new IntWritable(i));
+        }
+
+        DataTable<IntWritable> table = builder.build();
+        for (int i = 0; i < 50_000; i++) {
+            assertThat(sort(table.getList(key(i))), contains(i * 2, i * 2 + 1));
+        }
+        assertThat(sort(table.getList(key(50_000))), hasSize(0));
+
+        List<IntWritable> all = new ArrayList<>();
+        table.forEach(all::add);
+        assertThat(all, hasSize(100_000));
+    }
+
+    /**
+     * w/ comparator.
+     * @throws Exception if failed
+     */
+    @Test
+    public void sorted() throws Exception {
+        SerializedDataTable.Builder<IntWritable> builder = start(0);
+        builder.add(key(100), new IntWritable(2));
+        builder.add(key(100), new IntWritable(3));
+        builder.add(key(100), new IntWritable(1));
+        builder.add(key(101), new IntWritable(5));
+        builder.add(key(101), new IntWritable(4));
+
+        DataTable<IntWritable> table = builder.build(Comparator.comparingInt(IntWritable::get).reversed());
+        assertThat(ints(table.getList(key(100))), contains(3, 2, 1));
+        assertThat(ints(table.getList(key(101))), contains(5, 4));
+    }
+
+    /**
+     * small tables fall back to heap.
+     * @throws Exception if failed
+     */
+    @Test
+    public void fallback_small() throws Exception {
+        SerializedDataTable.Builder<IntWritable> builder = start(1024);
+        builder.add(key(100), new IntWritable(2));
+        builder.add(key(100), new IntWritable(1));
+        builder.add(key(101), new IntWritable(3));
+
+        DataTable<IntWritable> table = builder.build(Comparator.comparingInt(IntWritable::get));
+        assertThat(table, is(instanceOf(BasicDataTable.class)));
+        assertThat(ints(table.getList(key(100))), contains(1, 2));
+        assertThat(ints(table.getList(key(101))), contains(3));
+    }
+
+    /**
+     * non-writable elements fall back to heap.
+     * @throws Exception if failed
+     */
+    @Test
+    public void fallback_non_writable() throws Exception {
+        SerializedDataTable.Builder<String> builder = new SerializedDataTable.Builder<>(
+                NioKeyBuffer::new, KeyValidator.NULL, () -> s -> s, 0);
+        builder.add(key(100), "a");
+        builder.add(key(100), "b");
+
+        DataTable<String> table = builder.build();
+        assertThat(table, is(instanceOf(BasicDataTable.class)));
+        assertThat(table.getList(key(100)), containsInAnyOrder("a", "b"));
+    }
+
+    /**
+     * w/ validation.
+     * @throws Exception if failed
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void validate_count() throws Exception {
+        SerializedDataTable.Builder<IntWritable> builder = new SerializedDataTable.Builder<>(
+                NioKeyBuffer::new,
+                new KeyValidator(ValidationLevel.COUNT, IntWritable.class),
+                () -> v -> new IntWritable(v.get()), 0);
+        builder.add(key(100), new IntWritable(100));
+
+        DataTable<IntWritable> table = builder.build();
+        table.find(new IntWritable(100), new IntWritable(101));
+    }
+
+    private static SerializedDataTable.Builder<IntWritable> start(int threshold) {
+        return new SerializedDataTable.Builder<>(
+                NioKeyBuffer::new, KeyValidator.NULL,
+                () -> v -> new IntWritable(v.get()), threshold);
+    }
+
+    private static KeyBuffer key(int... values) {
+        NioKeyBuffer result = new NioKeyBuffer();
+        for (int value : values) {
+            result.append(new IntWritable(value));
+        }
+        return result;
+    }
+
+    private static List<Integer> ints(List<IntWritable> list) {
+        return list.stream()
+                .map(IntWritable::get)
+                .collect(Collectors.toList());
+    }
+
+    private static List<Integer> sort(List<IntWritable> list) {
+        return ints(list).stream()
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}
@@ -22,6 +22,7 @@ import com.asakusafw.lang.compiler.analyzer.FlowGraphAnalyzer;
 import com.asakusafw.lang.compiler.analyzer.JobflowAnalyzer;
 import com.asakusafw.lang.compiler.core.AnalyzerContext;
 import com.asakusafw.lang.compiler.core.ClassAnalyzer;
+import com.asakusafw.lang.compiler.core.ClassIndex;
 import com.asakusafw.lang.compiler.core.adapter.ExternalPortAnalyzerAdapter;
 import com.asakusafw.lang.compiler.model.graph.Batch;
 import com.asakusafw.lang.compiler.model.graph.BatchElement;
@@ -32,6 +33,7 @@ import com.asakusafw.vocabulary.iterative.IterativeBatch;
 /**
  * Analyzes classes with {@link IterativeBatch} annotation.
  * @since 0.3.0
+ * @version 0.5.4
  */
 public class IterativeBatchClassAnalyzer implements ClassAnalyzer {
 
@@ -40,6 +42,11 @@ public class IterativeBatchClassAnalyzer implements ClassAnalyzer {
         return IterativeBatchAnalyzer.isBatch(aClass);
     }
 
+    @Override
+    public boolean isBatchClassCandidate(Context context, ClassIndex.Entry entry) {
+        return entry.mayBeAnnotatedWith(IterativeBatch.class.getName());
+    }
+
     @Override
     public boolean isJobflowClass(Context context, Class<?> aClass) {
         return isBatchClass(context, aClass);
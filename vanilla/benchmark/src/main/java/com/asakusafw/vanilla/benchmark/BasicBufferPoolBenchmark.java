@@ -0,0 +1,142 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.vanilla.benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.asakusafw.vanilla.core.io.BasicBufferPool;
+import com.asakusafw.vanilla.core.io.BasicBufferStore;
+import com.asakusafw.vanilla.core.io.BufferPool;
+import com.asakusafw.vanilla.core.io.DataReader;
+
+/**
+ * Benchmarks of registering buffers into {@link BasicBufferPool} and reading them back.
+ * @since 0.5.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BasicBufferPoolBenchmark {
+
+    private static final long MEGABYTES = 1024L * 1024L;
+
+    /**
+     * The number of buffers to register.
+     */
+    @Param({ "64" })
+    public int buffers;
+
+    /**
+     * The size of each buffer in megabytes.
+     */
+    @Param({ "1" })
+    public int bufferSize;
+
+    /**
+     * The soft limit size of the buffer pool in megabytes.
+     * If this is less than the total buffer size, the rest buffers are escaped into the buffer store.
+     */
+    @Param({ "16", "128" })
+    public int limit;
+
+    /**
+     * The number of swap threads, or {@code 0} to escape buffers on the client thread.
+     */
+    @Param({ "0", "2" })
+    public int swapThreads;
+
+    private ByteBuffer[] contents;
+
+    private DataReader.Provider[] providers;
+
+    private BasicBufferStore store;
+
+    private BasicBufferPool pool;
+
+    /**
+     * Prepares the buffer contents and the buffer pool.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(6502);
+        byte[] bytes = new byte[(int) (bufferSize * MEGABYTES)];
+        contents = new ByteBuffer[buffers];
+        for (int i = 0; i < contents.length; i++) {
+            random.nextBytes(bytes);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+            buffer.put(bytes);
+            buffer.flip();
+            contents[i] = buffer;
+        }
+        providers = new DataReader.Provider[buffers];
+        store = new BasicBufferStore();
+        long size = limit * MEGABYTES;
+        pool = new BasicBufferPool(size, store, size, size, swapThreads);
+    }
+
+    /**
+     * Disposes the buffer pool.
+     * @throws Exception if failed
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        pool.close();
+        store.close();
+    }
+
+    /**
+     * Registers all buffers, and then reads them in the registered order.
+     * @param blackhole the sink
+     * @throws Exception if failed
+     */
+    @Benchmark
+    public void cycle(Blackhole blackhole) throws Exception {
+        DataReader.Provider[] ps = providers;
+        ByteBuffer[] cs = contents;
+        for (int i = 0; i < cs.length; i++) {
+            ByteBuffer buffer = cs[i].duplicate();
+            BufferPool.Ticket ticket = pool.reserve(buffer.remaining());
+            ps[i] = pool.register(ticket, buffer);
+        }
+        for (int i = 0; i < ps.length; i++) {
+            try (DataReader.Provider provider = ps[i];
+                    DataReader reader = provider.open()) {
+                blackhole.consume(reader.readInt());
+            }
+            ps[i] = null;
+        }
+    }
+}
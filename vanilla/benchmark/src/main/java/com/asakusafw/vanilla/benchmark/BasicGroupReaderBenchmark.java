@@ -0,0 +1,125 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.vanilla.benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.asakusafw.dag.api.common.KeyValueSerDe;
+import com.asakusafw.lang.utils.buffer.nio.NioDataBuffer;
+import com.asakusafw.vanilla.core.io.BasicGroupReader;
+
+/**
+ * Benchmarks of reading groups of data models in {@link BasicGroupReader}.
+ * @since 0.5.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BasicGroupReaderBenchmark {
+
+    private static final int MAX_KEY_SIZE = 16;
+
+    private static final int MAX_VALUE_SIZE = 128;
+
+    /**
+     * The number of records.
+     */
+    @Param({ "100000" })
+    public int records;
+
+    /**
+     * The number of records in each group.
+     */
+    @Param({ "1", "10", "1000" })
+    public int groupSize;
+
+    private BufferCursor cursor;
+
+    /**
+     * Prepares the sorted input records.
+     * @throws Exception if failed
+     */
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        Random random = new Random(6502);
+        KeyValueSerDe serde = new BenchmarkModelSerDe();
+        BenchmarkModel model = new BenchmarkModel();
+        NioDataBuffer keyBuffer = new NioDataBuffer();
+        NioDataBuffer valueBuffer = new NioDataBuffer();
+        keyBuffer.contents = ByteBuffer.allocateDirect(records * MAX_KEY_SIZE);
+        valueBuffer.contents = ByteBuffer.allocateDirect(records * MAX_VALUE_SIZE);
+        ByteBuffer[] keys = new ByteBuffer[records];
+        ByteBuffer[] values = new ByteBuffer[records];
+        for (int i = 0; i < records; i++) {
+            model.randomize(random, i / groupSize);
+            keys[i] = slice(keyBuffer, b -> serde.serializeKey(model, b));
+            values[i] = slice(valueBuffer, b -> serde.serializeValue(model, b));
+        }
+        cursor = new BufferCursor(keys, values);
+    }
+
+    private static ByteBuffer slice(NioDataBuffer buffer, Action action) throws Exception {
+        ByteBuffer contents = buffer.contents;
+        int start = contents.position();
+        action.perform(buffer);
+        ByteBuffer slice = contents.duplicate();
+        slice.position(start);
+        slice.limit(contents.position());
+        return slice.slice();
+    }
+
+    /**
+     * Reads all groups and their members.
+     * @param blackhole the sink
+     * @throws Exception if failed
+     */
+    @Benchmark
+    public void read(Blackhole blackhole) throws Exception {
+        try (BasicGroupReader reader = new BasicGroupReader(cursor.reset(), new BenchmarkModelSerDe())) {
+            while (reader.nextGroup()) {
+                blackhole.consume(reader.getGroup());
+                while (reader.nextObject()) {
+                    blackhole.consume(reader.getObject());
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Action {
+
+        void perform(NioDataBuffer buffer) throws Exception;
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.vanilla.benchmark;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import com.asakusafw.runtime.value.DateTime;
+import com.asakusafw.runtime.value.DateTimeOption;
+import com.asakusafw.runtime.value.DecimalOption;
+import com.asakusafw.runtime.value.IntOption;
+import com.asakusafw.runtime.value.LongOption;
+import com.asakusafw.runtime.value.StringOption;
+
+/**
+ * A synthetic data model for benchmarks, which has the same layout as the generated data model classes.
+ * @since 0.5.4
+ */
+public class BenchmarkModel {
+
+    private final LongOption key = new LongOption();
+
+    private final IntOption sort = new IntOption();
+
+    private final StringOption name = new StringOption();
+
+    private final DecimalOption price = new DecimalOption();
+
+    private final DateTimeOption timestamp = new DateTimeOption();
+
+    /**
+     * Returns the grouping key.
+     * @return the grouping key
+     */
+    public LongOption getKeyOption() {
+        return key;
+    }
+
+    /**
+     * Returns the sort key.
+     * @return the sort key
+     */
+    public IntOption getSortOption() {
+        return sort;
+    }
+
+    /**
+     * Returns the name.
+     * @return the name
+     */
+    public StringOption getNameOption() {
+        return name;
+    }
+
+    /**
+     * Returns the price.
+     * @return the price
+     */
+    public DecimalOption getPriceOption() {
+        return price;
+    }
+
+    /**
+     * Returns the timestamp.
+     * @return the timestamp
+     */
+    public DateTimeOption getTimestampOption() {
+        return timestamp;
+    }
+
+    /**
+     * Fills the properties with random values.
+     * @param random the random number generator
+     * @param keyValue the grouping key value
+     * @return this
+     */
+    public BenchmarkModel randomize(Random random, long keyValue) {
+        key.modify(keyValue);
+        sort.modify(random.nextInt());
+        name.modify(String.format("name-%08x", random.nextInt())); //$NON-NLS-1$
+        price.modify(BigDecimal.valueOf(random.nextInt(1_000_000), 2));
+        timestamp.modify(new DateTime(
+                2000 + random.nextInt(20), 1 + random.nextInt(12), 1 + random.nextInt(28),
+                random.nextInt(24), random.nextInt(60), random.nextInt(60)));
+        return this;
+    }
+}
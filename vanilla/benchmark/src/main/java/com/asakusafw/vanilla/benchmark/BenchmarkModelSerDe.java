@@ -0,0 +1,60 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.vanilla.benchmark;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import com.asakusafw.dag.api.common.KeyValueSerDe;
+import com.asakusafw.dag.runtime.io.ValueOptionSerDe;
+
+/**
+ * A {@link KeyValueSerDe} for {@link BenchmarkModel}.
+ * This has the same instruction sequence as the classes from {@code KeyValueSerDeGenerator}, which groups the
+ * records by {@link BenchmarkModel#getKeyOption() key} and orders them by {@link BenchmarkModel#getSortOption() sort}.
+ * @since 0.5.4
+ */
+public class BenchmarkModelSerDe implements KeyValueSerDe {
+
+    private final BenchmarkModel buffer = new BenchmarkModel();
+
+    @Override
+    public void serializeKey(Object object, DataOutput output) throws IOException, InterruptedException {
+        BenchmarkModel model = (BenchmarkModel) object;
+        ValueOptionSerDe.serialize(model.getKeyOption(), output);
+    }
+
+    @Override
+    public void serializeValue(Object object, DataOutput output) throws IOException, InterruptedException {
+        BenchmarkModel model = (BenchmarkModel) object;
+        ValueOptionSerDe.serialize(model.getSortOption(), output);
+        ValueOptionSerDe.serialize(model.getNameOption(), output);
+        ValueOptionSerDe.serialize(model.getPriceOption(), output);
+        ValueOptionSerDe.serialize(model.getTimestampOption(), output);
+    }
+
+    @Override
+    public Object deserializePair(DataInput keyInput, DataInput valueInput) throws IOException, InterruptedException {
+        BenchmarkModel model = buffer;
+        ValueOptionSerDe.deserialize(model.getKeyOption(), keyInput);
+        ValueOptionSerDe.deserialize(model.getSortOption(), valueInput);
+        ValueOptionSerDe.deserialize(model.getNameOption(), valueInput);
+        ValueOptionSerDe.deserialize(model.getPriceOption(), valueInput);
+        ValueOptionSerDe.deserialize(model.getTimestampOption(), valueInput);
+        return model;
+    }
+}
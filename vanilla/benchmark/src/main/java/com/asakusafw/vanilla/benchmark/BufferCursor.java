@@ -0,0 +1,80 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.vanilla.benchmark;
+
+import java.nio.ByteBuffer;
+
+import com.asakusafw.vanilla.core.io.KeyValueCursor;
+
+/**
+ * A {@link KeyValueCursor} over pre-built key-value pairs.
+ * @since 0.5.4
+ */
+final class BufferCursor implements KeyValueCursor {
+
+    private final ByteBuffer[] keys;
+
+    private final ByteBuffer[] values;
+
+    private int index = -1;
+
+    /**
+     * Creates a new instance.
+     * @param keys the keys
+     * @param values the values
+     */
+    BufferCursor(ByteBuffer[] keys, ByteBuffer[] values) {
+        assert keys.length == values.length;
+        this.keys = keys;
+        this.values = values;
+    }
+
+    /**
+     * Rewinds this cursor to the first pair.
+     * @return this
+     */
+    BufferCursor reset() {
+        index = -1;
+        return this;
+    }
+
+    @Override
+    public boolean next() {
+        int next = index + 1;
+        if (next >= keys.length) {
+            return false;
+        }
+        keys[next].rewind();
+        values[next].rewind();
+        index = next;
+        return true;
+    }
+
+    @Override
+    public ByteBuffer getKey() {
+        return keys[index];
+    }
+
+    @Override
+    public ByteBuffer getValue() {
+        return values[index];
+    }
+
+    @Override
+    public void close() {
+        return;
+    }
+}
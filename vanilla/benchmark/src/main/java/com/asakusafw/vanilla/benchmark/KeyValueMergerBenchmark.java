@@ -0,0 +1,132 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.vanilla.benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.asakusafw.dag.api.common.DataComparator;
+import com.asakusafw.vanilla.core.io.KeyValueMerger;
+
+/**
+ * Benchmarks of merging sorted key-value pairs in {@link KeyValueMerger}.
+ * @since 0.5.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class KeyValueMergerBenchmark {
+
+    private static final DataComparator COMPARATOR = (a, b) -> Long.compare(a.readLong(), b.readLong());
+
+    /**
+     * The total number of records.
+     */
+    @Param({ "1000000" })
+    public int records;
+
+    /**
+     * The number of sorted cursors to merge.
+     */
+    @Param({ "2", "16", "64" })
+    public int cursors;
+
+    /**
+     * The number of distinct keys, or {@code 0} to generate random keys.
+     * Records with the same key are ordered by their values.
+     */
+    @Param({ "0", "1000" })
+    public int distinctKeys;
+
+    private BufferCursor[] inputs;
+
+    /**
+     * Prepares the sorted input cursors.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(6502);
+        inputs = new BufferCursor[cursors];
+        for (int i = 0; i < cursors; i++) {
+            int count = records / cursors + (i < records % cursors ? 1 : 0);
+            ByteBuffer[][] pairs = new ByteBuffer[count][];
+            for (int j = 0; j < count; j++) {
+                long key = distinctKeys > 0 ? random.nextInt(distinctKeys) : random.nextLong();
+                pairs[j] = new ByteBuffer[] { toBuffer(key), toBuffer(random.nextLong()) };
+            }
+            // sorts in the same order as KeyValueMerger: keys in bytes, and then values by the comparator
+            Arrays.sort(pairs, (a, b) -> {
+                int diff = a[0].compareTo(b[0]);
+                if (diff != 0) {
+                    return diff;
+                }
+                return Long.compare(a[1].getLong(0), b[1].getLong(0));
+            });
+            ByteBuffer[] keys = new ByteBuffer[count];
+            ByteBuffer[] values = new ByteBuffer[count];
+            for (int j = 0; j < count; j++) {
+                keys[j] = pairs[j][0];
+                values[j] = pairs[j][1];
+            }
+            inputs[i] = new BufferCursor(keys, values);
+        }
+    }
+
+    private static ByteBuffer toBuffer(long value) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(Long.BYTES);
+        buffer.putLong(0, value);
+        return buffer;
+    }
+
+    /**
+     * Merges all cursors.
+     * @param blackhole the sink
+     * @throws Exception if failed
+     */
+    @Benchmark
+    public void merge(Blackhole blackhole) throws Exception {
+        List<BufferCursor> cs = new ArrayList<>(inputs.length);
+        for (BufferCursor cursor : inputs) {
+            cs.add(cursor.reset());
+        }
+        try (KeyValueMerger merger = new KeyValueMerger(cs, COMPARATOR)) {
+            while (merger.next()) {
+                blackhole.consume(merger.getKey());
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.vanilla.benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.asakusafw.vanilla.core.io.ByteBufferWriter;
+import com.asakusafw.vanilla.core.io.DataWriter;
+import com.asakusafw.vanilla.core.io.KeyValuePartitioner;
+import com.asakusafw.vanilla.core.io.KeyValueSink;
+import com.asakusafw.vanilla.core.io.PartitionStrategy;
+
+/**
+ * Benchmarks of distributing key-value pairs in {@link KeyValuePartitioner}.
+ * @since 0.5.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class KeyValuePartitionerBenchmark {
+
+    private static final int KEY_SIZE = Long.BYTES;
+
+    private static final int VALUE_SIZE = Long.BYTES;
+
+    /**
+     * The number of records.
+     */
+    @Param({ "100000" })
+    public int records;
+
+    /**
+     * The number of records in each group.
+     */
+    @Param({ "1", "10" })
+    public int groupSize;
+
+    /**
+     * The number of partitions.
+     */
+    @Param({ "4", "64" })
+    public int partitions;
+
+    /**
+     * The partition strategy name.
+     */
+    @Param({ "hash_code", "murmur3" })
+    public String strategy;
+
+    private ByteBuffer[] keys;
+
+    private ByteBuffer[] values;
+
+    private List<NullChannel> channels;
+
+    private PartitionStrategy partitionStrategy;
+
+    /**
+     * Prepares the grouped input records.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(6502);
+        keys = new ByteBuffer[records];
+        values = new ByteBuffer[records];
+        ByteBuffer key = null;
+        for (int i = 0; i < records; i++) {
+            if (i % groupSize == 0) {
+                key = toBuffer(KEY_SIZE, random.nextLong());
+            }
+            keys[i] = key;
+            values[i] = toBuffer(VALUE_SIZE, random.nextLong());
+        }
+        channels = new ArrayList<>();
+        for (int i = 0; i < partitions; i++) {
+            channels.add(new NullChannel());
+        }
+        partitionStrategy = PartitionStrategy.of(strategy, getClass().getClassLoader());
+    }
+
+    private static ByteBuffer toBuffer(int size, long value) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(size);
+        buffer.putLong(0, value);
+        return buffer;
+    }
+
+    /**
+     * Distributes all records into the partitions.
+     * @throws Exception if failed
+     */
+    @Benchmark
+    public void partition() throws Exception {
+        ByteBuffer[] ks = keys;
+        ByteBuffer[] vs = values;
+        KeyValueSink.Stream stream = KeyValuePartitioner.stream(channels, partitionStrategy, null);
+        try (KeyValueSink sink = stream.offer(ks.length, ks.length * KEY_SIZE, vs.length * VALUE_SIZE)) {
+            ByteBuffer last = null;
+            for (int i = 0; i < ks.length; i++) {
+                ByteBuffer k = ks[i];
+                ByteBuffer v = vs[i];
+                v.rewind();
+                if (k == last) {
+                    sink.accept(v);
+                } else {
+                    k.rewind();
+                    sink.accept(k, v);
+                    last = k;
+                }
+            }
+        }
+    }
+
+    private static final class NullChannel implements DataWriter.Channel {
+
+        private ByteBuffer buffer;
+
+        NullChannel() {
+            return;
+        }
+
+        @Override
+        public DataWriter acquire(int size) {
+            ByteBuffer b = buffer;
+            if (b == null || b.capacity() < size) {
+                b = ByteBuffer.allocate(size);
+                buffer = b;
+            }
+            b.clear();
+            return new ByteBufferWriter(b);
+        }
+
+        @Override
+        public void commit(DataWriter written) {
+            return;
+        }
+    }
+}
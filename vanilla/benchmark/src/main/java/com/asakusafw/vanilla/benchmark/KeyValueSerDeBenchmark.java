@@ -0,0 +1,124 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.vanilla.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.asakusafw.dag.api.common.KeyValueSerDe;
+import com.asakusafw.lang.utils.buffer.nio.NioDataBuffer;
+
+/**
+ * Benchmarks of serializing and deserializing data models through {@link KeyValueSerDe}.
+ * @since 0.5.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class KeyValueSerDeBenchmark {
+
+    private static final int MAX_KEY_SIZE = 16;
+
+    private static final int MAX_VALUE_SIZE = 128;
+
+    /**
+     * The number of records.
+     */
+    @Param({ "100000" })
+    public int records;
+
+    private final KeyValueSerDe serde = new BenchmarkModelSerDe();
+
+    private BenchmarkModel[] models;
+
+    private final NioDataBuffer keyBuffer = new NioDataBuffer();
+
+    private final NioDataBuffer valueBuffer = new NioDataBuffer();
+
+    /**
+     * Prepares the input records.
+     * @throws Exception if failed
+     */
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        Random random = new Random(6502);
+        models = new BenchmarkModel[records];
+        for (int i = 0; i < models.length; i++) {
+            models[i] = new BenchmarkModel().randomize(random, random.nextLong());
+        }
+        keyBuffer.contents = ByteBuffer.allocateDirect(records * MAX_KEY_SIZE);
+        valueBuffer.contents = ByteBuffer.allocateDirect(records * MAX_VALUE_SIZE);
+        serialize();
+    }
+
+    /**
+     * Serializes the data models.
+     * @return the total serialized size in bytes
+     * @throws Exception if failed
+     */
+    @Benchmark
+    public int serialize() throws Exception {
+        ByteBuffer keys = keyBuffer.contents;
+        ByteBuffer values = valueBuffer.contents;
+        keys.clear();
+        values.clear();
+        for (BenchmarkModel model : models) {
+            serde.serializeKey(model, keyBuffer);
+            serde.serializeValue(model, valueBuffer);
+        }
+        keys.flip();
+        values.flip();
+        return keys.remaining() + values.remaining();
+    }
+
+    /**
+     * Deserializes the data models.
+     * @param blackhole the sink
+     * @throws Exception if failed
+     */
+    @Benchmark
+    public void deserialize(Blackhole blackhole) throws Exception {
+        ByteBuffer keys = keyBuffer.contents;
+        ByteBuffer values = valueBuffer.contents;
+        for (int i = 0, n = records; i < n; i++) {
+            blackhole.consume(serde.deserializePair(keyBuffer, valueBuffer));
+        }
+        if (keys.hasRemaining() || values.hasRemaining()) {
+            throw new IOException("inconsistent serialized data"); //$NON-NLS-1$
+        }
+        keys.rewind();
+        values.rewind();
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.vanilla.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.io.LongWritable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.asakusafw.dag.runtime.adapter.KeyBuffer;
+import com.asakusafw.dag.runtime.table.NioKeyBuffer;
+
+/**
+ * Benchmarks of freezing keys in {@link NioKeyBuffer}.
+ * @since 0.5.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class NioKeyBufferBenchmark {
+
+    /**
+     * The number of keys to freeze.
+     */
+    @Param({ "100000", "1000000" })
+    public int keys;
+
+    /**
+     * The number of {@code long} values in each key.
+     */
+    @Param({ "1", "4" })
+    public int keyElements;
+
+    private LongWritable[] elements;
+
+    private final NioKeyBuffer buffer = new NioKeyBuffer();
+
+    /**
+     * Prepares the key elements.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(6502);
+        elements = new LongWritable[keys * keyElements];
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = new LongWritable(random.nextLong());
+        }
+    }
+
+    /**
+     * Freezes keys into individual direct buffers.
+     * @param blackhole the sink
+     */
+    @Benchmark
+    public void direct(Blackhole blackhole) {
+        NioKeyBuffer b = buffer;
+        for (int i = 0; i < keys; i++) {
+            blackhole.consume(build(b, i).getFrozen());
+        }
+    }
+
+    /**
+     * Freezes keys into pages of an arena.
+     * @param blackhole the sink
+     */
+    @Benchmark
+    public void arena(Blackhole blackhole) {
+        NioKeyBuffer b = buffer;
+        NioKeyBuffer.Arena arena = new NioKeyBuffer.Arena();
+        for (int i = 0; i < keys; i++) {
+            blackhole.consume(build(b, i).getFrozen(arena));
+        }
+        arena.release();
+    }
+
+    private NioKeyBuffer build(NioKeyBuffer b, int index) {
+        KeyBuffer k = b.clear();
+        LongWritable[] es = elements;
+        for (int i = index * keyElements, n = i + keyElements; i < n; i++) {
+            k.append(es[i]);
+        }
+        return b;
+    }
+}
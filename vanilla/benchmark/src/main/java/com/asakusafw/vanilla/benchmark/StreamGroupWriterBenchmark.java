@@ -0,0 +1,198 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.vanilla.benchmark;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.asakusafw.dag.api.common.KeyValueSerializer;
+import com.asakusafw.dag.api.processor.ObjectWriter;
+import com.asakusafw.vanilla.core.io.KeyValueSink;
+import com.asakusafw.vanilla.core.io.StreamGroupWriter;
+
+/**
+ * Benchmarks of sorting records in {@link StreamGroupWriter}.
+ * @since 0.5.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StreamGroupWriterBenchmark {
+
+    private static final int VALUE_SIZE = Long.BYTES;
+
+    /**
+     * The number of records in each page.
+     */
+    @Param({ "100000" })
+    public int records;
+
+    /**
+     * The size of each key in bytes.
+     */
+    @Param({ "4", "16", "64" })
+    public int keySize;
+
+    /**
+     * The number of distinct keys, or {@code 0} to generate random keys.
+     */
+    @Param({ "0", "1000" })
+    public int distinctKeys;
+
+    private byte[][] inputs;
+
+    /**
+     * Prepares the input records.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(6502);
+        byte[][] keys = new byte[distinctKeys > 0 ? distinctKeys : records][];
+        for (int i = 0; i < keys.length; i++) {
+            byte[] key = new byte[keySize];
+            random.nextBytes(key);
+            keys[i] = key;
+        }
+        inputs = new byte[records][];
+        for (int i = 0; i < records; i++) {
+            byte[] key = keys[distinctKeys > 0 ? random.nextInt(keys.length) : i];
+            byte[] record = new byte[key.length + VALUE_SIZE];
+            ByteBuffer.wrap(record).put(key).putLong(random.nextLong());
+            inputs[i] = record;
+        }
+    }
+
+    /**
+     * Sorts records by their normalized key prefixes.
+     * @param blackhole the sink
+     * @throws Exception if failed
+     */
+    @Benchmark
+    @Fork(jvmArgsAppend = "-D" + StreamGroupWriter.KEY_PREFIX_SORT + "=true")
+    public void prefix(Blackhole blackhole) throws Exception {
+        run(blackhole);
+    }
+
+    /**
+     * Sorts records by comparing the whole keys, without using their normalized key prefixes.
+     * @param blackhole the sink
+     * @throws Exception if failed
+     */
+    @Benchmark
+    @Fork(jvmArgsAppend = "-D" + StreamGroupWriter.KEY_PREFIX_SORT + "=false")
+    public void fullKey(Blackhole blackhole) throws Exception {
+        run(blackhole);
+    }
+
+    /**
+     * Sorts records by the implementation before 0.5.4, which sorts {@code Position} objects.
+     * @param blackhole the sink
+     * @throws Exception if failed
+     */
+    @Benchmark
+    public void legacy(Blackhole blackhole) throws Exception {
+        byte[][] rs = inputs;
+        try (ObjectWriter writer = new LegacyStreamGroupWriter(
+                (recordCount, keyBytes, valueBytes) -> new BlackholeSink(blackhole),
+                new Serializer(keySize),
+                null,
+                rs.length * (keySize + VALUE_SIZE) * 2, rs.length + 1)) {
+            write(writer, rs);
+        }
+    }
+
+    private void run(Blackhole blackhole) throws IOException, InterruptedException {
+        byte[][] rs = inputs;
+        try (ObjectWriter writer = new StreamGroupWriter(
+                (recordCount, keyBytes, valueBytes) -> new BlackholeSink(blackhole),
+                new Serializer(keySize),
+                null,
+                rs.length * (keySize + VALUE_SIZE) * 2, rs.length + 1)) {
+            write(writer, rs);
+        }
+    }
+
+    private static void write(ObjectWriter writer, byte[][] records) throws IOException, InterruptedException {
+        for (byte[] r : records) {
+            writer.putObject(r);
+        }
+    }
+
+    private static final class Serializer implements KeyValueSerializer {
+
+        private final int keySize;
+
+        Serializer(int keySize) {
+            this.keySize = keySize;
+        }
+
+        @Override
+        public void serializeKey(Object object, DataOutput output) throws IOException {
+            output.write((byte[]) object, 0, keySize);
+        }
+
+        @Override
+        public void serializeValue(Object object, DataOutput output) throws IOException {
+            output.write((byte[]) object, keySize, VALUE_SIZE);
+        }
+    }
+
+    private static final class BlackholeSink implements KeyValueSink {
+
+        private final Blackhole blackhole;
+
+        BlackholeSink(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void accept(ByteBuffer key, ByteBuffer value) {
+            blackhole.consume(key.get(key.position()));
+            blackhole.consume(value.get(value.position()));
+        }
+
+        @Override
+        public boolean accept(ByteBuffer value) {
+            blackhole.consume(value.get(value.position()));
+            return true;
+        }
+
+        @Override
+        public void close() {
+            return;
+        }
+    }
+}
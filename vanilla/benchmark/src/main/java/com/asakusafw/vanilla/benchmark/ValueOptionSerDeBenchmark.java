@@ -0,0 +1,220 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.vanilla.benchmark;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.asakusafw.dag.runtime.io.ValueOptionSerDe;
+import com.asakusafw.lang.utils.buffer.nio.NioDataBuffer;
+import com.asakusafw.runtime.value.StringOption;
+
+/**
+ * Benchmarks of comparing serialized {@link StringOption} keys in {@link ValueOptionSerDe}.
+ * @since 0.5.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ValueOptionSerDeBenchmark {
+
+    /**
+     * The number of keys to compare.
+     */
+    @Param({ "100000" })
+    public int keys;
+
+    /**
+     * The number of bytes in each key, which only differ in their last a few bytes.
+     */
+    @Param({ "16", "64", "256" })
+    public int keyLength;
+
+    private ByteBuffer[] elements;
+
+    private final NioDataBuffer aBuffer = new NioDataBuffer();
+
+    private final NioDataBuffer bBuffer = new NioDataBuffer();
+
+    private final DataInput aInput = new DataInputView(aBuffer);
+
+    private final DataInput bInput = new DataInputView(bBuffer);
+
+    /**
+     * Prepares the serialized keys.
+     * @throws IOException if failed to serialize keys
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Random random = new Random(6502);
+        char[] prefix = new char[Math.max(keyLength - 4, 0)];
+        for (int i = 0; i < prefix.length; i++) {
+            prefix[i] = (char) ('A' + random.nextInt(26));
+        }
+        String common = new String(prefix);
+        elements = new ByteBuffer[keys];
+        NioDataBuffer writer = new NioDataBuffer();
+        StringOption option = new StringOption();
+        for (int i = 0; i < elements.length; i++) {
+            option.modify(String.format("%s%04d", common, random.nextInt(10000))); //$NON-NLS-1$
+            ByteBuffer element = ByteBuffer.allocateDirect(option.get().getLength() + Long.BYTES);
+            writer.contents = element;
+            ValueOptionSerDe.serialize(option, writer);
+            element.flip();
+            elements[i] = element;
+        }
+    }
+
+    /**
+     * Compares keys one byte at a time through {@link DataInput}.
+     * @return the sum of comparison results
+     * @throws IOException if failed to compare keys
+     */
+    @Benchmark
+    public int bytewise() throws IOException {
+        return run(aInput, bInput);
+    }
+
+    /**
+     * Compares keys 8 bytes at a time over the backing buffers.
+     * @return the sum of comparison results
+     * @throws IOException if failed to compare keys
+     */
+    @Benchmark
+    public int wordwise() throws IOException {
+        return run(aBuffer, bBuffer);
+    }
+
+    private int run(DataInput a, DataInput b) throws IOException {
+        ByteBuffer[] es = elements;
+        NioDataBuffer aWrapper = aBuffer;
+        NioDataBuffer bWrapper = bBuffer;
+        int results = 0;
+        for (int i = 1; i < es.length; i++) {
+            ByteBuffer aElement = es[i - 1];
+            ByteBuffer bElement = es[i];
+            aWrapper.contents = aElement;
+            bWrapper.contents = bElement;
+            results += ValueOptionSerDe.compareString(a, b);
+            aElement.rewind();
+            bElement.rewind();
+        }
+        return results;
+    }
+
+    private static final class DataInputView implements DataInput {
+
+        private final DataInput delegate;
+
+        DataInputView(DataInput delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void readFully(byte[] b) throws IOException {
+            delegate.readFully(b);
+        }
+
+        @Override
+        public void readFully(byte[] b, int off, int len) throws IOException {
+            delegate.readFully(b, off, len);
+        }
+
+        @Override
+        public int skipBytes(int n) throws IOException {
+            return delegate.skipBytes(n);
+        }
+
+        @Override
+        public boolean readBoolean() throws IOException {
+            return delegate.readBoolean();
+        }
+
+        @Override
+        public byte readByte() throws IOException {
+            return delegate.readByte();
+        }
+
+        @Override
+        public int readUnsignedByte() throws IOException {
+            return delegate.readUnsignedByte();
+        }
+
+        @Override
+        public short readShort() throws IOException {
+            return delegate.readShort();
+        }
+
+        @Override
+        public int readUnsignedShort() throws IOException {
+            return delegate.readUnsignedShort();
+        }
+
+        @Override
+        public char readChar() throws IOException {
+            return delegate.readChar();
+        }
+
+        @Override
+        public int readInt() throws IOException {
+            return delegate.readInt();
+        }
+
+        @Override
+        public long readLong() throws IOException {
+            return delegate.readLong();
+        }
+
+        @Override
+        public float readFloat() throws IOException {
+            return delegate.readFloat();
+        }
+
+        @Override
+        public double readDouble() throws IOException {
+            return delegate.readDouble();
+        }
+
+        @Override
+        public String readLine() throws IOException {
+            return delegate.readLine();
+        }
+
+        @Override
+        public String readUTF() throws IOException {
+            return delegate.readUTF();
+        }
+    }
+}
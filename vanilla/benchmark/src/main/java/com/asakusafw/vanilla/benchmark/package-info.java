@@ -0,0 +1,21 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * Micro benchmarks of Asakusa Vanilla.
+ * Run {@code mvn verify -P benchmark} to execute them, and then the results are written into
+ * {@code target/jmh-result.json}, which can be compared with the results of the other versions.
+ */
+package com.asakusafw.vanilla.benchmark;
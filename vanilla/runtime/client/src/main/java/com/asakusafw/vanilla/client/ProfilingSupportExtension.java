@@ -0,0 +1,105 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.vanilla.client;
+
+import static com.asakusafw.vanilla.client.VanillaConstants.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.asakusafw.bridge.stage.StageInfo;
+import com.asakusafw.dag.api.processor.ProcessorContext;
+import com.asakusafw.dag.api.processor.extension.ProcessorContextExtension;
+import com.asakusafw.lang.utils.common.InterruptibleIo;
+import com.asakusafw.vanilla.core.engine.ExecutionProfile;
+
+/**
+ * Enables {@link ExecutionProfile execution profiles} of the vanilla engine.
+ * If {@link #KEY_OUTPUT} is set, this writes the profile of the current stage into the directory as a JSON file,
+ * whose name consists of the batch ID, flow ID, stage ID, and execution ID.
+ * @since 0.5.4
+ */
+public class ProfilingSupportExtension implements ProcessorContextExtension {
+
+    /**
+     * The property key of the profile output directory.
+     */
+    public static final String KEY_OUTPUT = KEY_ENGINE_PREFIX + "profile.output"; //$NON-NLS-1$
+
+    static final String DEFAULT_NAME = "profile"; //$NON-NLS-1$
+
+    static final String EXTENSION = ".json"; //$NON-NLS-1$
+
+    static final Logger LOG = LoggerFactory.getLogger(ProfilingSupportExtension.class);
+
+    @Override
+    public InterruptibleIo install(ProcessorContext context, ProcessorContext.Editor editor) {
+        String path = context.getProperty(KEY_OUTPUT).orElse(null);
+        if (path == null || path.trim().isEmpty()) {
+            LOG.debug("profiling is disabled"); //$NON-NLS-1$
+            return null;
+        }
+        File output = new File(path.trim(), getFileName(context));
+        LOG.debug("enable profiling: {}", output); //$NON-NLS-1$
+        ExecutionProfile profile = new ExecutionProfile();
+        editor.addResource(ExecutionProfile.class, profile);
+        return () -> write(profile, output);
+    }
+
+    private static String getFileName(ProcessorContext context) {
+        String name = context.getResource(StageInfo.class)
+                .map(it -> Arrays.asList(it.getBatchId(), it.getFlowId(), it.getStageId(), it.getExecutionId())
+                        .stream()
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.joining("-"))) //$NON-NLS-1$
+                .filter(it -> it.isEmpty() == false)
+                .orElse(DEFAULT_NAME);
+        return name.replaceAll("[^0-9A-Za-z_.\\-]", "_") + EXTENSION; //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    static void write(ExecutionProfile profile, File output) {
+        // the profile is only for diagnostics, so that the failures must not affect the application
+        try {
+            File parent = output.getAbsoluteFile().getParentFile();
+            if (parent.mkdirs() == false && parent.isDirectory() == false) {
+                throw new IOException(MessageFormat.format(
+                        "failed to create directory: {0}",
+                        parent));
+            }
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(output), StandardCharsets.UTF_8)) {
+                profile.write(writer);
+            }
+            LOG.info(MessageFormat.format(
+                    "execution profile: {0}",
+                    output));
+        } catch (IOException e) {
+            LOG.warn(MessageFormat.format(
+                    "failed to write execution profile: {0}",
+                    output), e);
+        }
+    }
+}
@@ -19,6 +19,10 @@ import static com.asakusafw.vanilla.client.VanillaConstants.*;
 
 import java.io.File;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.OptionalDouble;
 import java.util.OptionalInt;
@@ -28,6 +32,8 @@ import java.util.function.DoubleConsumer;
 import java.util.function.Function;
 import java.util.function.IntConsumer;
 import java.util.function.LongConsumer;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,7 +48,7 @@ import com.asakusafw.vanilla.core.util.SystemProperty;
 /**
  * A configuration of Asakusa Vanilla runtime.
  * @since 0.4.0
- * @version 0.5.3
+ * @version 0.5.4
  */
 public class VanillaConfiguration {
 
@@ -51,6 +57,14 @@ public class VanillaConfiguration {
      */
     public static final String KEY_THREAD_COUNT = KEY_ENGINE_PREFIX + "thread.max"; //$NON-NLS-1$
 
+    /**
+     * The configuration key of max number of concurrently running vertices
+     * ({@value}: {@value #DEFAULT_VERTEX_CONCURRENCY}).
+     * If this is greater than {@code 1}, all ready vertices share the worker threads.
+     * @since 0.5.4
+     */
+    public static final String KEY_VERTEX_CONCURRENCY = KEY_ENGINE_PREFIX + "vertex.concurrency"; //$NON-NLS-1$
+
     /**
      * The configuration key of default number of partitions ({@value} = {@link #KEY_THREAD_COUNT}).
      */
@@ -61,9 +75,35 @@ public class VanillaConfiguration {
      */
     public static final String KEY_BUFFER_POOL_SIZE = KEY_ENGINE_PREFIX + "pool.size"; //$NON-NLS-1$
 
+    /**
+     * The configuration key of the ratio of the buffer pool ceiling to {@link #KEY_BUFFER_POOL_SIZE}
+     * ({@value}: {@value #DEFAULT_BUFFER_POOL_CEILING}).
+     * If swap threads are enabled, writers are blocked only while the pool size exceeds its ceiling.
+     * @since 0.5.4
+     */
+    public static final String KEY_BUFFER_POOL_CEILING = KEY_ENGINE_PREFIX + "pool.ceiling"; //$NON-NLS-1$
+
+    /**
+     * The configuration key of the number of dedicated swap threads, or {@code 0} to swap out buffers
+     * on the writer threads ({@value}: {@value #DEFAULT_SWAP_THREAD_COUNT}).
+     * @since 0.5.4
+     */
+    public static final String KEY_SWAP_THREAD_COUNT = KEY_ENGINE_PREFIX + "pool.swap.threads"; //$NON-NLS-1$
+
+    /**
+     * The configuration key of the ratio of the swap low watermark to {@link #KEY_BUFFER_POOL_SIZE}
+     * ({@value}: {@value #DEFAULT_SWAP_LOW_WATERMARK}).
+     * The swap threads start when the pool size exceeds {@link #KEY_BUFFER_POOL_SIZE},
+     * and continue until the pool size becomes less than the low watermark.
+     * @since 0.5.4
+     */
+    public static final String KEY_SWAP_LOW_WATERMARK = KEY_ENGINE_PREFIX + "pool.swap.low"; //$NON-NLS-1$
+
     /**
      * The configuration key of buffer pool swap area on the local file system
      * ({@value}: {@link #DEFAULT_SWAP_DIRECTORY}).
+     * This can contain multiple directories separated by {@link File#pathSeparator}, and then swapped buffers
+     * are spread across them.
      */
     public static final String KEY_SWAP_DIRECTORY = KEY_ENGINE_PREFIX + "pool.swap"; //$NON-NLS-1$
 
@@ -81,6 +121,30 @@ public class VanillaConfiguration {
      */
     public static final String KEY_SWAP_DECORATOR = KEY_ENGINE_PREFIX + "pool.compression"; //$NON-NLS-1$
 
+    /**
+     * The configuration key of the minimum size in bytes of buffer pool swap files which are read via memory mapped
+     * regions, or {@code -1} to disable it ({@value}: {@value #DEFAULT_SWAP_MAPPING_THRESHOLD}).
+     * This is effective only if {@link #KEY_SWAP_DECORATOR} does not transform the file contents.
+     * @since 0.5.4
+     */
+    public static final String KEY_SWAP_MAPPING_THRESHOLD = KEY_ENGINE_PREFIX + "pool.swap.mmap"; //$NON-NLS-1$
+
+    /**
+     * The configuration key of the size in bytes of buffer pool swap segment files, or {@code 0} to create a swap file
+     * for each buffer ({@value}: {@value #DEFAULT_SWAP_SEGMENT_SIZE}).
+     * If it is enabled, swapped buffers are appended into a few shared segment files, and
+     * {@link #KEY_SWAP_DIVISION} is applied to the segment files.
+     * @since 0.5.4
+     */
+    public static final String KEY_SWAP_SEGMENT_SIZE = KEY_ENGINE_PREFIX + "pool.swap.segment"; //$NON-NLS-1$
+
+    /**
+     * The configuration key of the max number of concurrent buffer writes for each swap directory, or {@code 0} to
+     * unlimited ({@value}: {@value #DEFAULT_SWAP_CONCURRENCY}).
+     * @since 0.5.4
+     */
+    public static final String KEY_SWAP_CONCURRENCY = KEY_ENGINE_PREFIX + "pool.swap.concurrency"; //$NON-NLS-1$
+
     /**
      * The configuration key of output buffer size in bytes ({@value}: {@value #DEFAULT_OUTPUT_BUFFER_SIZE}).
      */
@@ -116,16 +180,64 @@ public class VanillaConfiguration {
      */
     public static final String KEY_MERGE_FACTOR = KEY_ENGINE_PREFIX + "merge.factor"; //$NON-NLS-1$
 
+    /**
+     * The configuration key of the max number of pending bytes in each pipelined one-to-one edge, or {@code 0} to
+     * disable pipelining ({@value}: {@value #DEFAULT_PIPELINE_BUFFER_SIZE}).
+     * Pipelined edges are effective only if {@link #KEY_VERTEX_CONCURRENCY} is greater than {@code 1}.
+     * @since 0.5.4
+     */
+    public static final String KEY_PIPELINE_BUFFER_SIZE = KEY_ENGINE_PREFIX + "pipeline.buffer.size"; //$NON-NLS-1$
+
+    /**
+     * The configuration key of the number of threads to merge scatter/gather input chunks while their upstream
+     * vertices are running, or {@code 0} to merge them on the writer threads
+     * ({@value}: {@value #DEFAULT_MERGE_THREAD_COUNT}).
+     * This is effective only if {@link #KEY_MERGE_THRESHOLD} is greater than {@code 1}.
+     * @since 0.5.4
+     */
+    public static final String KEY_MERGE_THREAD_COUNT = KEY_ENGINE_PREFIX + "merge.threads"; //$NON-NLS-1$
+
+    /**
+     * The configuration key of the max total bytes of scatter/gather input chunks in each background merge
+     * operation ({@value}: {@value #DEFAULT_MERGE_BUDGET}).
+     * @since 0.5.4
+     */
+    public static final String KEY_MERGE_BUDGET = KEY_ENGINE_PREFIX + "merge.budget"; //$NON-NLS-1$
+
     /**
      * The default value of {@link #KEY_THREAD_COUNT}.
      */
     public static final int DEFAULT_THREAD_COUNT = 1;
 
+    /**
+     * The default value of {@link #KEY_VERTEX_CONCURRENCY} (serial).
+     * @since 0.5.4
+     */
+    public static final int DEFAULT_VERTEX_CONCURRENCY = 1;
+
     /**
      * The default value of {@link #KEY_BUFFER_POOL_SIZE}.
      */
     public static final long DEFAULT_BUFFER_POOL_SIZE = 256L * 1024L * 1024L;
 
+    /**
+     * The default value of {@link #KEY_BUFFER_POOL_CEILING}.
+     * @since 0.5.4
+     */
+    public static final double DEFAULT_BUFFER_POOL_CEILING = 1.25;
+
+    /**
+     * The default value of {@link #KEY_SWAP_THREAD_COUNT} (disabled).
+     * @since 0.5.4
+     */
+    public static final int DEFAULT_SWAP_THREAD_COUNT = 0;
+
+    /**
+     * The default value of {@link #KEY_SWAP_LOW_WATERMARK}.
+     * @since 0.5.4
+     */
+    public static final double DEFAULT_SWAP_LOW_WATERMARK = 0.75;
+
     /**
      * The default value of {@link #KEY_SWAP_DIRECTORY} ({@code System.getProperty("java.io.tmpdir")}).
      */
@@ -145,6 +257,24 @@ public class VanillaConfiguration {
     public static final SupplierInfo DEFAULT_SWAP_DECORATOR =
             SupplierInfo.of(BufferedByteChannelDecorator.class.getName());
 
+    /**
+     * The default value of {@link #KEY_SWAP_MAPPING_THRESHOLD}.
+     * @since 0.5.4
+     */
+    public static final long DEFAULT_SWAP_MAPPING_THRESHOLD = 1024L * 1024L;
+
+    /**
+     * The default value of {@link #KEY_SWAP_SEGMENT_SIZE} (disabled).
+     * @since 0.5.4
+     */
+    public static final long DEFAULT_SWAP_SEGMENT_SIZE = 0L;
+
+    /**
+     * The default value of {@link #KEY_SWAP_CONCURRENCY} (unlimited).
+     * @since 0.5.4
+     */
+    public static final int DEFAULT_SWAP_CONCURRENCY = 0;
+
     /**
      * The default value of {@link #KEY_OUTPUT_BUFFER_SIZE}.
      */
@@ -172,20 +302,52 @@ public class VanillaConfiguration {
      */
     public static final double DEFAULT_MERGE_FACTOR = 0.75;
 
+    /**
+     * The default value of {@link #KEY_PIPELINE_BUFFER_SIZE} (disabled).
+     * @since 0.5.4
+     */
+    public static final long DEFAULT_PIPELINE_BUFFER_SIZE = 0L;
+
+    /**
+     * The default value of {@link #KEY_MERGE_THREAD_COUNT} (disabled).
+     * @since 0.5.4
+     */
+    public static final int DEFAULT_MERGE_THREAD_COUNT = 0;
+
+    /**
+     * The default value of {@link #KEY_MERGE_BUDGET}.
+     * @since 0.5.4
+     */
+    public static final long DEFAULT_MERGE_BUDGET = 64L * 1024L * 1024L;
+
     static final Logger LOG = LoggerFactory.getLogger(VanillaConfiguration.class);
 
     private OptionalInt numberOfThreads = OptionalInt.empty();
 
+    private OptionalInt vertexConcurrency = OptionalInt.empty();
+
     private OptionalInt numberOfPartitions = OptionalInt.empty();
 
     private OptionalLong bufferPoolSize = OptionalLong.empty();
 
-    private Optional<File> swapDirectory = Optional.empty();
+    private OptionalDouble bufferPoolCeiling = OptionalDouble.empty();
+
+    private OptionalInt swapThreadCount = OptionalInt.empty();
+
+    private OptionalDouble swapLowWatermark = OptionalDouble.empty();
+
+    private Optional<List<File>> swapDirectories = Optional.empty();
 
     private OptionalInt swapDivision = OptionalInt.empty();
 
     private Optional<SupplierInfo> swapDecorator = Optional.empty();
 
+    private OptionalLong swapMappingThreshold = OptionalLong.empty();
+
+    private OptionalLong swapSegmentSize = OptionalLong.empty();
+
+    private OptionalInt swapConcurrency = OptionalInt.empty();
+
     private OptionalInt outputBufferSize = OptionalInt.empty();
 
     private OptionalInt outputBufferMargin = OptionalInt.empty();
@@ -196,6 +358,12 @@ public class VanillaConfiguration {
 
     private OptionalDouble mergeFactor = OptionalDouble.empty();
 
+    private OptionalLong pipelineBufferSize = OptionalLong.empty();
+
+    private OptionalInt mergeThreadCount = OptionalInt.empty();
+
+    private OptionalLong mergeBudget = OptionalLong.empty();
+
     /**
      * Returns the number of worker threads.
      * @return the number of worker threads
@@ -213,6 +381,25 @@ public class VanillaConfiguration {
         this.numberOfThreads = OptionalInt.of(newValue);
     }
 
+    /**
+     * Returns the max number of concurrently running vertices.
+     * @return the max number of concurrently running vertices
+     * @see #KEY_VERTEX_CONCURRENCY
+     * @since 0.5.4
+     */
+    public int getVertexConcurrency() {
+        return vertexConcurrency.orElse(DEFAULT_VERTEX_CONCURRENCY);
+    }
+
+    /**
+     * Sets the max number of concurrently running vertices.
+     * @param newValue the new value
+     * @since 0.5.4
+     */
+    public void setVertexConcurrency(int newValue) {
+        this.vertexConcurrency = OptionalInt.of(newValue);
+    }
+
     /**
      * Returns the number of partitions.
      * @return the number of partitions
@@ -247,13 +434,70 @@ public class VanillaConfiguration {
         this.bufferPoolSize = OptionalLong.of(newValue);
     }
 
+    /**
+     * Returns the ratio of the buffer pool ceiling to the buffer pool size.
+     * @return the ratio of the buffer pool ceiling
+     * @see #KEY_BUFFER_POOL_CEILING
+     * @since 0.5.4
+     */
+    public double getBufferPoolCeiling() {
+        return bufferPoolCeiling.orElse(DEFAULT_BUFFER_POOL_CEILING);
+    }
+
+    /**
+     * Sets the ratio of the buffer pool ceiling to the buffer pool size.
+     * @param newValue the new value
+     * @since 0.5.4
+     */
+    public void setBufferPoolCeiling(double newValue) {
+        this.bufferPoolCeiling = OptionalDouble.of(newValue);
+    }
+
+    /**
+     * Returns the number of swap threads.
+     * @return the number of swap threads, or {@code 0} if it is disabled
+     * @see #KEY_SWAP_THREAD_COUNT
+     * @since 0.5.4
+     */
+    public int getSwapThreadCount() {
+        return swapThreadCount.orElse(DEFAULT_SWAP_THREAD_COUNT);
+    }
+
+    /**
+     * Sets the number of swap threads.
+     * @param newValue the new value
+     * @since 0.5.4
+     */
+    public void setSwapThreadCount(int newValue) {
+        this.swapThreadCount = OptionalInt.of(newValue);
+    }
+
+    /**
+     * Returns the ratio of the swap low watermark to the buffer pool size.
+     * @return the ratio of the swap low watermark
+     * @see #KEY_SWAP_LOW_WATERMARK
+     * @since 0.5.4
+     */
+    public double getSwapLowWatermark() {
+        return swapLowWatermark.orElse(DEFAULT_SWAP_LOW_WATERMARK);
+    }
+
+    /**
+     * Sets the ratio of the swap low watermark to the buffer pool size.
+     * @param newValue the new value
+     * @since 0.5.4
+     */
+    public void setSwapLowWatermark(double newValue) {
+        this.swapLowWatermark = OptionalDouble.of(newValue);
+    }
+
     /**
      * Returns the buffer swap directory.
-     * @return the buffer swap directory
+     * @return the buffer swap directory, or the first one if there are multiple directories
      * @see #KEY_SWAP_DIRECTORY
      */
     public File getSwapDirectory() {
-        return swapDirectory.orElse(DEFAULT_SWAP_DIRECTORY);
+        return getSwapDirectories().get(0);
     }
 
     /**
@@ -261,7 +505,29 @@ public class VanillaConfiguration {
      * @param newValue the new value
      */
     public void setSwapDirectory(File newValue) {
-        this.swapDirectory = Optional.ofNullable(newValue);
+        this.swapDirectories = Optional.ofNullable(newValue).map(Collections::singletonList);
+    }
+
+    /**
+     * Returns the buffer swap directories.
+     * @return the buffer swap directories
+     * @see #KEY_SWAP_DIRECTORY
+     * @since 0.5.4
+     */
+    public List<File> getSwapDirectories() {
+        return swapDirectories.orElse(Collections.singletonList(DEFAULT_SWAP_DIRECTORY));
+    }
+
+    /**
+     * Sets the buffer swap directories.
+     * @param newValues the new values
+     * @see #KEY_SWAP_DIRECTORY
+     * @since 0.5.4
+     */
+    public void setSwapDirectories(List<File> newValues) {
+        this.swapDirectories = Optional.ofNullable(newValues)
+                .filter(it -> it.isEmpty() == false)
+                .map(it -> Collections.unmodifiableList(new ArrayList<>(it)));
     }
 
     /**
@@ -309,6 +575,66 @@ public class VanillaConfiguration {
         return swapDecorator.orElse(DEFAULT_SWAP_DECORATOR);
     }
 
+    /**
+     * Returns the minimum size of swap files which are read via memory mapped regions.
+     * @return the minimum size in bytes, or negative value if it is disabled
+     * @see #KEY_SWAP_MAPPING_THRESHOLD
+     * @since 0.5.4
+     */
+    public long getSwapMappingThreshold() {
+        return swapMappingThreshold.orElse(DEFAULT_SWAP_MAPPING_THRESHOLD);
+    }
+
+    /**
+     * Sets the minimum size of swap files which are read via memory mapped regions.
+     * @param newValue the minimum size in bytes, or negative value to disable it
+     * @see #KEY_SWAP_MAPPING_THRESHOLD
+     * @since 0.5.4
+     */
+    public void setSwapMappingThreshold(long newValue) {
+        this.swapMappingThreshold = OptionalLong.of(newValue);
+    }
+
+    /**
+     * Returns the size of swap segment files.
+     * @return the segment size in bytes, or {@code 0} if it is disabled
+     * @see #KEY_SWAP_SEGMENT_SIZE
+     * @since 0.5.4
+     */
+    public long getSwapSegmentSize() {
+        return swapSegmentSize.orElse(DEFAULT_SWAP_SEGMENT_SIZE);
+    }
+
+    /**
+     * Sets the size of swap segment files.
+     * @param newValue the segment size in bytes, or {@code 0} to disable it
+     * @see #KEY_SWAP_SEGMENT_SIZE
+     * @since 0.5.4
+     */
+    public void setSwapSegmentSize(long newValue) {
+        this.swapSegmentSize = OptionalLong.of(newValue);
+    }
+
+    /**
+     * Returns the max number of concurrent buffer writes for each swap directory.
+     * @return the max number of concurrent writes, or {@code 0} if it is unlimited
+     * @see #KEY_SWAP_CONCURRENCY
+     * @since 0.5.4
+     */
+    public int getSwapConcurrency() {
+        return swapConcurrency.orElse(DEFAULT_SWAP_CONCURRENCY);
+    }
+
+    /**
+     * Sets the max number of concurrent buffer writes for each swap directory.
+     * @param newValue the max number of concurrent writes, or {@code 0} to unlimited
+     * @see #KEY_SWAP_CONCURRENCY
+     * @since 0.5.4
+     */
+    public void setSwapConcurrency(int newValue) {
+        this.swapConcurrency = OptionalInt.of(newValue);
+    }
+
     /**
      * Returns the individual output buffer size.
      * @return the output buffer size, in bytes
@@ -409,6 +735,66 @@ public class VanillaConfiguration {
         return mergeFactor.orElse(DEFAULT_MERGE_FACTOR);
     }
 
+    /**
+     * Returns the max number of pending bytes in each pipelined one-to-one edge.
+     * @return the max number of pending bytes, or {@code 0} if pipelining is disabled
+     * @see #KEY_PIPELINE_BUFFER_SIZE
+     * @since 0.5.4
+     */
+    public long getPipelineBufferSize() {
+        return pipelineBufferSize.orElse(DEFAULT_PIPELINE_BUFFER_SIZE);
+    }
+
+    /**
+     * Sets the max number of pending bytes in each pipelined one-to-one edge.
+     * @param newValue the max number of pending bytes, or {@code 0} to disable pipelining
+     * @see #KEY_PIPELINE_BUFFER_SIZE
+     * @since 0.5.4
+     */
+    public void setPipelineBufferSize(long newValue) {
+        this.pipelineBufferSize = OptionalLong.of(newValue);
+    }
+
+    /**
+     * Returns the number of threads to merge scatter/gather input chunks in background.
+     * @return the number of threads, or {@code 0} if background merging is disabled
+     * @see #KEY_MERGE_THREAD_COUNT
+     * @since 0.5.4
+     */
+    public int getMergeThreadCount() {
+        return mergeThreadCount.orElse(DEFAULT_MERGE_THREAD_COUNT);
+    }
+
+    /**
+     * Sets the number of threads to merge scatter/gather input chunks in background.
+     * @param newValue the number of threads, or {@code 0} to disable background merging
+     * @see #KEY_MERGE_THREAD_COUNT
+     * @since 0.5.4
+     */
+    public void setMergeThreadCount(int newValue) {
+        this.mergeThreadCount = OptionalInt.of(newValue);
+    }
+
+    /**
+     * Returns the max total bytes of scatter/gather input chunks in each background merge operation.
+     * @return the max total bytes
+     * @see #KEY_MERGE_BUDGET
+     * @since 0.5.4
+     */
+    public long getMergeBudget() {
+        return mergeBudget.orElse(DEFAULT_MERGE_BUDGET);
+    }
+
+    /**
+     * Sets the max total bytes of scatter/gather input chunks in each background merge operation.
+     * @param newValue the max total bytes
+     * @see #KEY_MERGE_BUDGET
+     * @since 0.5.4
+     */
+    public void setMergeBudget(long newValue) {
+        this.mergeBudget = OptionalLong.of(newValue);
+    }
+
     /**
      * Extracts configurations from the given options.
      * @param options the options
@@ -418,23 +804,41 @@ public class VanillaConfiguration {
         Arguments.requireNonNull(options);
         VanillaConfiguration conf = new VanillaConfiguration();
         configureInt(conf::setNumberOfThreads, options, KEY_THREAD_COUNT);
+        configureInt(conf::setVertexConcurrency, options, KEY_VERTEX_CONCURRENCY);
         configureInt(conf::setNumberOfPartitions, options, KEY_PARTITION_COUNT);
         configureLong(conf::setBufferPoolSize, options, KEY_BUFFER_POOL_SIZE);
-        configureFile(conf::setSwapDirectory, options, KEY_SWAP_DIRECTORY);
+        configureDouble(conf::setBufferPoolCeiling, options, KEY_BUFFER_POOL_CEILING);
+        configureInt(conf::setSwapThreadCount, options, KEY_SWAP_THREAD_COUNT);
+        configureDouble(conf::setSwapLowWatermark, options, KEY_SWAP_LOW_WATERMARK);
+        configureFiles(conf::setSwapDirectories, options, KEY_SWAP_DIRECTORY);
         configureInt(conf::setSwapDivision, options, KEY_SWAP_DIVISION);
         configureString(conf::setSwapDecorator, options, KEY_SWAP_DECORATOR);
+        configureLong(conf::setSwapMappingThreshold, options, KEY_SWAP_MAPPING_THRESHOLD);
+        configureLong(conf::setSwapSegmentSize, options, KEY_SWAP_SEGMENT_SIZE);
+        configureInt(conf::setSwapConcurrency, options, KEY_SWAP_CONCURRENCY);
         configureInt(conf::setOutputBufferSize, options, KEY_OUTPUT_BUFFER_SIZE);
         configureInt(conf::setOutputBufferMargin, options, KEY_OUTPUT_BUFFER_MARGIN);
         configureInt(conf::setOutputRecordSize, options, KEY_OUTPUT_RECORD_SIZE);
         configureInt(conf::setMergeThreshold, options, KEY_MERGE_THRESHOLD);
         configureDouble(conf::setMergeFactor, options, KEY_MERGE_FACTOR);
+        configureLong(conf::setPipelineBufferSize, options, KEY_PIPELINE_BUFFER_SIZE);
+        configureInt(conf::setMergeThreadCount, options, KEY_MERGE_THREAD_COUNT);
+        configureLong(conf::setMergeBudget, options, KEY_MERGE_BUDGET);
         if (LOG.isDebugEnabled()) {
             LOG.debug(MessageFormat.format("{0}: {1}", //$NON-NLS-1$
                     KEY_THREAD_COUNT, conf.getNumberOfThreads()));
+            LOG.debug(MessageFormat.format("{0}: {1}", //$NON-NLS-1$
+                    KEY_VERTEX_CONCURRENCY, conf.getVertexConcurrency()));
             LOG.debug(MessageFormat.format("{0}: {1}", //$NON-NLS-1$
                     KEY_PARTITION_COUNT, conf.getNumberOfPartitions()));
             LOG.debug(MessageFormat.format("{0}: {1}", //$NON-NLS-1$
                     KEY_BUFFER_POOL_SIZE, conf.getBufferPoolSize()));
+            LOG.debug(MessageFormat.format("{0}: {1}", //$NON-NLS-1$
+                    KEY_BUFFER_POOL_CEILING, conf.getBufferPoolCeiling()));
+            LOG.debug(MessageFormat.format("{0}: {1}", //$NON-NLS-1$
+                    KEY_SWAP_THREAD_COUNT, conf.getSwapThreadCount()));
+            LOG.debug(MessageFormat.format("{0}: {1}", //$NON-NLS-1$
+                    KEY_SWAP_LOW_WATERMARK, conf.getSwapLowWatermark()));
             LOG.debug(MessageFormat.format("{0}: {1}", //$NON-NLS-1$
                     KEY_OUTPUT_BUFFER_SIZE, conf.getOutputBufferSize()));
             LOG.debug(MessageFormat.format("{0}: {1}", //$NON-NLS-1$
@@ -442,17 +846,31 @@ public class VanillaConfiguration {
             LOG.debug(MessageFormat.format("{0}: {1}", //$NON-NLS-1$
                     KEY_OUTPUT_RECORD_SIZE, conf.getOutputRecordSize()));
             LOG.debug(MessageFormat.format("{0}: {1}", //$NON-NLS-1$
-                    KEY_SWAP_DIRECTORY, Optionals.of(conf.getSwapDirectory())
-                        .map(File::getAbsolutePath)
-                        .orElse("N/A"))); //$NON-NLS-1$
+                    KEY_SWAP_DIRECTORY, conf.getSwapDirectories().stream()
+                        .map(it -> Optionals.of(it)
+                                .map(File::getAbsolutePath)
+                                .orElse("N/A")) //$NON-NLS-1$
+                        .collect(Collectors.joining(File.pathSeparator))));
             LOG.debug(MessageFormat.format("{0}: {1}", //$NON-NLS-1$
                     KEY_SWAP_DIVISION, conf.getSwapDivision()));
             LOG.debug(MessageFormat.format("{0}: {1}", //$NON-NLS-1$
                     KEY_SWAP_DECORATOR, conf.getSwapDecorator()));
+            LOG.debug(MessageFormat.format("{0}: {1}", //$NON-NLS-1$
+                    KEY_SWAP_MAPPING_THRESHOLD, conf.getSwapMappingThreshold()));
+            LOG.debug(MessageFormat.format("{0}: {1}", //$NON-NLS-1$
+                    KEY_SWAP_SEGMENT_SIZE, conf.getSwapSegmentSize()));
+            LOG.debug(MessageFormat.format("{0}: {1}", //$NON-NLS-1$
+                    KEY_SWAP_CONCURRENCY, conf.getSwapConcurrency()));
             LOG.debug(MessageFormat.format("{0}: {1}", //$NON-NLS-1$
                     KEY_MERGE_THRESHOLD, conf.getMergeThreshold()));
             LOG.debug(MessageFormat.format("{0}: {1}", //$NON-NLS-1$
                     KEY_MERGE_FACTOR, conf.getMergeFactor()));
+            LOG.debug(MessageFormat.format("{0}: {1}", //$NON-NLS-1$
+                    KEY_PIPELINE_BUFFER_SIZE, conf.getPipelineBufferSize()));
+            LOG.debug(MessageFormat.format("{0}: {1}", //$NON-NLS-1$
+                    KEY_MERGE_THREAD_COUNT, conf.getMergeThreadCount()));
+            LOG.debug(MessageFormat.format("{0}: {1}", //$NON-NLS-1$
+                    KEY_MERGE_BUDGET, conf.getMergeBudget()));
         }
         return conf;
     }
@@ -487,11 +905,15 @@ public class VanillaConfiguration {
                 .ifPresent(target::accept);
     }
 
-    private static void configureFile(Consumer<File> target, Function<String, Optional<String>> opts, String key) {
+    private static void configureFiles(
+            Consumer<List<File>> target, Function<String, Optional<String>> opts, String key) {
         opts.apply(key)
-                .map(String::trim)
+                .map(value -> Arrays.stream(value.split(Pattern.quote(File.pathSeparator)))
+                        .map(String::trim)
+                        .filter(it -> !it.isEmpty())
+                        .map(File::new)
+                        .collect(Collectors.toList()))
                 .filter(it -> !it.isEmpty())
-                .map(File::new)
                 .ifPresent(target::accept);
     }
 
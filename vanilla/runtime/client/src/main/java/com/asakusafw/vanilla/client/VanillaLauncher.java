@@ -40,17 +40,19 @@ import com.asakusafw.lang.utils.common.InterruptibleIo;
 import com.asakusafw.runtime.core.context.RuntimeContext;
 import com.asakusafw.vanilla.core.engine.BasicEdgeDriver;
 import com.asakusafw.vanilla.core.engine.BasicVertexScheduler;
+import com.asakusafw.vanilla.core.engine.ExecutionProfile;
 import com.asakusafw.vanilla.core.engine.GraphExecutor;
 import com.asakusafw.vanilla.core.engine.VertexScheduler;
 import com.asakusafw.vanilla.core.io.BasicBufferPool;
 import com.asakusafw.vanilla.core.io.BasicBufferStore;
+import com.asakusafw.vanilla.core.io.BufferStore;
 import com.asakusafw.vanilla.core.io.ByteChannelDecorator;
 import com.asakusafw.vanilla.core.mirror.GraphMirror;
 
 /**
  * Asakusa Vanilla application entry.
  * @since 0.4.0
- * @version 0.5.3
+ * @version 0.5.4
  */
 public class VanillaLauncher {
 
@@ -215,33 +217,50 @@ public class VanillaLauncher {
         Arguments.requireNonNull(configuration);
         Arguments.requireNonNull(graph);
         BasicBufferStore.Builder storeBuilder = BasicBufferStore.builder()
-                .withDirectory(configuration.getSwapDirectory())
+                .withDirectories(configuration.getSwapDirectories())
                 .withDivision(configuration.getSwapDivision())
-                .withDecorator(loadByteChannelDecorator(context, configuration.getSwapDecorator()));
+                .withDecorator(loadByteChannelDecorator(context, configuration.getSwapDecorator()))
+                .withMappingThreshold(configuration.getSwapMappingThreshold())
+                .withSegmentSize(configuration.getSwapSegmentSize())
+                .withConcurrency(configuration.getSwapConcurrency());
 
         GraphMirror mirror = GraphMirror.of(graph);
         VertexScheduler scheduler = new BasicVertexScheduler();
         try (BasicBufferStore store = storeBuilder.build();
-                BasicEdgeDriver edges = new BasicEdgeDriver(
-                        context.getClassLoader(),
-                        mirror,
-                        new BasicBufferPool(configuration.getBufferPoolSize(), store),
-                        store.getBlobStore(),
-                        configuration.getNumberOfPartitions(),
-                        configuration.getOutputBufferSize(),
-                        configuration.getOutputBufferMargin(),
-                        configuration.getNumberOfOutputRecords(),
-                        configuration.getMergeThreshold(),
-                        configuration.getMergeFactor());
-                ResourceSession session = LaunchUtil.attachSession(context, ResourceBroker.Scope.VM)) {
-            if (RuntimeContext.get().isSimulation() == false) {
-                new GraphExecutor(context, mirror,
-                        scheduler, edges,
-                        configuration.getNumberOfThreads()).run();
+                BasicBufferPool pool = newBufferPool(configuration, store)) {
+            try (BasicEdgeDriver edges = new BasicEdgeDriver(
+                            context.getClassLoader(),
+                            mirror,
+                            pool,
+                            store.getBlobStore(),
+                            configuration.getNumberOfPartitions(),
+                            configuration.getOutputBufferSize(),
+                            configuration.getOutputBufferMargin(),
+                            configuration.getNumberOfOutputRecords(),
+                            configuration.getMergeThreshold(),
+                            configuration.getMergeFactor(),
+                            configuration.getPipelineBufferSize(),
+                            configuration.getMergeThreadCount(),
+                            configuration.getMergeBudget(),
+                            context.getResource(ExecutionProfile.class).orElse(null));
+                    ResourceSession session = LaunchUtil.attachSession(context, ResourceBroker.Scope.VM)) {
+                if (RuntimeContext.get().isSimulation() == false) {
+                    new GraphExecutor(context, mirror,
+                            scheduler, edges,
+                            configuration.getNumberOfThreads(),
+                            configuration.getVertexConcurrency(), pool).run();
+                }
             }
         }
     }
 
+    private static BasicBufferPool newBufferPool(VanillaConfiguration configuration, BufferStore store) {
+        long limit = configuration.getBufferPoolSize();
+        long lowWatermark = (long) (limit * Math.min(configuration.getSwapLowWatermark(), 1.0));
+        long ceiling = (long) (limit * Math.max(configuration.getBufferPoolCeiling(), 1.0));
+        return new BasicBufferPool(limit, store, lowWatermark, ceiling, configuration.getSwapThreadCount());
+    }
+
     private static ByteChannelDecorator loadByteChannelDecorator(
             ProcessorContext context, SupplierInfo info) throws IOException, InterruptedException {
         Supplier<?> supplier = info.newInstance(context.getClassLoader());
@@ -41,8 +41,12 @@ public class VanillaConfigurationTest {
     public void defaults() {
         VanillaConfiguration conf = new VanillaConfiguration();
         assertThat(conf.getNumberOfThreads(), is(DEFAULT_THREAD_COUNT));
+        assertThat(conf.getVertexConcurrency(), is(DEFAULT_VERTEX_CONCURRENCY));
         assertThat(conf.getNumberOfPartitions(), is(conf.getNumberOfThreads()));
         assertThat(conf.getBufferPoolSize(), is(DEFAULT_BUFFER_POOL_SIZE));
+        assertThat(conf.getBufferPoolCeiling(), is(DEFAULT_BUFFER_POOL_CEILING));
+        assertThat(conf.getSwapThreadCount(), is(DEFAULT_SWAP_THREAD_COUNT));
+        assertThat(conf.getSwapLowWatermark(), is(DEFAULT_SWAP_LOW_WATERMARK));
         assertThat(conf.getSwapDirectory(), is(DEFAULT_SWAP_DIRECTORY));
         assertThat(conf.getSwapDivision(), is(DEFAULT_SWAP_DIVISION));
         assertThat(
@@ -53,6 +57,13 @@ public class VanillaConfigurationTest {
         assertThat(conf.getOutputRecordSize(), is(DEFAULT_OUTPUT_RECORD_SIZE));
         assertThat(conf.getMergeThreshold(), is(DEFAULT_MERGE_THRESHOLD));
         assertThat(conf.getMergeFactor(), is(DEFAULT_MERGE_FACTOR));
+        assertThat(conf.getPipelineBufferSize(), is(DEFAULT_PIPELINE_BUFFER_SIZE));
+        assertThat(conf.getMergeThreadCount(), is(DEFAULT_MERGE_THREAD_COUNT));
+        assertThat(conf.getMergeBudget(), is(DEFAULT_MERGE_BUDGET));
+        assertThat(conf.getSwapMappingThreshold(), is(DEFAULT_SWAP_MAPPING_THRESHOLD));
+        assertThat(conf.getSwapSegmentSize(), is(DEFAULT_SWAP_SEGMENT_SIZE));
+        assertThat(conf.getSwapConcurrency(), is(DEFAULT_SWAP_CONCURRENCY));
+        assertThat(conf.getSwapDirectories(), contains(DEFAULT_SWAP_DIRECTORY));
     }
 
     /**
@@ -74,6 +85,16 @@ public class VanillaConfigurationTest {
         pairs.put(KEY_MERGE_THRESHOLD, 9);
         pairs.put(KEY_MERGE_FACTOR, 10);
         pairs.put(KEY_SWAP_DECORATOR, SnappyByteChannelDecorator.class.getName());
+        pairs.put(KEY_VERTEX_CONCURRENCY, 11);
+        pairs.put(KEY_BUFFER_POOL_CEILING, 12);
+        pairs.put(KEY_SWAP_THREAD_COUNT, 13);
+        pairs.put(KEY_SWAP_LOW_WATERMARK, 0.5);
+        pairs.put(KEY_PIPELINE_BUFFER_SIZE, 14);
+        pairs.put(KEY_MERGE_THREAD_COUNT, 15);
+        pairs.put(KEY_MERGE_BUDGET, 16);
+        pairs.put(KEY_SWAP_MAPPING_THRESHOLD, 17);
+        pairs.put(KEY_SWAP_SEGMENT_SIZE, 18);
+        pairs.put(KEY_SWAP_CONCURRENCY, 19);
 
         VanillaConfiguration conf = VanillaConfiguration.extract(key -> Optionals.get(pairs, key)
                 .map(String::valueOf));
@@ -91,6 +112,30 @@ public class VanillaConfigurationTest {
         assertThat(
                 conf.getSwapDecorator().newInstance(getClass().getClassLoader()).get(),
                 is(instanceOf(SnappyByteChannelDecorator.class)));
+        assertThat(conf.getVertexConcurrency(), is(11));
+        assertThat(conf.getBufferPoolCeiling(), is(12d));
+        assertThat(conf.getSwapThreadCount(), is(13));
+        assertThat(conf.getSwapLowWatermark(), is(0.5d));
+        assertThat(conf.getPipelineBufferSize(), is(14L));
+        assertThat(conf.getMergeThreadCount(), is(15));
+        assertThat(conf.getMergeBudget(), is(16L));
+        assertThat(conf.getSwapMappingThreshold(), is(17L));
+        assertThat(conf.getSwapSegmentSize(), is(18L));
+        assertThat(conf.getSwapConcurrency(), is(19));
+    }
+
+    /**
+     * extract multiple swap directories.
+     */
+    @Test
+    public void extract_swap_directories() {
+        Map<String, Object> pairs = new LinkedHashMap<>();
+        pairs.put(KEY_SWAP_DIRECTORY, String.join(File.pathSeparator, "a", " b ", "", "c"));
+
+        VanillaConfiguration conf = VanillaConfiguration.extract(key -> Optionals.get(pairs, key)
+                .map(String::valueOf));
+        assertThat(conf.getSwapDirectories(), contains(new File("a"), new File("b"), new File("c")));
+        assertThat(conf.getSwapDirectory(), is(new File("a")));
     }
 
     /**
@@ -0,0 +1,163 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.vanilla.core.engine;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.asakusafw.dag.api.model.PortId;
+import com.asakusafw.dag.api.model.basic.BasicEdgeDescriptor.Movement;
+import com.asakusafw.dag.api.processor.extension.BroadcastCache;
+import com.asakusafw.lang.utils.common.Arguments;
+import com.asakusafw.lang.utils.common.InterruptibleIo.IoCallable;
+import com.asakusafw.lang.utils.common.Invariants;
+import com.asakusafw.lang.utils.common.Lang;
+import com.asakusafw.vanilla.core.mirror.GraphMirror;
+import com.asakusafw.vanilla.core.mirror.InputPortMirror;
+import com.asakusafw.vanilla.core.mirror.PortMirror;
+import com.asakusafw.vanilla.core.mirror.VertexMirror;
+
+/**
+ * A graph scoped {@link BroadcastCache}.
+ * Each cached object is shared between the vertices which consume the same upstream outputs, and it is released
+ * after the last consumer vertex was completed.
+ * @since 0.5.4
+ */
+public class BasicBroadcastCache {
+
+    static final Logger LOG = LoggerFactory.getLogger(BasicBroadcastCache.class);
+
+    private final Map<Set<PortId>, Integer> consumers = new HashMap<>();
+
+    private final Map<Set<PortId>, Map<String, FutureTask<Object>>> entries = new HashMap<>();
+
+    /**
+     * Creates a new instance.
+     * @param graph the target graph
+     */
+    public BasicBroadcastCache(GraphMirror graph) {
+        Arguments.requireNonNull(graph);
+        for (VertexMirror vertex : graph.getVertices()) {
+            for (Set<PortId> upstreams : getUpstreams(vertex)) {
+                consumers.merge(upstreams, 1, Integer::sum);
+            }
+        }
+    }
+
+    private static Set<Set<PortId>> getUpstreams(VertexMirror vertex) {
+        return vertex.getInputs().stream()
+                .filter(it -> it.getMovement() == Movement.BROADCAST)
+                .map(BasicBroadcastCache::getUpstreams)
+                .collect(Collectors.toSet());
+    }
+
+    private static Set<PortId> getUpstreams(InputPortMirror port) {
+        return port.getOpposites().stream()
+                .map(PortMirror::getId)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Returns a {@link BroadcastCache} for the given vertex.
+     * @param vertex the target vertex
+     * @return the view of this cache for the vertex
+     */
+    public BroadcastCache bind(VertexMirror vertex) {
+        Arguments.requireNonNull(vertex);
+        return new BroadcastCache() {
+            @Override
+            public <T> T get(String input, String key, IoCallable<? extends T> builder)
+                    throws IOException, InterruptedException {
+                InputPortMirror port = Invariants.requireNonNull(vertex.getInput(input), input);
+                Invariants.require(port.getMovement() == Movement.BROADCAST);
+                return BasicBroadcastCache.this.get(getUpstreams(port), key, builder);
+            }
+        };
+    }
+
+    /**
+     * Releases the cached objects which are no longer required after the given vertex was completed.
+     * @param vertex the completed vertex
+     */
+    public synchronized void release(VertexMirror vertex) {
+        Arguments.requireNonNull(vertex);
+        for (Set<PortId> upstreams : getUpstreams(vertex)) {
+            int rest = consumers.merge(upstreams, -1, Integer::sum);
+            if (rest <= 0) {
+                consumers.remove(upstreams);
+                Map<String, FutureTask<Object>> released = entries.remove(upstreams);
+                if (released != null && LOG.isDebugEnabled()) {
+                    LOG.debug("released broadcast cache: upstreams={}, entries={}", upstreams, released.size());
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T get(
+            Set<PortId> upstreams, String key,
+            IoCallable<? extends T> builder) throws IOException, InterruptedException {
+        FutureTask<Object> task;
+        boolean owner = false;
+        synchronized (this) {
+            Map<String, FutureTask<Object>> map = entries.get(upstreams);
+            task = map == null ? null : map.get(key);
+            // don't cache objects if there are no other consumers
+            if (task == null && consumers.getOrDefault(upstreams, 0) > 1) {
+                task = new FutureTask<>(builder::call);
+                entries.computeIfAbsent(upstreams, k -> new HashMap<>()).put(key, task);
+                owner = true;
+            }
+        }
+        if (task == null) {
+            return builder.call();
+        }
+        if (owner) {
+            LOG.debug("building broadcast cache: upstreams={}, key={}", upstreams, key);
+            task.run();
+        } else {
+            LOG.debug("reusing broadcast cache: upstreams={}, key={}", upstreams, key);
+        }
+        try {
+            return (T) task.get();
+        } catch (ExecutionException e) {
+            Throwable t = e.getCause();
+            Lang.rethrow(t, Error.class);
+            Lang.rethrow(t, RuntimeException.class);
+            Lang.rethrow(t, IOException.class);
+            Lang.rethrow(t, InterruptedException.class);
+            throw new IOException(t);
+        }
+    }
+
+    /**
+     * Returns the number of cached objects.
+     * @return the number of cached objects
+     */
+    public synchronized int size() {
+        return entries.values().stream()
+                .mapToInt(Map::size)
+                .sum();
+    }
+}
@@ -17,15 +17,21 @@ package com.asakusafw.vanilla.core.engine;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.text.MessageFormat;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -61,6 +67,7 @@ import com.asakusafw.vanilla.core.io.DataWriter;
 import com.asakusafw.vanilla.core.io.KeyValueCursor;
 import com.asakusafw.vanilla.core.io.KeyValueMerger;
 import com.asakusafw.vanilla.core.io.KeyValuePartitioner;
+import com.asakusafw.vanilla.core.io.PartitionStrategy;
 import com.asakusafw.vanilla.core.io.RecordCursor;
 import com.asakusafw.vanilla.core.io.SharedBuffer;
 import com.asakusafw.vanilla.core.io.StreamGroupWriter;
@@ -76,13 +83,32 @@ import com.asakusafw.vanilla.core.util.Buffers;
 
 /**
  * A basic implementation of {@link EdgeDriver}.
+ * <p>
+ * If the pipeline buffer size is positive, each one-to-one edge, whose upstream outputs are connected only to it,
+ * becomes {@link #isPipelined(PortId) pipelined}: the downstream vertex can read the upstream output fragments
+ * while the upstream vertices are still running.
+ * The upstream writers will be blocked while the downstream is reading and the number of pending bytes exceeds
+ * the pipeline buffer size.
+ * </p>
+ * <p>
+ * If the number of merge threads is positive, the scatter/gather fragments are merged on the dedicated threads
+ * while the upstream vertices are running, instead of on the writer threads.
+ * Each background merge only takes the smallest fragments whose total size is up to the merge budget, so that
+ * the final gather operation will face a bounded number of fragments.
+ * </p>
+ * <p>
+ * If {@link ExecutionProfile} is specified, this records the size of data fragments and merge operations
+ * for each port.
+ * </p>
  * @since 0.4.0
- * @version 0.5.3
+ * @version 0.5.4
  */
 public class BasicEdgeDriver extends EdgeDriver.Abstract {
 
     static final Logger LOG = LoggerFactory.getLogger(BasicEdgeDriver.class);
 
+    private static final double SKEW_REPORT_THRESHOLD = 2.0;
+
     private final ClassLoader classLoader;
 
     private final GraphMirror graph;
@@ -97,6 +123,12 @@ public class BasicEdgeDriver extends EdgeDriver.Abstract {
 
     private final int recordCountLimit;
 
+    private final PartitionStrategy partitionStrategy;
+
+    private final Set<PortId> pipelined;
+
+    private final ExecutorService merger;
+
     private final Map<InputPortMirror, FragmentSource> sources;
 
     private final Map<OutputPortMirror, FragmentSink> sinks;
@@ -105,6 +137,8 @@ public class BasicEdgeDriver extends EdgeDriver.Abstract {
 
     private final Map<OutputPortMirror, PartitionedSink> partSinks;
 
+    private final ExecutionProfile profile;
+
     /**
      * Creates a new instance.
      * @param classLoader the current class loader
@@ -124,12 +158,117 @@ public class BasicEdgeDriver extends EdgeDriver.Abstract {
             int numberOfPartitions,
             int bufferSizeLimit, int bufferMarginSize, int recordCountLimit,
             int mergeThreshold, double mergeFactor) {
+        this(classLoader, graph, pool, blobs,
+                numberOfPartitions,
+                bufferSizeLimit, bufferMarginSize, recordCountLimit,
+                mergeThreshold, mergeFactor,
+                0L);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param classLoader the current class loader
+     * @param graph the target graph
+     * @param pool the buffer pool
+     * @param blobs the BLOB store
+     * @param numberOfPartitions the number of partitions in scatter-gather operations
+     * @param bufferSizeLimit each output buffer size threshold in bytes
+     * @param bufferMarginSize the output buffer margin size
+     * @param recordCountLimit the number of limit records in each output buffer
+     * @param mergeThreshold the maximum number of merging scatter/gather input chunks
+     * @param mergeFactor the fraction to merge scatter/gather input with {@code mergeThreshold}
+     * @param pipelineBufferSize the max number of pending bytes in each pipelined one-to-one edge,
+     *    or {@code 0} to disable pipelining
+     * @since 0.5.4
+     */
+    public BasicEdgeDriver(
+            ClassLoader classLoader,
+            GraphMirror graph, BufferPool pool, BlobStore blobs,
+            int numberOfPartitions,
+            int bufferSizeLimit, int bufferMarginSize, int recordCountLimit,
+            int mergeThreshold, double mergeFactor,
+            long pipelineBufferSize) {
+        this(classLoader, graph, pool, blobs,
+                numberOfPartitions,
+                bufferSizeLimit, bufferMarginSize, recordCountLimit,
+                mergeThreshold, mergeFactor,
+                pipelineBufferSize,
+                0, 0L);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param classLoader the current class loader
+     * @param graph the target graph
+     * @param pool the buffer pool
+     * @param blobs the BLOB store
+     * @param numberOfPartitions the number of partitions in scatter-gather operations
+     * @param bufferSizeLimit each output buffer size threshold in bytes
+     * @param bufferMarginSize the output buffer margin size
+     * @param recordCountLimit the number of limit records in each output buffer
+     * @param mergeThreshold the maximum number of merging scatter/gather input chunks
+     * @param mergeFactor the fraction to merge scatter/gather input with {@code mergeThreshold}
+     * @param pipelineBufferSize the max number of pending bytes in each pipelined one-to-one edge,
+     *    or {@code 0} to disable pipelining
+     * @param mergeThreads the number of threads to merge scatter/gather fragments in background,
+     *    or {@code 0} to merge them on the writer threads
+     * @param mergeBudget the max total bytes of fragments in each background merge operation
+     * @since 0.5.4
+     */
+    public BasicEdgeDriver(
+            ClassLoader classLoader,
+            GraphMirror graph, BufferPool pool, BlobStore blobs,
+            int numberOfPartitions,
+            int bufferSizeLimit, int bufferMarginSize, int recordCountLimit,
+            int mergeThreshold, double mergeFactor,
+            long pipelineBufferSize,
+            int mergeThreads, long mergeBudget) {
+        this(classLoader, graph, pool, blobs,
+                numberOfPartitions,
+                bufferSizeLimit, bufferMarginSize, recordCountLimit,
+                mergeThreshold, mergeFactor,
+                pipelineBufferSize,
+                mergeThreads, mergeBudget,
+                null);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param classLoader the current class loader
+     * @param graph the target graph
+     * @param pool the buffer pool
+     * @param blobs the BLOB store
+     * @param numberOfPartitions the number of partitions in scatter-gather operations
+     * @param bufferSizeLimit each output buffer size threshold in bytes
+     * @param bufferMarginSize the output buffer margin size
+     * @param recordCountLimit the number of limit records in each output buffer
+     * @param mergeThreshold the maximum number of merging scatter/gather input chunks
+     * @param mergeFactor the fraction to merge scatter/gather input with {@code mergeThreshold}
+     * @param pipelineBufferSize the max number of pending bytes in each pipelined one-to-one edge,
+     *    or {@code 0} to disable pipelining
+     * @param mergeThreads the number of threads to merge scatter/gather fragments in background,
+     *    or {@code 0} to merge them on the writer threads
+     * @param mergeBudget the max total bytes of fragments in each background merge operation
+     * @param profile the execution profile (nullable)
+     * @since 0.5.4
+     */
+    public BasicEdgeDriver(
+            ClassLoader classLoader,
+            GraphMirror graph, BufferPool pool, BlobStore blobs,
+            int numberOfPartitions,
+            int bufferSizeLimit, int bufferMarginSize, int recordCountLimit,
+            int mergeThreshold, double mergeFactor,
+            long pipelineBufferSize,
+            int mergeThreads, long mergeBudget,
+            ExecutionProfile profile) {
         Arguments.requireNonNull(classLoader);
         Arguments.requireNonNull(graph);
         Arguments.requireNonNull(pool);
         Arguments.require(numberOfPartitions > 0);
         Arguments.require(bufferSizeLimit >= 0);
         Arguments.require(recordCountLimit > 0);
+        Arguments.require(pipelineBufferSize >= 0);
+        Arguments.require(mergeThreads >= 0);
         this.classLoader = classLoader;
         this.graph = graph;
         this.pool = pool;
@@ -137,17 +276,65 @@ public class BasicEdgeDriver extends EdgeDriver.Abstract {
         this.bufferSizeLimit = bufferSizeLimit;
         this.bufferMarginSize = bufferMarginSize;
         this.recordCountLimit = recordCountLimit;
+        this.partitionStrategy = PartitionStrategy.getConfigured(classLoader);
+        this.profile = profile;
         int mergeCount = Math.max(2, Math.min(mergeThreshold, (int) (mergeThreshold * mergeFactor)));
-        Function<PortMirror, Supplier<FragmentStore>> fstore =
-                p -> () -> new FragmentStore(blobs, p.newComparator(classLoader), mergeThreshold, mergeCount);
+        this.merger = mergeThreads > 0 && mergeThreshold > 1 ? newMerger(mergeThreads) : null;
+        Function<PortMirror, Supplier<FragmentStore>> fstore = p -> () -> new FragmentStore(
+                blobs, p.newComparator(classLoader), mergeThreshold, mergeCount,
+                merger, mergeBudget, getProfile(p));
+        this.pipelined = pipelineBufferSize > 0 ? collectPipelined(graph) : new HashSet<>();
         this.sources = edges(graph, VertexMirror::getInputs,
-                p -> new FragmentSource());
+                p -> pipelined.contains(p.getId())
+                        ? new FragmentSource(new Pipe(pipelineBufferSize, p.getOpposites().size()), getProfile(p))
+                        : new FragmentSource(getProfile(p)));
         this.sinks = edges(graph, VertexMirror::getOutputs,
-                p -> new FragmentSink(pool, p.getOpposites().size()));
+                p -> pipelined.contains(p.getId())
+                        ? new FragmentSink(pool, 1, sources.get(p.getOpposites().iterator().next()).pipe,
+                                getProfile(p))
+                        : new FragmentSink(pool, p.getOpposites().size(), getProfile(p)));
         this.partSources = parts(graph, VertexMirror::getInputs,
-                p -> new PartitionedSource(numberOfPartitions, fstore.apply(p)));
+                p -> new PartitionedSource(numberOfPartitions, fstore.apply(p), getProfile(p)));
         this.partSinks = parts(graph, VertexMirror::getOutputs,
-                p -> new PartitionedSink(pool, numberOfPartitions, p.getOpposites().size(), fstore.apply(p)));
+                p -> new PartitionedSink(pool, numberOfPartitions, p.getOpposites().size(), fstore.apply(p),
+                        getProfile(p)));
+    }
+
+    private ExecutionProfile.Port getProfile(PortMirror port) {
+        if (profile == null) {
+            return null;
+        }
+        ExecutionProfile.Vertex vertex = profile.getVertex(port.getOwner().getId().getName());
+        String name = port.getId().getName();
+        return port instanceof InputPortMirror ? vertex.getInput(name) : vertex.getOutput(name);
+    }
+
+    private static ExecutorService newMerger(int numberOfThreads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(
+                numberOfThreads,
+                r -> Lang.let(new Thread(r), t -> {
+                    t.setName(String.format("vanilla-merge-%d", counter.incrementAndGet())); //$NON-NLS-1$
+                    t.setDaemon(true);
+                }));
+    }
+
+    private static Set<PortId> collectPipelined(GraphMirror graph) {
+        Set<PortId> results = new HashSet<>();
+        for (VertexMirror vertex : graph.getVertices()) {
+            for (InputPortMirror port : vertex.getInputs()) {
+                if (port.getMovement() == Movement.ONE_TO_ONE
+                        && port.getOpposites().isEmpty() == false
+                        && port.getOpposites().stream().allMatch(it -> it.getOpposites().size() == 1)) {
+                    results.add(port.getId());
+                    port.getOpposites().forEach(it -> results.add(it.getId()));
+                }
+            }
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("pipelined edge ports: {}", results);
+        }
+        return results;
     }
 
     private static <K extends PortMirror, V> Map<K, V> edges(
@@ -176,6 +363,11 @@ public class BasicEdgeDriver extends EdgeDriver.Abstract {
         return numberOfPartitions;
     }
 
+    @Override
+    public boolean isPipelined(PortId id) {
+        return pipelined.contains(id);
+    }
+
     @Override
     protected InputPortMirror getInput(PortId id) {
         return graph.getInput(id);
@@ -237,8 +429,9 @@ public class BasicEdgeDriver extends EdgeDriver.Abstract {
     protected ObjectWriter acquireScatterGatherOutput(OutputPortMirror port) throws IOException, InterruptedException {
         KeyValueSerDe serde = port.newKeyValueSerDe(classLoader);
         DataComparator comparator = port.newComparator(classLoader);
+        PartitionedSink sink = Invariants.requireNonNull(partSinks.get(port));
         return new StreamGroupWriter(
-                KeyValuePartitioner.stream(Arrays.asList(Invariants.requireNonNull(partSinks.get(port)).partitions)),
+                KeyValuePartitioner.stream(Arrays.asList(sink.partitions), partitionStrategy, sink.statistics),
                 serde, comparator,
                 bufferSizeLimit, bufferMarginSize, recordCountLimit,
                 pool.reserve(bufferSizeLimit));
@@ -271,6 +464,12 @@ public class BasicEdgeDriver extends EdgeDriver.Abstract {
     }
 
     private void complete(OutputPortMirror port) throws IOException, InterruptedException {
+        if (pipelined.contains(port.getId())) {
+            try (FragmentSink sink = sinks.remove(port)) {
+                Invariants.requireNonNull(sink.pipe).finish();
+            }
+            return;
+        }
         List<FragmentSource> destinations = port.getOpposites().stream()
                 .map(p -> Invariants.requireNonNull(sources.get(p)))
                 .collect(Collectors.toList());
@@ -292,10 +491,25 @@ public class BasicEdgeDriver extends EdgeDriver.Abstract {
                 .map(p -> Invariants.requireNonNull(partSources.get(p)))
                 .collect(Collectors.toList());
         try (PartitionedSink sink = partSinks.remove(port)) {
+            report(port, sink.statistics);
             sink.migrateTo(destinations);
         }
     }
 
+    private static void report(OutputPortMirror port, KeyValuePartitioner.Statistics statistics) {
+        double skew = statistics.getSkew();
+        if (skew >= SKEW_REPORT_THRESHOLD) {
+            if (LOG.isInfoEnabled()) {
+                LOG.info(MessageFormat.format(
+                        "scatter/gather output is skewed: {0} ({1})",
+                        port.getId(),
+                        statistics));
+            }
+        } else if (LOG.isDebugEnabled()) {
+            LOG.debug("scatter/gather output statistics: {} ({})", port.getId(), statistics);
+        }
+    }
+
     @Override
     public void close() throws IOException, InterruptedException {
         try (Closer closer = new Closer()) {
@@ -310,6 +524,11 @@ public class BasicEdgeDriver extends EdgeDriver.Abstract {
             if (pool instanceof Reportable) {
                 ((Reportable) pool).report();
             }
+        } finally {
+            // the stores wait for their running merge operations while closing
+            if (merger != null) {
+                merger.shutdownNow();
+            }
         }
     }
 
@@ -323,12 +542,26 @@ public class BasicEdgeDriver extends EdgeDriver.Abstract {
 
         private final FragmentStore store;
 
-        FragmentSource() {
-            this(new FragmentStore());
+        final Pipe pipe;
+
+        private final ExecutionProfile.Port profile;
+
+        FragmentSource(ExecutionProfile.Port profile) {
+            this(new FragmentStore(), null, profile);
+        }
+
+        FragmentSource(FragmentStore store, ExecutionProfile.Port profile) {
+            this(store, null, profile);
         }
 
-        FragmentSource(FragmentStore store) {
+        FragmentSource(Pipe pipe, ExecutionProfile.Port profile) {
+            this(new FragmentStore(), pipe, profile);
+        }
+
+        private FragmentSource(FragmentStore store, Pipe pipe, ExecutionProfile.Port profile) {
             this.store = store;
+            this.pipe = pipe;
+            this.profile = profile;
         }
 
         public void offer(Fragment fragment) throws IOException, InterruptedException {
@@ -336,6 +569,18 @@ public class BasicEdgeDriver extends EdgeDriver.Abstract {
         }
 
         public RecordCursor.Stream openOneToOne() {
+            if (pipe != null) {
+                // share chunks while the upstream is running
+                Pipe p = pipe;
+                return () -> {
+                    Fragment fragment = p.take();
+                    if (fragment == null) {
+                        return null;
+                    }
+                    profile(fragment);
+                    return new InternalRecordCursor(fragment.source);
+                };
+            }
             // share chunks
             FragmentStore s = store;
             return () -> {
@@ -343,6 +588,7 @@ public class BasicEdgeDriver extends EdgeDriver.Abstract {
                 if (fragment == null) {
                     return null;
                 }
+                profile(fragment);
                 return new InternalRecordCursor(fragment.source);
             };
         }
@@ -355,6 +601,7 @@ public class BasicEdgeDriver extends EdgeDriver.Abstract {
                 if (fragment == null) {
                     return null;
                 }
+                profile(fragment);
                 return BasicRecordCursor.newInstance(fragment.source.open());
             };
         }
@@ -379,6 +626,12 @@ public class BasicEdgeDriver extends EdgeDriver.Abstract {
                         cursors.size(),
                         size);
             }
+            if (profile != null) {
+                profile.addBytes(size);
+                if (cursors.size() >= 2) {
+                    profile.addMerge(cursors.size(), 0L);
+                }
+            }
             switch (cursors.size()) {
             case 0:
                 return new VoidKeyValueCursor();
@@ -389,9 +642,20 @@ public class BasicEdgeDriver extends EdgeDriver.Abstract {
             }
         }
 
+        private void profile(Fragment fragment) {
+            if (profile != null) {
+                profile.addBytes(fragment.size);
+            }
+        }
+
         @Override
         public void close() throws IOException, InterruptedException {
-            store.close();
+            try (Closer closer = new Closer()) {
+                closer.add(store);
+                if (pipe != null) {
+                    closer.add(pipe);
+                }
+            }
         }
     }
 
@@ -403,14 +667,30 @@ public class BasicEdgeDriver extends EdgeDriver.Abstract {
 
         private final FragmentStore store;
 
-        FragmentSink(BufferPool pool, int numberOfConsumers) {
-            this(pool, numberOfConsumers, new FragmentStore());
+        final Pipe pipe;
+
+        private final ExecutionProfile.Port profile;
+
+        FragmentSink(BufferPool pool, int numberOfConsumers, ExecutionProfile.Port profile) {
+            this(pool, numberOfConsumers, new FragmentStore(), null, profile);
+        }
+
+        FragmentSink(BufferPool pool, int numberOfConsumers, FragmentStore store, ExecutionProfile.Port profile) {
+            this(pool, numberOfConsumers, store, null, profile);
         }
 
-        FragmentSink(BufferPool pool, int numberOfConsumers, FragmentStore store) {
+        FragmentSink(BufferPool pool, int numberOfConsumers, Pipe pipe, ExecutionProfile.Port profile) {
+            this(pool, numberOfConsumers, new FragmentStore(), pipe, profile);
+        }
+
+        private FragmentSink(
+                BufferPool pool, int numberOfConsumers, FragmentStore store, Pipe pipe,
+                ExecutionProfile.Port profile) {
             this.pool = pool;
             this.priority = numberOfConsumers;
             this.store = store;
+            this.pipe = pipe;
+            this.profile = profile;
         }
 
         @Override
@@ -424,7 +704,15 @@ public class BasicEdgeDriver extends EdgeDriver.Abstract {
             Arguments.requireNonNull(written);
             Arguments.require(written instanceof InternalWriter);
             InternalWriter writer = (InternalWriter) written;
-            store.offer(writer.save(pool, priority));
+            Fragment fragment = writer.save(pool, priority);
+            if (profile != null) {
+                profile.addBytes(fragment.size);
+            }
+            if (pipe != null) {
+                pipe.put(fragment);
+            } else {
+                store.offer(fragment);
+            }
         }
 
         public void migrateTo(List<FragmentSource> downstreams) throws IOException, InterruptedException {
@@ -457,28 +745,62 @@ public class BasicEdgeDriver extends EdgeDriver.Abstract {
 
         private final int mergeCount;
 
+        private final ExecutorService executor;
+
+        private final long mergeBudget;
+
+        private final ExecutionProfile.Port profile;
+
         private final Queue<Fragment> queue = new ConcurrentLinkedQueue<>();
 
         private final AtomicInteger count = new AtomicInteger();
 
+        private int running;
+
+        private Throwable failure;
+
         FragmentStore() {
-            this(null, null, 0, 0);
+            this(null, null, 0, 0, null, 0L, null);
         }
 
-        FragmentStore(BlobStore blobs, DataComparator comparator, int mergeThreshold, int mergeCount) {
+        FragmentStore(
+                BlobStore blobs, DataComparator comparator, int mergeThreshold, int mergeCount,
+                ExecutorService executor, long mergeBudget, ExecutionProfile.Port profile) {
             this.blobs = blobs;
             this.comparator = comparator;
             this.mergeThreshold = mergeThreshold;
             this.mergeCount = mergeCount;
+            this.executor = executor;
+            this.mergeBudget = mergeBudget;
+            this.profile = profile;
         }
 
         void offer(Fragment fragment) throws IOException, InterruptedException {
             queue.offer(fragment);
             count.incrementAndGet();
-            merge();
+            if (executor == null) {
+                merge();
+            } else {
+                checkFailure();
+                mergeInBackground();
+            }
+        }
+
+        Fragment poll() throws IOException, InterruptedException {
+            if (executor != null) {
+                synchronized (this) {
+                    // fragments in merging must be returned after the merge operation was finished
+                    while (running > 0) {
+                        wait();
+                    }
+                    checkFailure();
+                    return poll0();
+                }
+            }
+            return poll0();
         }
 
-        Fragment poll() {
+        private Fragment poll0() {
             Fragment result = queue.poll();
             if (result == null) {
                 return null;
@@ -487,6 +809,92 @@ public class BasicEdgeDriver extends EdgeDriver.Abstract {
             return result;
         }
 
+        private void mergeInBackground() {
+            List<Fragment> targets;
+            synchronized (this) {
+                if (running > 0 || failure != null || count.get() <= mergeThreshold) {
+                    return;
+                }
+                targets = selectMergeTargets();
+                if (targets == null) {
+                    return;
+                }
+                running++;
+            }
+            try {
+                executor.execute(() -> runMerge(targets));
+            } catch (RejectedExecutionException e) {
+                LOG.debug("merge executor is not available", e);
+                synchronized (this) {
+                    targets.forEach(queue::offer);
+                    count.addAndGet(targets.size());
+                    running--;
+                    notifyAll();
+                }
+            }
+        }
+
+        private void runMerge(List<Fragment> targets) {
+            Fragment merged = null;
+            Throwable error = null;
+            try {
+                merged = doMerge(targets);
+            } catch (Throwable t) {
+                error = t;
+            }
+            synchronized (this) {
+                if (merged != null) {
+                    queue.offer(merged);
+                    count.incrementAndGet();
+                } else {
+                    failure = error;
+                }
+                running--;
+                notifyAll();
+            }
+            if (error == null) {
+                mergeInBackground();
+            } else {
+                LOG.error("error occurred while merging scatter/gather fragments", error);
+            }
+        }
+
+        private List<Fragment> selectMergeTargets() {
+            List<Fragment> fragments = new ArrayList<>(queue);
+            fragments.sort(Comparator.comparing((Fragment f) -> f.size));
+            List<Fragment> results = new ArrayList<>();
+            long total = 0;
+            for (Fragment fragment : fragments) {
+                if (results.size() >= mergeCount || total + fragment.size > mergeBudget) {
+                    break;
+                }
+                results.add(fragment);
+                total += fragment.size;
+            }
+            if (results.size() < 2) {
+                // larger fragments will be merged in the final gather operation
+                return null;
+            }
+            for (Fragment fragment : results) {
+                queue.remove(fragment);
+                count.decrementAndGet();
+            }
+            return results;
+        }
+
+        private void checkFailure() throws IOException {
+            Throwable t;
+            synchronized (this) {
+                t = failure;
+            }
+            if (t != null) {
+                Lang.rethrow(t, Error.class);
+                Lang.rethrow(t, RuntimeException.class);
+                Lang.rethrow(t, IOException.class);
+                throw new IOException(t);
+            }
+        }
+
         Queue<Fragment> entries() {
             return new ArrayDeque<>(queue);
         }
@@ -542,12 +950,22 @@ public class BasicEdgeDriver extends EdgeDriver.Abstract {
                             fragments.stream().mapToLong(it -> it.size).sum(),
                             size);
                 }
+                if (profile != null) {
+                    profile.addMerge(fragments.size(), size);
+                }
                 return new Fragment(blobs.commit(writer), size);
             }
         }
 
         @Override
         public void close() throws IOException, InterruptedException {
+            if (executor != null) {
+                synchronized (this) {
+                    while (running > 0) {
+                        wait();
+                    }
+                }
+            }
             try (Closer closer = new Closer()) {
                 while (true) {
                     Fragment next = queue.poll();
@@ -561,6 +979,78 @@ public class BasicEdgeDriver extends EdgeDriver.Abstract {
         }
     }
 
+    private static final class Pipe implements InterruptibleIo {
+
+        private final long bufferSize;
+
+        private final Queue<Fragment> queue = new ArrayDeque<>();
+
+        private long pendingBytes;
+
+        private int restProducers;
+
+        private boolean consuming;
+
+        private boolean closed;
+
+        Pipe(long bufferSize, int numberOfProducers) {
+            this.bufferSize = bufferSize;
+            this.restProducers = numberOfProducers;
+        }
+
+        void put(Fragment fragment) throws IOException, InterruptedException {
+            synchronized (this) {
+                // only blocks while the downstream is reading, to avoid dead-locks on serial execution
+                while (closed == false && consuming
+                        && pendingBytes > 0 && pendingBytes + fragment.size > bufferSize) {
+                    wait();
+                }
+                if (closed == false) {
+                    queue.offer(fragment);
+                    pendingBytes += fragment.size;
+                    notifyAll();
+                    return;
+                }
+            }
+            // the downstream has already gone
+            fragment.close();
+        }
+
+        synchronized Fragment take() throws InterruptedException {
+            consuming = true;
+            while (closed == false && restProducers > 0 && queue.isEmpty()) {
+                wait();
+            }
+            Fragment result = queue.poll();
+            if (result != null) {
+                pendingBytes -= result.size;
+                notifyAll();
+            }
+            return result;
+        }
+
+        synchronized void finish() {
+            Invariants.require(restProducers > 0);
+            restProducers--;
+            notifyAll();
+        }
+
+        @Override
+        public void close() throws IOException, InterruptedException {
+            List<Fragment> rest;
+            synchronized (this) {
+                closed = true;
+                rest = new ArrayList<>(queue);
+                queue.clear();
+                pendingBytes = 0;
+                notifyAll();
+            }
+            try (Closer closer = new Closer()) {
+                rest.forEach(closer::add);
+            }
+        }
+    }
+
     private static final class Fragment implements InterruptibleIo {
 
         final DataReader.Provider source;
@@ -582,8 +1072,9 @@ public class BasicEdgeDriver extends EdgeDriver.Abstract {
 
         final FragmentSource[] partitions;
 
-        PartitionedSource(int numberOfPartitions, Supplier<? extends FragmentStore> store) {
-            this.partitions = Stream.generate(() -> new FragmentSource(store.get()))
+        PartitionedSource(
+                int numberOfPartitions, Supplier<? extends FragmentStore> store, ExecutionProfile.Port profile) {
+            this.partitions = Stream.generate(() -> new FragmentSource(store.get(), profile))
                     .limit(numberOfPartitions)
                     .toArray(FragmentSource[]::new);
         }
@@ -608,12 +1099,15 @@ public class BasicEdgeDriver extends EdgeDriver.Abstract {
 
         final FragmentSink[] partitions;
 
+        final KeyValuePartitioner.Statistics statistics;
+
         PartitionedSink(
                 BufferPool pool, int numberOfPartitions,
-                int numerOfConsumers, Supplier<? extends FragmentStore> stores) {
+                int numerOfConsumers, Supplier<? extends FragmentStore> stores, ExecutionProfile.Port profile) {
             this.partitions = new FragmentSink[numberOfPartitions];
+            this.statistics = new KeyValuePartitioner.Statistics(numberOfPartitions);
             for (int i = 0; i < partitions.length; i++) {
-                partitions[i] = new FragmentSink(pool, numerOfConsumers, stores.get());
+                partitions[i] = new FragmentSink(pool, numerOfConsumers, stores.get(), profile);
             }
         }
 
@@ -0,0 +1,159 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.vanilla.core.engine;
+
+import java.io.IOException;
+
+import com.asakusafw.dag.api.processor.EdgeReader;
+import com.asakusafw.dag.api.processor.EdgeWriter;
+import com.asakusafw.dag.api.processor.GroupReader;
+import com.asakusafw.dag.api.processor.ObjectReader;
+import com.asakusafw.dag.api.processor.ObjectWriter;
+
+/**
+ * Counts records on edge readers and writers for {@link ExecutionProfile}.
+ * Each reader or writer counts records by itself, and adds them into the profile only when it is closed.
+ * @since 0.5.4
+ */
+final class CountingEdgeIo {
+
+    private CountingEdgeIo() {
+        return;
+    }
+
+    static EdgeReader wrap(EdgeReader reader, ExecutionProfile.Port profile) {
+        if (reader instanceof ObjectReader) {
+            return new CountingObjectReader((ObjectReader) reader, profile);
+        } else if (reader instanceof GroupReader) {
+            return new CountingGroupReader((GroupReader) reader, profile);
+        }
+        return reader;
+    }
+
+    static EdgeWriter wrap(EdgeWriter writer, ExecutionProfile.Port profile) {
+        if (writer instanceof ObjectWriter) {
+            return new CountingObjectWriter((ObjectWriter) writer, profile);
+        }
+        return writer;
+    }
+
+    private static final class CountingObjectReader implements ObjectReader {
+
+        private final ObjectReader delegate;
+
+        private final ExecutionProfile.Port profile;
+
+        private long count;
+
+        CountingObjectReader(ObjectReader delegate, ExecutionProfile.Port profile) {
+            this.delegate = delegate;
+            this.profile = profile;
+        }
+
+        @Override
+        public boolean nextObject() throws IOException, InterruptedException {
+            if (delegate.nextObject()) {
+                count++;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public Object getObject() throws IOException, InterruptedException {
+            return delegate.getObject();
+        }
+
+        @Override
+        public void close() throws IOException, InterruptedException {
+            profile.addRecords(count);
+            count = 0;
+            delegate.close();
+        }
+    }
+
+    private static final class CountingGroupReader implements GroupReader {
+
+        private final GroupReader delegate;
+
+        private final ExecutionProfile.Port profile;
+
+        private long count;
+
+        CountingGroupReader(GroupReader delegate, ExecutionProfile.Port profile) {
+            this.delegate = delegate;
+            this.profile = profile;
+        }
+
+        @Override
+        public boolean nextGroup() throws IOException, InterruptedException {
+            return delegate.nextGroup();
+        }
+
+        @Override
+        public GroupInfo getGroup() throws IOException, InterruptedException {
+            return delegate.getGroup();
+        }
+
+        @Override
+        public boolean nextObject() throws IOException, InterruptedException {
+            if (delegate.nextObject()) {
+                count++;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public Object getObject() throws IOException, InterruptedException {
+            return delegate.getObject();
+        }
+
+        @Override
+        public void close() throws IOException, InterruptedException {
+            profile.addRecords(count);
+            count = 0;
+            delegate.close();
+        }
+    }
+
+    private static final class CountingObjectWriter implements ObjectWriter {
+
+        private final ObjectWriter delegate;
+
+        private final ExecutionProfile.Port profile;
+
+        private long count;
+
+        CountingObjectWriter(ObjectWriter delegate, ExecutionProfile.Port profile) {
+            this.delegate = delegate;
+            this.profile = profile;
+        }
+
+        @Override
+        public void putObject(Object object) throws IOException, InterruptedException {
+            delegate.putObject(object);
+            count++;
+        }
+
+        @Override
+        public void close() throws IOException, InterruptedException {
+            profile.addRecords(count);
+            count = 0;
+            delegate.close();
+        }
+    }
+}
@@ -38,6 +38,7 @@ import com.asakusafw.vanilla.core.mirror.OutputPortMirror;
 /**
  * An abstract super interface of edge I/O operations.
  * @since 0.4.0
+ * @version 0.5.4
  */
 public interface EdgeDriver extends InterruptibleIo {
 
@@ -56,7 +57,7 @@ public interface EdgeDriver extends InterruptibleIo {
      * @throws IOException if I/O error was occurred while acquiring the reader
      * @throws InterruptedException if operation was interrupted while acquiring the reader
      * @throws IllegalStateException if the target port has been already {@link #complete(PortId) completed}, or
-     *    there are incomplete port in opposite of the target port
+     *    there are incomplete port in opposite of the target port (except {@link #isPipelined(PortId) pipelined})
      */
     EdgeReader acquireInput(PortId id, int taskIndex, int taskCount) throws IOException, InterruptedException;
 
@@ -79,6 +80,18 @@ public interface EdgeDriver extends InterruptibleIo {
      */
     void complete(PortId id) throws IOException, InterruptedException;
 
+    /**
+     * Returns whether or not the given port is on a pipelined edge.
+     * The input port on a pipelined edge can be acquired while its upstream ports are not completed yet, and
+     * its readers will wait for the upstream output until the upstream ports are completed.
+     * @param id the target port ID
+     * @return {@code true} if the port is on a pipelined edge, otherwise {@code false}
+     * @since 0.5.4
+     */
+    default boolean isPipelined(PortId id) {
+        return false;
+    }
+
     /**
      * An abstract implementation of {@link EdgeDriver}.
      * @since 0.4.0
@@ -226,8 +239,10 @@ public interface EdgeDriver extends InterruptibleIo {
             Arguments.require(id.getDirection() == PortInfo.Direction.INPUT);
             Invariants.require(completed.get(id) == null);
             InputPortMirror port = getInput(id);
-            for (OutputPortMirror upstream : port.getOpposites()) {
-                Invariants.require(completed.get(upstream.getId()) == State.DONE);
+            if (isPipelined(id) == false) {
+                for (OutputPortMirror upstream : port.getOpposites()) {
+                    Invariants.require(completed.get(upstream.getId()) == State.DONE);
+                }
             }
             LOG.trace("acquiring {}", id);
             switch (port.getMovement()) {
@@ -0,0 +1,654 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.vanilla.core.engine;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import com.asakusafw.lang.utils.common.Arguments;
+
+/**
+ * A profile of vertex executions, which is recorded by the vanilla engine while it is available as a resource of the
+ * root {@link com.asakusafw.dag.api.processor.ProcessorContext}.
+ * <p>
+ * Each event only updates a few counters: records are counted on the individual readers and writers, and the others
+ * are recorded once per task, data fragment, or merge operation.
+ * </p>
+ * @since 0.5.4
+ */
+public class ExecutionProfile {
+
+    /**
+     * The format version of {@link #write(Writer) the written profiles}.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    /**
+     * The value of unavailable time.
+     */
+    public static final long UNAVAILABLE = -1L;
+
+    private final Map<String, Vertex> vertices = new ConcurrentHashMap<>();
+
+    private volatile long elapsedTime = UNAVAILABLE;
+
+    private volatile long escapedBytes;
+
+    private volatile long stallTime;
+
+    /**
+     * Returns the profile of the given vertex.
+     * @param id the vertex ID
+     * @return the vertex profile
+     */
+    public Vertex getVertex(String id) {
+        Arguments.requireNonNull(id);
+        return vertices.computeIfAbsent(id, Vertex::new);
+    }
+
+    /**
+     * Returns the recorded vertex profiles.
+     * @return the vertex profiles, ordered by their ID
+     */
+    public List<Vertex> getVertices() {
+        return vertices.values().stream()
+                .sorted(Comparator.comparing(Vertex::getId))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the elapsed time of the whole graph.
+     * @return the elapsed time in nanoseconds, or {@link #UNAVAILABLE} if it is not recorded
+     */
+    public long getElapsedTime() {
+        return elapsedTime;
+    }
+
+    /**
+     * Sets the elapsed time of the whole graph.
+     * @param nanos the elapsed time in nanoseconds
+     */
+    public void setElapsedTime(long nanos) {
+        this.elapsedTime = nanos;
+    }
+
+    /**
+     * Returns the total size of buffers which have been escaped from the buffer pool.
+     * @return the escaped size in bytes
+     */
+    public long getEscapedBytes() {
+        return escapedBytes;
+    }
+
+    /**
+     * Returns the total time while reservations of the buffer pool were stalled.
+     * @return the stall time in milliseconds
+     */
+    public long getStallTime() {
+        return stallTime;
+    }
+
+    /**
+     * Sets the statistics of the buffer pool.
+     * @param bytes the total size of escaped buffers in bytes
+     * @param millis the total stall time in milliseconds
+     */
+    public void setBufferPoolStatistics(long bytes, long millis) {
+        this.escapedBytes = bytes;
+        this.stallTime = millis;
+    }
+
+    /**
+     * Writes this profile as a JSON object.
+     * The members are always written in the same order, so that the profiles of different runs can be compared
+     * line by line.
+     * @param writer the destination
+     * @throws IOException if I/O error was occurred while writing the profile
+     */
+    public void write(Writer writer) throws IOException {
+        Arguments.requireNonNull(writer);
+        JsonWriter json = new JsonWriter(writer);
+        json.begin('{');
+        json.member("version", FORMAT_VERSION); //$NON-NLS-1$
+        json.member("elapsedNanos", elapsedTime); //$NON-NLS-1$
+        json.name("bufferPool"); //$NON-NLS-1$
+        json.begin('{');
+        json.member("escapedBytes", escapedBytes); //$NON-NLS-1$
+        json.member("stallMillis", stallTime); //$NON-NLS-1$
+        json.end('}');
+        json.name("vertices"); //$NON-NLS-1$
+        json.begin('[');
+        for (Vertex vertex : getVertices()) {
+            vertex.write(json);
+        }
+        json.end(']');
+        json.end('}');
+        writer.write('\n');
+        writer.flush();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ExecutionProfile(vertices=%d)", vertices.size()); //$NON-NLS-1$
+    }
+
+    /**
+     * A profile of each vertex.
+     * @since 0.5.4
+     */
+    public static final class Vertex {
+
+        // task IDs share the vertex ID as their prefix, so that this orders them by their serial number
+        private static final Comparator<String> TASK_ID_ORDER = Comparator
+                .comparingInt(String::length)
+                .thenComparing(Comparator.naturalOrder());
+
+        private final String id;
+
+        private volatile String label;
+
+        private volatile long elapsedTime = UNAVAILABLE;
+
+        private volatile long initializeTime = UNAVAILABLE;
+
+        private final Queue<Task> tasks = new ConcurrentLinkedQueue<>();
+
+        private final Map<String, Port> inputs = new ConcurrentHashMap<>();
+
+        private final Map<String, Port> outputs = new ConcurrentHashMap<>();
+
+        Vertex(String id) {
+            this.id = id;
+        }
+
+        /**
+         * Returns the vertex ID.
+         * @return the vertex ID
+         */
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * Returns the label of the vertex processor.
+         * @return the label, or {@code null} if it is not recorded
+         */
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * Sets the label of the vertex processor.
+         * @param value the label
+         */
+        public void setLabel(String value) {
+            this.label = value;
+        }
+
+        /**
+         * Returns the elapsed time of the vertex.
+         * @return the elapsed time in nanoseconds, or {@link ExecutionProfile#UNAVAILABLE} if it is not recorded
+         */
+        public long getElapsedTime() {
+            return elapsedTime;
+        }
+
+        /**
+         * Sets the elapsed time of the vertex.
+         * @param nanos the elapsed time in nanoseconds
+         */
+        public void setElapsedTime(long nanos) {
+            this.elapsedTime = nanos;
+        }
+
+        /**
+         * Returns the elapsed time of initializing the vertex processor.
+         * @return the elapsed time in nanoseconds, or {@link ExecutionProfile#UNAVAILABLE} if it is not recorded
+         */
+        public long getInitializeTime() {
+            return initializeTime;
+        }
+
+        /**
+         * Sets the elapsed time of initializing the vertex processor.
+         * @param nanos the elapsed time in nanoseconds
+         */
+        public void setInitializeTime(long nanos) {
+            this.initializeTime = nanos;
+        }
+
+        /**
+         * Adds a finished task.
+         * @param taskId the task ID
+         * @param wallTime the elapsed time in nanoseconds
+         * @param cpuTime the CPU time in nanoseconds, or {@link ExecutionProfile#UNAVAILABLE} if it is not available
+         */
+        public void addTask(String taskId, long wallTime, long cpuTime) {
+            Arguments.requireNonNull(taskId);
+            tasks.add(new Task(taskId, wallTime, cpuTime));
+        }
+
+        /**
+         * Returns the finished tasks.
+         * @return the finished tasks, ordered by their ID
+         */
+        public List<Task> getTasks() {
+            return tasks.stream()
+                    .sorted(Comparator.comparing(Task::getId, TASK_ID_ORDER))
+                    .collect(Collectors.toList());
+        }
+
+        /**
+         * Returns the profile of the given input port.
+         * @param name the port name
+         * @return the port profile
+         */
+        public Port getInput(String name) {
+            Arguments.requireNonNull(name);
+            return inputs.computeIfAbsent(name, Port::new);
+        }
+
+        /**
+         * Returns the profile of the given output port.
+         * @param name the port name
+         * @return the port profile
+         */
+        public Port getOutput(String name) {
+            Arguments.requireNonNull(name);
+            return outputs.computeIfAbsent(name, Port::new);
+        }
+
+        /**
+         * Returns the recorded input port profiles.
+         * @return the input port profiles, ordered by their name
+         */
+        public List<Port> getInputs() {
+            return new ArrayList<>(new TreeMap<>(inputs).values());
+        }
+
+        /**
+         * Returns the recorded output port profiles.
+         * @return the output port profiles, ordered by their name
+         */
+        public List<Port> getOutputs() {
+            return new ArrayList<>(new TreeMap<>(outputs).values());
+        }
+
+        void write(JsonWriter json) throws IOException {
+            json.begin('{');
+            json.member("id", id); //$NON-NLS-1$
+            json.member("label", label); //$NON-NLS-1$
+            json.member("elapsedNanos", elapsedTime); //$NON-NLS-1$
+            json.member("initializeNanos", initializeTime); //$NON-NLS-1$
+            json.name("tasks"); //$NON-NLS-1$
+            json.begin('[');
+            for (Task task : getTasks()) {
+                task.write(json);
+            }
+            json.end(']');
+            json.name("inputs"); //$NON-NLS-1$
+            json.begin('[');
+            for (Port port : getInputs()) {
+                port.write(json);
+            }
+            json.end(']');
+            json.name("outputs"); //$NON-NLS-1$
+            json.begin('[');
+            for (Port port : getOutputs()) {
+                port.write(json);
+            }
+            json.end(']');
+            json.end('}');
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Vertex(id=%s, tasks=%d)", id, tasks.size()); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * A profile of each finished task.
+     * @since 0.5.4
+     */
+    public static final class Task {
+
+        private final String id;
+
+        private final long wallTime;
+
+        private final long cpuTime;
+
+        Task(String id, long wallTime, long cpuTime) {
+            this.id = id;
+            this.wallTime = wallTime;
+            this.cpuTime = cpuTime;
+        }
+
+        /**
+         * Returns the task ID.
+         * @return the task ID
+         */
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * Returns the elapsed time of the task.
+         * @return the elapsed time in nanoseconds
+         */
+        public long getWallTime() {
+            return wallTime;
+        }
+
+        /**
+         * Returns the CPU time of the task.
+         * @return the CPU time in nanoseconds, or {@link ExecutionProfile#UNAVAILABLE} if it is not available
+         */
+        public long getCpuTime() {
+            return cpuTime;
+        }
+
+        void write(JsonWriter json) throws IOException {
+            json.inline(() -> {
+                json.member("id", id); //$NON-NLS-1$
+                json.member("wallNanos", wallTime); //$NON-NLS-1$
+                json.member("cpuNanos", cpuTime); //$NON-NLS-1$
+            });
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Task(id=%s, wall=%,dns, cpu=%,dns)", id, wallTime, cpuTime); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * A profile of each input or output port.
+     * @since 0.5.4
+     */
+    public static final class Port {
+
+        private final String name;
+
+        private final LongAdder records = new LongAdder();
+
+        private final LongAdder bytes = new LongAdder();
+
+        private final LongAdder spilledBytes = new LongAdder();
+
+        private final LongAdder merges = new LongAdder();
+
+        private final LongAdder mergeFanIn = new LongAdder();
+
+        private final LongAccumulator maxMergeFanIn = new LongAccumulator(Math::max, 0L);
+
+        Port(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Returns the port name.
+         * @return the port name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Adds the number of records which have been passed through the port.
+         * @param count the number of records
+         */
+        public void addRecords(long count) {
+            records.add(count);
+        }
+
+        /**
+         * Adds the size of serialized data which have been passed through the port.
+         * @param size the data size in bytes
+         */
+        public void addBytes(long size) {
+            bytes.add(size);
+        }
+
+        /**
+         * Adds a merge operation of data fragments.
+         * @param fanIn the number of merged fragments
+         * @param spilled the number of bytes which are written into the BLOB store, or {@code 0} if the merged
+         *     fragment is not stored
+         */
+        public void addMerge(int fanIn, long spilled) {
+            merges.increment();
+            mergeFanIn.add(fanIn);
+            maxMergeFanIn.accumulate(fanIn);
+            spilledBytes.add(spilled);
+        }
+
+        /**
+         * Returns the number of records which have been passed through the port.
+         * @return the number of records
+         */
+        public long getRecords() {
+            return records.sum();
+        }
+
+        /**
+         * Returns the size of serialized data which have been passed through the port.
+         * @return the data size in bytes
+         */
+        public long getBytes() {
+            return bytes.sum();
+        }
+
+        /**
+         * Returns the size of merged data which have been written into the BLOB store.
+         * @return the spilled size in bytes
+         */
+        public long getSpilledBytes() {
+            return spilledBytes.sum();
+        }
+
+        /**
+         * Returns the number of merge operations.
+         * @return the number of merge operations
+         */
+        public long getMerges() {
+            return merges.sum();
+        }
+
+        /**
+         * Returns the total number of fragments which have been merged.
+         * @return the total fan-in of merge operations
+         */
+        public long getMergeFanIn() {
+            return mergeFanIn.sum();
+        }
+
+        /**
+         * Returns the largest number of fragments which have been merged at once.
+         * @return the max fan-in of merge operations
+         */
+        public long getMaxMergeFanIn() {
+            return maxMergeFanIn.get();
+        }
+
+        void write(JsonWriter json) throws IOException {
+            json.inline(() -> {
+                json.member("name", name); //$NON-NLS-1$
+                json.member("records", getRecords()); //$NON-NLS-1$
+                json.member("bytes", getBytes()); //$NON-NLS-1$
+                json.member("spilledBytes", getSpilledBytes()); //$NON-NLS-1$
+                json.member("merges", getMerges()); //$NON-NLS-1$
+                json.member("mergeFanIn", getMergeFanIn()); //$NON-NLS-1$
+                json.member("maxMergeFanIn", getMaxMergeFanIn()); //$NON-NLS-1$
+            });
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Port(name=%s, records=%,d, bytes=%,d)", name, getRecords(), getBytes()); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Writes JSON values, one member or element per line except inlined objects.
+     */
+    static final class JsonWriter {
+
+        private static final String INDENT = "  "; //$NON-NLS-1$
+
+        private final Writer writer;
+
+        private int depth;
+
+        private boolean first = true;
+
+        private boolean inline;
+
+        private boolean named;
+
+        JsonWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        void begin(char open) throws IOException {
+            prefix();
+            writer.write(open);
+            depth++;
+            first = true;
+        }
+
+        void end(char close) throws IOException {
+            depth--;
+            if (first == false) {
+                newLine();
+            }
+            writer.write(close);
+            first = false;
+        }
+
+        void inline(IoAction members) throws IOException {
+            prefix();
+            writer.write('{');
+            inline = true;
+            first = true;
+            members.perform();
+            inline = false;
+            writer.write('}');
+            first = false;
+        }
+
+        void name(String name) throws IOException {
+            prefix();
+            string(name);
+            writer.write(": "); //$NON-NLS-1$
+            named = true;
+        }
+
+        void member(String name, long value) throws IOException {
+            name(name);
+            prefix();
+            writer.write(Long.toString(value));
+        }
+
+        void member(String name, String value) throws IOException {
+            name(name);
+            prefix();
+            if (value == null) {
+                writer.write("null"); //$NON-NLS-1$
+            } else {
+                string(value);
+            }
+        }
+
+        private void prefix() throws IOException {
+            if (named) {
+                // values directly follow their name
+                named = false;
+                return;
+            }
+            if (depth == 0) {
+                return;
+            }
+            if (first == false) {
+                writer.write(',');
+                if (inline) {
+                    writer.write(' ');
+                }
+            }
+            if (inline == false) {
+                newLine();
+            }
+            first = false;
+        }
+
+        private void newLine() throws IOException {
+            writer.write('\n');
+            for (int i = 0; i < depth; i++) {
+                writer.write(INDENT);
+            }
+        }
+
+        private void string(String value) throws IOException {
+            writer.write('"');
+            for (int i = 0, n = value.length(); i < n; i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                case '"':
+                    writer.write("\\\""); //$NON-NLS-1$
+                    break;
+                case '\\':
+                    writer.write("\\\\"); //$NON-NLS-1$
+                    break;
+                case '\n':
+                    writer.write("\\n"); //$NON-NLS-1$
+                    break;
+                case '\r':
+                    writer.write("\\r"); //$NON-NLS-1$
+                    break;
+                case '\t':
+                    writer.write("\\t"); //$NON-NLS-1$
+                    break;
+                default:
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c)); //$NON-NLS-1$
+                    } else {
+                        writer.write(c);
+                    }
+                    break;
+                }
+            }
+            writer.write('"');
+        }
+
+        @FunctionalInterface
+        interface IoAction {
+
+            void perform() throws IOException;
+        }
+    }
+}
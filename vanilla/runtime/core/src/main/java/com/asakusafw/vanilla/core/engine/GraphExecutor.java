@@ -17,10 +17,20 @@ package com.asakusafw.vanilla.core.engine;
 
 import java.io.IOException;
 import java.text.MessageFormat;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
@@ -31,18 +41,33 @@ import com.asakusafw.lang.utils.common.Arguments;
 import com.asakusafw.lang.utils.common.InterruptibleIo;
 import com.asakusafw.lang.utils.common.Invariants;
 import com.asakusafw.lang.utils.common.Lang;
+import com.asakusafw.vanilla.core.io.BasicBufferPool;
+import com.asakusafw.vanilla.core.io.BufferPool;
 import com.asakusafw.vanilla.core.mirror.GraphMirror;
+import com.asakusafw.vanilla.core.mirror.InputPortMirror;
+import com.asakusafw.vanilla.core.mirror.OutputPortMirror;
 import com.asakusafw.vanilla.core.mirror.PortMirror;
 import com.asakusafw.vanilla.core.mirror.VertexMirror;
 
 /**
  * Executes graphs.
+ * <p>
+ * If the number of concurrent vertices is greater than {@code 1}, this executes all ready vertices concurrently
+ * on the shared thread pool. In this case, {@link VertexScheduler} only provides a priority hint of vertices,
+ * and each vertex is admitted only if the number of running vertices does not exceed the limit and
+ * the buffer pool (if it is specified) has not been exceeded its limit.
+ * A vertex whose inputs are {@link EdgeDriver#isPipelined(com.asakusafw.dag.api.model.PortId) pipelined} can
+ * be admitted while the upstream vertices are running, after all of their tasks have been submitted.
+ * </p>
  * @since 0.4.0
+ * @version 0.5.4
  */
 public class GraphExecutor implements InterruptibleIo.IoRunnable {
 
     static final Logger LOG = LoggerFactory.getLogger(GraphExecutor.class);
 
+    private static final long PIPELINE_POLL_INTERVAL = 100L;
+
     private final ProcessorContext context;
 
     private final GraphMirror graph;
@@ -53,6 +78,10 @@ public class GraphExecutor implements InterruptibleIo.IoRunnable {
 
     private final int numberOfThreads;
 
+    private final int numberOfConcurrentVertices;
+
+    private final BufferPool pool;
+
     /**
      * Creates a new instance.
      * @param context the root context
@@ -64,57 +93,218 @@ public class GraphExecutor implements InterruptibleIo.IoRunnable {
     public GraphExecutor(
             ProcessorContext context, GraphMirror graph,
             VertexScheduler scheduler, EdgeDriver edges, int numberOfThreads) {
+        this(context, graph, scheduler, edges, numberOfThreads, 1, null);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param context the root context
+     * @param graph the target graph
+     * @param scheduler the scheduler
+     * @param edges the edge driver
+     * @param numberOfThreads the number of available {@code threads}
+     * @param numberOfConcurrentVertices the max number of concurrently running vertices
+     * @param pool the buffer pool to restrict admission of vertices, or {@code null} if it is not restricted
+     * @since 0.5.4
+     */
+    public GraphExecutor(
+            ProcessorContext context, GraphMirror graph,
+            VertexScheduler scheduler, EdgeDriver edges, int numberOfThreads,
+            int numberOfConcurrentVertices, BufferPool pool) {
         Arguments.requireNonNull(context);
         Arguments.requireNonNull(graph);
         Arguments.requireNonNull(scheduler);
         Arguments.requireNonNull(edges);
         Arguments.require(numberOfThreads >= 1);
+        Arguments.require(numberOfConcurrentVertices >= 1);
         this.context = context;
         this.graph = graph;
         this.scheduler = scheduler;
         this.edges = edges;
         this.numberOfThreads = numberOfThreads;
+        this.numberOfConcurrentVertices = numberOfConcurrentVertices;
+        this.pool = pool;
     }
 
     @Override
     public void run() throws IOException, InterruptedException {
         long start = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
         int numberOfVertices = graph.getVertices().size();
         LOG.info(MessageFormat.format(
                 "start graph: vertices={0}",
                 numberOfVertices));
         Set<VertexMirror> finished = new HashSet<>();
+        BasicBroadcastCache cache = new BasicBroadcastCache(graph);
         try (VertexScheduler.Stream schedule = scheduler.schedule(graph);
                 ThreadPool threads = new ThreadPool(numberOfThreads)) {
-            while (true) {
-                VertexMirror vertex = schedule.poll();
-                if (vertex == null) {
-                    break;
-                }
-                Invariants.require(finished.contains(vertex) == false);
-                Invariants.require(vertex.getInputs().stream()
-                        .flatMap(p -> p.getOpposites().stream())
-                        .map(PortMirror::getOwner)
-                        .allMatch(finished::contains));
-                VertexExecutor child = new VertexExecutor(context, vertex, edges, threads.executor, numberOfThreads);
-                child.run();
-                finished.add(vertex);
-                if (LOG.isDebugEnabled()) {
-                    LOG.debug("completed: vertices={}/{} ({})", finished.size(), numberOfVertices, edges);
-                }
+            if (numberOfConcurrentVertices <= 1) {
+                runSerial(schedule, threads, cache, finished);
+            } else {
+                runConcurrent(schedule, threads, cache, finished);
             }
         }
         Invariants.require(finished.size() == numberOfVertices);
+        ExecutionProfile profile = context.getResource(ExecutionProfile.class).orElse(null);
+        if (profile != null) {
+            profile.setElapsedTime(System.nanoTime() - startNanos);
+            if (pool instanceof BasicBufferPool) {
+                BasicBufferPool p = (BasicBufferPool) pool;
+                profile.setBufferPoolStatistics(p.getEscapedSize(), p.getStallTime());
+            }
+        }
         LOG.info(MessageFormat.format(
                 "finish graph: vertices={0}, elapsed={1}ms",
                 numberOfVertices,
                 System.currentTimeMillis() - start));
     }
 
+    private void runSerial(
+            VertexScheduler.Stream schedule, ThreadPool threads, BasicBroadcastCache cache,
+            Set<VertexMirror> finished) throws IOException, InterruptedException {
+        while (true) {
+            VertexMirror vertex = schedule.poll();
+            if (vertex == null) {
+                break;
+            }
+            Invariants.require(finished.contains(vertex) == false);
+            Invariants.require(isReady(vertex, finished));
+            VertexExecutor child = new VertexExecutor(
+                    context, vertex, edges, threads.executor, numberOfThreads, cache);
+            child.run();
+            finished.add(vertex);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("completed: vertices={}/{} ({})", finished.size(), graph.getVertices().size(), edges);
+            }
+        }
+    }
+
+    private void runConcurrent(
+            VertexScheduler.Stream schedule, ThreadPool threads, BasicBroadcastCache cache,
+            Set<VertexMirror> finished) throws IOException, InterruptedException {
+        // the scheduled order is only used as a priority hint
+        List<VertexMirror> pending = new LinkedList<>();
+        while (true) {
+            VertexMirror vertex = schedule.poll();
+            if (vertex == null) {
+                break;
+            }
+            Invariants.require(pending.contains(vertex) == false);
+            pending.add(vertex);
+        }
+        Map<VertexMirror, VertexExecutor> running = new HashMap<>();
+        // concurrent vertices share the threads, so that each one can start only its own part of them
+        int threadBudget = Math.max(numberOfThreads / numberOfConcurrentVertices, 1);
+        CompletionService<VertexMirror> completion = new ExecutorCompletionService<>(threads.coordinator);
+        while (pending.isEmpty() == false || running.isEmpty() == false) {
+            boolean deferred = false;
+            for (Iterator<VertexMirror> iter = pending.iterator(); iter.hasNext();) {
+                if (isAdmissible(running.keySet()) == false) {
+                    break;
+                }
+                VertexMirror vertex = iter.next();
+                if (isReady(vertex, finished, running) == false) {
+                    deferred |= hasPipelinedInput(vertex);
+                    continue;
+                }
+                iter.remove();
+                VertexExecutor child = new VertexExecutor(
+                        context, vertex, edges, threads.executor, numberOfThreads, threadBudget, cache);
+                running.put(vertex, child);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("admitted: {} (running={}, {})", vertex.getId().getName(), running.size(), edges);
+                }
+                completion.submit(() -> {
+                    child.run();
+                    return vertex;
+                });
+            }
+            Invariants.require(running.isEmpty() == false);
+            // pipelined vertices may become ready without completion of any other vertices
+            Future<VertexMirror> next = deferred
+                    ? completion.poll(PIPELINE_POLL_INTERVAL, TimeUnit.MILLISECONDS)
+                    : completion.take();
+            if (next == null) {
+                continue;
+            }
+            VertexMirror vertex = get(next);
+            running.remove(vertex);
+            finished.add(vertex);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("completed: vertices={}/{}, running={} ({})",
+                        finished.size(), graph.getVertices().size(), running.size(), edges);
+            }
+        }
+    }
+
+    private boolean isAdmissible(Set<VertexMirror> running) {
+        if (running.isEmpty()) {
+            return true;
+        }
+        if (running.size() >= numberOfConcurrentVertices) {
+            return false;
+        }
+        if (pool != null && pool.getSize() >= pool.getLimit()) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("deferred admission: running={} ({})", running.size(), pool);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isReady(
+            VertexMirror vertex, Set<VertexMirror> finished, Map<VertexMirror, VertexExecutor> running) {
+        for (InputPortMirror port : vertex.getInputs()) {
+            boolean pipelined = edges.isPipelined(port.getId());
+            for (OutputPortMirror upstream : port.getOpposites()) {
+                VertexMirror owner = upstream.getOwner();
+                if (finished.contains(owner)) {
+                    continue;
+                }
+                // the upstream tasks must be submitted before the downstream tasks, or they may starve
+                VertexExecutor executor = running.get(owner);
+                if (pipelined && executor != null && executor.isSubmitted()) {
+                    continue;
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean hasPipelinedInput(VertexMirror vertex) {
+        return vertex.getInputs().stream()
+                .map(PortMirror::getId)
+                .anyMatch(edges::isPipelined);
+    }
+
+    private static boolean isReady(VertexMirror vertex, Set<VertexMirror> finished) {
+        return vertex.getInputs().stream()
+                .flatMap(p -> p.getOpposites().stream())
+                .map(PortMirror::getOwner)
+                .allMatch(finished::contains);
+    }
+
+    private static VertexMirror get(Future<VertexMirror> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable t = e.getCause();
+            Lang.rethrow(t, Error.class);
+            Lang.rethrow(t, RuntimeException.class);
+            Lang.rethrow(t, IOException.class);
+            Lang.rethrow(t, InterruptedException.class);
+            throw new IOException(t);
+        }
+    }
+
     private static final class ThreadPool implements AutoCloseable {
 
         final ExecutorService executor;
 
+        final ExecutorService coordinator;
+
         ThreadPool(int numberOfThreads) {
             AtomicInteger counter = new AtomicInteger();
             this.executor = Executors.newFixedThreadPool(
@@ -123,10 +313,17 @@ public class GraphExecutor implements InterruptibleIo.IoRunnable {
                         t.setName(String.format("vanilla-%d", counter.incrementAndGet())); //$NON-NLS-1$
                         t.setDaemon(true);
                     }));
+            AtomicInteger coordinators = new AtomicInteger();
+            this.coordinator = Executors.newCachedThreadPool(
+                    r -> Lang.let(new Thread(r), t -> {
+                        t.setName(String.format("vanilla-vertex-%d", coordinators.incrementAndGet())); //$NON-NLS-1$
+                        t.setDaemon(true);
+                    }));
         }
 
         @Override
         public void close() {
+            coordinator.shutdownNow();
             executor.shutdownNow();
         }
     }
@@ -16,25 +16,25 @@
 package com.asakusafw.vanilla.core.engine;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.text.MessageFormat;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,6 +45,7 @@ import com.asakusafw.dag.api.processor.EdgeIoProcessorContext;
 import com.asakusafw.dag.api.processor.EdgeReader;
 import com.asakusafw.dag.api.processor.EdgeWriter;
 import com.asakusafw.dag.api.processor.ProcessorContext;
+import com.asakusafw.dag.api.processor.SplittableTaskInfo;
 import com.asakusafw.dag.api.processor.TaskInfo;
 import com.asakusafw.dag.api.processor.TaskProcessor;
 import com.asakusafw.dag.api.processor.TaskProcessorContext;
@@ -53,6 +54,8 @@ import com.asakusafw.dag.api.processor.VertexProcessor;
 import com.asakusafw.dag.api.processor.VertexProcessorContext;
 import com.asakusafw.dag.api.processor.basic.ForwardEdgeIoProcessorContext;
 import com.asakusafw.dag.api.processor.basic.ForwardProcessorContext;
+import com.asakusafw.dag.api.processor.extension.BroadcastCache;
+import com.asakusafw.dag.api.processor.extension.ThreadBudget;
 import com.asakusafw.dag.api.processor.extension.ProcessorContextDecorator;
 import com.asakusafw.lang.utils.common.Arguments;
 import com.asakusafw.lang.utils.common.InterruptibleIo;
@@ -65,7 +68,16 @@ import com.asakusafw.vanilla.core.mirror.VertexMirror;
 
 /**
  * Executes vertices.
+ * <p>
+ * If {@link ExecutionProfile} is available in the root context, this records the vertex and its tasks into it.
+ * </p>
+ * <p>
+ * If the vertex does not have any scatter-gather inputs, the idle workers take over parts of the
+ * {@link SplittableTaskInfo splittable tasks}: they split the pending tasks, or steal the rest of the running tasks
+ * if there are no pending tasks. The parts share the task index with their origin.
+ * </p>
  * @since 0.4.0
+ * @version 0.5.4
  */
 public class VertexExecutor implements InterruptibleIo.IoRunnable {
 
@@ -79,8 +91,16 @@ public class VertexExecutor implements InterruptibleIo.IoRunnable {
 
     private final int numberOfThreads;
 
+    private final int threadBudget;
+
     private final ProcessorContextDecorator decorator;
 
+    private final BasicBroadcastCache cache;
+
+    private final ExecutionProfile.Vertex profile;
+
+    private volatile boolean submitted;
+
     /**
      * Creates a new instance.
      * @param context the root context
@@ -95,26 +115,76 @@ public class VertexExecutor implements InterruptibleIo.IoRunnable {
             EdgeDriver edges,
             ExecutorService threads,
             int numberOfThreads) {
+        this(context, vertex, edges, threads, numberOfThreads, null);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param context the root context
+     * @param vertex the target vertex
+     * @param edges the edge driver
+     * @param threads the task executor
+     * @param numberOfThreads the number of available {@code threads}
+     * @param cache the graph scoped broadcast cache (nullable)
+     * @since 0.5.4
+     */
+    public VertexExecutor(
+            ProcessorContext context,
+            VertexMirror vertex,
+            EdgeDriver edges,
+            ExecutorService threads,
+            int numberOfThreads,
+            BasicBroadcastCache cache) {
+        this(context, vertex, edges, threads, numberOfThreads, numberOfThreads, cache);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param context the root context
+     * @param vertex the target vertex
+     * @param edges the edge driver
+     * @param threads the task executor
+     * @param numberOfThreads the number of available {@code threads}
+     * @param threadBudget the number of threads which the vertex processor can start by itself,
+     *     provided as {@link ThreadBudget}
+     * @param cache the graph scoped broadcast cache (nullable)
+     * @since 0.5.4
+     */
+    public VertexExecutor(
+            ProcessorContext context,
+            VertexMirror vertex,
+            EdgeDriver edges,
+            ExecutorService threads,
+            int numberOfThreads,
+            int threadBudget,
+            BasicBroadcastCache cache) {
         Arguments.requireNonNull(context);
         Arguments.requireNonNull(vertex);
         Arguments.requireNonNull(edges);
         Arguments.requireNonNull(threads);
         Arguments.require(numberOfThreads >= 1);
-        this.context = new EdgeIoContext(context, vertex, edges);
+        Arguments.require(threadBudget >= 1);
+        this.profile = context.getResource(ExecutionProfile.class)
+                .map(it -> it.getVertex(vertex.getId().getName()))
+                .orElse(null);
+        this.context = new EdgeIoContext(context, vertex, edges, profile);
         this.vertex = vertex;
         this.executor = threads;
         this.numberOfThreads = numberOfThreads;
+        this.threadBudget = threadBudget;
         this.decorator = context.getResource(ProcessorContextDecorator.class)
                 .orElse(ProcessorContextDecorator.NULL);
+        this.cache = cache;
     }
 
     @Override
     public void run() throws IOException, InterruptedException {
         long start = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
         String label = "N/A"; //$NON-NLS-1$
         try (VertexProcessor processor = vertex.newProcessor(context.getClassLoader())) {
             label = processor.toString();
-            List<TaskProcessorContext> tasks = doInitialize(processor);
+            TaskQueue tasks = doInitialize(processor);
             doRun(processor, tasks);
         } catch (Exception e) {
             LOG.error(MessageFormat.format(
@@ -122,10 +192,18 @@ public class VertexExecutor implements InterruptibleIo.IoRunnable {
                     vertex.getId().getName(),
                     label), e);
             throw e;
+        } finally {
+            if (cache != null) {
+                cache.release(vertex);
+            }
         }
 
         doFinalize(label);
 
+        if (profile != null) {
+            profile.setLabel(label);
+            profile.setElapsedTime(System.nanoTime() - startNanos);
+        }
         if (LOG.isInfoEnabled()) {
             LOG.info(MessageFormat.format(
                     "finish vertex: {2} ({1}) in {0}ms",
@@ -135,16 +213,21 @@ public class VertexExecutor implements InterruptibleIo.IoRunnable {
         }
     }
 
-    private List<TaskProcessorContext> doInitialize(
+    private TaskQueue doInitialize(
             VertexProcessor processor) throws IOException, InterruptedException {
-        VertexProcessorContext vContext = decorator.bless(new VertexContext(context, vertex));
+        VertexProcessorContext vContext = decorator.bless(new VertexContext(context, vertex,
+                cache == null ? null : cache.bind(vertex), () -> threadBudget));
 
         if (LOG.isDebugEnabled()) {
             LOG.debug("initialize vertex: processor={}, vertex={}",
                     processor,
                     vertex.getId().getName());
         }
+        long start = System.nanoTime();
         Optional<? extends TaskSchedule> schedule = processor.initialize(vContext);
+        if (profile != null) {
+            profile.setInitializeTime(System.nanoTime() - start);
+        }
 
         // broadcast inputs are only available in VertexProcessor.initialize()
         for (PortMirror port : vertex.getInputs()) {
@@ -158,26 +241,18 @@ public class VertexExecutor implements InterruptibleIo.IoRunnable {
                     processor,
                     vertex.getId().getName());
         }
-        List<TaskProcessorContext> results = new ArrayList<>();
         if (schedule.isPresent()) {
-            List<? extends TaskInfo> tasks = schedule.get().getTasks();
-            int index = 0;
-            for (TaskInfo info : tasks) {
-                results.add(decorator.bless(new TaskContext(context, vertex, index++, tasks.size(), info)));
-            }
+            // split tasks share the task index of their origin, so that they cannot read partitioned inputs
+            boolean splittable = isPartitioned() == false;
+            return new TaskQueue(context, vertex, decorator, schedule.get().getTasks(), splittable);
         } else {
             int taskCount = computeTaskCount(processor);
             Invariants.require(taskCount >= 1);
-            for (int index = 0; index < taskCount; index++) {
-                results.add(decorator.bless(new TaskContext(context, vertex, index, taskCount, null)));
-            }
+            return new TaskQueue(context, vertex, decorator, Collections.nCopies(taskCount, null), false);
         }
-        return results;
     }
 
-    private void doRun(
-            VertexProcessor processor,
-            List<TaskProcessorContext> tasks) throws IOException, InterruptedException {
+    private void doRun(VertexProcessor processor, TaskQueue tasks) throws IOException, InterruptedException {
         int concurrency = computeConcurrency(processor, tasks);
         if (LOG.isDebugEnabled()) {
             LOG.debug("submit tasks: processor={}, vertex={}, tasks={}, threads={}/{}",
@@ -187,10 +262,17 @@ public class VertexExecutor implements InterruptibleIo.IoRunnable {
                     concurrency,
                     numberOfThreads);
         }
-        BlockingQueue<TaskProcessorContext> queue = new LinkedBlockingQueue<>(tasks);
-        runTasks(Lang.let(new ArrayList<>(), it -> Lang.repeat(concurrency, () -> {
-            it.add(new TaskExecutor(vertex, processor, queue));
-        })));
+        tasks.setWorkers(concurrency);
+        List<TaskExecutor> workers = Lang.let(new ArrayList<>(), it -> Lang.repeat(concurrency, () -> {
+            it.add(new TaskExecutor(vertex, processor, tasks, profile));
+        }));
+        CompletionService<Void> completion = submitTasks(workers);
+        submitted = true;
+        waitForTasks(completion, workers.size());
+    }
+
+    boolean isSubmitted() {
+        return submitted;
     }
 
     private void doFinalize(String label) throws InterruptedException, IOException {
@@ -199,28 +281,42 @@ public class VertexExecutor implements InterruptibleIo.IoRunnable {
                     label,
                     vertex.getId().getName());
         }
-        runTasks(Stream.concat(vertex.getInputs().stream(), vertex.getOutputs().stream())
+        // pipelined ports are completed on the current thread, because their opposites may occupy the executor
+        List<PortMirror> rest = new ArrayList<>();
+        for (PortMirror port : Lang.concat(vertex.getInputs(), vertex.getOutputs())) {
+            if (context.isPipelined(port.getId())) {
+                context.complete(port.getId());
+            } else {
+                rest.add(port);
+            }
+        }
+        runTasks(rest.stream()
                 .<InterruptibleIo.IoRunnable>map(it -> () -> context.complete(it.getId()))
                 .collect(Collectors.toList()));
     }
 
     private void runTasks(List<? extends InterruptibleIo.IoRunnable> tasks) throws InterruptedException, IOException {
-        Deque<Future<?>> futures = tasks.stream()
-                .map(it -> executor.submit(() -> {
-                    it.run();
-                    return null;
-                }))
-                .collect(Collectors.toCollection(ArrayDeque::new));
+        waitForTasks(submitTasks(tasks), tasks.size());
+    }
+
+    private CompletionService<Void> submitTasks(List<? extends InterruptibleIo.IoRunnable> tasks) {
+        CompletionService<Void> completion = new ExecutorCompletionService<>(executor);
+        for (InterruptibleIo.IoRunnable task : tasks) {
+            completion.submit(() -> {
+                task.run();
+                return null;
+            });
+        }
+        return completion;
+    }
 
-        while (futures.isEmpty() == false) {
-            Future<?> first = futures.removeFirst();
+    private static void waitForTasks(
+            CompletionService<Void> completion, int count) throws InterruptedException, IOException {
+        // receives the tasks in order of their completion, so that the first failure is reported immediately
+        for (int i = 0; i < count; i++) {
+            Future<Void> next = completion.take();
             try {
-                first.get(100, TimeUnit.MILLISECONDS);
-            } catch (TimeoutException e) {
-                if (LOG.isTraceEnabled()) {
-                    LOG.trace("waiting for task completion: {}", first, e); //$NON-NLS-1$
-                }
-                futures.addLast(first);
+                next.get();
             } catch (ExecutionException e) {
                 Throwable t = e.getCause();
                 Lang.rethrow(t, Error.class);
@@ -232,10 +328,14 @@ public class VertexExecutor implements InterruptibleIo.IoRunnable {
         }
     }
 
-    private int computeTaskCount(VertexProcessor processor) {
-        if (vertex.getInputs().stream()
+    private boolean isPartitioned() {
+        return vertex.getInputs().stream()
                 .map(PortMirror::getMovement)
-                .anyMatch(Predicate.isEqual(Movement.SCATTER_GATHER))) {
+                .anyMatch(Predicate.isEqual(Movement.SCATTER_GATHER));
+    }
+
+    private int computeTaskCount(VertexProcessor processor) {
+        if (isPartitioned()) {
             return context.getNumberOfPartitions();
         }
         int result = Math.max(numberOfThreads, 1);
@@ -245,8 +345,9 @@ public class VertexExecutor implements InterruptibleIo.IoRunnable {
         return result;
     }
 
-    private int computeConcurrency(VertexProcessor processor, List<TaskProcessorContext> tasks) {
-        int result = Math.min(tasks.size(), numberOfThreads);
+    private int computeConcurrency(VertexProcessor processor, TaskQueue tasks) {
+        // splittable tasks can be shared with the idle workers
+        int result = tasks.isSplittable() ? numberOfThreads : Math.min(tasks.size(), numberOfThreads);
         if (processor.getMaxConcurrency() >= 1) {
             result = Math.min(processor.getMaxConcurrency(), result);
         }
@@ -263,11 +364,16 @@ public class VertexExecutor implements InterruptibleIo.IoRunnable {
 
         private final Map<String, PortId> outputs;
 
-        EdgeIoContext(ProcessorContext forward, VertexMirror vertex, EdgeDriver driver) {
+        private final ExecutionProfile.Vertex profile;
+
+        EdgeIoContext(
+                ProcessorContext forward, VertexMirror vertex, EdgeDriver driver,
+                ExecutionProfile.Vertex profile) {
             this.forward = forward;
             this.driver = driver;
             this.inputs = names(vertex.getInputs());
             this.outputs = names(vertex.getOutputs());
+            this.profile = profile;
         }
 
         private static Map<String, PortId> names(Collection<? extends PortMirror> ports) {
@@ -288,13 +394,21 @@ public class VertexExecutor implements InterruptibleIo.IoRunnable {
 
         EdgeReader getInput(String name, int taskIndex, int taskCount) throws IOException, InterruptedException {
             PortId id = Invariants.requireNonNull(inputs.get(name), name);
-            return driver.acquireInput(id, taskIndex, taskCount);
+            EdgeReader reader = driver.acquireInput(id, taskIndex, taskCount);
+            if (profile != null) {
+                return CountingEdgeIo.wrap(reader, profile.getInput(name));
+            }
+            return reader;
         }
 
         @Override
         public EdgeWriter getOutput(String name) throws IOException, InterruptedException {
             PortId id = Invariants.requireNonNull(outputs.get(name), name);
-            return driver.acquireOutput(id);
+            EdgeWriter writer = driver.acquireOutput(id);
+            if (profile != null) {
+                return CountingEdgeIo.wrap(writer, profile.getOutput(name));
+            }
+            return writer;
         }
 
         int getNumberOfPartitions() {
@@ -304,6 +418,10 @@ public class VertexExecutor implements InterruptibleIo.IoRunnable {
         void complete(PortId id) throws IOException, InterruptedException {
             driver.complete(id);
         }
+
+        boolean isPipelined(PortId id) {
+            return driver.isPipelined(id);
+        }
     }
 
     private static class VertexContext implements VertexProcessorContext, ForwardEdgeIoProcessorContext {
@@ -312,9 +430,26 @@ public class VertexExecutor implements InterruptibleIo.IoRunnable {
 
         private final String id;
 
-        VertexContext(EdgeIoContext forward, VertexMirror vertex) {
+        private final BroadcastCache cache;
+
+        private final ThreadBudget budget;
+
+        VertexContext(EdgeIoContext forward, VertexMirror vertex, BroadcastCache cache, ThreadBudget budget) {
             this.forward = forward;
             this.id = vertex.getId().getName();
+            this.cache = cache;
+            this.budget = budget;
+        }
+
+        @Override
+        public <T> Optional<T> getResource(Class<T> resourceType) {
+            if (cache != null && resourceType == BroadcastCache.class) {
+                return Optional.of(resourceType.cast(cache));
+            }
+            if (resourceType == ThreadBudget.class) {
+                return Optional.of(resourceType.cast(budget));
+            }
+            return ForwardEdgeIoProcessorContext.super.getResource(resourceType);
         }
 
         @Override
@@ -342,10 +477,12 @@ public class VertexExecutor implements InterruptibleIo.IoRunnable {
 
         private final TaskInfo info;
 
-        TaskContext(EdgeIoContext forward, VertexMirror vertex, int taskIndex, int taskCount, TaskInfo info) {
+        TaskContext(
+                EdgeIoContext forward, VertexMirror vertex,
+                int taskIndex, int taskCount, int serialNumber, TaskInfo info) {
             this.forward = forward;
             this.vertexId = vertex.getId().getName();
-            this.taskId = String.format("%s-%d", vertexId, taskIndex);
+            this.taskId = String.format("%s-%d", vertexId, serialNumber);
             this.taskIndex = taskIndex;
             this.taskCount = taskCount;
             this.info = info;
@@ -383,18 +520,22 @@ public class VertexExecutor implements InterruptibleIo.IoRunnable {
 
         private final VertexProcessor processor;
 
-        private final BlockingQueue<? extends TaskProcessorContext> queue;
+        private final TaskQueue queue;
+
+        private final ExecutionProfile.Vertex profile;
 
         TaskExecutor(
                 VertexMirror vertex,
                 VertexProcessor processor,
-                BlockingQueue<? extends TaskProcessorContext> queue) {
+                TaskQueue queue,
+                ExecutionProfile.Vertex profile) {
             Arguments.requireNonNull(vertex);
             Arguments.requireNonNull(processor);
             Arguments.requireNonNull(queue);
             this.vertex = vertex;
             this.processor = processor;
             this.queue = queue;
+            this.profile = profile;
         }
 
         @Override
@@ -402,10 +543,11 @@ public class VertexExecutor implements InterruptibleIo.IoRunnable {
             try (Closer closer = new Closer()) {
                 TaskProcessor taskProcessor = null;
                 while (true) {
-                    TaskProcessorContext next = queue.poll();
-                    if (next == null) {
+                    TaskQueue.Entry entry = queue.poll();
+                    if (entry == null) {
                         break;
                     }
+                    TaskProcessorContext next = queue.bless(entry);
                     if (taskProcessor == null) {
                         if (LOG.isTraceEnabled()) {
                             LOG.trace("initialize task processor on [{}]: {} ({})",
@@ -414,7 +556,15 @@ public class VertexExecutor implements InterruptibleIo.IoRunnable {
                         taskProcessor = closer.add(processor.createTaskProcessor());
                     }
                     LOG.trace("start task: {} ({})", processor, next.getTaskId());
-                    taskProcessor.run(next);
+                    try {
+                        if (profile == null) {
+                            taskProcessor.run(next);
+                        } else {
+                            runWithProfile(taskProcessor, next);
+                        }
+                    } finally {
+                        queue.done(entry);
+                    }
                     LOG.trace("finish task: {} ({})", processor, next.getTaskId());
                 }
                 if (taskProcessor != null) {
@@ -423,6 +573,165 @@ public class VertexExecutor implements InterruptibleIo.IoRunnable {
                                 Thread.currentThread().getName(), processor, vertex.getId().getName());
                     }
                 }
+            } finally {
+                queue.leave();
+            }
+        }
+
+        private void runWithProfile(
+                TaskProcessor taskProcessor, TaskProcessorContext next) throws IOException, InterruptedException {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            boolean cpu = threads.isCurrentThreadCpuTimeSupported() && threads.isThreadCpuTimeEnabled();
+            long cpuStart = cpu ? threads.getCurrentThreadCpuTime() : 0L;
+            long start = System.nanoTime();
+            taskProcessor.run(next);
+            long wallTime = System.nanoTime() - start;
+            long cpuTime = cpu ? threads.getCurrentThreadCpuTime() - cpuStart : ExecutionProfile.UNAVAILABLE;
+            profile.addTask(next.getTaskId(), wallTime, cpuTime);
+        }
+    }
+
+    /**
+     * A queue of pending tasks, which splits {@link SplittableTaskInfo splittable tasks} in halves when they are
+     * taken while the other workers have nothing to do, or steals the rest of running tasks if there are no pending
+     * tasks.
+     */
+    private static final class TaskQueue {
+
+        private final EdgeIoContext context;
+
+        private final VertexMirror vertex;
+
+        private final ProcessorContextDecorator decorator;
+
+        private final int taskCount;
+
+        private final boolean splittable;
+
+        private final Deque<Entry> pending = new ArrayDeque<>();
+
+        private final List<Entry> running = new ArrayList<>();
+
+        private int nextSerialNumber;
+
+        private int idleWorkers;
+
+        TaskQueue(
+                EdgeIoContext context, VertexMirror vertex,
+                ProcessorContextDecorator decorator, List<? extends TaskInfo> tasks, boolean splittable) {
+            this.context = context;
+            this.vertex = vertex;
+            this.decorator = decorator;
+            this.taskCount = tasks.size();
+            this.splittable = splittable && tasks.stream().anyMatch(SplittableTaskInfo.class::isInstance);
+            for (TaskInfo info : tasks) {
+                int index = nextSerialNumber++;
+                pending.addLast(new Entry(index, index, info));
+            }
+        }
+
+        int size() {
+            return taskCount;
+        }
+
+        boolean isSplittable() {
+            return splittable;
+        }
+
+        synchronized void setWorkers(int count) {
+            idleWorkers = count;
+        }
+
+        synchronized Entry poll() {
+            Entry next = pending.pollFirst();
+            if (next == null) {
+                next = steal();
+                if (next == null) {
+                    return null;
+                }
+            }
+            idleWorkers--;
+            if (splittable) {
+                next = split(next);
+                if (next.info instanceof SplittableTaskInfo) {
+                    running.add(next);
+                }
+            }
+            return next;
+        }
+
+        TaskProcessorContext bless(Entry entry) {
+            return decorator.bless(new TaskContext(
+                    context, vertex,
+                    entry.index, taskCount, entry.serialNumber, entry.info));
+        }
+
+        private Entry split(Entry entry) {
+            Entry current = entry;
+            // keeps the first part, and lets the idle workers take the rest parts
+            while (current.info instanceof SplittableTaskInfo && pending.size() < idleWorkers) {
+                List<? extends TaskInfo> parts = ((SplittableTaskInfo) current.info).split();
+                if (parts.size() <= 1) {
+                    break;
+                }
+                List<Entry> rest = new ArrayList<>();
+                for (TaskInfo part : parts.subList(1, parts.size())) {
+                    rest.add(new Entry(current.index, nextSerialNumber++, part));
+                }
+                for (int i = rest.size() - 1; i >= 0; i--) {
+                    pending.addFirst(rest.get(i));
+                }
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("split task: vertex={}, task={}, parts={}, idle={}",
+                            vertex.getId().getName(),
+                            current.serialNumber,
+                            parts.size(),
+                            idleWorkers);
+                }
+                current = new Entry(current.index, current.serialNumber, parts.get(0));
+            }
+            return current;
+        }
+
+        private Entry steal() {
+            // steals from the oldest running task, which is likely to have the most rest inputs
+            for (Entry victim : running) {
+                Optional<? extends TaskInfo> stolen = ((SplittableTaskInfo) victim.info).steal();
+                if (stolen.isPresent()) {
+                    Entry result = new Entry(victim.index, nextSerialNumber++, stolen.get());
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("steal task: vertex={}, task={}, stolen={}",
+                                vertex.getId().getName(),
+                                victim.serialNumber,
+                                result.serialNumber);
+                    }
+                    return result;
+                }
+            }
+            return null;
+        }
+
+        synchronized void done(Entry entry) {
+            running.remove(entry);
+            idleWorkers++;
+        }
+
+        synchronized void leave() {
+            idleWorkers--;
+        }
+
+        static final class Entry {
+
+            final int index;
+
+            final int serialNumber;
+
+            final TaskInfo info;
+
+            Entry(int index, int serialNumber, TaskInfo info) {
+                this.index = index;
+                this.serialNumber = serialNumber;
+                this.info = info;
             }
         }
     }
@@ -23,6 +23,8 @@ import com.asakusafw.vanilla.core.mirror.VertexMirror;
 
 /**
  * A vertex scheduler.
+ * Note that, {@link GraphExecutor} may use the resulting schedule only as a priority hint
+ * if it runs vertices concurrently.
  * @since 0.4.0
  */
 @FunctionalInterface
@@ -21,8 +21,13 @@ import java.text.MessageFormat;
 import java.util.Collection;
 import java.util.NavigableSet;
 import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.LongAdder;
 
 import org.slf4j.Logger;
@@ -30,17 +35,25 @@ import org.slf4j.LoggerFactory;
 
 import com.asakusafw.dag.api.common.Reportable;
 import com.asakusafw.lang.utils.common.Arguments;
-import com.asakusafw.lang.utils.common.InterruptibleIo.Closer;
+import com.asakusafw.lang.utils.common.InterruptibleIo;
 import com.asakusafw.lang.utils.common.Invariants;
+import com.asakusafw.lang.utils.common.Lang;
 import com.asakusafw.vanilla.core.io.DataReader.Provider;
 import com.asakusafw.vanilla.core.util.Buffers;
 import com.asakusafw.vanilla.core.util.SystemProperty;
 
 /**
  * A basic implementation of {@link BufferPool}.
+ * <p>
+ * If the number of swap threads is {@code 0}, this escapes buffers into the {@link BufferStore} on the thread
+ * which exceeds the pool limit. Otherwise, dedicated swap threads start escaping buffers when the pool size exceeds
+ * the limit (high watermark), and continue until it becomes less than the low watermark. In this case,
+ * the clients are only blocked while the pool size exceeds the ceiling.
+ * </p>
  * @since 0.4.0
+ * @version 0.5.4
  */
-public class BasicBufferPool implements BufferPool, Reportable {
+public class BasicBufferPool implements BufferPool, Reportable, InterruptibleIo {
 
     static final String KEY_PREFIX = "com.asakusafw.vanilla.pool."; //$NON-NLS-1$
 
@@ -62,16 +75,43 @@ public class BasicBufferPool implements BufferPool, Reportable {
 
     private final Statistics statistics;
 
+    private final LongAdder escapedSize = new LongAdder();
+
+    private final LongAdder stallTime = new LongAdder();
+
+    private final Swapper swapper;
+
     /**
      * Creates a new instance.
      * @param limit the soft limit size of the buffer pool in bytes
      * @param store the buffer store to accept buffers flood from this pool
      */
     public BasicBufferPool(long limit, BufferStore store) {
+        this(limit, store, limit, limit, 0);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param limit the soft limit size of the buffer pool in bytes, swap threads start escaping buffers
+     *     if the pool size exceeds this
+     * @param store the buffer store to accept buffers flood from this pool
+     * @param lowWatermark the swap threads continue escaping buffers until the pool size becomes less than this
+     * @param ceiling the clients are blocked while the pool size exceeds this
+     * @param numberOfSwapThreads the number of swap threads,
+     *     or {@code 0} to escape buffers on the client threads
+     * @since 0.5.4
+     */
+    public BasicBufferPool(
+            long limit, BufferStore store,
+            long lowWatermark, long ceiling, int numberOfSwapThreads) {
         Arguments.requireNonNull(store);
+        Arguments.require(lowWatermark <= limit);
+        Arguments.require(ceiling >= limit);
+        Arguments.require(numberOfSwapThreads >= 0);
         this.limit = limit;
         this.store = store;
         this.statistics = new Statistics(limit);
+        this.swapper = numberOfSwapThreads == 0 ? null : new Swapper(lowWatermark, ceiling, numberOfSwapThreads);
     }
 
     @Override
@@ -79,14 +119,41 @@ public class BasicBufferPool implements BufferPool, Reportable {
         return reserved.get();
     }
 
+    @Override
+    public long getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns the total size of buffers which have been escaped into the buffer store.
+     * @return the total escaped size in bytes
+     * @since 0.5.4
+     */
+    public long getEscapedSize() {
+        return escapedSize.sum();
+    }
+
+    /**
+     * Returns the total time while the clients were blocked by escaping buffers.
+     * @return the total stall time in milliseconds
+     * @since 0.5.4
+     */
+    public long getStallTime() {
+        return TimeUnit.NANOSECONDS.toMillis(stallTime.sum());
+    }
+
     @Override
     public BufferPool.Ticket reserve(long size) throws IOException, InterruptedException {
         Arguments.require(size >= 0);
-        reserved.addAndGet(size);
+        long total = reserved.addAndGet(size);
         try (Closer closer = new Closer()) {
             Ticket t = new Ticket(reserved, size);
             closer.add(t);
-            escape();
+            if (swapper == null) {
+                escape();
+            } else {
+                swapper.request(total);
+            }
             closer.keep();
             if (LOG.isDebugEnabled()) {
                 statistics.reserved(size);
@@ -113,19 +180,21 @@ public class BasicBufferPool implements BufferPool, Reportable {
         if (LOG.isDebugEnabled()) {
             statistics.registered(ticket.getSize());
         }
+        if (swapper != null) {
+            swapper.notifyRegistered();
+        }
         return entry;
     }
 
     private void escape() throws IOException, InterruptedException {
-        while (reserved.get() > limit) {
-            Entry next = registered.pollFirst();
-            if (next == null) {
-                break;
-            }
-            long size = next.storeTo(store);
-            if (LOG.isDebugEnabled()) {
-                statistics.stored(size);
+        if (reserved.get() > limit) {
+            long start = System.nanoTime();
+            while (reserved.get() > limit) {
+                if (escapeNext() == false) {
+                    break;
+                }
             }
+            stallTime.add(System.nanoTime() - start);
         }
         if (LOG.isDebugEnabled()) {
             statistics.total(reserved.get());
@@ -135,11 +204,41 @@ public class BasicBufferPool implements BufferPool, Reportable {
         }
     }
 
+    private boolean escapeNext() throws IOException, InterruptedException {
+        Entry next = registered.pollFirst();
+        if (next == null) {
+            return false;
+        }
+        long size = next.storeTo(store);
+        if (size > 0) {
+            escapedSize.add(size);
+        }
+        if (LOG.isDebugEnabled()) {
+            statistics.stored(size);
+        }
+        return true;
+    }
+
     @Override
-    public void report() {
+    public void report() throws IOException, InterruptedException {
         if (LOG.isDebugEnabled()) {
             statistics.report();
         }
+        LOG.info(MessageFormat.format(
+                "buffer pool: limit={0}bytes, escaped={1}bytes, stall={2}ms",
+                limit,
+                getEscapedSize(),
+                getStallTime()));
+        if (store instanceof Reportable) {
+            ((Reportable) store).report();
+        }
+    }
+
+    @Override
+    public void close() throws IOException, InterruptedException {
+        if (swapper != null) {
+            swapper.close();
+        }
     }
 
     @Override
@@ -147,6 +246,121 @@ public class BasicBufferPool implements BufferPool, Reportable {
         return String.format("BufferPool(%,d/%,dbytes)", reserved.get(), limit); //$NON-NLS-1$
     }
 
+    private final class Swapper implements InterruptibleIo {
+
+        private final long lowWatermark;
+
+        private final long ceiling;
+
+        private final ExecutorService executor;
+
+        private final Object lock = new Object();
+
+        private final AtomicInteger running = new AtomicInteger();
+
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Swapper(long lowWatermark, long ceiling, int numberOfThreads) {
+            this.lowWatermark = lowWatermark;
+            this.ceiling = ceiling;
+            AtomicInteger counter = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(
+                    numberOfThreads,
+                    r -> Lang.let(new Thread(r), t -> {
+                        t.setName(String.format("vanilla-swap-%d", counter.incrementAndGet())); //$NON-NLS-1$
+                        t.setDaemon(true);
+                    }));
+            Lang.repeat(numberOfThreads, () -> executor.execute(this::work));
+        }
+
+        void request(long total) throws IOException, InterruptedException {
+            checkFailure();
+            if (LOG.isDebugEnabled()) {
+                statistics.total(total);
+            }
+            if (total <= limit) {
+                return;
+            }
+            synchronized (lock) {
+                lock.notifyAll();
+            }
+            if (total <= ceiling) {
+                return;
+            }
+            long start = System.nanoTime();
+            synchronized (lock) {
+                // waits only while escaping buffers is still possible
+                while (reserved.get() > ceiling
+                        && (registered.isEmpty() == false || running.get() > 0)) {
+                    checkFailure();
+                    lock.wait();
+                }
+            }
+            stallTime.add(System.nanoTime() - start);
+            checkFailure();
+        }
+
+        void notifyRegistered() {
+            if (reserved.get() > limit) {
+                synchronized (lock) {
+                    lock.notifyAll();
+                }
+            }
+        }
+
+        private void checkFailure() throws IOException {
+            Throwable t = failure.get();
+            if (t != null) {
+                throw new IOException("error occurred while escaping buffers", t);
+            }
+        }
+
+        private void work() {
+            try {
+                while (true) {
+                    synchronized (lock) {
+                        while (reserved.get() <= limit || registered.isEmpty()) {
+                            lock.wait();
+                        }
+                        running.incrementAndGet();
+                    }
+                    try {
+                        while (reserved.get() > lowWatermark) {
+                            if (escapeNext() == false) {
+                                break;
+                            }
+                            synchronized (lock) {
+                                lock.notifyAll();
+                            }
+                        }
+                        if (LOG.isDebugEnabled()) {
+                            statistics.total(reserved.get());
+                        }
+                    } finally {
+                        running.decrementAndGet();
+                        synchronized (lock) {
+                            lock.notifyAll();
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                LOG.trace("swap thread was interrupted", e); //$NON-NLS-1$
+            } catch (IOException | RuntimeException | Error e) {
+                LOG.error("error occurred while escaping buffers", e);
+                failure.compareAndSet(null, e);
+                synchronized (lock) {
+                    lock.notifyAll();
+                }
+            }
+        }
+
+        @Override
+        public void close() throws InterruptedException {
+            executor.shutdownNow();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
+    }
+
     private static final class Ticket implements BufferPool.Ticket {
 
         private final AtomicLong total;
@@ -15,39 +15,74 @@
  */
 package com.asakusafw.vanilla.core.io;
 
+import static java.nio.file.StandardOpenOption.*;
+
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.text.MessageFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.asakusafw.dag.api.common.Reportable;
 import com.asakusafw.lang.utils.common.Arguments;
 import com.asakusafw.lang.utils.common.InterruptibleIo;
+import com.asakusafw.lang.utils.common.Invariants;
 import com.asakusafw.vanilla.core.util.SystemProperty;
 
 /**
  * A basic implementation of {@link BufferStore}.
  * @since 0.4.0
- * @version 0.5.3
+ * @version 0.5.4
  */
-public class BasicBufferStore implements BufferStore, InterruptibleIo {
+public class BasicBufferStore implements BufferStore, Reportable, InterruptibleIo {
 
     static final Logger LOG = LoggerFactory.getLogger(BasicBufferStore.class);
 
     static final int DEFAULT_PARTITION = 0;
 
+    static final long DEFAULT_MAPPING_THRESHOLD = -1L;
+
+    static final long DEFAULT_SEGMENT_SIZE = 0L;
+
+    static final int DEFAULT_CONCURRENCY = 0;
+
     private final AtomicInteger counter = new AtomicInteger();
 
-    private final File directory;
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    private final Stripe[] stripes;
 
     private final int division;
 
     final ByteChannelDecorator decorator;
 
+    final long mappingThreshold;
+
+    final long segmentSize;
+
+    private final Set<Segment> segments = new HashSet<>();
+
     /**
      * Creates a new instance.
      */
@@ -81,11 +116,71 @@ public class BasicBufferStore implements BufferStore, InterruptibleIo {
      * @since 0.5.3
      */
     public BasicBufferStore(File base, int division, ByteChannelDecorator decorator) {
-        this.directory = new File(
-                base != null ? base : SystemProperty.getTemporaryDirectory(),
-                String.format("asakusa-%s.tmp", UUID.randomUUID()));
+        this(base, division, decorator, DEFAULT_MAPPING_THRESHOLD);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param base the base directory
+     * @param division the maximum number of files in each sub-directory, or {@code 0} to disabled
+     * @param decorator the decorator for load/store operation
+     * @param mappingThreshold the minimum file size in bytes to read files via memory mapped regions,
+     *     or negative value to disable it.
+     *     This is effective only if the decorator is {@link ByteChannelDecorator#isTransparent() transparent}
+     * @since 0.5.4
+     */
+    public BasicBufferStore(File base, int division, ByteChannelDecorator decorator, long mappingThreshold) {
+        this(base, division, decorator, mappingThreshold, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param base the base directory
+     * @param division the maximum number of files in each sub-directory, or {@code 0} to disabled
+     * @param decorator the decorator for load/store operation
+     * @param mappingThreshold the minimum file size in bytes to read files via memory mapped regions,
+     *     or negative value to disable it.
+     *     This is effective only if the decorator is {@link ByteChannelDecorator#isTransparent() transparent}
+     * @param segmentSize the size of segment files in bytes, or {@code 0} to store each buffer into its own file
+     * @since 0.5.4
+     */
+    public BasicBufferStore(
+            File base, int division, ByteChannelDecorator decorator, long mappingThreshold, long segmentSize) {
+        this(Collections.singletonList(base), division, decorator, mappingThreshold, segmentSize,
+                DEFAULT_CONCURRENCY);
+    }
+
+    /**
+     * Creates a new instance.
+     * Each buffer is stored into the base directory which has the least number of pending bytes.
+     * @param bases the base directories, {@code null} elements represent the system temporary directory
+     * @param division the maximum number of files in each sub-directory, or {@code 0} to disabled
+     * @param decorator the decorator for load/store operation
+     * @param mappingThreshold the minimum file size in bytes to read files via memory mapped regions,
+     *     or negative value to disable it.
+     *     This is effective only if the decorator is {@link ByteChannelDecorator#isTransparent() transparent}
+     * @param segmentSize the size of segment files in bytes, or {@code 0} to store each buffer into its own file
+     * @param concurrency the max number of concurrent buffer writes for each base directory,
+     *     or {@code 0} to unlimited
+     * @since 0.5.4
+     */
+    public BasicBufferStore(
+            List<File> bases, int division, ByteChannelDecorator decorator,
+            long mappingThreshold, long segmentSize, int concurrency) {
+        Arguments.requireNonNull(bases);
+        Arguments.require(bases.isEmpty() == false);
+        Arguments.require(segmentSize >= 0);
+        Arguments.require(concurrency >= 0);
+        String name = String.format("asakusa-%s.tmp", UUID.randomUUID());
+        this.stripes = bases.stream()
+                .map(base -> new File(base != null ? base : SystemProperty.getTemporaryDirectory(), name))
+                .distinct()
+                .map(directory -> new Stripe(directory, concurrency))
+                .toArray(Stripe[]::new);
         this.division = division;
         this.decorator = decorator;
+        this.mappingThreshold = decorator.isTransparent() ? mappingThreshold : -1L;
+        this.segmentSize = segmentSize;
     }
 
     /**
@@ -98,23 +193,48 @@ public class BasicBufferStore implements BufferStore, InterruptibleIo {
 
     /**
      * Returns the directory.
-     * @return the directory
+     * @return the directory, or the first one if this has multiple directories
      */
     public File getDirectory() {
-        return directory;
+        return stripes[0].directory;
+    }
+
+    /**
+     * Returns the directories.
+     * @return the directories
+     * @since 0.5.4
+     */
+    public List<File> getDirectories() {
+        return Arrays.stream(stripes)
+                .map(it -> it.directory)
+                .collect(Collectors.toList());
     }
 
     @Override
     public DataReader.Provider store(ByteBuffer buffer) throws IOException, InterruptedException {
         long rawSize = buffer.remaining();
-        File file = prepare();
-        try (DataWriter writer = ByteChannelWriter.open(file.toPath(), decorator)) {
-            writer.writeFully(buffer);
-        }
-        if (LOG.isTraceEnabled()) {
-            LOG.trace("saving buffer: {}bytes -> {} ({}bytes)", rawSize, file, file.length());
+        Stripe stripe = select();
+        stripe.begin(rawSize);
+        try {
+            if (segmentSize > 0) {
+                try (SegmentWriter writer = newSegmentWriter(stripe)) {
+                    writer.writeFully(buffer);
+                    return writer.commit();
+                }
+            }
+            File file = stripe.prepare();
+            try (DataWriter writer = ByteChannelWriter.open(file.toPath(), decorator)) {
+                writer.writeFully(buffer);
+            }
+            long size = file.length();
+            stripe.written.add(size);
+            if (LOG.isTraceEnabled()) {
+                LOG.trace("saving buffer: {}bytes -> {} ({}bytes)", rawSize, file, size);
+            }
+            return new FileEntry(stripe, file);
+        } finally {
+            stripe.end(rawSize);
         }
-        return new FileEntry(file, decorator);
     }
 
     /**
@@ -125,25 +245,90 @@ public class BasicBufferStore implements BufferStore, InterruptibleIo {
         return new FileBlobStore();
     }
 
-    File prepare() throws IOException {
-        int id = counter.getAndIncrement();
-        File dir;
-        if (division == 0) {
-            dir = directory;
-        } else {
-            dir = new File(directory, String.valueOf(id / division));
+    Stripe select() {
+        Stripe[] ss = stripes;
+        if (ss.length == 1) {
+            return ss[0];
+        }
+        // selects the least queued one, and breaks ties in round-robin order
+        int start = (cursor.getAndIncrement() & Integer.MAX_VALUE) % ss.length;
+        Stripe result = ss[start];
+        long queued = result.queued.get();
+        for (int i = 1; i < ss.length && queued > 0; i++) {
+            Stripe candidate = ss[(start + i) % ss.length];
+            long q = candidate.queued.get();
+            if (q < queued) {
+                result = candidate;
+                queued = q;
+            }
+        }
+        return result;
+    }
+
+    SegmentWriter newSegmentWriter(Stripe stripe) throws IOException, InterruptedException {
+        Segment segment;
+        synchronized (segments) {
+            // reuses the most recently released segment
+            segment = stripe.idleSegments.pollFirst();
+        }
+        if (segment == null) {
+            segment = new Segment(stripe);
+            synchronized (segments) {
+                segments.add(segment);
+            }
+        }
+        boolean success = false;
+        try {
+            SegmentWriter writer = new SegmentWriter(segment);
+            success = true;
+            return writer;
+        } finally {
+            if (success == false) {
+                releaseSegment(segment);
+            }
+        }
+    }
+
+    void releaseSegment(Segment segment) {
+        if (segment.position < segmentSize) {
+            synchronized (segments) {
+                if (segments.contains(segment)) {
+                    segment.stripe.idleSegments.addFirst(segment);
+                    return;
+                }
+            }
         }
-        if (dir.isDirectory() == false
-                && dir.mkdirs() == false
-                && dir.isDirectory() == false) {
-            throw new IOException();
+        // seals the segment: it will be deleted after all entries are closed
+        segment.release();
+    }
+
+    @Override
+    public void report() {
+        for (Stripe stripe : stripes) {
+            LOG.info(MessageFormat.format(
+                    "buffer store: directory={0}, written={1}bytes, read={2}bytes",
+                    stripe.directory,
+                    stripe.written.sum(),
+                    stripe.read.sum()));
         }
-        return new File(dir, String.format("%d.buf", id)); //$NON-NLS-1$
     }
 
     @Override
     public void close() {
-        delete(directory);
+        List<Segment> rest;
+        synchronized (segments) {
+            rest = new ArrayList<>(segments);
+            segments.clear();
+            for (Stripe stripe : stripes) {
+                stripe.idleSegments.clear();
+            }
+        }
+        for (Segment segment : rest) {
+            segment.dispose();
+        }
+        for (Stripe stripe : stripes) {
+            delete(stripe.directory);
+        }
     }
 
     private static boolean delete(File f) {
@@ -165,29 +350,49 @@ public class BasicBufferStore implements BufferStore, InterruptibleIo {
 
     @Override
     public String toString() {
-        return String.format("BufferStore(%s)", directory); //$NON-NLS-1$
+        return String.format("BufferStore(%s)", getDirectories()); //$NON-NLS-1$
     }
 
     /**
      * A builder for {@link BasicBufferStore}.
      * @since 0.4.1
-     * @version 0.5.3
+     * @version 0.5.4
      */
     public static final class Builder {
 
-        private File directory;
+        private List<File> directories = Collections.singletonList(null);
 
         private int division = DEFAULT_PARTITION;
 
         private ByteChannelDecorator decorator = NullByteChannelDecorator.INSTANCE;
 
+        private long mappingThreshold = DEFAULT_MAPPING_THRESHOLD;
+
+        private long segmentSize = DEFAULT_SEGMENT_SIZE;
+
+        private int concurrency = DEFAULT_CONCURRENCY;
+
         /**
          * Sets the directory.
          * @param newValue the directory
          * @return this
          */
         public Builder withDirectory(File newValue) {
-            this.directory = newValue;
+            this.directories = Collections.singletonList(newValue);
+            return this;
+        }
+
+        /**
+         * Sets the directories.
+         * If there are multiple directories, the individual buffers are spread across them.
+         * @param newValues the directories
+         * @return this
+         * @since 0.5.4
+         */
+        public Builder withDirectories(List<File> newValues) {
+            Arguments.requireNonNull(newValues);
+            Arguments.require(newValues.isEmpty() == false);
+            this.directories = new ArrayList<>(newValues);
             return this;
         }
 
@@ -212,12 +417,49 @@ public class BasicBufferStore implements BufferStore, InterruptibleIo {
             return this;
         }
 
+        /**
+         * Sets the minimum file size to read files via memory mapped regions.
+         * @param newValue the minimum file size in bytes, or negative value to disable it
+         * @return this
+         * @since 0.5.4
+         */
+        public Builder withMappingThreshold(long newValue) {
+            this.mappingThreshold = newValue;
+            return this;
+        }
+
+        /**
+         * Sets the size of segment files.
+         * If it is enabled, individual buffers are appended into the shared segment files instead of creating
+         * a file for each buffer.
+         * @param newValue the segment size in bytes, or {@code 0} to disable it
+         * @return this
+         * @since 0.5.4
+         */
+        public Builder withSegmentSize(long newValue) {
+            this.segmentSize = newValue;
+            return this;
+        }
+
+        /**
+         * Sets the max number of concurrent buffer writes for each directory.
+         * @param newValue the max number of concurrent writes, or {@code 0} to unlimited
+         * @return this
+         * @since 0.5.4
+         */
+        public Builder withConcurrency(int newValue) {
+            this.concurrency = newValue;
+            return this;
+        }
+
         /**
          * Builds a {@link BasicBufferStore}.
          * @return the created instance
          */
         public BasicBufferStore build() {
-            return new BasicBufferStore(directory, division, decorator);
+            return new BasicBufferStore(
+                    directories, division, decorator,
+                    mappingThreshold, segmentSize, concurrency);
         }
     }
 
@@ -229,33 +471,47 @@ public class BasicBufferStore implements BufferStore, InterruptibleIo {
 
         @Override
         public DataWriter create() throws IOException, InterruptedException {
-            File file = prepare();
+            // BLOB writers are not limited by the concurrency, because they can live across other writes
+            Stripe stripe = select();
+            if (segmentSize > 0) {
+                return newSegmentWriter(stripe);
+            }
+            File file = stripe.prepare();
             if (LOG.isTraceEnabled()) {
                 LOG.trace("prepare BLOB: {}", file);
             }
-            return new FileWriter(file, ByteChannelWriter.open(file.toPath(), decorator));
+            return new FileWriter(stripe, file, ByteChannelWriter.open(file.toPath(), decorator));
         }
 
         @Override
         public DataReader.Provider commit(DataWriter writer) throws IOException, InterruptedException {
             Arguments.requireNonNull(writer);
+            if (writer instanceof SegmentWriter) {
+                return ((SegmentWriter) writer).commit();
+            }
             Arguments.require(writer instanceof FileWriter);
-            File file = ((FileWriter) writer).release();
+            FileWriter w = (FileWriter) writer;
+            File file = w.release();
+            long size = file.length();
+            w.stripe.written.add(size);
             if (LOG.isTraceEnabled()) {
-                LOG.trace("commit BLOB: {} ({}bytes)", file, file.length());
+                LOG.trace("commit BLOB: {} ({}bytes)", file, size);
             }
-            return new FileEntry(file, decorator);
+            return new FileEntry(w.stripe, file);
         }
 
     }
 
     private static final class FileWriter implements DataWriter {
 
+        final Stripe stripe;
+
         private File file;
 
         private final DataWriter writer;
 
-        FileWriter(File file, DataWriter writer) {
+        FileWriter(Stripe stripe, File file, DataWriter writer) {
+            this.stripe = stripe;
             this.file = file;
             this.writer = writer;
         }
@@ -291,20 +547,41 @@ public class BasicBufferStore implements BufferStore, InterruptibleIo {
         }
     }
 
-    private static final class FileEntry implements DataReader.Provider {
+    private final class FileEntry implements DataReader.Provider {
 
-        final File file;
+        private final Stripe stripe;
 
-        private final ByteChannelDecorator decorator;
+        final File file;
 
-        FileEntry(File file, ByteChannelDecorator decorator) {
+        FileEntry(Stripe stripe, File file) {
+            this.stripe = stripe;
             this.file = file;
-            this.decorator = decorator;
         }
 
         @Override
         public DataReader open() throws IOException, InterruptedException {
-            return ByteChannelReader.open(file.toPath(), decorator);
+            if (mappingThreshold >= 0) {
+                long size = file.length();
+                if (size >= mappingThreshold && size <= Integer.MAX_VALUE) {
+                    if (LOG.isTraceEnabled()) {
+                        LOG.trace("mapping buffer: {} ({}bytes)", file, size);
+                    }
+                    DataReader reader = ByteChannelReader.map(file.toPath());
+                    stripe.read.add(size);
+                    return reader;
+                }
+            }
+            FileChannel channel = FileChannel.open(file.toPath(), READ);
+            boolean success = false;
+            try {
+                DataReader reader = new ByteChannelReader(decorator.decorate(new CountingChannel(stripe, channel)));
+                success = true;
+                return reader;
+            } finally {
+                if (success == false) {
+                    channel.close();
+                }
+            }
         }
 
         @Override
@@ -321,4 +598,372 @@ public class BasicBufferStore implements BufferStore, InterruptibleIo {
             return String.format("Entry(%s)", file); //$NON-NLS-1$
         }
     }
+
+    /**
+     * A segment file, which consists of multiple entries.
+     * Only one {@link SegmentWriter} can append entries into each segment at the same time.
+     */
+    private final class Segment {
+
+        final Stripe stripe;
+
+        final File file;
+
+        final FileChannel channel;
+
+        long position;
+
+        private int references = 1;
+
+        private boolean disposed;
+
+        Segment(Stripe stripe) throws IOException {
+            this.stripe = stripe;
+            this.file = stripe.prepare();
+            this.channel = FileChannel.open(file.toPath(), READ, WRITE, CREATE, TRUNCATE_EXISTING);
+            if (LOG.isTraceEnabled()) {
+                LOG.trace("prepare segment: {}", file);
+            }
+        }
+
+        synchronized void retain() {
+            references++;
+        }
+
+        void release() {
+            synchronized (this) {
+                references--;
+                if (references > 0) {
+                    return;
+                }
+            }
+            synchronized (segments) {
+                segments.remove(this);
+            }
+            dispose();
+        }
+
+        void dispose() {
+            synchronized (this) {
+                if (disposed) {
+                    return;
+                }
+                disposed = true;
+            }
+            if (LOG.isTraceEnabled()) {
+                LOG.trace("delete segment: {} ({}bytes)", file, position);
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOG.warn(MessageFormat.format(
+                        "failed to close a temporary file: {0}",
+                        file), e);
+            }
+            if (file.delete() == false && file.exists()) {
+                LOG.warn(MessageFormat.format(
+                        "failed to delete a temporary file: {0}",
+                        file));
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Segment(%s)", file); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Appends an entry into the tail of {@link Segment}.
+     */
+    private final class SegmentWriter implements DataWriter {
+
+        private final Segment segment;
+
+        private final long offset;
+
+        private final DataWriter writer;
+
+        private boolean finished;
+
+        SegmentWriter(Segment segment) throws IOException, InterruptedException {
+            this.segment = segment;
+            this.offset = segment.position;
+            this.writer = new ByteChannelWriter(decorator.decorate(new AppendChannel(segment)));
+        }
+
+        @Override
+        public ByteBuffer getBuffer() {
+            return writer.getBuffer();
+        }
+
+        @Override
+        public void writeInt(int value) throws IOException, InterruptedException {
+            writer.writeInt(value);
+        }
+
+        @Override
+        public void writeFully(ByteBuffer source) throws IOException, InterruptedException {
+            writer.writeFully(source);
+        }
+
+        SegmentEntry commit() throws IOException, InterruptedException {
+            Invariants.require(finished == false);
+            writer.close();
+            finished = true;
+            SegmentEntry entry = new SegmentEntry(segment, offset, segment.position - offset);
+            segment.stripe.written.add(segment.position - offset);
+            releaseSegment(segment);
+            if (LOG.isTraceEnabled()) {
+                LOG.trace("commit entry: {}", entry);
+            }
+            return entry;
+        }
+
+        @Override
+        public void close() throws IOException, InterruptedException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            try {
+                writer.close();
+            } finally {
+                // discards the uncommitted contents
+                segment.position = offset;
+                releaseSegment(segment);
+            }
+        }
+    }
+
+    private static final class AppendChannel implements WritableByteChannel {
+
+        private final Segment segment;
+
+        private boolean open = true;
+
+        AppendChannel(Segment segment) {
+            this.segment = segment;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            Segment s = segment;
+            int written = s.channel.write(src, s.position);
+            s.position += written;
+            return written;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+    }
+
+    private final class SegmentEntry implements DataReader.Provider {
+
+        private final Segment segment;
+
+        private final long offset;
+
+        private final long length;
+
+        private boolean closed;
+
+        SegmentEntry(Segment segment, long offset, long length) {
+            segment.retain();
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public DataReader open() throws IOException, InterruptedException {
+            segment.retain();
+            boolean success = false;
+            try {
+                DataReader reader;
+                if (mappingThreshold >= 0 && length >= mappingThreshold && length <= Integer.MAX_VALUE) {
+                    ByteBuffer buffer = segment.channel.map(MapMode.READ_ONLY, offset, length)
+                            .order(ByteOrder.nativeOrder());
+                    segment.stripe.read.add(length);
+                    reader = new ByteBufferReader(buffer, segment::release);
+                } else {
+                    reader = new ByteChannelReader(decorator.decorate(new RegionChannel(segment, offset, length)));
+                }
+                success = true;
+                return reader;
+            } finally {
+                if (success == false) {
+                    segment.release();
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            if (closed == false) {
+                closed = true;
+                segment.release();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Entry(%s@%d+%d)", segment.file, offset, length); //$NON-NLS-1$
+        }
+    }
+
+    private static final class RegionChannel implements ReadableByteChannel {
+
+        private final Segment segment;
+
+        private long position;
+
+        private final long limit;
+
+        private boolean open = true;
+
+        RegionChannel(Segment segment, long offset, long length) {
+            this.segment = segment;
+            this.position = offset;
+            this.limit = offset + length;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            long rest = limit - position;
+            if (rest <= 0) {
+                return -1;
+            }
+            int read;
+            if (dst.remaining() > rest) {
+                ByteBuffer slice = dst.duplicate();
+                slice.limit(slice.position() + (int) rest);
+                read = segment.channel.read(slice, position);
+                if (read > 0) {
+                    dst.position(dst.position() + read);
+                }
+            } else {
+                read = segment.channel.read(dst, position);
+            }
+            if (read > 0) {
+                position += read;
+                segment.stripe.read.add(read);
+            }
+            return read;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            if (open) {
+                open = false;
+                segment.release();
+            }
+        }
+    }
+
+    /**
+     * A storage area in each base directory.
+     */
+    private final class Stripe {
+
+        final File directory;
+
+        final Semaphore permits;
+
+        final AtomicLong queued = new AtomicLong();
+
+        final LongAdder written = new LongAdder();
+
+        final LongAdder read = new LongAdder();
+
+        final Deque<Segment> idleSegments = new ArrayDeque<>();
+
+        Stripe(File directory, int concurrency) {
+            this.directory = directory;
+            this.permits = concurrency > 0 ? new Semaphore(concurrency) : null;
+        }
+
+        File prepare() throws IOException {
+            int id = counter.getAndIncrement();
+            File dir;
+            if (division == 0) {
+                dir = directory;
+            } else {
+                dir = new File(directory, String.valueOf(id / division));
+            }
+            if (dir.isDirectory() == false
+                    && dir.mkdirs() == false
+                    && dir.isDirectory() == false) {
+                throw new IOException(MessageFormat.format(
+                        "failed to create a temporary directory: {0}",
+                        dir));
+            }
+            return new File(dir, String.format("%d.buf", id)); //$NON-NLS-1$
+        }
+
+        void begin(long size) throws InterruptedException {
+            queued.addAndGet(size);
+            if (permits != null) {
+                boolean success = false;
+                try {
+                    permits.acquire();
+                    success = true;
+                } finally {
+                    if (success == false) {
+                        queued.addAndGet(-size);
+                    }
+                }
+            }
+        }
+
+        void end(long size) {
+            if (permits != null) {
+                permits.release();
+            }
+            queued.addAndGet(-size);
+        }
+    }
+
+    private static final class CountingChannel implements ReadableByteChannel {
+
+        private final Stripe stripe;
+
+        private final ReadableByteChannel channel;
+
+        CountingChannel(Stripe stripe, ReadableByteChannel channel) {
+            this.stripe = stripe;
+            this.channel = channel;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            int read = channel.read(dst);
+            if (read > 0) {
+                stripe.read.add(read);
+            }
+            return read;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
 }
@@ -25,6 +25,7 @@ import com.asakusafw.lang.utils.common.InterruptibleIo;
  * Note that, the pool only manages its pool size, and does not implement {@link AutoCloseable}.
  * Framework developers must dispose each buffer out of the pool.
  * @since 0.4.0
+ * @version 0.5.4
  */
 public interface BufferPool {
 
@@ -34,6 +35,15 @@ public interface BufferPool {
      */
     long getSize();
 
+    /**
+     * Returns the soft limit size of this pool.
+     * @return the soft limit size in bytes, or {@link Long#MAX_VALUE} if this pool is not limited
+     * @since 0.5.4
+     */
+    default long getLimit() {
+        return Long.MAX_VALUE;
+    }
+
     /**
      * Reserves a new buffer fragment.
      * @param size the estimated buffer size in bytes
@@ -25,6 +25,7 @@ import com.asakusafw.vanilla.core.util.BufferedWritableByteChannel;
 /**
  * An implementation of {@link ByteChannelDecorator} which provides buffers into byte channels.
  * @since 0.5.3
+ * @version 0.5.4
  */
 public class BufferedByteChannelDecorator implements ByteChannelDecorator {
 
@@ -37,4 +38,9 @@ public class BufferedByteChannelDecorator implements ByteChannelDecorator {
     public WritableByteChannel decorate(WritableByteChannel channel) throws IOException {
         return new BufferedWritableByteChannel(channel);
     }
+
+    @Override
+    public boolean isTransparent() {
+        return true;
+    }
 }
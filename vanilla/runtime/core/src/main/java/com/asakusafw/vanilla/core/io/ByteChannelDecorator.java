@@ -25,6 +25,7 @@ import com.asakusafw.dag.api.processor.ProcessorContext;
 /**
  * Decorates {@link ByteChannel}s.
  * @since 0.5.3
+ * @version 0.5.4
  */
 public interface ByteChannelDecorator {
 
@@ -38,6 +39,16 @@ public interface ByteChannelDecorator {
         return;
     }
 
+    /**
+     * Returns whether or not this decorator keeps the contents of the decorated channels as is.
+     * If this returns {@code true}, clients may read the stored contents directly without decorating channels.
+     * @return {@code true} if this does not transform the contents (e.g. compression), otherwise {@code false}
+     * @since 0.5.4
+     */
+    default boolean isTransparent() {
+        return false;
+    }
+
     /**
      * Decorates the given channel.
      * @param channel the source channel
@@ -20,9 +20,13 @@ import static java.nio.file.StandardOpenOption.*;
 import java.io.EOFException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.text.MessageFormat;
 import java.util.EnumSet;
 
 import com.asakusafw.lang.utils.common.Arguments;
@@ -31,7 +35,7 @@ import com.asakusafw.vanilla.core.util.Buffers;
 /**
  * An implementation of {@link DataReader} which just wraps {@link ReadableByteChannel}.
  * @since 0.4.0
- * @since 0.5.3
+ * @version 0.5.4
  */
 public class ByteChannelReader implements DataReader {
 
@@ -73,6 +77,30 @@ public class ByteChannelReader implements DataReader {
         return new ByteChannelReader(decorator.decorate(open0(path)));
     }
 
+    /**
+     * Maps a file on the given path into memory.
+     * The returned reader directly provides the mapped region via {@link DataReader#getBuffer()}, so that the
+     * file contents must not be decorated.
+     * The mapped region will be unmapped after the returned reader becomes unreachable.
+     * @param path the target path
+     * @return the related reader
+     * @throws IOException if I/O error was occurred while mapping the file
+     * @since 0.5.4
+     */
+    public static DataReader map(Path path) throws IOException {
+        Arguments.requireNonNull(path);
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(MessageFormat.format(
+                        "file is too large to map: {0} ({1}bytes)",
+                        path, size));
+            }
+            ByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, size).order(ByteOrder.nativeOrder());
+            return new ByteBufferReader(buffer);
+        }
+    }
+
     private static ReadableByteChannel open0(Path path) throws IOException {
         return Files.newByteChannel(path, EnumSet.of(READ));
     }
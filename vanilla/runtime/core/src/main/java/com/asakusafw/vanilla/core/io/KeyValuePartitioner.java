@@ -26,6 +26,7 @@ import com.asakusafw.lang.utils.common.Lang;
  * An implementation of {@link KeyValueSink} which sort key-value pairs into individual partitions.
  * Each partition layout equals to {@link BasicKeyValueSink}.
  * @since 0.4.0
+ * @version 0.5.4
  */
 public class KeyValuePartitioner implements KeyValueSink {
 
@@ -33,6 +34,18 @@ public class KeyValuePartitioner implements KeyValueSink {
 
     private final KeyValueSink[] partitions;
 
+    private final PartitionStrategy strategy;
+
+    private final Statistics statistics;
+
+    private final long[] bytes;
+
+    private final long[] records;
+
+    private final long[] maxGroupBytes;
+
+    private long groupBytes;
+
     private int lastPartition = -1;
 
     /**
@@ -45,9 +58,33 @@ public class KeyValuePartitioner implements KeyValueSink {
     public KeyValuePartitioner(
             List<? extends DataWriter.Channel> channels,
             int size) throws IOException, InterruptedException {
+        this(channels, size, PartitionStrategy.getDefault(), null);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param channels the destination channels of individual partitions
+     * @param size the maximum data size of each partition
+     * @param strategy the partition strategy
+     * @param statistics the statistics collector (nullable)
+     * @throws IOException if I/O error was occurred while initializing this object
+     * @throws InterruptedException if interrupted while initializing this object
+     * @since 0.5.4
+     */
+    public KeyValuePartitioner(
+            List<? extends DataWriter.Channel> channels,
+            int size,
+            PartitionStrategy strategy, Statistics statistics) throws IOException, InterruptedException {
         Arguments.require(channels.isEmpty() == false);
+        Arguments.requireNonNull(strategy);
+        Arguments.require(statistics == null || statistics.getNumberOfPartitions() == channels.size());
         this.numberOfPartitions = channels.size();
         this.partitions = new KeyValueSink[channels.size()];
+        this.strategy = strategy;
+        this.statistics = statistics;
+        this.bytes = new long[channels.size()];
+        this.records = new long[channels.size()];
+        this.maxGroupBytes = new long[channels.size()];
         try (Closer closer = new Closer()) {
             int index = 0;
             for (DataWriter.Channel channel : channels) {
@@ -64,8 +101,23 @@ public class KeyValuePartitioner implements KeyValueSink {
      * @return the created stream
      */
     public static Stream stream(List<? extends DataWriter.Channel> channels) {
+        return stream(channels, PartitionStrategy.getDefault(), null);
+    }
+
+    /**
+     * Creates a new stream of {@link KeyValuePartitioner}.
+     * @param channels the destination channels of individual partitions
+     * @param strategy the partition strategy
+     * @param statistics the statistics collector (nullable)
+     * @return the created stream
+     * @since 0.5.4
+     */
+    public static Stream stream(
+            List<? extends DataWriter.Channel> channels,
+            PartitionStrategy strategy, Statistics statistics) {
         Arguments.requireNonNull(channels);
         Arguments.require(channels.isEmpty() == false);
+        Arguments.requireNonNull(strategy);
         if (channels.size() == 1) {
             return BasicKeyValueSink.stream(channels.get(0));
         }
@@ -76,19 +128,26 @@ public class KeyValuePartitioner implements KeyValueSink {
             total += valueSize;
             total += Integer.BYTES; // EOF
             Arguments.require(total <= Integer.MAX_VALUE);
-            return new KeyValuePartitioner(channels, (int) total);
+            return new KeyValuePartitioner(channels, (int) total, strategy, statistics);
         };
     }
 
     @Override
     public void accept(ByteBuffer key, ByteBuffer value) throws IOException, InterruptedException {
         int index = computeIndex(key);
+        closeGroup();
         lastPartition = index;
+        int size = key.remaining() + value.remaining();
         partitions[index].accept(key, value);
+        bytes[index] += size;
+        records[index]++;
+        groupBytes = size;
     }
 
     private int computeIndex(ByteBuffer key) {
-        return (key.hashCode() & Integer.MAX_VALUE) % numberOfPartitions;
+        int index = strategy.getPartition(key, numberOfPartitions);
+        assert 0 <= index && index < numberOfPartitions;
+        return index;
     }
 
     @Override
@@ -97,13 +156,126 @@ public class KeyValuePartitioner implements KeyValueSink {
         if (index < 0) {
             return false;
         }
-        return partitions[index].accept(value);
+        int size = value.remaining();
+        if (partitions[index].accept(value)) {
+            bytes[index] += size;
+            records[index]++;
+            groupBytes += size;
+            return true;
+        }
+        return false;
+    }
+
+    private void closeGroup() {
+        int index = lastPartition;
+        if (index >= 0 && groupBytes > maxGroupBytes[index]) {
+            maxGroupBytes[index] = groupBytes;
+        }
+        groupBytes = 0;
     }
 
     @Override
     public void close() throws IOException, InterruptedException {
+        closeGroup();
+        if (statistics != null) {
+            statistics.merge(bytes, records, maxGroupBytes);
+        }
         try (Closer closer = new Closer()) {
             Lang.forEach(partitions, closer::add);
         }
     }
+
+    /**
+     * Collects statistics of partitions.
+     * @since 0.5.4
+     */
+    public static class Statistics {
+
+        private final long[] bytes;
+
+        private final long[] records;
+
+        private final long[] maxGroupBytes;
+
+        /**
+         * Creates a new instance.
+         * @param numberOfPartitions the number of partitions
+         */
+        public Statistics(int numberOfPartitions) {
+            Arguments.require(numberOfPartitions > 0);
+            this.bytes = new long[numberOfPartitions];
+            this.records = new long[numberOfPartitions];
+            this.maxGroupBytes = new long[numberOfPartitions];
+        }
+
+        synchronized void merge(long[] newBytes, long[] newRecords, long[] newMaxGroupBytes) {
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] += newBytes[i];
+                records[i] += newRecords[i];
+                maxGroupBytes[i] = Math.max(maxGroupBytes[i], newMaxGroupBytes[i]);
+            }
+        }
+
+        /**
+         * Returns the number of partitions.
+         * @return the number of partitions
+         */
+        public int getNumberOfPartitions() {
+            return bytes.length;
+        }
+
+        /**
+         * Returns the total number of bytes of keys and values in each partition.
+         * @return the number of bytes, indexed by the partition
+         */
+        public synchronized long[] getBytes() {
+            return bytes.clone();
+        }
+
+        /**
+         * Returns the total number of records in each partition.
+         * @return the number of records, indexed by the partition
+         */
+        public synchronized long[] getRecords() {
+            return records.clone();
+        }
+
+        /**
+         * Returns the largest number of bytes of a single key group in each partition.
+         * Note that, each key group is only measured in individual output pages,
+         * so that this may be less than the actual key group size.
+         * @return the number of bytes of the heaviest key group, indexed by the partition
+         */
+        public synchronized long[] getMaxGroupBytes() {
+            return maxGroupBytes.clone();
+        }
+
+        /**
+         * Returns the skew ratio of partitions, which is the maximum partition size divided by the average one.
+         * @return the skew ratio, or {@code 1.0} if there are no records
+         */
+        public synchronized double getSkew() {
+            long total = 0;
+            long max = 0;
+            for (long b : bytes) {
+                total += b;
+                max = Math.max(max, b);
+            }
+            if (total == 0) {
+                return 1.0;
+            }
+            return (double) max * bytes.length / total;
+        }
+
+        @Override
+        public synchronized String toString() {
+            StringBuilder buf = new StringBuilder();
+            buf.append(String.format("skew=%.2f", getSkew())); //$NON-NLS-1$
+            for (int i = 0; i < bytes.length; i++) {
+                buf.append(String.format(", [%d]=%,dbytes/%,drecords(max-group=%,dbytes)", //$NON-NLS-1$
+                        i, bytes[i], records[i], maxGroupBytes[i]));
+            }
+            return buf.toString();
+        }
+    }
 }
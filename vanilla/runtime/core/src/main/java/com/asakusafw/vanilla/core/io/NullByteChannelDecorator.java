@@ -22,6 +22,7 @@ import java.nio.channels.WritableByteChannel;
 /**
  * An implementation of {@link ByteChannelDecorator} which decorates nothing and just returns the bare channels.
  * @since 0.5.3
+ * @version 0.5.4
  */
 public class NullByteChannelDecorator implements ByteChannelDecorator {
 
@@ -39,4 +40,9 @@ public class NullByteChannelDecorator implements ByteChannelDecorator {
     public WritableByteChannel decorate(WritableByteChannel channel) throws IOException {
         return channel;
     }
+
+    @Override
+    public boolean isTransparent() {
+        return true;
+    }
 }
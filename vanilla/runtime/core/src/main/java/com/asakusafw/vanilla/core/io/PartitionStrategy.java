@@ -0,0 +1,179 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.vanilla.core.io;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.text.MessageFormat;
+
+import com.asakusafw.lang.utils.common.Arguments;
+import com.asakusafw.vanilla.core.util.SystemProperty;
+
+/**
+ * A strategy which decides the destination partition of each key.
+ * <p>
+ * Each implementation must return the same partition for the equivalent keys,
+ * because the downstream operations assume that each key group is placed in a single partition.
+ * </p>
+ * @since 0.5.4
+ */
+@FunctionalInterface
+public interface PartitionStrategy {
+
+    /**
+     * The system property key of the default partition strategy
+     * ({@value}: {@code "murmur3"}).
+     * This accepts one of {@link Basic} constant names (case insensitive),
+     * or a fully qualified class name of a {@link PartitionStrategy} implementation.
+     */
+    String KEY_STRATEGY = SystemProperty.KEY_PREFIX + "output.partition.strategy"; //$NON-NLS-1$
+
+    /**
+     * Returns the partition index of the given key.
+     * @param key the serialized key, must not be modified in this method
+     * @param numberOfPartitions the number of partitions
+     * @return the partition index, between {@code 0} (inclusive) and {@code numberOfPartitions} (exclusive)
+     */
+    int getPartition(ByteBuffer key, int numberOfPartitions);
+
+    /**
+     * Returns the default partition strategy.
+     * @return the default partition strategy
+     */
+    static PartitionStrategy getDefault() {
+        return Basic.MURMUR3;
+    }
+
+    /**
+     * Returns the partition strategy which is specified in the system property, or the default one.
+     * @param loader the class loader to load the implementation class
+     * @return the configured partition strategy
+     * @throws IllegalArgumentException if the specified strategy is not valid
+     * @see #KEY_STRATEGY
+     */
+    static PartitionStrategy getConfigured(ClassLoader loader) {
+        Arguments.requireNonNull(loader);
+        return SystemProperty.find(KEY_STRATEGY)
+                .filter(s -> s.isEmpty() == false)
+                .map(s -> of(s, loader))
+                .orElseGet(PartitionStrategy::getDefault);
+    }
+
+    /**
+     * Returns a partition strategy.
+     * @param name the strategy name or the implementation class name
+     * @param loader the class loader to load the implementation class
+     * @return the corresponding strategy
+     * @throws IllegalArgumentException if the strategy is not valid
+     */
+    static PartitionStrategy of(String name, ClassLoader loader) {
+        Arguments.requireNonNull(name);
+        Arguments.requireNonNull(loader);
+        for (Basic basic : Basic.values()) {
+            if (basic.name().equalsIgnoreCase(name)) {
+                return basic;
+            }
+        }
+        try {
+            Class<?> aClass = Class.forName(name, false, loader);
+            return aClass.asSubclass(PartitionStrategy.class).newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "invalid partition strategy: {0}",
+                    name), e);
+        }
+    }
+
+    /**
+     * Basic implementations of {@link PartitionStrategy}.
+     * @since 0.5.4
+     */
+    enum Basic implements PartitionStrategy {
+
+        /**
+         * Uses {@link ByteBuffer#hashCode()}.
+         * This is compatible with the earlier versions, but its hash values are poorly distributed
+         * for short numeric keys.
+         */
+        HASH_CODE {
+            @Override
+            public int getPartition(ByteBuffer key, int numberOfPartitions) {
+                return (key.hashCode() & Integer.MAX_VALUE) % numberOfPartitions;
+            }
+        },
+
+        /**
+         * Uses 32-bit MurmurHash3 over the key bytes.
+         */
+        MURMUR3 {
+            @Override
+            public int getPartition(ByteBuffer key, int numberOfPartitions) {
+                return (murmur3(key) & Integer.MAX_VALUE) % numberOfPartitions;
+            }
+        },
+        ;
+
+        private static final int SEED = 0x9747b28c;
+
+        private static final int C1 = 0xcc9e2d51;
+
+        private static final int C2 = 0x1b873593;
+
+        /**
+         * Returns the 32-bit MurmurHash3 (x86_32) value of the remaining bytes in the given buffer.
+         * This does not change the buffer position.
+         * @param buffer the target buffer
+         * @return the hash value
+         */
+        public static int murmur3(ByteBuffer buffer) {
+            int offset = buffer.position();
+            int length = buffer.remaining();
+            int blocks = length & ~(Integer.BYTES - 1);
+            boolean swap = buffer.order() == ByteOrder.BIG_ENDIAN;
+            int h = SEED;
+            for (int i = 0; i < blocks; i += Integer.BYTES) {
+                int k = buffer.getInt(offset + i);
+                if (swap) {
+                    k = Integer.reverseBytes(k);
+                }
+                h ^= mixK(k);
+                h = Integer.rotateLeft(h, 13);
+                h = h * 5 + 0xe6546b64;
+            }
+            if (length > blocks) {
+                // the remaining 1-3 bytes in little endian
+                int k = 0;
+                for (int i = length - 1; i >= blocks; i--) {
+                    k = (k << 8) | (buffer.get(offset + i) & 0xff);
+                }
+                h ^= mixK(k);
+            }
+            h ^= length;
+            h ^= h >>> 16;
+            h *= 0x85ebca6b;
+            h ^= h >>> 13;
+            h *= 0xc2b2ae35;
+            h ^= h >>> 16;
+            return h;
+        }
+
+        private static int mixK(int k) {
+            int result = k * C1;
+            result = Integer.rotateLeft(result, 15);
+            return result * C2;
+        }
+    }
+}
@@ -17,6 +17,7 @@ package com.asakusafw.vanilla.core.io;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
 
 import com.asakusafw.dag.api.common.DataComparator;
@@ -27,14 +28,51 @@ import com.asakusafw.lang.utils.common.Arguments;
 import com.asakusafw.lang.utils.common.InterruptibleIo;
 import com.asakusafw.vanilla.core.util.Buffers;
 import com.asakusafw.vanilla.core.util.ExtensibleDataBuffer;
+import com.asakusafw.vanilla.core.util.SystemProperty;
 
 /**
  * An implementation of {@link ObjectWriter} using {@link KeyValueSink}.
+ * <p>
+ * Each record is kept as a tuple of primitive values in a {@code long[]}:
+ * the normalized 8-byte key prefix, the key range, and the end of the record.
+ * Records are sorted by their key prefix first, and then the full keys and values are only compared
+ * if their key prefixes are equivalent.
+ * </p>
  * @since 0.4.0
+ * @version 0.5.4
  */
 public class StreamGroupWriter implements ObjectWriter {
 
-    private static final Position[] EMPTY = new Position[0];
+    static final String KEY_PREFIX = SystemProperty.KEY_PREFIX + "output.sort."; //$NON-NLS-1$
+
+    /**
+     * The system property key of whether or not records are sorted by their normalized key prefix
+     * ({@value}: {@value #DEFAULT_PREFIX_SORT}).
+     * @since 0.5.4
+     */
+    public static final String KEY_PREFIX_SORT = KEY_PREFIX + "prefix"; //$NON-NLS-1$
+
+    /**
+     * The default value of {@link #KEY_PREFIX_SORT} ({@value}).
+     * @since 0.5.4
+     */
+    public static final boolean DEFAULT_PREFIX_SORT = true;
+
+    static final boolean PREFIX_SORT = SystemProperty.get(KEY_PREFIX_SORT, DEFAULT_PREFIX_SORT);
+
+    private static final long[] EMPTY = new long[0];
+
+    private static final int ENTRY_SIZE = 3;
+
+    private static final int OFFSET_PREFIX = 0;
+
+    private static final int OFFSET_KEY = 1;
+
+    private static final int OFFSET_END = 2;
+
+    private static final long PREFIX_SIGN_BITS = 0x8080_8080_8080_8080L;
+
+    private static final int INSERTION_SORT_THRESHOLD = 16;
 
     private final KeyValueSink.Stream sinks;
 
@@ -48,7 +86,7 @@ public class StreamGroupWriter implements ObjectWriter {
 
     private final ExtensibleDataBuffer buffer;
 
-    private Position[] positions = EMPTY;
+    private long[] entries = EMPTY;
 
     private int recordCount = 0;
 
@@ -110,22 +148,18 @@ public class StreamGroupWriter implements ObjectWriter {
     }
 
     private void addEntry(int recordBegin, int keyEnd, int recordEnd) throws IOException, InterruptedException {
-        Position[] ps = positions;
+        long[] es = entries;
         int index = recordCount;
-        if (index >= ps.length) {
-            Position[] newPs = new Position[Math.min(
+        int offset = index * ENTRY_SIZE;
+        if (offset >= es.length) {
+            int capacity = Math.min(
                     recordCountLimit,
-                    Math.max(index + 10, (int) (ps.length * 1.2)))];
-            System.arraycopy(ps, 0, newPs, 0, ps.length);
-            ps = newPs;
-            positions = ps;
+                    Math.max(index + 10, (int) (index * 1.2)));
+            es = Arrays.copyOf(es, capacity * ENTRY_SIZE);
+            entries = es;
         }
-        Position p = ps[index];
-        if (p == null) {
-            p = new Position();
-            ps[index] = p;
-        }
-        p.setRange(recordBegin, keyEnd, recordEnd);
+        es[offset + OFFSET_KEY] = ((long) recordBegin << Integer.SIZE) | keyEnd;
+        es[offset + OFFSET_END] = recordEnd;
         recordCount = index + 1;
         if (recordCount >= recordCountLimit || recordEnd >= bufferSizeThreshold) {
             flush();
@@ -145,37 +179,48 @@ public class StreamGroupWriter implements ObjectWriter {
 
     private void sort0() {
         ByteBuffer buf = buffer.buffer();
-        ByteBuffer aBuf = Buffers.duplicate(buf);
-        ByteBuffer bBuf = Buffers.duplicate(buf);
-        NioDataBuffer aWrapper = new NioDataBuffer();
-        NioDataBuffer bWrapper = new NioDataBuffer();
-        aWrapper.contents = aBuf;
-        bWrapper.contents = bBuf;
-        DataComparator cmp = comparator;
-        Arrays.sort(positions, 0, recordCount, (a, b) -> {
-            int keyDiff = a.setKeyRange(aBuf).compareTo(b.setKeyRange(bBuf));
-            if (cmp == null || keyDiff != 0) {
-                return keyDiff;
-            }
-            a.setValueRange(aBuf);
-            b.setValueRange(bBuf);
-            try {
-                return cmp.compare(aWrapper, bWrapper);
-            } catch (IOException e) {
-                throw new IllegalStateException(e);
+        long[] es = entries;
+        int records = recordCount;
+        if (PREFIX_SORT == false) {
+            sort(es, 0, records, new FullComparator(buf, comparator, false));
+            return;
+        }
+        for (int i = 0; i < records; i++) {
+            int offset = i * ENTRY_SIZE;
+            long key = es[offset + OFFSET_KEY];
+            es[offset + OFFSET_PREFIX] = getPrefix(buf, getBegin(key), getEnd(key));
+        }
+        sort(es, 0, records, (entries, a, b) -> Long.compareUnsigned(
+                entries[a * ENTRY_SIZE + OFFSET_PREFIX],
+                entries[b * ENTRY_SIZE + OFFSET_PREFIX]));
+
+        // resolve ties of key prefixes
+        FullComparator ties = null;
+        int start = 0;
+        for (int i = 1; i <= records; i++) {
+            if (i == records
+                    || es[i * ENTRY_SIZE + OFFSET_PREFIX] != es[start * ENTRY_SIZE + OFFSET_PREFIX]) {
+                if (i - start > 1) {
+                    if (ties == null) {
+                        ties = new FullComparator(buf, comparator, true);
+                    }
+                    sort(es, start, i, ties);
+                }
+                start = i;
             }
-        });
+        }
     }
 
     private void flush0() throws IOException, InterruptedException {
-        Position[] ps = positions;
+        long[] es = entries;
         int records = recordCount;
         int keySize = 0;
         int valueSize = 0;
         for (int i = 0; i < records; i++) {
-            Position p = ps[i];
-            keySize += p.getKeySize();
-            valueSize += p.getValueSize();
+            int offset = i * ENTRY_SIZE;
+            long key = es[offset + OFFSET_KEY];
+            keySize += getEnd(key) - getBegin(key);
+            valueSize += (int) es[offset + OFFSET_END] - getEnd(key);
         }
         ByteBuffer buf = buffer.buffer();
         ByteBuffer keyBuf = Buffers.duplicate(buf);
@@ -183,14 +228,18 @@ public class StreamGroupWriter implements ObjectWriter {
         ByteBuffer lastKeyBuf = Buffers.duplicate(buf);
         try (KeyValueSink sink = sinks.offer(records, keySize, valueSize)) {
             for (int i = 0; i < records; i++) {
-                Position p = ps[i];
-                if (i != 0 && lastKeyBuf.equals(p.setKeyRange(keyBuf))) {
-                    if (sink.accept(p.setValueRange(valueBuf))) {
+                int offset = i * ENTRY_SIZE;
+                long key = es[offset + OFFSET_KEY];
+                int keyBegin = getBegin(key);
+                int keyEnd = getEnd(key);
+                int recordEnd = (int) es[offset + OFFSET_END];
+                if (i != 0 && lastKeyBuf.equals(Buffers.range(keyBuf, keyBegin, keyEnd))) {
+                    if (sink.accept(Buffers.range(valueBuf, keyEnd, recordEnd))) {
                         continue;
                     }
                 }
-                sink.accept(p.setKeyRange(keyBuf), p.setValueRange(valueBuf));
-                p.setKeyRange(lastKeyBuf);
+                sink.accept(Buffers.range(keyBuf, keyBegin, keyEnd), Buffers.range(valueBuf, keyEnd, recordEnd));
+                Buffers.range(lastKeyBuf, keyBegin, keyEnd);
             }
         }
     }
@@ -207,38 +256,163 @@ public class StreamGroupWriter implements ObjectWriter {
         }
     }
 
-    private static final class Position {
-
-        private int recordBegin;
-
-        private int keyEnd;
+    static int getBegin(long key) {
+        return (int) (key >>> Integer.SIZE);
+    }
 
-        private int recordEnd;
+    static int getEnd(long key) {
+        return (int) key;
+    }
 
-        Position() {
-            return;
+    /**
+     * Returns the normalized key prefix, which can be compared as unsigned {@code long} values
+     * in the same order as {@link ByteBuffer#compareTo(ByteBuffer)}.
+     * Note that, the prefixes of keys may be equivalent even if the keys are different.
+     * @param buffer the source buffer
+     * @param begin the beginning of the key (inclusive)
+     * @param end the end of the key (exclusive)
+     * @return the normalized key prefix
+     */
+    static long getPrefix(ByteBuffer buffer, int begin, int end) {
+        int length = end - begin;
+        if (length >= Long.BYTES && buffer.order() == ByteOrder.BIG_ENDIAN) {
+            return buffer.getLong(begin) ^ PREFIX_SIGN_BITS;
         }
-
-        void setRange(int newRecordBegin, int newKeyEnd, int newRecordEnd) {
-            this.recordBegin = newRecordBegin;
-            this.keyEnd = newKeyEnd;
-            this.recordEnd = newRecordEnd;
+        long result = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            result <<= Byte.SIZE;
+            if (i < length) {
+                // ByteBuffer.compareTo() compares each byte as signed value
+                result |= (buffer.get(begin + i) ^ 0x80) & 0xff;
+            }
         }
+        return result;
+    }
 
-        int getKeySize() {
-            return keyEnd - recordBegin;
+    static void sort(long[] entries, int from, int to, EntryComparator comparator) {
+        int lo = from;
+        int hi = to;
+        while (hi - lo > INSERTION_SORT_THRESHOLD) {
+            int last = hi - 1;
+            int mid = (lo + last) >>> 1;
+            if (comparator.compare(entries, mid, lo) < 0) {
+                swap(entries, mid, lo);
+            }
+            if (comparator.compare(entries, last, lo) < 0) {
+                swap(entries, last, lo);
+            }
+            if (comparator.compare(entries, last, mid) < 0) {
+                swap(entries, last, mid);
+            }
+            // entries[lo] <= pivot <= entries[last]
+            int pivot = last - 1;
+            swap(entries, mid, pivot);
+            int i = lo;
+            int j = pivot;
+            while (true) {
+                while (comparator.compare(entries, ++i, pivot) < 0) {
+                    continue;
+                }
+                while (comparator.compare(entries, --j, pivot) > 0) {
+                    continue;
+                }
+                if (i >= j) {
+                    break;
+                }
+                swap(entries, i, j);
+            }
+            swap(entries, i, pivot);
+            if (i - lo < hi - i) {
+                sort(entries, lo, i, comparator);
+                lo = i + 1;
+            } else {
+                sort(entries, i + 1, hi, comparator);
+                hi = i;
+            }
         }
+        for (int i = lo + 1; i < hi; i++) {
+            for (int j = i; j > lo && comparator.compare(entries, j - 1, j) > 0; j--) {
+                swap(entries, j - 1, j);
+            }
+        }
+    }
 
-        int getValueSize() {
-            return recordEnd - keyEnd;
+    private static void swap(long[] entries, int a, int b) {
+        int aOffset = a * ENTRY_SIZE;
+        int bOffset = b * ENTRY_SIZE;
+        for (int i = 0; i < ENTRY_SIZE; i++) {
+            long t = entries[aOffset + i];
+            entries[aOffset + i] = entries[bOffset + i];
+            entries[bOffset + i] = t;
         }
+    }
 
-        ByteBuffer setKeyRange(ByteBuffer buffer) {
-            return Buffers.range(buffer, recordBegin, keyEnd);
+    @FunctionalInterface
+    interface EntryComparator {
+
+        int compare(long[] entries, int a, int b);
+    }
+
+    private static final class FullComparator implements EntryComparator {
+
+        private final ByteBuffer aBuf;
+
+        private final ByteBuffer bBuf;
+
+        private final NioDataBuffer aWrapper = new NioDataBuffer();
+
+        private final NioDataBuffer bWrapper = new NioDataBuffer();
+
+        private final DataComparator comparator;
+
+        private final boolean prefixed;
+
+        FullComparator(ByteBuffer buffer, DataComparator comparator, boolean prefixed) {
+            this.aBuf = Buffers.duplicate(buffer);
+            this.bBuf = Buffers.duplicate(buffer);
+            this.aWrapper.contents = aBuf;
+            this.bWrapper.contents = bBuf;
+            this.comparator = comparator;
+            this.prefixed = prefixed;
         }
 
-        ByteBuffer setValueRange(ByteBuffer buffer) {
-            return Buffers.range(buffer, keyEnd, recordEnd);
+        @Override
+        public int compare(long[] entries, int a, int b) {
+            int aOffset = a * ENTRY_SIZE;
+            int bOffset = b * ENTRY_SIZE;
+            long aKey = entries[aOffset + OFFSET_KEY];
+            long bKey = entries[bOffset + OFFSET_KEY];
+            int aBegin = getBegin(aKey);
+            int bBegin = getBegin(bKey);
+            int aEnd = getEnd(aKey);
+            int bEnd = getEnd(bKey);
+            int keyDiff;
+            if (prefixed == false) {
+                keyDiff = Buffers.range(aBuf, aBegin, aEnd).compareTo(Buffers.range(bBuf, bBegin, bEnd));
+            } else if (aEnd - aBegin <= Long.BYTES || bEnd - bBegin <= Long.BYTES) {
+                // the shorter key is a prefix of the other
+                keyDiff = Integer.compare(aEnd - aBegin, bEnd - bBegin);
+            } else {
+                keyDiff = Buffers.range(aBuf, aBegin + Long.BYTES, aEnd)
+                        .compareTo(Buffers.range(bBuf, bBegin + Long.BYTES, bEnd));
+            }
+            if (keyDiff != 0) {
+                return keyDiff;
+            }
+            if (comparator != null) {
+                Buffers.range(aBuf, aEnd, (int) entries[aOffset + OFFSET_END]);
+                Buffers.range(bBuf, bEnd, (int) entries[bOffset + OFFSET_END]);
+                try {
+                    int valueDiff = comparator.compare(aWrapper, bWrapper);
+                    if (valueDiff != 0) {
+                        return valueDiff;
+                    }
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            // keeps the original order
+            return Integer.compare(aBegin, bBegin);
         }
     }
 }
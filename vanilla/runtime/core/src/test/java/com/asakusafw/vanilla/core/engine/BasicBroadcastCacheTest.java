@@ -0,0 +1,130 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.vanilla.core.engine;
+
+import static com.asakusafw.vanilla.core.testing.ModelMirrors.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.asakusafw.dag.api.model.GraphInfo;
+import com.asakusafw.dag.api.model.PortInfo;
+import com.asakusafw.dag.api.model.VertexInfo;
+import com.asakusafw.dag.api.processor.VertexProcessor;
+import com.asakusafw.dag.api.processor.extension.BroadcastCache;
+import com.asakusafw.vanilla.core.mirror.GraphMirror;
+
+/**
+ * Test for {@link BasicBroadcastCache}.
+ */
+public class BasicBroadcastCacheTest {
+
+    private final GraphInfo graph = new GraphInfo();
+
+    /**
+     * shared between consumers.
+     * @throws Exception if failed
+     */
+    @Test
+    public void shared() throws Exception {
+        VertexInfo v0 = graph.addVertex("v0", vertex(VertexProcessor.class));
+        VertexInfo v1 = graph.addVertex("v1", vertex(VertexProcessor.class));
+        VertexInfo v2 = graph.addVertex("v2", vertex(VertexProcessor.class));
+        PortInfo out = v0.addOutputPort("out");
+        graph.addEdge(out.getId(), v1.addInputPort("in").getId(), broadcast(Object.class));
+        graph.addEdge(out.getId(), v2.addInputPort("in").getId(), broadcast(Object.class));
+
+        GraphMirror mirror = GraphMirror.of(graph);
+        BasicBroadcastCache cache = new BasicBroadcastCache(mirror);
+        BroadcastCache c1 = cache.bind(mirror.getVertex("v1"));
+        BroadcastCache c2 = cache.bind(mirror.getVertex("v2"));
+
+        AtomicInteger count = new AtomicInteger();
+        Object a = c1.get("in", "a", () -> "a" + count.incrementAndGet());
+        Object b = c2.get("in", "a", () -> "a" + count.incrementAndGet());
+        assertThat(a, is("a1"));
+        assertThat(b, is(sameInstance(a)));
+
+        Object c = c2.get("in", "b", () -> "b" + count.incrementAndGet());
+        assertThat(c, is("b2"));
+        assertThat(cache.size(), is(2));
+
+        cache.release(mirror.getVertex("v1"));
+        assertThat(cache.size(), is(2));
+        cache.release(mirror.getVertex("v2"));
+        assertThat(cache.size(), is(0));
+    }
+
+    /**
+     * only one consumer.
+     * @throws Exception if failed
+     */
+    @Test
+    public void single() throws Exception {
+        VertexInfo v0 = graph.addVertex("v0", vertex(VertexProcessor.class));
+        VertexInfo v1 = graph.addVertex("v1", vertex(VertexProcessor.class));
+        VertexInfo v2 = graph.addVertex("v2", vertex(VertexProcessor.class));
+        graph.addEdge(
+                v0.addOutputPort("o1").getId(),
+                v1.addInputPort("in").getId(),
+                broadcast(Object.class));
+        graph.addEdge(
+                v0.addOutputPort("o2").getId(),
+                v2.addInputPort("in").getId(),
+                broadcast(Object.class));
+
+        GraphMirror mirror = GraphMirror.of(graph);
+        BasicBroadcastCache cache = new BasicBroadcastCache(mirror);
+        BroadcastCache c1 = cache.bind(mirror.getVertex("v1"));
+        BroadcastCache c2 = cache.bind(mirror.getVertex("v2"));
+
+        AtomicInteger count = new AtomicInteger();
+        assertThat(c1.get("in", "a", () -> count.incrementAndGet()), is(1));
+        assertThat(c2.get("in", "a", () -> count.incrementAndGet()), is(2));
+        assertThat(cache.size(), is(0));
+    }
+
+    /**
+     * a consumer was completed before the other consumer starts.
+     * @throws Exception if failed
+     */
+    @Test
+    public void released() throws Exception {
+        VertexInfo v0 = graph.addVertex("v0", vertex(VertexProcessor.class));
+        VertexInfo v1 = graph.addVertex("v1", vertex(VertexProcessor.class));
+        VertexInfo v2 = graph.addVertex("v2", vertex(VertexProcessor.class));
+        PortInfo out = v0.addOutputPort("out");
+        graph.addEdge(out.getId(), v1.addInputPort("in").getId(), broadcast(Object.class));
+        graph.addEdge(out.getId(), v2.addInputPort("in").getId(), broadcast(Object.class));
+
+        GraphMirror mirror = GraphMirror.of(graph);
+        BasicBroadcastCache cache = new BasicBroadcastCache(mirror);
+
+        AtomicInteger count = new AtomicInteger();
+        cache.bind(mirror.getVertex("v2")).get("in", "a", () -> count.incrementAndGet());
+        cache.release(mirror.getVertex("v2"));
+        assertThat(cache.size(), is(1));
+
+        assertThat(cache.bind(mirror.getVertex("v1")).get("in", "a", () -> count.incrementAndGet()), is(1));
+        assertThat(cache.bind(mirror.getVertex("v1")).get("in", "b", () -> count.incrementAndGet()), is(2));
+        assertThat(cache.size(), is(1));
+        cache.release(mirror.getVertex("v1"));
+        assertThat(cache.size(), is(0));
+    }
+}
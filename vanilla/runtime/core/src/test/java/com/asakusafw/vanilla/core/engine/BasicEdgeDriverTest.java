@@ -28,6 +28,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import org.junit.Rule;
@@ -95,6 +98,14 @@ public class BasicEdgeDriverTest {
 
     private final double mergeFactor = 1.0;
 
+    private long pipelineBufferSize = 0;
+
+    private int mergeThreads = 0;
+
+    private long mergeBudget = 0;
+
+    private ExecutionProfile profile = null;
+
     /**
      * nothing - trivial case.
      * @throws Exception if failed
@@ -278,6 +289,107 @@ public class BasicEdgeDriverTest {
         assertThat(pool.getSize(), is(0L));
     }
 
+    /**
+     * one-to-one - pipelined.
+     * @throws Exception if failed
+     */
+    @Test
+    public void o2o_pipelined() throws Exception {
+        pipelineBufferSize = 1;
+        GraphInfo info = new GraphInfo();
+        VertexInfo v0 = info.addVertex("v0", vertex(VoidVertexProcessor.class));
+        VertexInfo v1 = info.addVertex("v1", vertex(VoidVertexProcessor.class));
+        PortId upstream = v0.addOutputPort("p").getId();
+        PortId downstream = v1.addInputPort("p").getId();
+        info.addEdge(upstream, downstream, oneToOne(MockDataModelUtil.SerDe.class));
+
+        GraphMirror graph = GraphMirror.of(info);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (EdgeDriver driver = driver(graph)) {
+            assertThat(driver.isPipelined(upstream), is(true));
+            assertThat(driver.isPipelined(downstream), is(true));
+            Future<?> producer = executor.submit(() -> {
+                try (ObjectWriter writer = (ObjectWriter) driver.acquireOutput(upstream)) {
+                    for (int i = 0; i < 10_000; i++) {
+                        writer.putObject(object(i, 0, "Hello" + i));
+                    }
+                }
+                complete(driver, upstream);
+                return null;
+            });
+            BitSet saw = new BitSet();
+            try (ObjectReader reader = (ObjectReader) driver.acquireInput(downstream, 0, 1)) {
+                while (reader.nextObject()) {
+                    saw.set(((MockDataModel) reader.getObject()).getKey());
+                }
+            }
+            producer.get();
+            assertThat(saw.cardinality(), is(10_000));
+            complete(driver, downstream);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(pool.getSize(), is(0L));
+    }
+
+    /**
+     * one-to-one - pipelined, but the upstream is completed before the downstream.
+     * @throws Exception if failed
+     */
+    @Test
+    public void o2o_pipelined_serial() throws Exception {
+        pipelineBufferSize = 1;
+        GraphInfo info = new GraphInfo();
+        VertexInfo v0 = info.addVertex("v0", vertex(VoidVertexProcessor.class));
+        VertexInfo v1 = info.addVertex("v1", vertex(VoidVertexProcessor.class));
+        PortId upstream = v0.addOutputPort("p").getId();
+        PortId downstream = v1.addInputPort("p").getId();
+        info.addEdge(upstream, downstream, oneToOne(MockDataModelUtil.SerDe.class));
+
+        GraphMirror graph = GraphMirror.of(info);
+        try (EdgeDriver driver = driver(graph)) {
+            try (ObjectWriter writer = (ObjectWriter) driver.acquireOutput(upstream)) {
+                for (int i = 0; i < 10_000; i++) {
+                    writer.putObject(object(i, 0, "Hello" + i));
+                }
+            }
+            complete(driver, upstream);
+            BitSet saw = new BitSet();
+            try (ObjectReader reader = (ObjectReader) driver.acquireInput(downstream, 0, 1)) {
+                while (reader.nextObject()) {
+                    saw.set(((MockDataModel) reader.getObject()).getKey());
+                }
+            }
+            assertThat(saw.cardinality(), is(10_000));
+            complete(driver, downstream);
+        }
+        assertThat(pool.getSize(), is(0L));
+    }
+
+    /**
+     * one-to-one - edges with multiple downstreams are not pipelined.
+     * @throws Exception if failed
+     */
+    @Test
+    public void o2o_pipelined_duplicate() throws Exception {
+        pipelineBufferSize = 1;
+        GraphInfo info = new GraphInfo();
+        VertexInfo v0 = info.addVertex("v0", vertex(VoidVertexProcessor.class));
+        VertexInfo v1 = info.addVertex("v1", vertex(VoidVertexProcessor.class));
+        PortId u0 = v0.addOutputPort("p").getId();
+        PortId d0 = v1.addInputPort("p0").getId();
+        PortId d1 = v1.addInputPort("p1").getId();
+        info.addEdge(u0, d0, oneToOne(MockDataModelUtil.SerDe.class));
+        info.addEdge(u0, d1, oneToOne(MockDataModelUtil.SerDe.class));
+
+        GraphMirror graph = GraphMirror.of(info);
+        try (EdgeDriver driver = driver(graph)) {
+            assertThat(driver.isPipelined(u0), is(false));
+            assertThat(driver.isPipelined(d0), is(false));
+            assertThat(driver.isPipelined(d1), is(false));
+        }
+    }
+
     /**
      * broadcast - simple case.
      * @throws Exception if failed
@@ -532,6 +644,65 @@ public class BasicEdgeDriverTest {
         assertThat(pool.getSize(), is(0L));
     }
 
+    /**
+     * scatter-gather - w/ execution profile.
+     * @throws Exception if failed
+     */
+    @Test
+    public void scatter_profile() throws Exception {
+        mergeThreshold = 2;
+        profile = new ExecutionProfile();
+        GraphInfo info = new GraphInfo();
+        VertexInfo v0 = info.addVertex("v0", vertex(VoidVertexProcessor.class));
+        VertexInfo v1 = info.addVertex("v1", vertex(VoidVertexProcessor.class));
+        PortId u0 = v0.addOutputPort("p0").getId();
+        PortId u1 = v0.addOutputPort("p1").getId();
+        PortId u2 = v0.addOutputPort("p2").getId();
+        PortId d0 = v1.addInputPort("p").getId();
+        info.addEdge(u0, d0, scatterGather(KvSerDe1.class, KvSerDe1.class));
+        info.addEdge(u1, d0, scatterGather(KvSerDe1.class, KvSerDe1.class));
+        info.addEdge(u2, d0, scatterGather(KvSerDe1.class, KvSerDe1.class));
+
+        GraphMirror graph = GraphMirror.of(info);
+        try (EdgeDriver driver = driver(graph)) {
+            try (ObjectWriter writer = (ObjectWriter) driver.acquireOutput(u0)) {
+                writer.putObject(object(0, 0, "Hello0"));
+            }
+            complete(driver, u0);
+            try (ObjectWriter writer = (ObjectWriter) driver.acquireOutput(u1)) {
+                writer.putObject(object(1, 0, "Hello1"));
+            }
+            complete(driver, u1);
+            try (ObjectWriter writer = (ObjectWriter) driver.acquireOutput(u2)) {
+                writer.putObject(object(2, 0, "Hello2"));
+            }
+            complete(driver, u2);
+            try (GroupReader reader = (GroupReader) driver.acquireInput(d0, 0, 1)) {
+                check(reader,
+                        object(0, 0, "Hello0"),
+                        object(1, 0, "Hello1"),
+                        object(2, 0, "Hello2"));
+            }
+            complete(driver, d0);
+        }
+        ExecutionProfile.Vertex upstream = profile.getVertex("v0");
+        long written = 0;
+        for (String name : Arrays.asList("p0", "p1", "p2")) {
+            ExecutionProfile.Port port = upstream.getOutput(name);
+            assertThat(port.getBytes(), greaterThan(0L));
+            assertThat(port.getMerges(), is(0L));
+            written += port.getBytes();
+        }
+        ExecutionProfile.Port input = profile.getVertex("v1").getInput("p");
+        // merged fragments may have less framing data than their sources
+        assertThat(input.getBytes(), allOf(greaterThan(0L), lessThanOrEqualTo(written)));
+        // 2 fragments are merged into the BLOB store, and then the rest 2 fragments are merged in the final gather
+        assertThat(input.getMerges(), is(2L));
+        assertThat(input.getMergeFanIn(), is(4L));
+        assertThat(input.getMaxMergeFanIn(), is(2L));
+        assertThat(input.getSpilledBytes(), greaterThan(0L));
+    }
+
     /**
      * scatter-gather - w/ multiple upstreams.
      * @throws Exception if failed
@@ -582,6 +753,82 @@ public class BasicEdgeDriverTest {
         assertThat(pool.getSize(), is(0L));
     }
 
+    /**
+     * scatter-gather - w/ background merging.
+     * @throws Exception if failed
+     */
+    @Test
+    public void scatter_merge_background() throws Exception {
+        GraphInfo info = new GraphInfo();
+        VertexInfo v0 = info.addVertex("v0", vertex(VoidVertexProcessor.class));
+        VertexInfo v1 = info.addVertex("v1", vertex(VoidVertexProcessor.class));
+        PortId u0 = v0.addOutputPort("p0").getId();
+        PortId d0 = v1.addInputPort("p").getId();
+        info.addEdge(u0, d0, scatterGather(KvSerDe1.class, KvSerDe1.class));
+
+        mergeThreshold = 2;
+        mergeThreads = 2;
+        mergeBudget = Long.MAX_VALUE;
+
+        GraphMirror graph = GraphMirror.of(info);
+        List<MockDataModel> expected = new ArrayList<>();
+        try (EdgeDriver driver = driver(graph)) {
+            for (int i = 0; i < 10; i++) {
+                try (ObjectWriter writer = (ObjectWriter) driver.acquireOutput(u0)) {
+                    for (int j = 0; j < 100; j++) {
+                        MockDataModel object = object(j, 0, "Hello" + i);
+                        writer.putObject(object);
+                        expected.add(object);
+                    }
+                }
+            }
+            complete(driver, u0);
+            try (GroupReader reader = (GroupReader) driver.acquireInput(d0, 0, 1)) {
+                check(reader, expected.toArray(new MockDataModel[expected.size()]));
+            }
+            complete(driver, d0);
+        }
+        assertThat(pool.getSize(), is(0L));
+    }
+
+    /**
+     * scatter-gather - w/ background merging, but each fragment exceeds the merge budget.
+     * @throws Exception if failed
+     */
+    @Test
+    public void scatter_merge_background_budget() throws Exception {
+        GraphInfo info = new GraphInfo();
+        VertexInfo v0 = info.addVertex("v0", vertex(VoidVertexProcessor.class));
+        VertexInfo v1 = info.addVertex("v1", vertex(VoidVertexProcessor.class));
+        PortId u0 = v0.addOutputPort("p0").getId();
+        PortId d0 = v1.addInputPort("p").getId();
+        info.addEdge(u0, d0, scatterGather(KvSerDe1.class, KvSerDe1.class));
+
+        mergeThreshold = 2;
+        mergeThreads = 2;
+        mergeBudget = 1;
+
+        GraphMirror graph = GraphMirror.of(info);
+        List<MockDataModel> expected = new ArrayList<>();
+        try (EdgeDriver driver = driver(graph)) {
+            for (int i = 0; i < 10; i++) {
+                try (ObjectWriter writer = (ObjectWriter) driver.acquireOutput(u0)) {
+                    for (int j = 0; j < 100; j++) {
+                        MockDataModel object = object(j, 0, "Hello" + i);
+                        writer.putObject(object);
+                        expected.add(object);
+                    }
+                }
+            }
+            complete(driver, u0);
+            try (GroupReader reader = (GroupReader) driver.acquireInput(d0, 0, 1)) {
+                check(reader, expected.toArray(new MockDataModel[expected.size()]));
+            }
+            complete(driver, d0);
+        }
+        assertThat(pool.getSize(), is(0L));
+    }
+
     /**
      * scatter-gather - w/ multiple upstreams + striping.
      * @throws Exception if failed
@@ -833,7 +1080,10 @@ public class BasicEdgeDriverTest {
                 pool, store.getBlobStore(),
                 partitions,
                 bufferSize, bufferMargin, recordCount,
-                mergeThreshold, mergeFactor);
+                mergeThreshold, mergeFactor,
+                pipelineBufferSize,
+                mergeThreads, mergeBudget,
+                profile);
     }
 
     private BitSet keys(List<MockDataModel> objects) {
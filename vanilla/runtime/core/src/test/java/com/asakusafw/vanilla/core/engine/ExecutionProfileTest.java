@@ -0,0 +1,116 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.vanilla.core.engine;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link ExecutionProfile}.
+ */
+public class ExecutionProfileTest {
+
+    /**
+     * simple case.
+     * @throws Exception if failed
+     */
+    @Test
+    public void simple() throws Exception {
+        ExecutionProfile profile = new ExecutionProfile();
+        ExecutionProfile.Vertex vertex = profile.getVertex("v");
+        vertex.setLabel("testing");
+        vertex.setInitializeTime(10);
+        vertex.setElapsedTime(100);
+        vertex.addTask("v-1", 20, 15);
+        vertex.addTask("v-0", 30, ExecutionProfile.UNAVAILABLE);
+        ExecutionProfile.Port input = vertex.getInput("in");
+        input.addRecords(3);
+        input.addBytes(300);
+        input.addMerge(4, 200);
+        input.addMerge(2, 0);
+        vertex.getOutput("out").addRecords(1);
+        profile.setElapsedTime(1000);
+        profile.setBufferPoolStatistics(500, 5);
+
+        StringWriter writer = new StringWriter();
+        profile.write(writer);
+        assertThat(writer.toString(), is(String.join("\n",
+                "{",
+                "  \"version\": 1,",
+                "  \"elapsedNanos\": 1000,",
+                "  \"bufferPool\": {",
+                "    \"escapedBytes\": 500,",
+                "    \"stallMillis\": 5",
+                "  },",
+                "  \"vertices\": [",
+                "    {",
+                "      \"id\": \"v\",",
+                "      \"label\": \"testing\",",
+                "      \"elapsedNanos\": 100,",
+                "      \"initializeNanos\": 10,",
+                "      \"tasks\": [",
+                "        {\"id\": \"v-0\", \"wallNanos\": 30, \"cpuNanos\": -1},",
+                "        {\"id\": \"v-1\", \"wallNanos\": 20, \"cpuNanos\": 15}",
+                "      ],",
+                "      \"inputs\": [",
+                "        {\"name\": \"in\", \"records\": 3, \"bytes\": 300, \"spilledBytes\": 200, "
+                        + "\"merges\": 2, \"mergeFanIn\": 6, \"maxMergeFanIn\": 4}",
+                "      ],",
+                "      \"outputs\": [",
+                "        {\"name\": \"out\", \"records\": 1, \"bytes\": 0, \"spilledBytes\": 0, "
+                        + "\"merges\": 0, \"mergeFanIn\": 0, \"maxMergeFanIn\": 0}",
+                "      ]",
+                "    }",
+                "  ]",
+                "}",
+                "")));
+    }
+
+    /**
+     * w/ multiple vertices and tasks.
+     */
+    @Test
+    public void order() {
+        ExecutionProfile profile = new ExecutionProfile();
+        profile.getVertex("b").addTask("b-10", 0, 0);
+        profile.getVertex("b").addTask("b-9", 0, 0);
+        profile.getVertex("b").addTask("b-0", 0, 0);
+        profile.getVertex("a");
+        assertThat(profile.getVertices().stream()
+                .map(ExecutionProfile.Vertex::getId)
+                .toArray(), is(new Object[] { "a", "b" }));
+        assertThat(profile.getVertex("b").getTasks().stream()
+                .map(ExecutionProfile.Task::getId)
+                .toArray(), is(new Object[] { "b-0", "b-9", "b-10" }));
+    }
+
+    /**
+     * w/ escaped strings.
+     * @throws Exception if failed
+     */
+    @Test
+    public void escape() throws Exception {
+        ExecutionProfile profile = new ExecutionProfile();
+        profile.getVertex("v").setLabel("\"a\\b\"\n\u0001");
+        StringWriter writer = new StringWriter();
+        profile.write(writer);
+        assertThat(writer.toString(), containsString("\"label\": \"\\\"a\\\\b\\\"\\n\\u0001\","));
+    }
+}
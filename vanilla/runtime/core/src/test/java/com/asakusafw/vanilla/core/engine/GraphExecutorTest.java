@@ -25,7 +25,11 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Queue;
+import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.UnaryOperator;
 
 import org.junit.Test;
@@ -108,11 +112,55 @@ public class GraphExecutorTest {
         }
     }
 
+    /**
+     * run independent vertices concurrently.
+     * @throws Exception if failed
+     */
+    @Test
+    public void concurrent() throws Exception {
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        Queue<String> outputs = new ConcurrentLinkedQueue<>();
+        GraphInfo graph = new GraphInfo();
+        for (String id : new String[] { "v0", "v1" }) {
+            graph.addVertex(id, vertex(() -> new VertexProcessor() {
+                @Override
+                public Optional<? extends TaskSchedule> initialize(VertexProcessorContext context) {
+                    return Optionals.of(new BasicTaskSchedule(new BasicTaskInfo()));
+                }
+                @Override
+                public TaskProcessor createTaskProcessor() throws IOException, InterruptedException {
+                    return c -> {
+                        try {
+                            // never passes if the vertices were executed one by one
+                            barrier.await(10, TimeUnit.SECONDS);
+                        } catch (BrokenBarrierException | TimeoutException e) {
+                            throw new IOException(e);
+                        }
+                        outputs.offer(c.getVertexId());
+                    };
+                }
+            }));
+        }
+        GraphMirror mirror = GraphMirror.of(graph);
+        try (MockEdgeDriver edges = new MockEdgeDriver()) {
+            run(mirror, edges, 2, 2);
+            assertThat(outputs, containsInAnyOrder("v0", "v1"));
+        }
+    }
+
     private void run(GraphMirror mirror, MockEdgeDriver edges) throws IOException, InterruptedException {
+        int concurrency = Math.max(Runtime.getRuntime().availableProcessors() / 2, 1);
+        run(mirror, edges, concurrency, 1);
+    }
+
+    private void run(
+            GraphMirror mirror, MockEdgeDriver edges,
+            int numberOfThreads, int numberOfVertices) throws IOException, InterruptedException {
         ProcessorContext context = new BasicProcessorContext(getClass().getClassLoader());
         VertexScheduler sched = new BasicVertexScheduler();
-        int concurrency = Math.max(Runtime.getRuntime().availableProcessors() / 2, 1);
-        GraphExecutor executor = new GraphExecutor(context, mirror, sched, edges, concurrency);
+        GraphExecutor executor = new GraphExecutor(
+                context, mirror, sched, edges,
+                numberOfThreads, numberOfVertices, null);
         executor.run();
         assertThat(edges.isCompleted(), is(true));
     }
@@ -23,12 +23,20 @@ import static org.junit.Assert.*;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
@@ -41,6 +49,8 @@ import com.asakusafw.dag.api.model.VertexInfo;
 import com.asakusafw.dag.api.processor.ObjectReader;
 import com.asakusafw.dag.api.processor.ObjectWriter;
 import com.asakusafw.dag.api.processor.ProcessorContext;
+import com.asakusafw.dag.api.processor.SplittableTaskInfo;
+import com.asakusafw.dag.api.processor.TaskInfo;
 import com.asakusafw.dag.api.processor.TaskProcessor;
 import com.asakusafw.dag.api.processor.TaskSchedule;
 import com.asakusafw.dag.api.processor.VertexProcessor;
@@ -48,9 +58,11 @@ import com.asakusafw.dag.api.processor.VertexProcessorContext;
 import com.asakusafw.dag.api.processor.basic.BasicProcessorContext;
 import com.asakusafw.dag.api.processor.basic.BasicTaskInfo;
 import com.asakusafw.dag.api.processor.basic.BasicTaskSchedule;
+import com.asakusafw.dag.api.processor.extension.ThreadBudget;
 import com.asakusafw.dag.runtime.skeleton.VoidVertexProcessor;
 import com.asakusafw.dag.runtime.testing.MockDataModel;
 import com.asakusafw.dag.runtime.testing.MockDataModelUtil;
+import com.asakusafw.lang.utils.common.Lang;
 import com.asakusafw.lang.utils.common.Optionals;
 import com.asakusafw.vanilla.core.mirror.GraphMirror;
 import com.asakusafw.vanilla.core.mirror.VertexMirror;
@@ -103,6 +115,99 @@ public class VertexExecutorTest {
         }
     }
 
+    /**
+     * w/ splittable tasks.
+     * @throws Exception if failed
+     */
+    @Test
+    public void task_splittable() throws Exception {
+        Map<Integer, String> results = new ConcurrentHashMap<>();
+
+        GraphInfo graph = new GraphInfo();
+        VertexInfo v = graph.addVertex("v", vertex(() -> new RangeProcessor(1000, (t, i) -> {
+            assertThat(results.put(i, t), is(nullValue()));
+        })));
+
+        GraphMirror mirror = GraphMirror.of(graph);
+        try (MockEdgeDriver edges = new MockEdgeDriver()) {
+            run(mirror.getVertex(v.getId()), edges, 4);
+        }
+        assertThat(results.keySet(), hasSize(1000));
+        assertThat(new HashSet<>(results.values()).size(), greaterThan(1));
+    }
+
+    /**
+     * w/ splittable tasks which are stolen while they are running.
+     * @throws Exception if failed
+     */
+    @Test
+    public void task_steal() throws Exception {
+        Map<Integer, String> results = new ConcurrentHashMap<>();
+        CountDownLatch stolen = new CountDownLatch(1);
+
+        GraphInfo graph = new GraphInfo();
+        VertexInfo v = graph.addVertex("v", vertex(() -> new CursorProcessor(1000, stolen, (t, i) -> {
+            assertThat(results.put(i, t), is(nullValue()));
+        })));
+
+        GraphMirror mirror = GraphMirror.of(graph);
+        try (MockEdgeDriver edges = new MockEdgeDriver()) {
+            run(mirror.getVertex(v.getId()), edges, 4);
+        }
+        assertThat(stolen.getCount(), is(0L));
+        assertThat(results.keySet(), hasSize(1000));
+        assertThat(new HashSet<>(results.values()).size(), greaterThan(1));
+    }
+
+    /**
+     * w/ thread budget.
+     * @throws Exception if failed
+     */
+    @Test
+    public void thread_budget() throws Exception {
+        AtomicInteger budget = new AtomicInteger();
+
+        GraphInfo graph = new GraphInfo();
+        VertexInfo v = graph.addVertex("v", vertex(() -> new SimpleProcessor(Lang.discard(),
+                object(0, "0.0", "hello0")) {
+            @Override
+            public Optional<? extends TaskSchedule> initialize(VertexProcessorContext context) {
+                budget.set(context.getResource(ThreadBudget.class)
+                        .map(ThreadBudget::getNumberOfThreads)
+                        .orElse(0));
+                return super.initialize(context);
+            }
+        }));
+
+        GraphMirror mirror = GraphMirror.of(graph);
+        try (MockEdgeDriver edges = new MockEdgeDriver()) {
+            run(mirror.getVertex(v.getId()), edges, 3);
+        }
+        assertThat(budget.get(), is(3));
+    }
+
+    /**
+     * w/ failed tasks.
+     * @throws Exception if failed
+     */
+    @Test
+    public void task_failure() throws Exception {
+        GraphInfo graph = new GraphInfo();
+        VertexInfo v = graph.addVertex("v", vertex(() -> new RangeProcessor(10, (t, i) -> {
+            if (i == 5) {
+                throw new IllegalStateException();
+            }
+        })));
+
+        GraphMirror mirror = GraphMirror.of(graph);
+        try (MockEdgeDriver edges = new MockEdgeDriver()) {
+            run(mirror.getVertex(v.getId()), edges, 4);
+            fail();
+        } catch (IllegalStateException e) {
+            // ok.
+        }
+    }
+
     /**
      * w/ inputs.
      * @throws Exception if failed
@@ -181,9 +286,59 @@ public class VertexExecutorTest {
         }
     }
 
+    /**
+     * w/ execution profile.
+     * @throws Exception if failed
+     */
+    @Test
+    public void profile() throws Exception {
+        Queue<MockDataModel> results = new ConcurrentLinkedQueue<>();
+
+        GraphInfo graph = new GraphInfo();
+
+        VertexInfo dummy = graph.addVertex("dummy", vertex(VoidVertexProcessor.class));
+        PortInfo ph = dummy.addOutputPort("ph");
+
+        VertexInfo v = graph.addVertex("v", vertex(() -> new InputProcessor(results::offer)));
+        PortInfo input = v.addInputPort(InputProcessor.INPUT_NAME);
+
+        graph.addEdge(ph.getId(), input.getId(), oneToOne(MockDataModelUtil.SerDe.class));
+
+        ExecutionProfile profile = new ExecutionProfile();
+        GraphMirror mirror = GraphMirror.of(graph);
+        try (MockEdgeDriver edges = new MockEdgeDriver()) {
+            edges.input(input.getId(), Arrays.asList(
+                    object(0, "0.0", "hello0"),
+                    object(1, "1.0", "hello1"),
+                    object(2, "2.0", "hello2")));
+            run(mirror.getVertex(v.getId()), edges, 2, new BasicProcessorContext(getClass().getClassLoader())
+                    .withResource(ExecutionProfile.class, profile));
+        }
+        assertThat(results, hasSize(3));
+
+        ExecutionProfile.Vertex vp = profile.getVertex(mirror.getVertex(v.getId()).getId().getName());
+        assertThat(vp.getLabel(), is(notNullValue()));
+        assertThat(vp.getInitializeTime(), greaterThanOrEqualTo(0L));
+        assertThat(vp.getElapsedTime(), greaterThanOrEqualTo(vp.getInitializeTime()));
+        assertThat(vp.getTasks(), is(not(empty())));
+        for (ExecutionProfile.Task task : vp.getTasks()) {
+            assertThat(task.getWallTime(), greaterThanOrEqualTo(0L));
+        }
+        assertThat(vp.getInput(InputProcessor.INPUT_NAME).getRecords(), is(3L));
+    }
+
     private void run(VertexMirror vertex, MockEdgeDriver edges) throws IOException, InterruptedException {
-        ProcessorContext context = new BasicProcessorContext(getClass().getClassLoader());
-        int concurrency = Math.max(Runtime.getRuntime().availableProcessors() / 2, 1);
+        run(vertex, edges, Math.max(Runtime.getRuntime().availableProcessors() / 2, 1));
+    }
+
+    private void run(
+            VertexMirror vertex, MockEdgeDriver edges, int concurrency) throws IOException, InterruptedException {
+        run(vertex, edges, concurrency, new BasicProcessorContext(getClass().getClassLoader()));
+    }
+
+    private void run(
+            VertexMirror vertex, MockEdgeDriver edges, int concurrency,
+            ProcessorContext context) throws IOException, InterruptedException {
         ExecutorService threads = Executors.newFixedThreadPool(concurrency, r -> {
             Thread t = new Thread(r);
             t.setDaemon(true);
@@ -231,6 +386,136 @@ public class VertexExecutorTest {
         }
     }
 
+    private static class RangeProcessor implements VertexProcessor {
+
+        private final int count;
+
+        private final BiConsumer<String, Integer> sink;
+
+        RangeProcessor(int count, BiConsumer<String, Integer> sink) {
+            this.count = count;
+            this.sink = sink;
+        }
+
+        @Override
+        public Optional<? extends TaskSchedule> initialize(VertexProcessorContext context) {
+            return Optionals.of(new BasicTaskSchedule(new RangeTaskInfo(0, count)));
+        }
+
+        @Override
+        public TaskProcessor createTaskProcessor() throws IOException, InterruptedException {
+            return c -> {
+                RangeTaskInfo info = c.getTaskInfo()
+                        .map(RangeTaskInfo.class::cast)
+                        .get();
+                for (int i = info.begin; i < info.end; i++) {
+                    sink.accept(c.getTaskId(), i);
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Range(%,d)", count);
+        }
+    }
+
+    private static class RangeTaskInfo implements SplittableTaskInfo {
+
+        final int begin;
+
+        final int end;
+
+        RangeTaskInfo(int begin, int end) {
+            this.begin = begin;
+            this.end = end;
+        }
+
+        @Override
+        public List<? extends TaskInfo> split() {
+            if (end - begin <= 1) {
+                return Collections.emptyList();
+            }
+            int middle = begin + (end - begin) / 2;
+            return Arrays.asList(new RangeTaskInfo(begin, middle), new RangeTaskInfo(middle, end));
+        }
+    }
+
+    private static class CursorProcessor implements VertexProcessor {
+
+        private final int count;
+
+        private final CountDownLatch stolen;
+
+        private final BiConsumer<String, Integer> sink;
+
+        CursorProcessor(int count, CountDownLatch stolen, BiConsumer<String, Integer> sink) {
+            this.count = count;
+            this.stolen = stolen;
+            this.sink = sink;
+        }
+
+        @Override
+        public Optional<? extends TaskSchedule> initialize(VertexProcessorContext context) {
+            return Optionals.of(new BasicTaskSchedule(new CursorTaskInfo(0, count, stolen)));
+        }
+
+        @Override
+        public TaskProcessor createTaskProcessor() throws IOException, InterruptedException {
+            return c -> {
+                CursorTaskInfo info = c.getTaskInfo()
+                        .map(CursorTaskInfo.class::cast)
+                        .get();
+                // waits for the idle workers so that they steal the rest of this task
+                stolen.await(10, TimeUnit.SECONDS);
+                for (int i = info.next(); i >= 0; i = info.next()) {
+                    sink.accept(c.getTaskId(), i);
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Cursor(%,d)", count);
+        }
+    }
+
+    private static class CursorTaskInfo implements SplittableTaskInfo {
+
+        private final CountDownLatch stolen;
+
+        private int next;
+
+        private int end;
+
+        CursorTaskInfo(int begin, int end, CountDownLatch stolen) {
+            this.next = begin;
+            this.end = end;
+            this.stolen = stolen;
+        }
+
+        synchronized int next() {
+            return next < end ? next++ : -1;
+        }
+
+        @Override
+        public List<? extends TaskInfo> split() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public synchronized Optional<? extends TaskInfo> steal() {
+            if (end - next <= 1) {
+                return Optional.empty();
+            }
+            int middle = next + (end - next) / 2;
+            CursorTaskInfo result = new CursorTaskInfo(middle, end, stolen);
+            end = middle;
+            stolen.countDown();
+            return Optional.of(result);
+        }
+    }
+
     private static class InputProcessor implements VertexProcessor {
 
         static final String INPUT_NAME = "input";
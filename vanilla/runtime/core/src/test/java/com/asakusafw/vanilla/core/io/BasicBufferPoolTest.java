@@ -223,6 +223,57 @@ public class BasicBufferPoolTest {
         assertThat(pool.getSize(), is(0L));
     }
 
+    /**
+     * swap out on background threads.
+     * @throws Exception if failed
+     */
+    @Test
+    public void swapout_async() throws Exception {
+        ByteBuffer buffer = buffer("Hello, world!");
+        try (BasicBufferPool pool = new BasicBufferPool(buffer.capacity(), VoidStore.INSTANCE,
+                0, buffer.capacity(), 1)) {
+            try (DataReader.Provider e0 = pool.register(pool.reserve(buffer.capacity()), buffer)) {
+                assertThat(pool.getSize(), is((long) buffer.capacity()));
+                // exceeds the ceiling -> blocks until e0 is escaped
+                try (Ticket t1 = pool.reserve(1)) {
+                    assertThat(pool.getSize(), is(1L));
+                }
+                assertThat(VoidStore.isAlive(e0), is(false));
+                assertThat(read(e0), is("Hello, world!"));
+            }
+            assertThat(pool.getSize(), is(0L));
+            assertThat(pool.getEscapedSize(), is((long) buffer.capacity()));
+        }
+    }
+
+    /**
+     * swap out on background threads - until low watermark.
+     * @throws Exception if failed
+     */
+    @Test
+    public void swapout_async_watermark() throws Exception {
+        ByteBuffer buffer = buffer("Hello, world!");
+        int size = buffer.capacity();
+        try (BasicBufferPool pool = new BasicBufferPool(size * 3, VoidStore.INSTANCE, size + 1, size * 3, 1)) {
+            try (DataReader.Provider e0 = pool.register(pool.reserve(size), Buffers.duplicate(buffer), 3);
+                    DataReader.Provider e1 = pool.register(pool.reserve(size), Buffers.duplicate(buffer), 1);
+                    DataReader.Provider e2 = pool.register(pool.reserve(size), Buffers.duplicate(buffer), 2)) {
+                // exceeds the ceiling -> continues escaping until the pool size reaches the low watermark
+                try (Ticket t1 = pool.reserve(1)) {
+                    assertThat(pool.getSize(), is(lessThanOrEqualTo(size * 3L)));
+                    for (int i = 0; i < 100 && pool.getSize() > size + 1; i++) {
+                        Thread.sleep(100);
+                    }
+                    assertThat(pool.getSize(), is(size + 1L));
+                }
+                assertThat(VoidStore.isAlive(e0), is(true));
+                assertThat(VoidStore.isAlive(e1), is(false));
+                assertThat(VoidStore.isAlive(e2), is(false));
+            }
+            assertThat(pool.getSize(), is(0L));
+        }
+    }
+
     private static class VoidStore implements BufferStore {
         static final VoidStore INSTANCE = new VoidStore();
 
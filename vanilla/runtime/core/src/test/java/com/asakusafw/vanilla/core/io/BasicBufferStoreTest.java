@@ -22,8 +22,11 @@ import static org.junit.Assert.*;
 import java.io.File;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import com.asakusafw.lang.utils.common.Optionals;
 
@@ -32,6 +35,12 @@ import com.asakusafw.lang.utils.common.Optionals;
  */
 public class BasicBufferStoreTest {
 
+    /**
+     * temporary folder.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
     /**
      * simple case.
      * @throws Exception if failed
@@ -174,4 +183,312 @@ public class BasicBufferStoreTest {
         }
         assertThat(directory.exists(), is(false));
     }
+
+    /**
+     * w/ memory mapping.
+     * @throws Exception if failed
+     */
+    @Test
+    public void mapping() throws Exception {
+        File directory;
+        try (BasicBufferStore store = BasicBufferStore.builder()
+                .withMappingThreshold(0)
+                .build()) {
+            directory = store.getDirectory();
+            try (DataReader.Provider entry = store.store(buffer("Hello, world!"))) {
+                try (DataReader reader = entry.open()) {
+                    assertThat(reader.getBuffer(), is(notNullValue()));
+                }
+                assertThat(read(entry), is("Hello, world!"));
+                assertThat(read(entry), is("Hello, world!"));
+            }
+        }
+        assertThat(directory.exists(), is(false));
+    }
+
+    /**
+     * w/ memory mapping, but the files are smaller than the threshold.
+     * @throws Exception if failed
+     */
+    @Test
+    public void mapping_small() throws Exception {
+        try (BasicBufferStore store = BasicBufferStore.builder()
+                .withMappingThreshold(1024)
+                .build()) {
+            try (DataReader.Provider entry = store.store(buffer("Hello, world!"))) {
+                try (DataReader reader = entry.open()) {
+                    assertThat(reader.getBuffer(), is(nullValue()));
+                }
+                assertThat(read(entry), is("Hello, world!"));
+            }
+        }
+    }
+
+    /**
+     * w/ memory mapping, but the decorator transforms the contents.
+     * @throws Exception if failed
+     */
+    @Test
+    public void mapping_decorator() throws Exception {
+        try (BasicBufferStore store = BasicBufferStore.builder()
+                .withDecorator(new MockByteChannelDecorator())
+                .withMappingThreshold(0)
+                .build()) {
+            try (DataReader.Provider entry = store.store(buffer("Hello, world!"))) {
+                try (DataReader reader = entry.open()) {
+                    assertThat(reader.getBuffer(), is(nullValue()));
+                }
+                assertThat(read(entry), is("Hello, world!"));
+            }
+        }
+    }
+
+    /**
+     * using BlobStore w/ memory mapping.
+     * @throws Exception if failed
+     */
+    @Test
+    public void blob_mapping() throws Exception {
+        try (BasicBufferStore store = BasicBufferStore.builder()
+                .withDecorator(new BufferedByteChannelDecorator())
+                .withMappingThreshold(0)
+                .build()) {
+            BlobStore blobs = store.getBlobStore();
+            DataReader.Provider provider;
+            try (DataWriter writer = blobs.create()) {
+                writer.writeInt(100);
+                writer.writeInt(200);
+                writer.writeInt(300);
+                provider = blobs.commit(writer);
+            }
+            try (DataReader.Provider p = provider;
+                    DataReader reader = p.open()) {
+                assertThat(reader.getBuffer(), is(notNullValue()));
+                assertThat(reader.readInt(), is(100));
+                assertThat(reader.readInt(), is(200));
+                assertThat(reader.readInt(), is(300));
+            }
+        }
+    }
+
+    /**
+     * w/ segments.
+     * @throws Exception if failed
+     */
+    @Test
+    public void segment() throws Exception {
+        File directory;
+        try (BasicBufferStore store = BasicBufferStore.builder()
+                .withSegmentSize(1024)
+                .build()) {
+            directory = store.getDirectory();
+            try (DataReader.Provider c0 = store.store(buffer("Hello0"));
+                    DataReader.Provider c1 = store.store(buffer("Hello1"));
+                    DataReader.Provider c2 = store.store(buffer("Hello2"))) {
+                assertThat(read(c0), is("Hello0"));
+                assertThat(read(c1), is("Hello1"));
+                assertThat(read(c2), is("Hello2"));
+                assertThat(read(c1), is("Hello1"));
+                assertThat(files(directory), is(1));
+            }
+        }
+        assertThat(directory.exists(), is(false));
+    }
+
+    /**
+     * w/ segments - full segments are deleted after all entries are closed.
+     * @throws Exception if failed
+     */
+    @Test
+    public void segment_reclaim() throws Exception {
+        try (BasicBufferStore store = BasicBufferStore.builder()
+                .withSegmentSize(20)
+                .build()) {
+            File directory = store.getDirectory();
+            DataReader.Provider c0 = store.store(buffer("Hello0"));
+            DataReader.Provider c1 = store.store(buffer("Hello1"));
+            DataReader.Provider c2 = store.store(buffer("Hello2"));
+            assertThat(files(directory), is(2));
+
+            c0.close();
+            assertThat(files(directory), is(2));
+            assertThat(read(c1), is("Hello1"));
+            c1.close();
+            assertThat(files(directory), is(1));
+            assertThat(read(c2), is("Hello2"));
+            c2.close();
+        }
+    }
+
+    /**
+     * w/ segments - entries can be read after the segment was sealed.
+     * @throws Exception if failed
+     */
+    @Test
+    public void segment_open_reader() throws Exception {
+        try (BasicBufferStore store = BasicBufferStore.builder()
+                .withSegmentSize(1)
+                .build()) {
+            File directory = store.getDirectory();
+            DataReader.Provider c0 = store.store(buffer("Hello0"));
+            try (DataReader reader = c0.open()) {
+                c0.close();
+                assertThat(files(directory), is(1));
+                assertThat(read(reader), is("Hello0"));
+            }
+            assertThat(files(directory), is(0));
+        }
+    }
+
+    /**
+     * w/ segments and decorator.
+     * @throws Exception if failed
+     */
+    @Test
+    public void segment_decorator() throws Exception {
+        try (BasicBufferStore store = BasicBufferStore.builder()
+                .withDecorator(new MockByteChannelDecorator())
+                .withSegmentSize(1024)
+                .build()) {
+            try (DataReader.Provider c0 = store.store(buffer("Hello0"));
+                    DataReader.Provider c1 = store.store(buffer("Hello1"))) {
+                assertThat(read(c0), is("Hello0"));
+                assertThat(read(c1), is("Hello1"));
+            }
+        }
+    }
+
+    /**
+     * w/ segments and memory mapping.
+     * @throws Exception if failed
+     */
+    @Test
+    public void segment_mapping() throws Exception {
+        try (BasicBufferStore store = BasicBufferStore.builder()
+                .withSegmentSize(1024)
+                .withMappingThreshold(0)
+                .build()) {
+            try (DataReader.Provider c0 = store.store(buffer("Hello0"));
+                    DataReader.Provider c1 = store.store(buffer("Hello1"))) {
+                try (DataReader reader = c1.open()) {
+                    assertThat(reader.getBuffer(), is(notNullValue()));
+                }
+                assertThat(read(c0), is("Hello0"));
+                assertThat(read(c1), is("Hello1"));
+            }
+        }
+    }
+
+    /**
+     * using BlobStore w/ segments.
+     * @throws Exception if failed
+     */
+    @Test
+    public void segment_blob() throws Exception {
+        try (BasicBufferStore store = BasicBufferStore.builder()
+                .withSegmentSize(1024)
+                .build()) {
+            File directory = store.getDirectory();
+            BlobStore blobs = store.getBlobStore();
+            DataReader.Provider provider;
+            try (DataWriter writer = blobs.create()) {
+                writer.writeInt(100);
+                // the current segment is owned by the BLOB writer
+                try (DataReader.Provider c0 = store.store(buffer("Hello0"))) {
+                    assertThat(files(directory), is(2));
+                    assertThat(read(c0), is("Hello0"));
+                }
+                writer.writeInt(200);
+                writer.writeInt(300);
+                provider = blobs.commit(writer);
+            }
+            try (DataWriter writer = blobs.create()) {
+                // discarded
+                writer.writeInt(-1);
+            }
+            try (DataReader.Provider p = provider;
+                    DataReader.Provider c1 = store.store(buffer("Hello1"));
+                    DataReader reader = p.open()) {
+                assertThat(reader.readInt(), is(100));
+                assertThat(reader.readInt(), is(200));
+                assertThat(reader.readInt(), is(300));
+                assertThat(read(c1), is("Hello1"));
+            }
+        }
+    }
+
+    /**
+     * w/ multiple directories.
+     * @throws Exception if failed
+     */
+    @Test
+    public void stripe() throws Exception {
+        File a = folder.newFolder();
+        File b = folder.newFolder();
+        List<File> directories;
+        try (BasicBufferStore store = BasicBufferStore.builder()
+                .withDirectories(Arrays.asList(a, b))
+                .withConcurrency(1)
+                .build()) {
+            directories = store.getDirectories();
+            assertThat(directories, hasSize(2));
+            assertThat(store.getDirectory(), is(directories.get(0)));
+            try (DataReader.Provider c0 = store.store(buffer("Hello0"));
+                    DataReader.Provider c1 = store.store(buffer("Hello1"));
+                    DataReader.Provider c2 = store.store(buffer("Hello2"));
+                    DataReader.Provider c3 = store.store(buffer("Hello3"))) {
+                assertThat(read(c0), is("Hello0"));
+                assertThat(read(c1), is("Hello1"));
+                assertThat(read(c2), is("Hello2"));
+                assertThat(read(c3), is("Hello3"));
+                assertThat(files(directories.get(0)), is(2));
+                assertThat(files(directories.get(1)), is(2));
+            }
+            store.report();
+        }
+        assertThat(directories.get(0).exists(), is(false));
+        assertThat(directories.get(1).exists(), is(false));
+    }
+
+    /**
+     * w/ multiple directories and segments.
+     * @throws Exception if failed
+     */
+    @Test
+    public void stripe_segment() throws Exception {
+        File a = folder.newFolder();
+        File b = folder.newFolder();
+        List<File> directories;
+        try (BasicBufferStore store = BasicBufferStore.builder()
+                .withDirectories(Arrays.asList(a, b))
+                .withSegmentSize(1024)
+                .build()) {
+            directories = store.getDirectories();
+            BlobStore blobs = store.getBlobStore();
+            DataReader.Provider provider;
+            try (DataWriter writer = blobs.create()) {
+                writer.writeInt(100);
+                provider = blobs.commit(writer);
+            }
+            try (DataReader.Provider p = provider;
+                    DataReader.Provider c0 = store.store(buffer("Hello0"));
+                    DataReader.Provider c1 = store.store(buffer("Hello1"));
+                    DataReader reader = p.open()) {
+                assertThat(reader.readInt(), is(100));
+                assertThat(read(c0), is("Hello0"));
+                assertThat(read(c1), is("Hello1"));
+                assertThat(files(directories.get(0)), is(1));
+                assertThat(files(directories.get(1)), is(1));
+            }
+        }
+        assertThat(directories.get(0).exists(), is(false));
+        assertThat(directories.get(1).exists(), is(false));
+    }
+
+    private static int files(File directory) {
+        return Optionals.of(directory.listFiles())
+                .map(Arrays::asList)
+                .orElse(Collections.emptyList())
+                .size();
+    }
 }
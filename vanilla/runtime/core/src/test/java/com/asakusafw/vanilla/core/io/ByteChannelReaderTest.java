@@ -55,4 +55,21 @@ public class ByteChannelReaderTest {
             assertThat(read(reader), is(value));
         }
     }
+
+    /**
+     * w/ memory mapping.
+     * @throws Exception if failed
+     */
+    @Test
+    public void map() throws Exception {
+        String value = "Hello, world!";
+        File file = folder.newFile();
+        try (WritableByteChannel channel = Files.newByteChannel(file.toPath(), StandardOpenOption.WRITE)) {
+            channel.write(buffer(value));
+        }
+        try (DataReader reader = ByteChannelReader.map(file.toPath())) {
+            assertThat(reader.getBuffer(), is(notNullValue()));
+            assertThat(read(reader), is(value));
+        }
+    }
 }
@@ -137,6 +137,64 @@ public class KeyValuePartitionerTest {
         assertThat(committed(), is(inputs));
     }
 
+    /**
+     * w/ custom strategy.
+     * @throws Exception if failed
+     */
+    @Test
+    public void strategy() throws Exception {
+        KeyValueSink.Stream stream = KeyValuePartitioner.stream(
+                channels.subList(0, 4),
+                (key, partitions) -> key.getInt(key.position()) % partitions,
+                null);
+        try (KeyValueSink sink = stream.offer(3, Integer.BYTES * 3, bytes("HelloN").length * 3)) {
+            put(sink, 1, "Hello1");
+            put(sink, 2, "Hello2");
+            put(sink, 6, "Hello6");
+        }
+        assertThat(channels.get(0).getCommitted(), hasSize(0));
+        assertThat(channels.get(1).getCommitted(), hasSize(1));
+        assertThat(channels.get(2).getCommitted(), hasSize(1));
+        assertThat(channels.get(3).getCommitted(), hasSize(0));
+        assertThat(committed(), is(Arrays.asList(
+                new Tuple<>(1, "Hello1"),
+                new Tuple<>(2, "Hello2"),
+                new Tuple<>(6, "Hello6"))));
+    }
+
+    /**
+     * collect statistics.
+     * @throws Exception if failed
+     */
+    @Test
+    public void statistics() throws Exception {
+        KeyValuePartitioner.Statistics statistics = new KeyValuePartitioner.Statistics(2);
+        KeyValueSink.Stream stream = KeyValuePartitioner.stream(
+                channels.subList(0, 2),
+                (key, partitions) -> key.getInt(key.position()) % partitions,
+                statistics);
+        try (KeyValueSink sink = stream.offer(4, Integer.BYTES * 2, bytes("HelloN").length * 4)) {
+            put(sink, 0, "Hello1");
+            put(sink, "Hello2");
+            put(sink, "Hello3");
+            put(sink, 1, "Hello4");
+        }
+        try (KeyValueSink sink = stream.offer(2, Integer.BYTES * 2, bytes("HelloN").length * 2)) {
+            put(sink, 2, "Hello5");
+            put(sink, 3, "Hello6");
+        }
+        int kSize = Integer.BYTES;
+        int vSize = bytes("HelloN").length;
+        assertThat(statistics.getRecords()[0], is(4L));
+        assertThat(statistics.getRecords()[1], is(2L));
+        assertThat(statistics.getBytes()[0], is((long) kSize * 2 + vSize * 4));
+        assertThat(statistics.getBytes()[1], is((long) kSize * 2 + vSize * 2));
+        assertThat(statistics.getMaxGroupBytes()[0], is((long) kSize + vSize * 3));
+        assertThat(statistics.getMaxGroupBytes()[1], is((long) kSize + vSize));
+        assertThat(statistics.getSkew(), closeTo(
+                (double) (kSize * 2 + vSize * 4) * 2 / (kSize * 4 + vSize * 6), 0.001));
+    }
+
     private static void put(KeyValueSink sink, int key, String value) throws IOException, InterruptedException {
         byte[] bytes = bytes(value);
         ByteBuffer kBuf = Buffers.allocate(Integer.BYTES);
@@ -0,0 +1,108 @@
+/**
+ * Copyright 2011-2019 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.vanilla.core.io;
+
+import static com.asakusafw.vanilla.core.testing.BufferTestUtil.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Test;
+
+import com.asakusafw.vanilla.core.io.PartitionStrategy.Basic;
+
+/**
+ * Test for {@link PartitionStrategy}.
+ */
+public class PartitionStrategyTest {
+
+    /**
+     * murmur3 - known values.
+     */
+    @Test
+    public void murmur3() {
+        assertThat(Basic.murmur3(ByteBuffer.wrap(bytes("aaaa"))), is(0x5a97808a));
+        assertThat(Basic.murmur3(ByteBuffer.wrap(bytes("Hello, world!"))), is(0x24884cba));
+        assertThat(Basic.murmur3(ByteBuffer.wrap(bytes("The quick brown fox jumps over the lazy dog"))),
+                is(0x2fa826cd));
+    }
+
+    /**
+     * murmur3 - w/ buffer position and byte order.
+     */
+    @Test
+    public void murmur3_range() {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes("?Hello, world!?"));
+        buffer.position(1).limit(buffer.limit() - 1);
+        assertThat(Basic.murmur3(buffer), is(0x24884cba));
+        assertThat(buffer.position(), is(1));
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        assertThat(Basic.murmur3(buffer), is(0x24884cba));
+    }
+
+    /**
+     * murmur3 - distributes short numeric keys.
+     */
+    @Test
+    public void murmur3_distribution() {
+        int partitions = 16;
+        int[] counts = new int[partitions];
+        ByteBuffer key = ByteBuffer.allocate(Integer.BYTES);
+        int records = 16_000;
+        for (int i = 0; i < records; i++) {
+            key.clear();
+            key.putInt(i * partitions).flip();
+            counts[Basic.MURMUR3.getPartition(key, partitions)]++;
+        }
+        for (int count : counts) {
+            assertThat(count, is(allOf(
+                    greaterThan(records / partitions / 2),
+                    lessThan(records / partitions * 2))));
+        }
+    }
+
+    /**
+     * resolve strategies.
+     */
+    @Test
+    public void of() {
+        ClassLoader loader = getClass().getClassLoader();
+        assertThat(PartitionStrategy.of("murmur3", loader), is(Basic.MURMUR3));
+        assertThat(PartitionStrategy.of("HASH_CODE", loader), is(Basic.HASH_CODE));
+        assertThat(PartitionStrategy.of(Constant.class.getName(), loader), is(instanceOf(Constant.class)));
+    }
+
+    /**
+     * resolve strategies - invalid.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void of_invalid() {
+        PartitionStrategy.of(String.class.getName(), getClass().getClassLoader());
+    }
+
+    /**
+     * A constant partition strategy.
+     */
+    public static class Constant implements PartitionStrategy {
+
+        @Override
+        public int getPartition(ByteBuffer key, int numberOfPartitions) {
+            return 0;
+        }
+    }
+}
@@ -18,17 +18,22 @@ package com.asakusafw.vanilla.core.io;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
+import java.io.DataOutput;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Random;
 import java.util.function.IntConsumer;
 
 import org.junit.Test;
 
+import com.asakusafw.dag.api.common.KeyValueSerializer;
 import com.asakusafw.lang.utils.common.Lang;
 import com.asakusafw.vanilla.core.testing.ShortPairSerDe;
+import com.asakusafw.vanilla.core.util.Buffers;
 
 /**
  * Test for {@link StreamGroupWriter}.
@@ -173,6 +178,72 @@ public class StreamGroupWriterTest {
         }
     }
 
+    /**
+     * records with variable length keys should be sorted.
+     * @throws Exception if failed
+     */
+    @Test
+    public void sorted_variable_keys() throws Exception {
+        byte[] alphabet = { 0, 1, 0x7f, (byte) 0x80, (byte) 0xff };
+        List<byte[]> inputs = new ArrayList<>();
+        Random rnd = new Random(6502);
+        for (int i = 0; i < 10_000; i++) {
+            byte[] key = new byte[rnd.nextInt(13)];
+            for (int j = 0; j < key.length; j++) {
+                key[j] = alphabet[rnd.nextInt(alphabet.length)];
+            }
+            byte[] record = Arrays.copyOf(key, key.length + Integer.BYTES);
+            ByteBuffer.wrap(record).putInt(key.length, i);
+            inputs.add(record);
+        }
+        List<byte[]> results = new ArrayList<>();
+        KeyValueSerializer serializer = new KeyValueSerializer() {
+            @Override
+            public void serializeKey(Object object, DataOutput output) throws IOException {
+                byte[] record = (byte[]) object;
+                output.write(record, 0, record.length - Integer.BYTES);
+            }
+            @Override
+            public void serializeValue(Object object, DataOutput output) throws IOException {
+                byte[] record = (byte[]) object;
+                output.write(record, record.length - Integer.BYTES, Integer.BYTES);
+            }
+        };
+        try (StreamGroupWriter writer = new StreamGroupWriter(
+                (records, keySize, valueSize) -> new KeyValueSink() {
+                    private ByteBuffer lastKey;
+                    @Override
+                    public void accept(ByteBuffer key, ByteBuffer value) {
+                        lastKey = Buffers.duplicate(key);
+                        accept(value);
+                    }
+                    @Override
+                    public boolean accept(ByteBuffer value) {
+                        byte[] record = new byte[lastKey.remaining() + value.remaining()];
+                        ByteBuffer.wrap(record).put(Buffers.duplicate(lastKey)).put(value);
+                        results.add(record);
+                        return true;
+                    }
+                    @Override
+                    public void close() {
+                        return;
+                    }
+                },
+                serializer, null,
+                1_000_000, inputs.size())) {
+            for (byte[] o : inputs) {
+                writer.putObject(o);
+            }
+        }
+        // stable sort by keys
+        List<byte[]> expected = new ArrayList<>(inputs);
+        expected.sort(Comparator.comparing(r -> ByteBuffer.wrap(r, 0, r.length - Integer.BYTES).slice()));
+        assertThat(results, hasSize(expected.size()));
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(results.get(i), is(expected.get(i)));
+        }
+    }
+
     private static List<Integer> sort(List<Integer> values) {
         values.sort(ShortPairSerDe.comparator());
         return values;